@@ -25,6 +25,7 @@
  */
 package de.mindscan.furiousiron.core;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
 
 import de.mindscan.furiousiron.core.ast.CoreQueryNode;
 import de.mindscan.furiousiron.core.ast.EmptyCoreNode;
+import de.mindscan.furiousiron.core.ast.OrCoreNode;
 import de.mindscan.furiousiron.core.ast.TrigramsCoreNode;
 import de.mindscan.furiousiron.query.ast.AndNode;
 import de.mindscan.furiousiron.query.ast.EmptyNode;
@@ -71,11 +73,10 @@ public class CoreSearchCompiler {
             return new TrigramsCoreNode( ast.getContent().toLowerCase() );
         }
 
-        // TODO: also support phrases
         if (ast instanceof ExactMatchingTextNode) {
-            // ATTENTION: this will not work for phrases
-            // FOR PHRASES we need to segment it into words and produce multiple trigrams
-            // FOR PHRASES it is essentially an AND list /see andnode-processing.
+            // the content trigrams are taken from whole lines, so a document containing a phrase contains 
+            // all trigrams of the phrase, including the separators between its words. Whether the trigrams 
+            // are adjacent, is checked by the phrase operator of the query planner.
             return new TrigramsCoreNode( ast.getContent().toLowerCase() );
         }
 
@@ -96,8 +97,14 @@ public class CoreSearchCompiler {
         }
 
         if (ast instanceof OrNode) {
-            // We really don't support Or nodes right now.
-            throw new RuntimeException( "Or Optimization is not implemented yet" );
+            // the trigrams shared by all alternatives are the trigrams of the or node, the alternatives 
+            // themselves are united by the query planner.
+            List<CoreQueryNode> alternatives = new ArrayList<>();
+            for (QueryNode queryNode : ast.getChildren()) {
+                alternatives.add( compile( queryNode ) );
+            }
+
+            return new OrCoreNode( alternatives );
         }
 
         if (ast instanceof ExcludingNode) {
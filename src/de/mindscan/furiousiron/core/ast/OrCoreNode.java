@@ -0,0 +1,99 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.ast;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * An OrCoreNode represents a CoreQuery for item candidates which match any of 
+ * its children.
+ * 
+ * The tri-grams of this node are the tri-grams shared by all children, because
+ * each candidate must contain them, whichever child it matches. So the shared 
+ * tri-grams are intersected once, before the children are united.
+ */
+public class OrCoreNode implements CoreQueryNode {
+
+    private final List<CoreQueryNode> children;
+
+    public OrCoreNode( List<CoreQueryNode> children ) {
+        this.children = new ArrayList<>( children );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasChildren() {
+        return !children.isEmpty();
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<CoreQueryNode> getChildren() {
+        return children;
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * Returns the tri-grams shared by all children.
+     */
+    @Override
+    public Collection<String> getTrigrams() {
+        return getSharedTrigrams( CoreQueryNode::getTrigrams );
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * Returns the metadata tri-grams shared by all children.
+     */
+    @Override
+    public Collection<String> getMetadataTrigrams() {
+        return getSharedTrigrams( CoreQueryNode::getMetadataTrigrams );
+    }
+
+    private Collection<String> getSharedTrigrams( Function<CoreQueryNode, Collection<String>> trigramsOfChild ) {
+        if (children.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<String> sharedTrigrams = trigramsOfChild.apply( children.get( 0 ) ).stream().collect( Collectors.toSet() );
+        for (CoreQueryNode child : children.subList( 1, children.size() )) {
+            sharedTrigrams.retainAll( trigramsOfChild.apply( child ) );
+        }
+        return sharedTrigrams;
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Produces all documents of the index. This is the plan of a query part, which doesn't restrict the 
+ * candidates, e.g. a word shorter than a trigram or an exclusion, which is verified later.
+ */
+public class AllDocumentsPlanNode extends PlanNode {
+
+    private final long numberOfDocuments;
+
+    public AllDocumentsPlanNode( long numberOfDocuments ) {
+        this.numberOfDocuments = numberOfDocuments;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return numberOfDocuments;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        return numberOfDocuments;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        return context.getAllDocuments();
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "ALL DOCUMENTS";
+    }
+
+}
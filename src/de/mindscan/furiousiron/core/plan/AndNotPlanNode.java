@@ -0,0 +1,128 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Produces the documents of the positive input, which are not contained in the negative input. The 
+ * negative input must only contain documents, which certainly match the excluded part of the query, 
+ * otherwise matching documents would be lost.
+ */
+public class AndNotPlanNode extends PlanNode {
+
+    private final PlanNode positive;
+    private final PlanNode negative;
+    private final JoinStrategy strategy;
+    private final long estimatedCardinality;
+    private final double estimatedCost;
+
+    /**
+     * @param positive the candidates
+     * @param negative the documents to remove from the candidates
+     * @param strategy the strategy to remove the documents of the negative input
+     * @param estimatedCardinality the estimated number of remaining documents
+     * @param estimatedCost the estimated cost including both inputs
+     */
+    public AndNotPlanNode( PlanNode positive, PlanNode negative, JoinStrategy strategy, long estimatedCardinality, double estimatedCost ) {
+        this.positive = positive;
+        this.negative = negative;
+        this.strategy = strategy;
+        this.estimatedCardinality = estimatedCardinality;
+        this.estimatedCost = estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return estimatedCardinality;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PlanNode> getInputs() {
+        return Arrays.asList( positive, negative );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected JoinStrategy getInputStrategy( int index ) {
+        return index == 0 ? null : strategy;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        DocumentBitmap candidates = positive.execute( context );
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        switch (strategy) {
+            case GALLOPING:
+                // only the excluded candidates are looked up in the posting list
+                return candidates.andNot( negative.retain( candidates, context ) );
+            case HASH:
+                return IntersectPlanNode.probe( candidates, negative.execute( context ), false );
+            case MERGE:
+                int[] excluded = SortedOrdinals.intersect( candidates.toSortedOrdinals(), negative.executeToSortedOrdinals( context ) );
+                return candidates.andNot( DocumentBitmap.fromSortedOrdinals( excluded ) );
+            case BITMAP:
+                return candidates.andNot( negative.execute( context ) );
+            default:
+                throw new IllegalArgumentException( "Unknown join strategy: " + strategy );
+        }
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "AND NOT";
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Produces the documents, which certainly contain a term. These are the documents containing all 
+ * trigrams of the term, which are confirmed by the word dictionary of the index. A document, which 
+ * can't be confirmed, e.g. because it was indexed after the word dictionary was built, is not produced,
+ * so this is the negative input of an and-not operator for an excluded term. The candidates, which 
+ * were not removed, are verified later.
+ */
+public class ConfirmedTermPlanNode extends PlanNode {
+
+    private final String term;
+    private final PlanNode trigramsOfTerm;
+    private final double estimatedCost;
+
+    /**
+     * @param term the term
+     * @param trigramsOfTerm the posting list or the intersection of the posting lists of the trigrams of the term
+     * @param estimatedCost the estimated cost to confirm all documents containing the trigrams
+     */
+    public ConfirmedTermPlanNode( String term, PlanNode trigramsOfTerm, double estimatedCost ) {
+        this.term = term;
+        this.trigramsOfTerm = trigramsOfTerm;
+        this.estimatedCost = estimatedCost;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public int getNumberOfTrigrams() {
+        return (trigramsOfTerm instanceof TrigramPlanNode) ? 1 : trigramsOfTerm.getInputs().size();
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * The number of documents containing all trigrams is an upper bound.
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return trigramsOfTerm.getEstimatedCardinality();
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PlanNode> getInputs() {
+        return Collections.singletonList( trigramsOfTerm );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        return context.confirmDocumentsContainingTerm( trigramsOfTerm.execute( context ), term );
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * The candidates are looked up in the posting lists of the trigrams first, only the candidates 
+     * containing all trigrams are confirmed by the word dictionary.
+     */
+    @Override
+    public DocumentBitmap retain( DocumentBitmap candidates, QueryPlanContext context ) {
+        DocumentBitmap containingTrigrams = candidates;
+
+        List<PlanNode> trigrams = (trigramsOfTerm instanceof TrigramPlanNode) ? Collections.singletonList( trigramsOfTerm ) : trigramsOfTerm.getInputs();
+        for (PlanNode trigram : trigrams) {
+            if (containingTrigrams.isEmpty()) {
+                return containingTrigrams;
+            }
+            containingTrigrams = trigram.retain( containingTrigrams, context );
+        }
+
+        return context.confirmDocumentsContainingTerm( containingTrigrams, term );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "CONFIRMED TERM '" + term + "'";
+    }
+
+}
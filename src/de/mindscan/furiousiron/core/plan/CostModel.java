@@ -0,0 +1,217 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estimates the number of documents produced by the plan operators and chooses the cheapest strategy 
+ * to combine the candidates of an operator with one of its inputs.
+ * 
+ * The estimates assume, that the trigrams occur independently of each other. This underestimates the
+ * result of correlated trigrams, like the trigrams of the same word, but it is good enough to order 
+ * the inputs by their selectivity. The costs are measured in the number of ordinals, which are decoded 
+ * or compared.
+ */
+public class CostModel {
+
+    // each lookup reads the skip table and decodes a part of a segment of the posting list
+    private static final double SKIP_LOOKUP_COST = 4.0;
+
+    // each probe is a binary search in a container of the bitmap
+    private static final double HASH_PROBE_COST = 4.0;
+
+    // each confirmation looks up the words of a document in the word dictionary
+    private static final double WORD_CHECK_COST = 16.0;
+
+    // each document of a positional posting has a few positions to decode
+    private static final double POSITIONS_DECODE_COST = 8.0;
+
+    // a bitmap operation on dense containers combines 64 documents at once
+    private static final double BITMAP_WORD_SIZE = 64.0;
+
+    // a set is dense, if it contains more than this fraction of all documents
+    private static final int DENSE_SET_FRACTION = 32;
+
+    private final long numberOfDocuments;
+
+    /**
+     * @param numberOfDocuments the number of documents in the index
+     */
+    public CostModel( long numberOfDocuments ) {
+        this.numberOfDocuments = numberOfDocuments;
+    }
+
+    public long getNumberOfDocuments() {
+        return numberOfDocuments;
+    }
+
+    public long estimateIntersection( long left, long right ) {
+        if (numberOfDocuments <= 0L) {
+            return Math.min( left, right );
+        }
+        long estimate = (long) Math.ceil( (double) left * (double) right / numberOfDocuments );
+        return Math.min( estimate, Math.min( left, right ) );
+    }
+
+    public long estimateUnion( long left, long right ) {
+        return left + right - estimateIntersection( left, right );
+    }
+
+    public long estimateDifference( long positive, long negative ) {
+        return positive - estimateIntersection( positive, negative );
+    }
+
+    /**
+     * @param trigramsOfTerm the plan of the trigrams of the term
+     * @return the estimated cost to confirm all documents containing the trigrams of the term
+     */
+    public double estimateConfirmationCost( PlanNode trigramsOfTerm ) {
+        return trigramsOfTerm.getEstimatedCost() + trigramsOfTerm.getEstimatedCardinality() * WORD_CHECK_COST;
+    }
+
+    /**
+     * @param trigramsOfPhrase the plan of the trigrams of the phrase
+     * @return the estimated cost to find the documents containing the phrase
+     */
+    public double estimatePhraseCost( PlanNode trigramsOfPhrase ) {
+        // the positional postings of the trigrams are read completely
+        long decodedDocuments = 0L;
+        List<PlanNode> trigrams = (trigramsOfPhrase instanceof TrigramPlanNode) ? Collections.singletonList( trigramsOfPhrase ) : trigramsOfPhrase.getInputs();
+        for (PlanNode trigram : trigrams) {
+            decodedDocuments += trigram.getEstimatedCardinality();
+        }
+
+        return trigramsOfPhrase.getEstimatedCost() + decodedDocuments * POSITIONS_DECODE_COST;
+    }
+
+    public boolean isDense( long cardinality ) {
+        return cardinality * DENSE_SET_FRACTION > numberOfDocuments;
+    }
+
+    /**
+     * Estimates the cost to combine the candidates with the input, including the cost of the input.
+     * 
+     * @param strategy the strategy
+     * @param candidates the estimated number of candidates
+     * @param input the input
+     * @return the estimated cost
+     */
+    public double estimateJoinCost( JoinStrategy strategy, long candidates, PlanNode input ) {
+        long inputCardinality = input.getEstimatedCardinality();
+        boolean isPostingList = input instanceof TrigramPlanNode;
+
+        if (input instanceof ConfirmedTermPlanNode) {
+            // only the candidates are looked up in the posting lists of the term and are confirmed
+            return candidates * (SKIP_LOOKUP_COST * ((ConfirmedTermPlanNode) input).getNumberOfTrigrams() + WORD_CHECK_COST);
+        }
+
+        switch (strategy) {
+            case GALLOPING:
+                // the posting list is not decoded completely
+                return SKIP_LOOKUP_COST * candidates * (1.0 + log2( 1.0 + (double) inputCardinality / Math.max( candidates, 1L ) ));
+            case HASH:
+                return input.getEstimatedCost() + HASH_PROBE_COST * candidates;
+            case MERGE:
+                // the candidates and a combined input are converted into arrays first
+                return input.getEstimatedCost() + 2.0 * candidates + (isPostingList ? 0.0 : inputCardinality) + inputCardinality;
+            case BITMAP:
+                // a posting list is converted into a bitmap first
+                double bitmapCost = isDense( candidates ) && isDense( inputCardinality ) ? (candidates + inputCardinality) / BITMAP_WORD_SIZE
+                                : candidates + inputCardinality;
+                return input.getEstimatedCost() + (isPostingList ? inputCardinality : 0.0) + bitmapCost;
+            default:
+                throw new IllegalArgumentException( "Unknown join strategy: " + strategy );
+        }
+    }
+
+    /**
+     * Chooses the cheapest strategy to combine the candidates with the input. Galloping is only possible
+     * for a posting list, which has a skip table, probing is only used for a combined input.
+     * 
+     * @param candidates the estimated number of candidates
+     * @param input the input
+     * @return the cheapest strategy
+     */
+    public JoinStrategy chooseJoinStrategy( long candidates, PlanNode input ) {
+        if (input instanceof ConfirmedTermPlanNode) {
+            // confirming all documents of the term would be much more expensive than the candidates
+            return JoinStrategy.GALLOPING;
+        }
+
+        boolean isPostingList = input instanceof TrigramPlanNode;
+
+        JoinStrategy cheapestStrategy = null;
+        double cheapestCost = Double.MAX_VALUE;
+        for (JoinStrategy strategy : JoinStrategy.values()) {
+            if ((strategy == JoinStrategy.GALLOPING && !isPostingList) || (strategy == JoinStrategy.HASH && isPostingList)) {
+                continue;
+            }
+
+            double cost = estimateJoinCost( strategy, candidates, input );
+            if (cost < cheapestCost) {
+                cheapestCost = cost;
+                cheapestStrategy = strategy;
+            }
+        }
+
+        return cheapestStrategy;
+    }
+
+    /**
+     * Chooses the strategy to combine the alternatives of a union. Sparse alternatives are merged as 
+     * sorted arrays, a dense union is combined as bitmaps.
+     * 
+     * @param estimatedCardinality the estimated size of the union
+     * @return the strategy
+     */
+    public JoinStrategy chooseUnionStrategy( long estimatedCardinality ) {
+        return isDense( estimatedCardinality ) ? JoinStrategy.BITMAP : JoinStrategy.MERGE;
+    }
+
+    public double estimateUnionCost( JoinStrategy strategy, List<PlanNode> inputs ) {
+        double cost = 0.0;
+        long totalCardinality = 0L;
+        for (PlanNode input : inputs) {
+            cost += input.getEstimatedCost();
+            totalCardinality += input.getEstimatedCardinality();
+        }
+
+        if (strategy == JoinStrategy.MERGE && inputs.size() > 2) {
+            // each ordinal passes the heap of the k-way merge
+            return cost + totalCardinality * log2( inputs.size() );
+        }
+
+        // each alternative is read and added once
+        return cost + totalCardinality;
+    }
+
+    private static double log2( double value ) {
+        return Math.log( value ) / Math.log( 2.0 );
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Produces the documents contained in all inputs. The first input is the most selective one and 
+ * provides the candidates, every further input removes candidates using its own strategy. The 
+ * remaining inputs are not executed anymore, once no candidate is left.
+ */
+public class IntersectPlanNode extends PlanNode {
+
+    private final List<PlanNode> inputs;
+    private final List<JoinStrategy> strategies;
+    private final long estimatedCardinality;
+    private final double estimatedCost;
+
+    /**
+     * @param inputs the inputs ordered by their selectivity
+     * @param strategies the strategy for each input, except the first one
+     * @param estimatedCardinality the estimated number of documents contained in all inputs
+     * @param estimatedCost the estimated cost of the intersection including its inputs
+     */
+    public IntersectPlanNode( List<PlanNode> inputs, List<JoinStrategy> strategies, long estimatedCardinality, double estimatedCost ) {
+        if (strategies.size() != inputs.size() - 1) {
+            throw new IllegalArgumentException( "Each input except the first one requires a strategy." );
+        }
+
+        this.inputs = new ArrayList<>( inputs );
+        this.strategies = new ArrayList<>( strategies );
+        this.estimatedCardinality = estimatedCardinality;
+        this.estimatedCost = estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return estimatedCardinality;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PlanNode> getInputs() {
+        return inputs;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected JoinStrategy getInputStrategy( int index ) {
+        return index == 0 ? null : strategies.get( index - 1 );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        DocumentBitmap candidates = inputs.get( 0 ).execute( context );
+
+        for (int i = 1; i < inputs.size(); i++) {
+            if (candidates.isEmpty()) {
+                // nothing left to reduce
+                break;
+            }
+
+            candidates = intersect( candidates, inputs.get( i ), strategies.get( i - 1 ), context );
+        }
+
+        return candidates;
+    }
+
+    static DocumentBitmap intersect( DocumentBitmap candidates, PlanNode input, JoinStrategy strategy, QueryPlanContext context ) {
+        switch (strategy) {
+            case GALLOPING:
+                return input.retain( candidates, context );
+            case HASH:
+                return probe( candidates, input.execute( context ), true );
+            case MERGE:
+                return DocumentBitmap
+                                .fromSortedOrdinals( SortedOrdinals.intersect( candidates.toSortedOrdinals(), input.executeToSortedOrdinals( context ) ) );
+            case BITMAP:
+                return candidates.and( input.execute( context ) );
+            default:
+                throw new IllegalArgumentException( "Unknown join strategy: " + strategy );
+        }
+    }
+
+    // keeps the candidates, which are (or are not) contained in the documents 
+    static DocumentBitmap probe( DocumentBitmap candidates, DocumentBitmap documents, boolean retainContained ) {
+        DocumentBitmap result = new DocumentBitmap();
+        candidates.forEach( candidate -> {
+            if (documents.contains( candidate ) == retainContained) {
+                result.add( candidate );
+            }
+        } );
+        return result;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "INTERSECT";
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+/**
+ * The algorithms to combine the candidates of a plan operator with the documents of one of its inputs.
+ */
+public enum JoinStrategy {
+
+    /**
+     * Each candidate is probed in the materialized input. This is used, when there are only a few 
+     * candidates, but the input is a large combined set, which is not a single posting list.
+     */
+    HASH,
+
+    /**
+     * The candidates and the input are merged as sorted arrays of ordinals. This is used for sparse 
+     * inputs of similar size.
+     */
+    MERGE,
+
+    /**
+     * Each candidate is looked up in the posting list using its skip table, so only the segments 
+     * containing candidates are decoded. This is used, when the posting list is much longer than the 
+     * candidate set.
+     */
+    GALLOPING,
+
+    /**
+     * The candidates and the input are combined as compressed bitmaps. This is used for dense inputs.
+     */
+    BITMAP
+
+}
@@ -0,0 +1,102 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Produces the documents containing a phrase. The documents containing all trigrams of the phrase are 
+ * the candidates, the positions of the trigrams are checked for adjacency within the candidates. Only 
+ * candidates without recorded positions, e.g. because there is no positional index, are produced 
+ * unchecked and are verified later.
+ */
+public class PhrasePlanNode extends PlanNode {
+
+    private final String phrase;
+    private final PlanNode trigramsOfPhrase;
+    private final double estimatedCost;
+
+    /**
+     * @param phrase the lower case phrase
+     * @param trigramsOfPhrase the posting list or the intersection of the posting lists of the trigrams of the phrase
+     * @param estimatedCost the estimated cost to check the positions of the candidates
+     */
+    public PhrasePlanNode( String phrase, PlanNode trigramsOfPhrase, double estimatedCost ) {
+        this.phrase = phrase;
+        this.trigramsOfPhrase = trigramsOfPhrase;
+        this.estimatedCost = estimatedCost;
+    }
+
+    public String getPhrase() {
+        return phrase;
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * The number of documents containing all trigrams is an upper bound.
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return trigramsOfPhrase.getEstimatedCardinality();
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PlanNode> getInputs() {
+        return Collections.singletonList( trigramsOfPhrase );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        return context.retainDocumentsContainingPhrase( trigramsOfPhrase.execute( context ), phrase );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "PHRASE '" + phrase + "'";
+    }
+
+}
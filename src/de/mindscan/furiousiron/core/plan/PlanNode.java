@@ -0,0 +1,150 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * An operator of an executable query plan. Each operator knows the estimated number of documents it 
+ * produces and the estimated cost to produce them, both are derived from the document counts of the 
+ * trigrams. After the execution the operator also knows the actual number of documents it produced.
+ */
+public abstract class PlanNode {
+
+    public static final long NOT_EXECUTED = -1L;
+
+    private long actualCardinality = NOT_EXECUTED;
+
+    /**
+     * @return the estimated number of documents produced by this operator
+     */
+    public abstract long getEstimatedCardinality();
+
+    /**
+     * @return the estimated cost to execute this operator including its inputs, roughly the number of 
+     *         ordinals, which are decoded or compared
+     */
+    public abstract double getEstimatedCost();
+
+    /**
+     * @return the inputs of this operator
+     */
+    public List<PlanNode> getInputs() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Executes this operator and its inputs.
+     * 
+     * @param context the index
+     * @return the documents produced by this operator
+     */
+    public DocumentBitmap execute( QueryPlanContext context ) {
+        DocumentBitmap result = executeInternal( context );
+        recordActualCardinality( result.getCardinality() );
+        return result;
+    }
+
+    /**
+     * Executes this operator and its inputs.
+     * 
+     * @param context the index
+     * @return the strictly increasing ordinals of the documents produced by this operator
+     */
+    public int[] executeToSortedOrdinals( QueryPlanContext context ) {
+        return execute( context ).toSortedOrdinals();
+    }
+
+    protected abstract DocumentBitmap executeInternal( QueryPlanContext context );
+
+    /**
+     * Retains the candidates, which are produced by this operator, without executing it completely.
+     * 
+     * @param candidates the candidates
+     * @param context the index
+     * @return the candidates produced by this operator
+     * @throws UnsupportedOperationException if the operator can't look up single candidates
+     */
+    public DocumentBitmap retain( DocumentBitmap candidates, QueryPlanContext context ) {
+        throw new UnsupportedOperationException( "The candidates can't be looked up in: " + describe() );
+    }
+
+    protected void recordActualCardinality( long cardinality ) {
+        this.actualCardinality = cardinality;
+    }
+
+    /**
+     * @return the number of documents produced by the last execution or {@link #NOT_EXECUTED}
+     */
+    public long getActualCardinality() {
+        return actualCardinality;
+    }
+
+    /**
+     * @return a short description of this operator for the explain output
+     */
+    protected abstract String describe();
+
+    /**
+     * @param index the index of the input
+     * @return the strategy used to combine the input, <code>null</code> if the input is not combined by a strategy
+     */
+    protected JoinStrategy getInputStrategy( int index ) {
+        return null;
+    }
+
+    /**
+     * Appends this operator and its inputs to the explain output, one operator per line.
+     * 
+     * @param explanation the explain output
+     * @param depth the depth of this operator in the plan
+     * @param strategy the strategy to combine this operator with its parent, may be <code>null</code>
+     */
+    void explain( StringBuilder explanation, int depth, JoinStrategy strategy ) {
+        for (int i = 0; i < depth; i++) {
+            explanation.append( "  " );
+        }
+        if (strategy != null) {
+            explanation.append( strategy ).append( ' ' );
+        }
+        explanation.append( describe() );
+        explanation.append( String.format( Locale.ROOT, " (rows=%d cost=%.1f", getEstimatedCardinality(), getEstimatedCost() ) );
+        if (actualCardinality != NOT_EXECUTED) {
+            explanation.append( " actual=" ).append( actualCardinality );
+        }
+        explanation.append( ")\n" );
+
+        List<PlanNode> inputs = getInputs();
+        for (int i = 0; i < inputs.size(); i++) {
+            inputs.get( i ).explain( explanation, depth + 1, getInputStrategy( i ) );
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import de.mindscan.furiousiron.index.posting.SortedOrdinalsUnion;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * An executable plan of a query, which produces the candidate documents of the query. Like the core 
+ * search, the plan may produce documents, which don't match the query, but it never loses a matching 
+ * document.
+ */
+public class QueryPlan {
+
+    private final PlanNode root;
+
+    public QueryPlan( PlanNode root ) {
+        this.root = root;
+    }
+
+    public PlanNode getRoot() {
+        return root;
+    }
+
+    /**
+     * @return <code>true</code> if no part of the query restricts the candidates by a trigram
+     */
+    public boolean isUnrestricted() {
+        return root instanceof AllDocumentsPlanNode;
+    }
+
+    /**
+     * @param context the index
+     * @return the candidate documents
+     */
+    public DocumentBitmap execute( QueryPlanContext context ) {
+        return root.execute( context );
+    }
+
+    /**
+     * @return <code>true</code> if the candidates can be iterated lazily in increasing order, so the 
+     *         execution can stop after the first results
+     */
+    public boolean isIterable() {
+        return root instanceof UnionPlanNode && ((UnionPlanNode) root).getStrategy() == JoinStrategy.MERGE;
+    }
+
+    /**
+     * @param context the index
+     * @return the candidate documents in increasing order, merged while they are iterated
+     * @throws IllegalStateException if the plan is not {@link #isIterable() iterable}
+     */
+    public SortedOrdinalsUnion iterate( QueryPlanContext context ) {
+        if (!isIterable()) {
+            throw new IllegalStateException( "Only a merged union can be iterated lazily." );
+        }
+        return ((UnionPlanNode) root).iterate( context );
+    }
+
+    /**
+     * Describes the operators of the plan, one operator per line with its strategy, the estimated 
+     * number of documents and the estimated cost. After the plan was executed, the actual number of 
+     * documents is included as well.
+     * 
+     * @return the explain output
+     */
+    public String explain() {
+        StringBuilder explanation = new StringBuilder();
+        root.explain( explanation, 0, null );
+        return explanation.toString();
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+}
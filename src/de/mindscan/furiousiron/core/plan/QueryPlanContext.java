@@ -0,0 +1,91 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.Collection;
+import java.util.List;
+
+import de.mindscan.furiousiron.index.trigram.TrigramOccurrence;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * The statistics and posting lists of an index, which are used to plan and to execute a query plan.
+ */
+public interface QueryPlanContext {
+
+    /**
+     * @return the number of documents in the index, including the removed documents
+     */
+    int getNumberOfDocuments();
+
+    /**
+     * @param trigrams the trigrams
+     * @param kind the trigram index
+     * @return the number of documents containing each trigram, in the order of the trigrams
+     */
+    List<TrigramOccurrence> getDocumentCounts( Collection<String> trigrams, TrigramIndexKind kind );
+
+    /**
+     * @param trigram the trigram
+     * @param kind the trigram index
+     * @return the strictly increasing ordinals of all documents containing the trigram
+     */
+    int[] getPostingList( String trigram, TrigramIndexKind kind );
+
+    /**
+     * Retains the candidates, which contain the trigram, without decoding the complete posting list.
+     * 
+     * @param candidates the candidate documents
+     * @param trigram the trigram
+     * @param kind the trigram index
+     * @return the candidates containing the trigram
+     */
+    DocumentBitmap retainDocumentsContaining( DocumentBitmap candidates, String trigram, TrigramIndexKind kind );
+
+    /**
+     * Confirms the candidates, which certainly contain the term, using the word dictionary of the index.
+     * 
+     * @param candidates the candidates, usually the documents containing all trigrams of the term
+     * @param term the term
+     * @return the candidates, which certainly contain the term, the other candidates may or may not contain the term
+     */
+    DocumentBitmap confirmDocumentsContainingTerm( DocumentBitmap candidates, String term );
+
+    /**
+     * Checks the positions of the trigrams of the phrase for adjacency, if the positions are recorded.
+     * 
+     * @param candidates the candidates, usually the documents containing all trigrams of the phrase
+     * @param phrase the lower case phrase
+     * @return the candidates containing the phrase and the candidates, whose positions are not recorded
+     */
+    DocumentBitmap retainDocumentsContainingPhrase( DocumentBitmap candidates, String phrase );
+
+    /**
+     * @return all documents of the index
+     */
+    DocumentBitmap getAllDocuments();
+
+}
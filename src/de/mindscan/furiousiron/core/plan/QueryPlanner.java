@@ -0,0 +1,358 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.mindscan.furiousiron.index.trigram.TrigramOccurrence;
+import de.mindscan.furiousiron.indexer.SimpleWordUtils;
+import de.mindscan.furiousiron.query.ast.AndNode;
+import de.mindscan.furiousiron.query.ast.EmptyNode;
+import de.mindscan.furiousiron.query.ast.ExactMatchingTextNode;
+import de.mindscan.furiousiron.query.ast.ExcludingNode;
+import de.mindscan.furiousiron.query.ast.IncludingNode;
+import de.mindscan.furiousiron.query.ast.MetaDataTextNode;
+import de.mindscan.furiousiron.query.ast.OrNode;
+import de.mindscan.furiousiron.query.ast.QueryNode;
+import de.mindscan.furiousiron.query.ast.TextNode;
+
+/**
+ * Translates a semantic search tree into an executable query plan of intersect, union and and-not 
+ * operators over the posting lists of the trigrams. 
+ * 
+ * Unlike the {@link de.mindscan.furiousiron.core.CoreSearchCompiler}, which flattens the whole query 
+ * into one set of trigrams, the planner keeps the boolean structure of the query. The inputs of each 
+ * intersection are ordered by their estimated number of documents, which is derived from the document 
+ * counts of the trigrams, and the strategy for each input is chosen by the {@link CostModel}.
+ */
+public class QueryPlanner {
+
+    private final QueryPlanContext context;
+    private final CostModel costModel;
+
+    public QueryPlanner( QueryPlanContext context ) {
+        this.context = context;
+        this.costModel = new CostModel( context.getNumberOfDocuments() );
+    }
+
+    /**
+     * @param ast the semantic search tree
+     * @return the query plan
+     */
+    public QueryPlan plan( QueryNode ast ) {
+        return new QueryPlan( planNode( ast ) );
+    }
+
+    private PlanNode planNode( QueryNode ast ) {
+        if (ast == null || ast instanceof EmptyNode) {
+            return allDocuments();
+        }
+
+        if (ast instanceof ExactMatchingTextNode && ((ExactMatchingTextNode) ast).isPhrase()) {
+            String phrase = ast.getContent().toLowerCase();
+            PlanNode trigramsOfPhrase = planTrigrams( SimpleWordUtils.getUniqueTrigramsFromWord( phrase ), TrigramIndexKind.CONTENT );
+            if (trigramsOfPhrase instanceof AllDocumentsPlanNode) {
+                // too short for a trigram, the phrase is verified later
+                return trigramsOfPhrase;
+            }
+            return new PhrasePlanNode( phrase, trigramsOfPhrase, costModel.estimatePhraseCost( trigramsOfPhrase ) );
+        }
+
+        // we only have lower case tri-grams indexed
+        if (ast instanceof TextNode || ast instanceof ExactMatchingTextNode) {
+            return planTrigrams( SimpleWordUtils.getUniqueTrigramsFromWord( ast.getContent().toLowerCase() ), TrigramIndexKind.CONTENT );
+        }
+
+        if (ast instanceof MetaDataTextNode) {
+            return planTrigrams( SimpleWordUtils.getUniqueTrigramsFromWord( ast.getContent().toLowerCase() ), TrigramIndexKind.METADATA );
+        }
+
+        if (ast instanceof AndNode) {
+            List<PlanNode> inputs = new ArrayList<>();
+            List<QueryNode> exclusions = new ArrayList<>();
+            for (QueryNode queryNode : ast.getChildren()) {
+                if (queryNode instanceof ExcludingNode) {
+                    exclusions.add( queryNode );
+                }
+                else {
+                    inputs.add( planNode( queryNode ) );
+                }
+            }
+
+            PlanNode candidates = intersect( inputs );
+            for (QueryNode exclusion : exclusions) {
+                candidates = exclude( candidates, exclusion );
+            }
+            return candidates;
+        }
+
+        if (ast instanceof OrNode) {
+            List<PlanNode> alternatives = new ArrayList<>();
+            for (QueryNode queryNode : ast.getChildren()) {
+                alternatives.add( planNode( queryNode ) );
+            }
+            return union( alternatives );
+        }
+
+        if (ast instanceof ExcludingNode) {
+            // an exclusion without other terms is not restricted by any trigram
+            return allDocuments();
+        }
+
+        if (ast instanceof IncludingNode) {
+            for (QueryNode queryNode : ast.getChildren()) {
+                return planNode( queryNode );
+            }
+            return allDocuments();
+        }
+
+        throw new RuntimeException( "This Node type is not supported: " + String.valueOf( ast ) );
+    }
+
+    /**
+     * Removes the candidates, which certainly contain an excluded term. The trigrams of a term can't 
+     * prove, that a document contains the term, so only the documents confirmed by the word dictionary
+     * are removed. All other candidates and all other kinds of exclusions are verified later.
+     * 
+     * @param candidates the candidates
+     * @param exclusion the excluding node
+     * @return the candidates without the documents, which certainly contain the excluded term
+     */
+    private PlanNode exclude( PlanNode candidates, QueryNode exclusion ) {
+        if (candidates instanceof AllDocumentsPlanNode) {
+            return candidates;
+        }
+
+        PlanNode result = candidates;
+        for (QueryNode excludedNode : exclusion.getChildren()) {
+            if (!(excludedNode instanceof TextNode || excludedNode instanceof ExactMatchingTextNode)) {
+                continue;
+            }
+
+            String excludedTerm = excludedNode.getContent().toLowerCase();
+            PlanNode trigramsOfTerm = planTrigrams( SimpleWordUtils.getUniqueTrigramsFromWord( excludedTerm ), TrigramIndexKind.CONTENT );
+            if (trigramsOfTerm instanceof AllDocumentsPlanNode || trigramsOfTerm.getEstimatedCardinality() == 0L) {
+                // too short to be confirmed, or no document contains all trigrams of the term
+                continue;
+            }
+
+            result = andNot( result, new ConfirmedTermPlanNode( excludedTerm, trigramsOfTerm, costModel.estimateConfirmationCost( trigramsOfTerm ) ) );
+        }
+        return result;
+    }
+
+    private PlanNode planTrigrams( Collection<String> trigrams, TrigramIndexKind kind ) {
+        List<PlanNode> inputs = new ArrayList<>( trigrams.size() );
+        for (TrigramOccurrence occurrence : context.getDocumentCounts( trigrams, kind )) {
+            inputs.add( new TrigramPlanNode( occurrence.getTrigram(), kind, occurrence.getOccurrenceCount() ) );
+        }
+        return intersect( inputs );
+    }
+
+    /**
+     * Intersects the inputs, starting with the most selective input.
+     * 
+     * @param inputs the inputs
+     * @return the intersection, the only input or all documents, if no input restricts the documents
+     */
+    PlanNode intersect( List<PlanNode> inputs ) {
+        List<PlanNode> flattenedInputs = new ArrayList<>();
+        for (PlanNode input : inputs) {
+            if (input instanceof IntersectPlanNode) {
+                for (PlanNode nestedInput : input.getInputs()) {
+                    addIntersectInput( flattenedInputs, nestedInput );
+                }
+            }
+            else {
+                addIntersectInput( flattenedInputs, input );
+            }
+        }
+
+        if (flattenedInputs.isEmpty()) {
+            return allDocuments();
+        }
+        if (flattenedInputs.size() == 1) {
+            return flattenedInputs.get( 0 );
+        }
+
+        flattenedInputs.sort( Comparator.comparingLong( PlanNode::getEstimatedCardinality ) );
+
+        PlanNode first = flattenedInputs.get( 0 );
+        long candidates = first.getEstimatedCardinality();
+        double cost = first.getEstimatedCost();
+
+        List<JoinStrategy> strategies = new ArrayList<>( flattenedInputs.size() - 1 );
+        for (PlanNode input : flattenedInputs.subList( 1, flattenedInputs.size() )) {
+            JoinStrategy strategy = costModel.chooseJoinStrategy( candidates, input );
+            strategies.add( strategy );
+
+            cost += costModel.estimateJoinCost( strategy, candidates, input );
+            candidates = costModel.estimateIntersection( candidates, input.getEstimatedCardinality() );
+        }
+
+        return new IntersectPlanNode( flattenedInputs, strategies, candidates, cost );
+    }
+
+    private static void addIntersectInput( List<PlanNode> inputs, PlanNode input ) {
+        if (input instanceof AllDocumentsPlanNode) {
+            // doesn't restrict the other inputs
+            return;
+        }
+
+        if (input instanceof TrigramPlanNode) {
+            for (PlanNode existingInput : inputs) {
+                if (existingInput instanceof TrigramPlanNode && ((TrigramPlanNode) existingInput).isSamePostingList( (TrigramPlanNode) input )) {
+                    // the same trigram of another word
+                    return;
+                }
+            }
+        }
+
+        inputs.add( input );
+    }
+
+    /**
+     * Unites the alternatives. The trigrams shared by all alternatives are factored out and intersected
+     * once with the union of the remaining alternatives.
+     * 
+     * @param alternatives the alternatives
+     * @return the union, the only alternative or all documents, if one alternative doesn't restrict the documents
+     */
+    PlanNode union( List<PlanNode> alternatives ) {
+        if (alternatives.size() < 2) {
+            return unionWithoutFactoring( alternatives );
+        }
+
+        List<TrigramPlanNode> sharedTrigrams = findSharedTrigrams( alternatives );
+        if (sharedTrigrams.isEmpty()) {
+            return unionWithoutFactoring( alternatives );
+        }
+
+        List<PlanNode> remainingAlternatives = new ArrayList<>( alternatives.size() );
+        for (PlanNode alternative : alternatives) {
+            remainingAlternatives.add( removeTrigrams( alternative, sharedTrigrams ) );
+        }
+
+        // an alternative consisting only of shared trigrams makes the remaining union unrestricted
+        List<PlanNode> inputs = new ArrayList<>( sharedTrigrams );
+        inputs.add( unionWithoutFactoring( remainingAlternatives ) );
+        return intersect( inputs );
+    }
+
+    // the trigrams, which must be contained in the documents of each alternative
+    private static List<TrigramPlanNode> findSharedTrigrams( List<PlanNode> alternatives ) {
+        List<TrigramPlanNode> sharedTrigrams = new ArrayList<>( getTrigramInputs( alternatives.get( 0 ) ) );
+        for (PlanNode alternative : alternatives.subList( 1, alternatives.size() )) {
+            List<TrigramPlanNode> trigrams = getTrigramInputs( alternative );
+            sharedTrigrams.removeIf( shared -> trigrams.stream().noneMatch( shared::isSamePostingList ) );
+        }
+        return sharedTrigrams;
+    }
+
+    private static List<TrigramPlanNode> getTrigramInputs( PlanNode node ) {
+        List<TrigramPlanNode> trigrams = new ArrayList<>();
+        if (node instanceof TrigramPlanNode) {
+            trigrams.add( (TrigramPlanNode) node );
+        }
+        else if (node instanceof IntersectPlanNode) {
+            for (PlanNode input : node.getInputs()) {
+                if (input instanceof TrigramPlanNode) {
+                    trigrams.add( (TrigramPlanNode) input );
+                }
+            }
+        }
+        return trigrams;
+    }
+
+    private PlanNode removeTrigrams( PlanNode alternative, List<TrigramPlanNode> trigrams ) {
+        List<PlanNode> remainingInputs = new ArrayList<>();
+        List<PlanNode> inputs = (alternative instanceof IntersectPlanNode) ? alternative.getInputs() : Collections.singletonList( alternative );
+        for (PlanNode input : inputs) {
+            if (!(input instanceof TrigramPlanNode) || trigrams.stream().noneMatch( ((TrigramPlanNode) input)::isSamePostingList )) {
+                remainingInputs.add( input );
+            }
+        }
+        return intersect( remainingInputs );
+    }
+
+    private PlanNode unionWithoutFactoring( List<PlanNode> alternatives ) {
+        List<PlanNode> flattenedAlternatives = new ArrayList<>();
+        for (PlanNode alternative : alternatives) {
+            if (alternative instanceof AllDocumentsPlanNode) {
+                // any document may match this alternative
+                return alternative;
+            }
+
+            if (alternative instanceof UnionPlanNode) {
+                flattenedAlternatives.addAll( alternative.getInputs() );
+            }
+            else {
+                flattenedAlternatives.add( alternative );
+            }
+        }
+
+        if (flattenedAlternatives.isEmpty()) {
+            return allDocuments();
+        }
+        if (flattenedAlternatives.size() == 1) {
+            return flattenedAlternatives.get( 0 );
+        }
+
+        flattenedAlternatives.sort( Comparator.comparingLong( PlanNode::getEstimatedCardinality ) );
+
+        long cardinality = 0L;
+        for (PlanNode alternative : flattenedAlternatives) {
+            cardinality = costModel.estimateUnion( cardinality, alternative.getEstimatedCardinality() );
+        }
+
+        JoinStrategy strategy = costModel.chooseUnionStrategy( cardinality );
+        return new UnionPlanNode( flattenedAlternatives, strategy, cardinality, costModel.estimateUnionCost( strategy, flattenedAlternatives ) );
+    }
+
+    /**
+     * Removes the documents of the negative input from the positive input.
+     * 
+     * @param positive the candidates
+     * @param negative the documents, which certainly match the excluded part of the query
+     * @return the and-not operator
+     */
+    PlanNode andNot( PlanNode positive, PlanNode negative ) {
+        long candidates = positive.getEstimatedCardinality();
+        JoinStrategy strategy = costModel.chooseJoinStrategy( candidates, negative );
+        double cost = positive.getEstimatedCost() + costModel.estimateJoinCost( strategy, candidates, negative );
+
+        return new AndNotPlanNode( positive, negative, strategy, costModel.estimateDifference( candidates, negative.getEstimatedCardinality() ), cost );
+    }
+
+    private PlanNode allDocuments() {
+        return new AllDocumentsPlanNode( costModel.getNumberOfDocuments() );
+    }
+
+}
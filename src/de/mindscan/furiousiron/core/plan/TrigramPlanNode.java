@@ -0,0 +1,114 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Reads the posting list of a single trigram.
+ */
+public class TrigramPlanNode extends PlanNode {
+
+    private final String trigram;
+    private final TrigramIndexKind kind;
+    private final long documentCount;
+
+    public TrigramPlanNode( String trigram, TrigramIndexKind kind, long documentCount ) {
+        this.trigram = trigram;
+        this.kind = kind;
+        this.documentCount = documentCount;
+    }
+
+    public String getTrigram() {
+        return trigram;
+    }
+
+    public TrigramIndexKind getKind() {
+        return kind;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return documentCount;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        // the whole posting list is decoded
+        return documentCount;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        return DocumentBitmap.fromSortedOrdinals( context.getPostingList( trigram, kind ) );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] executeToSortedOrdinals( QueryPlanContext context ) {
+        int[] ordinals = context.getPostingList( trigram, kind );
+        recordActualCardinality( ordinals.length );
+        return ordinals;
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * The candidates are looked up using the skip table, without reading the whole posting list.
+     */
+    @Override
+    public DocumentBitmap retain( DocumentBitmap candidates, QueryPlanContext context ) {
+        return context.retainDocumentsContaining( candidates, trigram, kind );
+    }
+
+    /**
+     * @param other another trigram plan node
+     * @return <code>true</code> if both read the same posting list
+     */
+    public boolean isSamePostingList( TrigramPlanNode other ) {
+        return trigram.equals( other.trigram ) && kind == other.kind;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "TRIGRAM " + kind.name().toLowerCase() + " '" + trigram + "'";
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.core.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.index.posting.SortedOrdinalsUnion;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Produces the documents contained in any of the inputs. 
+ * 
+ * Sparse inputs are merged as sorted arrays, two inputs are merged directly, more inputs are merged at 
+ * once by a k-way merge. A merged union can also be iterated lazily, so a search, which only needs the
+ * first results, stops merging early.
+ */
+public class UnionPlanNode extends PlanNode {
+
+    private final List<PlanNode> inputs;
+    private final JoinStrategy strategy;
+    private final long estimatedCardinality;
+    private final double estimatedCost;
+
+    /**
+     * @param inputs the alternatives
+     * @param strategy {@link JoinStrategy#MERGE} or {@link JoinStrategy#BITMAP}
+     * @param estimatedCardinality the estimated number of documents contained in any input
+     * @param estimatedCost the estimated cost of the union including its inputs
+     */
+    public UnionPlanNode( List<PlanNode> inputs, JoinStrategy strategy, long estimatedCardinality, double estimatedCost ) {
+        if (strategy != JoinStrategy.MERGE && strategy != JoinStrategy.BITMAP) {
+            throw new IllegalArgumentException( "A union is either merged or combined as bitmaps, but was " + strategy );
+        }
+
+        this.inputs = new ArrayList<>( inputs );
+        this.strategy = strategy;
+        this.estimatedCardinality = estimatedCardinality;
+        this.estimatedCost = estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedCardinality() {
+        return estimatedCardinality;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PlanNode> getInputs() {
+        return inputs;
+    }
+
+    public JoinStrategy getStrategy() {
+        return strategy;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected DocumentBitmap executeInternal( QueryPlanContext context ) {
+        if (strategy == JoinStrategy.MERGE) {
+            return DocumentBitmap.fromSortedOrdinals( executeMerge( context ) );
+        }
+
+        DocumentBitmap result = new DocumentBitmap();
+        for (PlanNode input : inputs) {
+            result = result.or( input.execute( context ) );
+        }
+        return result;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] executeToSortedOrdinals( QueryPlanContext context ) {
+        if (strategy != JoinStrategy.MERGE) {
+            return super.executeToSortedOrdinals( context );
+        }
+
+        int[] result = executeMerge( context );
+        recordActualCardinality( result.length );
+        return result;
+    }
+
+    private int[] executeMerge( QueryPlanContext context ) {
+        if (inputs.size() == 2) {
+            return SortedOrdinals.union( inputs.get( 0 ).executeToSortedOrdinals( context ), inputs.get( 1 ).executeToSortedOrdinals( context ) );
+        }
+        return SortedOrdinalsUnion.unionAll( executeInputs( context ) );
+    }
+
+    /**
+     * Executes the inputs, but merges them lazily. 
+     * 
+     * @param context the index
+     * @return the iterator over the documents contained in any of the inputs in increasing order
+     */
+    public SortedOrdinalsUnion iterate( QueryPlanContext context ) {
+        return new SortedOrdinalsUnion( executeInputs( context ) );
+    }
+
+    private List<int[]> executeInputs( QueryPlanContext context ) {
+        List<int[]> inputOrdinals = new ArrayList<>( inputs.size() );
+        for (PlanNode input : inputs) {
+            inputOrdinals.add( input.executeToSortedOrdinals( context ) );
+        }
+        return inputOrdinals;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        if (strategy == JoinStrategy.MERGE && inputs.size() > 2) {
+            return "UNION K-WAY MERGE";
+        }
+        return "UNION " + strategy;
+    }
+
+}
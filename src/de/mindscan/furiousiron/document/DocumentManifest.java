@@ -0,0 +1,196 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.document;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The manifest of all indexed documents. For each document the size, the last modified time and 
+ * a hash of the content is kept, so an incremental indexing run can skip the unchanged documents 
+ * and can find the documents, which were deleted since the last run.
+ * 
+ * The manifest is stored as a text file in the index folder, one document per line:
+ * documentKey, fileSize, lastModified, contentHash and relativePath separated by tabs.
+ */
+public class DocumentManifest {
+
+    public static final String DOCUMENT_MANIFEST_FILENAME = "documentManifest.tsv";
+
+    private static final char SEPARATOR = '\t';
+
+    private final Map<String, DocumentManifestEntry> entries;
+
+    public DocumentManifest() {
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * @param documentKey the document key
+     * @return the entry or <code>null</code> if the document is not in the manifest
+     */
+    public synchronized DocumentManifestEntry get( String documentKey ) {
+        return entries.get( documentKey );
+    }
+
+    /**
+     * Adds or replaces the entry of a document.
+     * 
+     * @param entry the entry
+     */
+    public synchronized void put( DocumentManifestEntry entry ) {
+        entries.put( entry.getDocumentKey(), entry );
+    }
+
+    /**
+     * @param documentKey the document key
+     * @return the removed entry or <code>null</code> if the document was not in the manifest
+     */
+    public synchronized DocumentManifestEntry remove( String documentKey ) {
+        return entries.remove( documentKey );
+    }
+
+    /**
+     * @return a copy of all document keys in the manifest
+     */
+    public synchronized Collection<String> getDocumentKeys() {
+        return new ArrayList<>( entries.keySet() );
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Saves the manifest into the given index folder. The file is written to a temporary
+     * file first and then moved, so a reader never sees a partially written manifest.
+     * 
+     * @param indexFolder the index folder
+     */
+    public synchronized void save( Path indexFolder ) {
+        Path manifestPath = indexFolder.resolve( DOCUMENT_MANIFEST_FILENAME );
+        Path temporaryPath = indexFolder.resolve( DOCUMENT_MANIFEST_FILENAME + ".tmp" );
+
+        try {
+            Files.createDirectories( indexFolder );
+
+            try (BufferedWriter writer = Files.newBufferedWriter( temporaryPath, StandardCharsets.UTF_8 )) {
+                for (DocumentManifestEntry entry : entries.values()) {
+                    writer.write( entry.getDocumentKey() );
+                    writer.write( SEPARATOR );
+                    writer.write( Long.toString( entry.getFileSize() ) );
+                    writer.write( SEPARATOR );
+                    writer.write( Long.toString( entry.getLastModified() ) );
+                    writer.write( SEPARATOR );
+                    writer.write( entry.getContentHash() );
+                    writer.write( SEPARATOR );
+                    writer.write( entry.getRelativePath() );
+                    writer.write( '\n' );
+                }
+            }
+
+            Files.move( temporaryPath, manifestPath, StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "saving file: '%s' caused this error...", manifestPath ) );
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the manifest from the given index folder. If there is no manifest yet, an empty
+     * manifest is returned.
+     * 
+     * @param indexFolder the index folder
+     * @return the manifest
+     */
+    public static DocumentManifest loadOrCreate( Path indexFolder ) {
+        DocumentManifest manifest = new DocumentManifest();
+
+        Path manifestPath = indexFolder.resolve( DOCUMENT_MANIFEST_FILENAME );
+        if (!Files.exists( manifestPath )) {
+            return manifest;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader( manifestPath, StandardCharsets.UTF_8 )) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // the relative path is the last column, so it may contain the separator itself
+                String[] columns = line.split( String.valueOf( SEPARATOR ), 5 );
+                if (columns.length != 5) {
+                    continue;
+                }
+
+                manifest.put( new DocumentManifestEntry( columns[0], columns[4], Long.parseLong( columns[1] ), Long.parseLong( columns[2] ),
+                                columns[3] ) );
+            }
+        }
+        catch (IOException | NumberFormatException e) {
+            System.out.println( String.format( "loading file: '%s' caused this error...", manifestPath ) );
+            e.printStackTrace();
+        }
+
+        return manifest;
+    }
+
+    public static boolean exists( Path indexFolder ) {
+        return Files.exists( indexFolder.resolve( DOCUMENT_MANIFEST_FILENAME ) );
+    }
+
+    /**
+     * @param content the content of a document, the position of the buffer is not changed
+     * @return the MD5 hash of the content as 32 hex digits
+     */
+    public static String computeContentHash( ByteBuffer content ) {
+        try {
+            MessageDigest md5sum = MessageDigest.getInstance( "MD5" );
+            md5sum.update( content.duplicate() );
+
+            String md5hex = new BigInteger( 1, md5sum.digest() ).toString( 16 );
+            while (md5hex.length() < 32) {
+                md5hex = "0" + md5hex;
+            }
+            return md5hex;
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException( e );
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.document;
+
+/**
+ * The state of a single indexed document, as it was seen when the document was indexed the last time.
+ */
+public class DocumentManifestEntry {
+
+    private final String documentKey;
+    private final String relativePath;
+    private final long fileSize;
+    private final long lastModified;
+    private final String contentHash;
+
+    /**
+     * @param documentKey the document key
+     * @param relativePath the path of the document relative to the crawl folder
+     * @param fileSize the size of the file in bytes
+     * @param lastModified the last modified time of the file in milliseconds
+     * @param contentHash the hash of the file content
+     */
+    public DocumentManifestEntry( String documentKey, String relativePath, long fileSize, long lastModified, String contentHash ) {
+        this.documentKey = documentKey;
+        this.relativePath = relativePath;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * @param fileSize the current size of the file
+     * @param lastModified the current last modified time of the file
+     * @return true if size and last modified time are unchanged, which means the content is considered unchanged
+     */
+    public boolean isUnchanged( long fileSize, long lastModified ) {
+        return this.fileSize == fileSize && this.lastModified == lastModified;
+    }
+
+    public String getDocumentKey() {
+        return documentKey;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+}
@@ -28,6 +28,7 @@ package de.mindscan.furiousiron.document;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * 
@@ -70,4 +71,34 @@ public class DocumentMetadataFactory {
         return documentMetadata;
     }
 
+    /**
+     * @param documentId The documentId 
+     * @param fileToIndex The file which should be indexed.
+     * @param attributes The attributes of the file, which were already read, so no further system call is needed.
+     * @return
+     */
+    public static DocumentMetadata createDocumentMetadata( DocumentId documentId, Path fileToIndex, BasicFileAttributes attributes ) {
+        String documentLocation = documentId.getDocumentLocation();
+        String documentSimpleName = fileToIndex.getFileName().toString();
+        String documentKey = documentId.getDocumentKey();
+
+        DocumentMetadata documentMetadata = new DocumentMetadata( documentKey, documentLocation, documentSimpleName );
+        documentMetadata.setFileSize( attributes.size() );
+
+        return documentMetadata;
+    }
+
+    /**
+     * Creates the metadata from already stored values, e.g. when the metadata is materialized from a
+     * metadata store.
+     * 
+     * @param documentKey The document key
+     * @param documentLocation The relative path of the document
+     * @param documentSimpleName The filename of the document
+     * @return
+     */
+    public static DocumentMetadata createDocumentMetadata( String documentKey, String documentLocation, String documentSimpleName ) {
+        return new DocumentMetadata( documentKey, documentLocation, documentSimpleName );
+    }
+
 }
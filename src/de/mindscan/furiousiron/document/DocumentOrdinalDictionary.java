@@ -0,0 +1,207 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.document;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This dictionary maps the document keys to dense integer ordinals and back.
+ * 
+ * The binary posting lists only store the ordinals, which are much smaller than the 32 character
+ * document keys, and can be delta encoded. The document key is only needed again, when the search
+ * results are materialized.
+ * 
+ * The dictionary is stored as a simple text file, where line number n contains the document key
+ * for ordinal n. The ordinal of a removed document is never reused, its line is left empty.
+ */
+public class DocumentOrdinalDictionary {
+
+    public static final String DOCUMENT_ORDINALS_FILENAME = "documentOrdinals.dictionary";
+
+    public static final int UNKNOWN_ORDINAL = -1;
+
+    private final List<String> documentKeys;
+    private final Map<String, Integer> documentOrdinals;
+
+    public DocumentOrdinalDictionary() {
+        this.documentKeys = new ArrayList<>();
+        this.documentOrdinals = new HashMap<>();
+    }
+
+    /**
+     * Returns the ordinal for the given document key, a new ordinal is assigned if the document key
+     * is not yet known.
+     * 
+     * @param documentKey the document key
+     * @return the ordinal of the document key
+     */
+    public synchronized int getOrCreateOrdinal( String documentKey ) {
+        Integer ordinal = documentOrdinals.get( documentKey );
+        if (ordinal != null) {
+            return ordinal.intValue();
+        }
+
+        int newOrdinal = documentKeys.size();
+        documentKeys.add( documentKey );
+        documentOrdinals.put( documentKey, newOrdinal );
+        return newOrdinal;
+    }
+
+    /**
+     * Removes the document key, the ordinal of the document is not reused. Posting lists may still 
+     * contain the old ordinal, but it doesn't resolve to a document key anymore.
+     * 
+     * @param documentKey the document key
+     * @return the former ordinal of the document key or {@link #UNKNOWN_ORDINAL} if the document key was not known
+     */
+    public synchronized int removeDocument( String documentKey ) {
+        Integer ordinal = documentOrdinals.remove( documentKey );
+        if (ordinal == null) {
+            return UNKNOWN_ORDINAL;
+        }
+
+        documentKeys.set( ordinal.intValue(), null );
+        return ordinal.intValue();
+    }
+
+    /**
+     * Assigns a new ordinal to an already known document, e.g. because the document changed and is 
+     * indexed again. The old ordinal doesn't resolve to the document key anymore, so the old postings
+     * of the document are no longer found. 
+     * 
+     * @param documentKey the document key
+     * @return the new ordinal of the document key
+     */
+    public synchronized int reassignOrdinal( String documentKey ) {
+        removeDocument( documentKey );
+        return getOrCreateOrdinal( documentKey );
+    }
+
+    /**
+     * @param documentKey the document key
+     * @return the ordinal or {@link #UNKNOWN_ORDINAL} if the document key is not known
+     */
+    public synchronized int getOrdinal( String documentKey ) {
+        Integer ordinal = documentOrdinals.get( documentKey );
+        if (ordinal == null) {
+            return UNKNOWN_ORDINAL;
+        }
+        return ordinal.intValue();
+    }
+
+    /**
+     * @param ordinal the ordinal
+     * @return the document key or <code>null</code> if the ordinal is not known
+     */
+    public synchronized String getDocumentKey( int ordinal ) {
+        if (ordinal < 0 || ordinal >= documentKeys.size()) {
+            return null;
+        }
+        return documentKeys.get( ordinal );
+    }
+
+    public synchronized int size() {
+        return documentKeys.size();
+    }
+
+    /**
+     * Saves the dictionary into the given index folder. The file is written to a temporary
+     * file first and then moved, so a reader never sees a partially written dictionary.
+     * 
+     * @param indexFolder the index folder
+     */
+    public synchronized void save( Path indexFolder ) {
+        Path dictionaryPath = indexFolder.resolve( DOCUMENT_ORDINALS_FILENAME );
+        Path temporaryPath = indexFolder.resolve( DOCUMENT_ORDINALS_FILENAME + ".tmp" );
+
+        try {
+            Files.createDirectories( indexFolder );
+
+            try (BufferedWriter writer = Files.newBufferedWriter( temporaryPath, StandardCharsets.UTF_8 )) {
+                for (String documentKey : documentKeys) {
+                    // removed documents keep their line, so the following ordinals don't change
+                    if (documentKey != null) {
+                        writer.write( documentKey );
+                    }
+                    writer.write( '\n' );
+                }
+            }
+
+            Files.move( temporaryPath, dictionaryPath, StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "saving file: '%s' caused this error...", dictionaryPath ) );
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the dictionary from the given index folder. If there is no dictionary yet, an empty
+     * dictionary is returned.
+     * 
+     * @param indexFolder the index folder
+     * @return the dictionary
+     */
+    public static DocumentOrdinalDictionary loadOrCreate( Path indexFolder ) {
+        DocumentOrdinalDictionary dictionary = new DocumentOrdinalDictionary();
+
+        Path dictionaryPath = indexFolder.resolve( DOCUMENT_ORDINALS_FILENAME );
+        if (!Files.exists( dictionaryPath )) {
+            return dictionary;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader( dictionaryPath, StandardCharsets.UTF_8 )) {
+            String documentKey;
+            while ((documentKey = reader.readLine()) != null) {
+                if (documentKey.isEmpty()) {
+                    dictionary.documentKeys.add( null );
+                }
+                else {
+                    dictionary.getOrCreateOrdinal( documentKey );
+                }
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return dictionary;
+    }
+
+    public static boolean exists( Path indexFolder ) {
+        return Files.exists( indexFolder.resolve( DOCUMENT_ORDINALS_FILENAME ) );
+    }
+}
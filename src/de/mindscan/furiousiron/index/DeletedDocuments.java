@@ -0,0 +1,134 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * The tombstones of the index. The ordinals of deleted documents and of the outdated versions of 
+ * reindexed documents are kept in a bitmap, because their postings remain in the posting lists 
+ * until the posting lists are rewritten.
+ */
+public class DeletedDocuments {
+
+    public static final String DELETED_DOCUMENTS_FILENAME = "deletedDocuments" + DocumentBitmap.DOCUMENT_BITMAP_SUFFIX;
+
+    private DocumentBitmap deletedOrdinals;
+
+    public DeletedDocuments() {
+        this.deletedOrdinals = new DocumentBitmap();
+    }
+
+    /**
+     * @param documentOrdinal the ordinal of the deleted document
+     */
+    public synchronized void markDeleted( int documentOrdinal ) {
+        if (documentOrdinal < 0) {
+            return;
+        }
+        deletedOrdinals.add( documentOrdinal );
+    }
+
+    public synchronized boolean isDeleted( int documentOrdinal ) {
+        return documentOrdinal >= 0 && deletedOrdinals.contains( documentOrdinal );
+    }
+
+    /**
+     * Removes all tombstones, this must only be done after the deleted documents were purged from 
+     * all posting lists.
+     */
+    public synchronized void clear() {
+        deletedOrdinals = new DocumentBitmap();
+    }
+
+    /**
+     * Removes the deleted document ordinals from the given candidates. The tombstones are not handed 
+     * out, because documents may be marked deleted by an incremental run while a search uses them.
+     * 
+     * @param candidates the candidate document ordinals, which are not modified
+     * @return a new bitmap of the candidates, which are not deleted
+     */
+    public synchronized DocumentBitmap removeDeleted( DocumentBitmap candidates ) {
+        return candidates.andNot( deletedOrdinals );
+    }
+
+    public synchronized int size() {
+        return deletedOrdinals.getCardinality();
+    }
+
+    public synchronized boolean isEmpty() {
+        return deletedOrdinals.isEmpty();
+    }
+
+    /**
+     * Saves the tombstones into the given index folder.
+     * 
+     * @param indexFolder the index folder
+     */
+    public synchronized void save( Path indexFolder ) {
+        Path bitmapPath = indexFolder.resolve( DELETED_DOCUMENTS_FILENAME );
+
+        try {
+            deletedOrdinals.runOptimize();
+            deletedOrdinals.write( bitmapPath );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "saving file: '%s' caused this error...", bitmapPath ) );
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the tombstones from the given index folder. If there are no tombstones yet, an empty
+     * set of tombstones is returned.
+     * 
+     * @param indexFolder the index folder
+     * @return the tombstones
+     */
+    public static DeletedDocuments loadOrCreate( Path indexFolder ) {
+        DeletedDocuments deletedDocuments = new DeletedDocuments();
+
+        Path bitmapPath = indexFolder.resolve( DELETED_DOCUMENTS_FILENAME );
+        if (!Files.exists( bitmapPath )) {
+            return deletedDocuments;
+        }
+
+        try {
+            deletedDocuments.deletedOrdinals = DocumentBitmap.read( bitmapPath );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "loading file: '%s' caused this error...", bitmapPath ) );
+            e.printStackTrace();
+        }
+
+        return deletedDocuments;
+    }
+
+}
@@ -25,13 +25,19 @@
  */
 package de.mindscan.furiousiron.index;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
+import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
 import de.mindscan.furiousiron.index.cache.DocumentCache;
 import de.mindscan.furiousiron.index.cache.MetadataCache;
 import de.mindscan.furiousiron.index.cache.SearchQueryCache;
 import de.mindscan.furiousiron.index.cache.WordlistCache;
 import de.mindscan.furiousiron.index.hfb.InverseMetadataHFBFilterIndex;
+import de.mindscan.furiousiron.index.metadata.ColumnarMetadataWriter;
+import de.mindscan.furiousiron.index.pack.DocumentPackWriter;
+import de.mindscan.furiousiron.index.words.DocumentWordsWriter;
 import de.mindscan.furiousiron.index.trigram.InverseMetadataTrigramIndex;
 import de.mindscan.furiousiron.index.trigram.InverseTrigramIndex;
 
@@ -40,6 +46,10 @@ import de.mindscan.furiousiron.index.trigram.InverseTrigramIndex;
  */
 public class Index {
 
+    private final Path theIndexFolder;
+    private final DocumentOrdinalDictionary theDocumentOrdinals;
+    private final DeletedDocuments theDeletedDocuments;
+
     private final DocumentCache theFileCache;
     private final MetadataCache theMetadataCache;
     private final WordlistCache theWordlistCache;
@@ -52,11 +62,14 @@ public class Index {
      * 
      */
     public Index( Path indexFolder ) {
+        theIndexFolder = indexFolder;
+        theDocumentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        theDeletedDocuments = DeletedDocuments.loadOrCreate( indexFolder );
         theFileCache = new DocumentCache( indexFolder );
         theMetadataCache = new MetadataCache( indexFolder );
         theWordlistCache = new WordlistCache( indexFolder );
-        theInverseTrigramIndex = new InverseTrigramIndex( indexFolder );
-        theInverseMetadataTrigramIndex = new InverseMetadataTrigramIndex( indexFolder );
+        theInverseTrigramIndex = new InverseTrigramIndex( indexFolder, theDocumentOrdinals );
+        theInverseMetadataTrigramIndex = new InverseMetadataTrigramIndex( indexFolder, theDocumentOrdinals );
         theSearchQueryCache = new SearchQueryCache( indexFolder );
         theInverseMetadataHFBFilterIndex = new InverseMetadataHFBFilterIndex( indexFolder );
     }
@@ -103,6 +116,104 @@ public class Index {
         return theInverseMetadataHFBFilterIndex;
     }
 
+    /**
+     * @return the document ordinal dictionary (document key <-> document ordinal)
+     */
+    public DocumentOrdinalDictionary getDocumentOrdinalDictionary() {
+        return theDocumentOrdinals;
+    }
+
+    /**
+     * Persists the document ordinal dictionary, must be done after the inverse indexes were saved. 
+     */
+    public void saveDocumentOrdinalDictionary() {
+        theDocumentOrdinals.save( theIndexFolder );
+    }
+
+    /**
+     * @return the tombstones of the removed documents (document ordinal)
+     */
+    public DeletedDocuments getDeletedDocuments() {
+        return theDeletedDocuments;
+    }
+
+    /**
+     * Marks the document as deleted. Its postings remain in the posting lists until the deleted documents 
+     * are purged, but the search doesn't return the document anymore. The content index and the metadata 
+     * index share the document ordinals, so the document is removed from both indexes.
+     * 
+     * @param documentId the document to remove
+     */
+    public void removeDocument( DocumentId documentId ) {
+        theDeletedDocuments.markDeleted( theDocumentOrdinals.getOrdinal( documentId.getDocumentKey() ) );
+    }
+
+    /**
+     * Persists the tombstones of the removed documents.
+     */
+    public void saveDeletedDocuments() {
+        theDeletedDocuments.save( theIndexFolder );
+    }
+
+    /**
+     * Removes all cached files of a deleted document. The postings of the document are not touched, 
+     * the document must be marked as deleted separately.
+     * 
+     * @param documentKey the document key of the deleted document
+     */
+    public void removeCachedDocument( String documentKey ) {
+        theFileCache.deleteCachedFile( documentKey, DocumentCache.CACHED_FILE_SUFFIX );
+        theMetadataCache.deleteCachedFile( documentKey, MetadataCache.METADATA_FILE_SUFFIX );
+        theWordlistCache.deleteCachedFile( documentKey, WordlistCache.WORDLIST_FILE_SUFFIX );
+        theWordlistCache.deleteCachedFile( documentKey, WordlistCache.TRIGRAMS_FILE_SUFFIX );
+        theWordlistCache.deleteCachedFile( documentKey, WordlistCache.TRIGRAMSTERMFREQUENCY_FILE_SUFFIX );
+    }
+
+    /**
+     * Removes the document pack store, must be done when the documents are indexed again without 
+     * assigning new ordinals, because the packs would still contain the former content.
+     */
+    public void deleteDocumentPacks() {
+        try {
+            DocumentPackWriter.delete( theIndexFolder );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes the columnar metadata store, for the same reason as the document packs.
+     */
+    public void deleteColumnarMetadata() {
+        try {
+            ColumnarMetadataWriter.delete( theIndexFolder );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes the document words store, for the same reason as the document packs.
+     */
+    public void deleteDocumentWords() {
+        try {
+            DocumentWordsWriter.delete( theIndexFolder );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Advances the epoch of the index, must be done after the indexed documents changed, so the 
+     * cached search results of the former epoch are no longer used.
+     */
+    public void advanceIndexEpoch() {
+        IndexEpoch.advance( theIndexFolder );
+    }
+
     public SearchQueryCache getSearchQueryCache() {
         return theSearchQueryCache;
     }
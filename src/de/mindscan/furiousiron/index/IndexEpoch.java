@@ -0,0 +1,91 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The epoch of an index is advanced, each time the indexed documents change, e.g. after a full or an 
+ * incremental indexing run. Everything derived from search results, like the cached query results, is 
+ * stamped with the epoch, so it can be recognized as outdated after the documents are indexed again.
+ * 
+ * The epoch is stored as a decimal number in a small text file of the index folder. 
+ */
+public class IndexEpoch {
+
+    public static final String INDEX_EPOCH_FILENAME = "index.epoch";
+
+    public static final long NO_EPOCH = 0L;
+
+    /**
+     * @param indexFolder the index folder
+     * @return the current epoch of the index or {@link #NO_EPOCH} if the index has no epoch yet
+     */
+    public static long read( Path indexFolder ) {
+        try {
+            String epoch = new String( Files.readAllBytes( indexFolder.resolve( INDEX_EPOCH_FILENAME ) ), StandardCharsets.UTF_8 ).trim();
+            return Long.parseLong( epoch );
+        }
+        catch (NoSuchFileException e) {
+            return NO_EPOCH;
+        }
+        catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            return NO_EPOCH;
+        }
+    }
+
+    /**
+     * Advances the epoch of the index. The new epoch is at least the current time in milliseconds, so 
+     * the epochs stay unique, even if the index folder was removed in between.
+     * 
+     * @param indexFolder the index folder
+     * @return the new epoch
+     */
+    public static long advance( Path indexFolder ) {
+        long newEpoch = Math.max( read( indexFolder ) + 1L, System.currentTimeMillis() );
+
+        Path epochPath = indexFolder.resolve( INDEX_EPOCH_FILENAME );
+        Path temporaryPath = indexFolder.resolve( INDEX_EPOCH_FILENAME + ".tmp" );
+        try {
+            Files.createDirectories( indexFolder );
+            Files.write( temporaryPath, Long.toString( newEpoch ).getBytes( StandardCharsets.UTF_8 ) );
+            Files.move( temporaryPath, epochPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "saving file: '%s' caused this error...", epochPath ) );
+            e.printStackTrace();
+        }
+
+        return newEpoch;
+    }
+
+}
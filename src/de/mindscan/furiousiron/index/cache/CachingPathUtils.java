@@ -29,8 +29,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.mindscan.furiousiron.document.DocumentId;
 
@@ -39,7 +39,8 @@ import de.mindscan.furiousiron.document.DocumentId;
  */
 public class CachingPathUtils {
 
-    public static Set<Path> directoryAlreadyExists = new HashSet<>();
+    // the caches are written by multiple threads of the indexing pipeline
+    public static Set<Path> directoryAlreadyExists = ConcurrentHashMap.newKeySet();
 
 //     public static final int NUMBER_OF_DOCUMENT_ID_LAYERS = 1;
 
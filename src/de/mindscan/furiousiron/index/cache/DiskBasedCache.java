@@ -25,6 +25,8 @@
  */
 package de.mindscan.furiousiron.index.cache;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import de.mindscan.furiousiron.document.DocumentId;
@@ -52,4 +54,21 @@ public class DiskBasedCache {
         // TODO: or keep a decently sized RLU?        
         CachingPathUtils.createTargetDirectoryIfNotExist( targetFilePath );
     }
+
+    /**
+     * Removes a cached file of a document, e.g. because the document was deleted.
+     * 
+     * @param documentKey the document key
+     * @param fileSuffix the suffix of the cached file
+     */
+    public void deleteCachedFile( String documentKey, String fileSuffix ) {
+        Path cachedFilePath = buildCacheTargetPathFromKey( documentKey, fileSuffix );
+        try {
+            Files.deleteIfExists( cachedFilePath );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "deleting file: '%s' caused this error...", cachedFilePath ) );
+            e.printStackTrace();
+        }
+    }
 }
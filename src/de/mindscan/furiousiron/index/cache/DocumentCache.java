@@ -28,6 +28,8 @@ package de.mindscan.furiousiron.index.cache;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -88,6 +90,30 @@ public class DocumentCache extends DiskBasedCache {
         }
     }
 
+    /**
+     * Stores the already read content of a document in the cache, so the original file doesn't need 
+     * to be read again.
+     * 
+     * @param documentId the document id
+     * @param content the content of the document, the position of the buffer is not changed
+     */
+    public void createDocumentCopy( DocumentId documentId, ByteBuffer content ) {
+        Path documentTargetFilePath = buildCacheTargetPathFromId( documentId, CACHED_FILE_SUFFIX );
+
+        createCacheTargetPath( documentTargetFilePath );
+
+        try (FileChannel channel = FileChannel.open( documentTargetFilePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING )) {
+            ByteBuffer remainingContent = content.duplicate();
+            while (remainingContent.hasRemaining()) {
+                channel.write( remainingContent );
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     public InputStream getContentAsStream( DocumentId documentId ) throws IOException {
         Path documentContentPath = buildCacheTargetPathFromId( documentId, CACHED_FILE_SUFFIX );
 
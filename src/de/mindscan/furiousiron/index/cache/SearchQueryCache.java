@@ -32,19 +32,38 @@ import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import de.mindscan.furiousiron.index.IndexEpoch;
+import de.mindscan.furiousiron.util.cache.CacheStatistics;
+import de.mindscan.furiousiron.util.cache.WeightedLRUCache;
+
 /**
+ * A two tiered cache for the results and the previews of search queries. The most recently used entries
+ * are kept in an in-heap LRU, all entries are stored on disk as JSON files.
  * 
+ * The name of each cached file contains the epoch of the index ({@link IndexEpoch}), the file was 
+ * written for. When the index epoch advances, because the documents were indexed again, all files of the
+ * older epochs are removed. The cached files on disk are limited by a total size budget, the least 
+ * recently used files are evicted first. The last modification time of a file is updated on each access,
+ * so the access order survives a restart.
  */
 public class SearchQueryCache extends DiskBasedCache {
 
@@ -63,32 +82,98 @@ public class SearchQueryCache extends DiskBasedCache {
      */
     public final static String CACHE_PREVIEW_SUFFIX = ".previewcache";
 
+    public static final long DEFAULT_MAX_DISK_SIZE = 256L * 1024L * 1024L;
+
+    public static final long DEFAULT_MAX_HEAP_SIZE = 16L * 1024L * 1024L;
+
+    /**
+     * the minimum time between two updates of the last modification time of a cached file
+     */
+    private static final long TOUCH_INTERVAL_MILLIS = 1000L;
+
+    private final Path indexFolder;
+    private final Path cacheFolder;
+    private final long maxDiskSize;
+
+    // the in-heap tier: cached file -> cached value
+    private final WeightedLRUCache<Path, Object> heapEntries;
+
+    // the on-disk tier in access order: cached file -> file size, scanned on first use
+    private LinkedHashMap<Path, Long> diskEntries;
+    private long diskSize;
+
+    // cached file -> the last time its last modification time was updated
+    private final Map<Path, Long> lastTouchTimes = new HashMap<>();
+
+    // the index epoch of the cached entries
+    private long currentEpoch;
+
+    // the lookups, which were not answered by the in-heap tier
+    private final CacheStatistics diskStatistics;
+    private long staleEntries;
+
     /**
      * 
      */
     public SearchQueryCache( Path indexFolder ) {
-        super( indexFolder.resolve( CACHED_QUERY_FOLDER ) );
+        this( indexFolder, DEFAULT_MAX_DISK_SIZE, DEFAULT_MAX_HEAP_SIZE );
     }
 
-    public boolean isQueryResultAvailable( String queryKey ) {
-        Path searchQueryDocumentPath = buildCacheTargetPathFromKey( queryKey, CACHE_FILE_SUFFIX );
+    /**
+     * @param indexFolder the index folder
+     * @param maxDiskSize the size budget of the cached files on disk in bytes
+     * @param maxHeapSize the approximate size budget of the entries kept in heap in bytes
+     */
+    public SearchQueryCache( Path indexFolder, long maxDiskSize, long maxHeapSize ) {
+        super( indexFolder.resolve( CACHED_QUERY_FOLDER ) );
 
-        return Files.exists( searchQueryDocumentPath );
+        this.indexFolder = indexFolder;
+        this.cacheFolder = indexFolder.resolve( CACHED_QUERY_FOLDER );
+        this.maxDiskSize = maxDiskSize;
+        this.heapEntries = new WeightedLRUCache<>( maxHeapSize, SearchQueryCache::estimateSize );
+        this.diskStatistics = new CacheStatistics();
     }
 
-    public boolean isPreviewAvailable( String queryKey ) {
-        Path searchQueryDocumentPath = buildCacheTargetPathFromKey( queryKey, CACHE_PREVIEW_SUFFIX );
+    /**
+     * Checks whether the result of a query is cached. The lookups of this method are counted for the 
+     * hit rate of the cache.
+     * 
+     * @param queryKey the key of the query
+     * @return whether the result is cached for the current index epoch
+     */
+    public synchronized boolean isQueryResultAvailable( String queryKey ) {
+        return isAvailable( queryKey, CACHE_FILE_SUFFIX );
+    }
 
-        return Files.exists( searchQueryDocumentPath );
+    /**
+     * Checks whether the preview of a query is cached. The lookups of this method are counted for the
+     * hit rate of the cache.
+     * 
+     * @param queryKey the key of the query
+     * @return whether the preview is cached for the current index epoch
+     */
+    public synchronized boolean isPreviewAvailable( String queryKey ) {
+        return isAvailable( queryKey, CACHE_PREVIEW_SUFFIX );
     }
 
-    public List<String> loadQueryResult( String queryKey ) {
-        Path searchQueryDocumentPath = buildCacheTargetPathFromKey( queryKey, CACHE_FILE_SUFFIX );
+    public synchronized List<String> loadQueryResult( String queryKey ) {
+        Path searchQueryDocumentPath = getCurrentCachePath( queryKey, CACHE_FILE_SUFFIX );
+
+        @SuppressWarnings( "unchecked" )
+        List<String> cachedResult = (List<String>) heapEntries.peek( searchQueryDocumentPath );
+        if (cachedResult != null) {
+            touchDiskEntry( searchQueryDocumentPath );
+            return cachedResult;
+        }
 
         try (BufferedReader jsonBufferedReader = Files.newBufferedReader( searchQueryDocumentPath, StandardCharsets.UTF_8 )) {
             Gson gson = new Gson();
             String[] result = gson.fromJson( jsonBufferedReader, String[].class );
-            return Arrays.asList( result );
+            List<String> resultList = Collections.unmodifiableList( new ArrayList<>( Arrays.asList( result ) ) );
+
+            heapEntries.put( searchQueryDocumentPath, resultList );
+            touchDiskEntry( searchQueryDocumentPath );
+            return resultList;
         }
         catch (IOException e) {
             e.printStackTrace();
@@ -97,8 +182,15 @@ public class SearchQueryCache extends DiskBasedCache {
         return Collections.emptyList();
     }
 
-    public Map<String, Map<Integer, String>> loadPreviewResult( String queryKey ) {
-        Path searchQueryDocumentPath = buildCacheTargetPathFromKey( queryKey, CACHE_PREVIEW_SUFFIX );
+    public synchronized Map<String, Map<Integer, String>> loadPreviewResult( String queryKey ) {
+        Path searchQueryDocumentPath = getCurrentCachePath( queryKey, CACHE_PREVIEW_SUFFIX );
+
+        @SuppressWarnings( "unchecked" )
+        Map<String, Map<Integer, String>> cachedResult = (Map<String, Map<Integer, String>>) heapEntries.peek( searchQueryDocumentPath );
+        if (cachedResult != null) {
+            touchDiskEntry( searchQueryDocumentPath );
+            return cachedResult;
+        }
 
         Type type = new TypeToken<TreeMap<String, TreeMap<Integer, String>>>() {
         }.getType();
@@ -107,6 +199,9 @@ public class SearchQueryCache extends DiskBasedCache {
             Gson gson = new Gson();
             @SuppressWarnings( "unchecked" )
             Map<String, Map<Integer, String>> result = (Map<String, Map<Integer, String>>) gson.fromJson( jsonBufferedReader, type );
+
+            heapEntries.put( searchQueryDocumentPath, result );
+            touchDiskEntry( searchQueryDocumentPath );
             return result;
         }
         catch (IOException e) {
@@ -116,38 +211,260 @@ public class SearchQueryCache extends DiskBasedCache {
         return Collections.emptyMap();
     }
 
-    public void saveQueryResult( String queryKey, Collection<String> documentIds ) {
-        Path searchQueryDocumentPath = buildCacheTargetPathFromKey( queryKey, CACHE_FILE_SUFFIX );
+    public synchronized void saveQueryResult( String queryKey, Collection<String> documentIds ) {
+        Path searchQueryDocumentPath = getCurrentCachePath( queryKey, CACHE_FILE_SUFFIX );
+
+        List<String> resultList = Collections.unmodifiableList( new ArrayList<>( documentIds ) );
+        save( searchQueryDocumentPath, resultList );
+    }
+
+    public synchronized void savePreviewResult( String queryKey, Map<String, Map<Integer, String>> previewData ) {
+        Path searchQueryDocumentPath = getCurrentCachePath( queryKey, CACHE_PREVIEW_SUFFIX );
+
+        save( searchQueryDocumentPath, previewData );
+    }
+
+    public void saveQuery( String qkey, String prettyPrintedQuery ) {
+        // the executed searches are recorded by the SearchQueryLog of the Search, which is used to 
+        // pre-warm a new index. The query results are not cached across index epochs.
+    }
+
+    /**
+     * @return the hits and misses of the in-heap tier
+     */
+    public CacheStatistics getHeapStatistics() {
+        return heapEntries.getStatistics();
+    }
+
+    /**
+     * @return the hits and misses of the on-disk tier, only lookups missed by the in-heap tier are counted,
+     *         the evictions are the files removed to stay within the size budget 
+     */
+    public CacheStatistics getDiskStatistics() {
+        return diskStatistics;
+    }
 
+    /**
+     * @return the ratio of the lookups answered by either tier
+     */
+    public double getHitRatio() {
+        long lookups = getHeapStatistics().getHits() + getHeapStatistics().getMisses();
+        if (lookups == 0L) {
+            return 0.0;
+        }
+        return (double) (getHeapStatistics().getHits() + diskStatistics.getHits()) / lookups;
+    }
+
+    /**
+     * @return the number of cached files, which were removed because they belong to an older index epoch
+     */
+    public synchronized long getStaleEntries() {
+        return staleEntries;
+    }
+
+    /**
+     * @return the size of the cached files on disk in bytes
+     */
+    public synchronized long getDiskSize() {
+        return diskSize;
+    }
+
+    private boolean isAvailable( String queryKey, String fileSuffix ) {
+        Path searchQueryDocumentPath = getCurrentCachePath( queryKey, fileSuffix );
+
+        if (heapEntries.getIfPresent( searchQueryDocumentPath ) != null) {
+            touchDiskEntry( searchQueryDocumentPath );
+            return true;
+        }
+
+        // the file may also have been written by another instance
+        if (diskEntries.containsKey( searchQueryDocumentPath ) || registerDiskEntry( searchQueryDocumentPath )) {
+            diskStatistics.recordHit();
+            return true;
+        }
+
+        diskStatistics.recordMiss();
+        return false;
+    }
+
+    private void save( Path searchQueryDocumentPath, Object value ) {
         createCacheTargetPath( searchQueryDocumentPath );
 
         try (BufferedWriter writer = Files.newBufferedWriter( searchQueryDocumentPath, StandardCharsets.UTF_8 )) {
             Gson gson = new Gson();
-            writer.write( gson.toJson( new LinkedList<>( documentIds ) ) );
+            writer.write( gson.toJson( value ) );
         }
         catch (IOException e) {
             e.printStackTrace();
+            return;
         }
+
+        registerDiskEntry( searchQueryDocumentPath );
+        heapEntries.put( searchQueryDocumentPath, value );
+        evictDiskEntries();
     }
 
-    public void savePreviewResult( String queryKey, Map<String, Map<Integer, String>> previewData ) {
-        Path searchQueryDocumentPath = buildCacheTargetPathFromKey( queryKey, CACHE_PREVIEW_SUFFIX );
+    private Path getCurrentCachePath( String queryKey, String fileSuffix ) {
+        updateEpoch();
+        return buildCacheTargetPathFromKey( queryKey, "." + currentEpoch + fileSuffix );
+    }
 
-        createCacheTargetPath( searchQueryDocumentPath );
+    /**
+     * Drops all entries of older index epochs, when the index epoch has advanced since the last access.
+     */
+    private void updateEpoch() {
+        long epoch = IndexEpoch.read( indexFolder );
+        if (diskEntries != null && epoch == currentEpoch) {
+            return;
+        }
 
-        try (BufferedWriter writer = Files.newBufferedWriter( searchQueryDocumentPath, StandardCharsets.UTF_8 )) {
-            Gson gson = new Gson();
-            writer.write( gson.toJson( previewData ) );
+        currentEpoch = epoch;
+        heapEntries.invalidateAll();
+        scanDiskEntries();
+        evictDiskEntries();
+    }
+
+    private void scanDiskEntries() {
+        diskEntries = new LinkedHashMap<>( 16, 0.75f, true );
+        diskSize = 0L;
+        lastTouchTimes.clear();
+
+        if (!Files.isDirectory( cacheFolder )) {
+            return;
+        }
+
+        List<Path> cachedFiles;
+        try (Stream<Path> files = Files.walk( cacheFolder )) {
+            cachedFiles = files.filter( Files::isRegularFile ).filter( this::isCachedFile ).collect( Collectors.toList() );
         }
         catch (IOException e) {
             e.printStackTrace();
+            return;
         }
 
+        List<Path> currentFiles = new ArrayList<>();
+        for (Path cachedFile : cachedFiles) {
+            if (getEpochOfCachedFile( cachedFile ) == currentEpoch) {
+                currentFiles.add( cachedFile );
+            }
+            else {
+                deleteFile( cachedFile );
+                staleEntries++;
+            }
+        }
+
+        // least recently used first
+        currentFiles.sort( Comparator.comparing( this::getLastModifiedTime ) );
+        for (Path currentFile : currentFiles) {
+            registerDiskEntry( currentFile );
+        }
     }
 
-    public void saveQuery( String qkey, String prettyPrintedQuery ) {
-        // TODO: save the search query to learn something about the queries, so that these can be
-        //       pre-cached after creating a new index.
+    private boolean registerDiskEntry( Path cachedFile ) {
+        try {
+            long fileSize = Files.size( cachedFile );
+            Long previousSize = diskEntries.put( cachedFile, fileSize );
+            diskSize += fileSize - ((previousSize == null) ? 0L : previousSize.longValue());
+            return true;
+        }
+        catch (IOException e) {
+            // the file doesn't exist (anymore)
+            return false;
+        }
+    }
+
+    private void touchDiskEntry( Path cachedFile ) {
+        // the lookup also moves the entry to the most recently used end of the access order
+        if (diskEntries.get( cachedFile ) == null) {
+            registerDiskEntry( cachedFile );
+        }
+
+        // hot entries are hit by most queries, the file is only touched once per interval
+        long now = System.currentTimeMillis();
+        Long lastTouchTime = lastTouchTimes.get( cachedFile );
+        if (lastTouchTime != null && now - lastTouchTime.longValue() < TOUCH_INTERVAL_MILLIS) {
+            return;
+        }
+
+        try {
+            Files.setLastModifiedTime( cachedFile, FileTime.fromMillis( now ) );
+            lastTouchTimes.put( cachedFile, now );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictDiskEntries() {
+        Iterator<Entry<Path, Long>> leastRecentlyUsed = diskEntries.entrySet().iterator();
+        while (diskSize > maxDiskSize && leastRecentlyUsed.hasNext()) {
+            Entry<Path, Long> evictedEntry = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+
+            diskSize -= evictedEntry.getValue().longValue();
+            lastTouchTimes.remove( evictedEntry.getKey() );
+            heapEntries.invalidate( evictedEntry.getKey() );
+            deleteFile( evictedEntry.getKey() );
+            diskStatistics.recordEviction();
+        }
+    }
+
+    private static long estimateSize( Object value ) {
+        long size = 64L;
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                size += estimateSize( element );
+            }
+        }
+        else if (value instanceof Map) {
+            for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += estimateSize( entry.getKey() ) + estimateSize( entry.getValue() );
+            }
+        }
+        else if (value instanceof String) {
+            size += 2L * ((String) value).length();
+        }
+        return size;
+    }
+
+    private boolean isCachedFile( Path path ) {
+        String filename = path.getFileName().toString();
+        return filename.endsWith( CACHE_FILE_SUFFIX ) || filename.endsWith( CACHE_PREVIEW_SUFFIX );
+    }
+
+    private long getEpochOfCachedFile( Path cachedFile ) {
+        // <queryKey>.<epoch>.<suffix>, files without an epoch were written before the epochs were introduced
+        String filename = cachedFile.getFileName().toString();
+        String withoutSuffix = filename.substring( 0, filename.lastIndexOf( '.' ) );
+        if (withoutSuffix.indexOf( '.' ) < 0) {
+            return -1L;
+        }
+
+        try {
+            return Long.parseLong( withoutSuffix.substring( withoutSuffix.lastIndexOf( '.' ) + 1 ) );
+        }
+        catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private FileTime getLastModifiedTime( Path cachedFile ) {
+        try {
+            return Files.getLastModifiedTime( cachedFile );
+        }
+        catch (IOException e) {
+            return FileTime.fromMillis( 0L );
+        }
+    }
+
+    private void deleteFile( Path cachedFile ) {
+        try {
+            Files.deleteIfExists( cachedFile );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "deleting file: '%s' caused this error...", cachedFile ) );
+            e.printStackTrace();
+        }
     }
 
 }
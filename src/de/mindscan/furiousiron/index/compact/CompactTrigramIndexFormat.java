@@ -0,0 +1,80 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.compact;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes the compact layout of an inverse trigram index. Instead of a directory tree with
+ * some files per trigram, the whole inverse index consists of two files: 
+ * 
+ * The dictionary file contains one fixed size entry per trigram, sorted by the trigram code, so a trigram
+ * can be found by a binary search over the memory mapped dictionary. Each entry points to the posting 
+ * list of the trigram in the postings file.
+ * 
+ * <pre>
+ * dictionary header: int magic, int version, int entryCount, int reserved
+ * dictionary entry:  long trigramCode, long postingsOffset, int postingsLength, int documentCount
+ * postings header:   int magic, int version, long reserved
+ * postings:          the posting lists in the binary posting list format, concatenated in dictionary order
+ * </pre>
+ * 
+ * All values are written in big endian byte order. 
+ * 
+ * @see de.mindscan.furiousiron.index.posting.PostingListFormat
+ * @see de.mindscan.furiousiron.index.trigram.TrigramCode
+ */
+public class CompactTrigramIndexFormat {
+
+    public static final int DICTIONARY_MAGIC = 0x46495444; // 'FITD'
+
+    public static final int POSTINGS_MAGIC = 0x46495450; // 'FITP'
+
+    public static final int VERSION_1 = 1;
+
+    public static final int DICTIONARY_HEADER_SIZE = 4 * Integer.BYTES;
+
+    public static final int DICTIONARY_ENTRY_SIZE = 2 * Long.BYTES + 2 * Integer.BYTES;
+
+    public static final int POSTINGS_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    public static final String CONTENT_INDEX_NAME = "inverseTrigram";
+
+    public static final String METADATA_INDEX_NAME = "inverseMetadataTrigram";
+
+    public static final String DICTIONARY_SUFFIX = ".dictionary";
+
+    public static final String POSTINGS_SUFFIX = ".postings";
+
+    public static Path getDictionaryPath( Path indexFolder, String indexName ) {
+        return indexFolder.resolve( indexName + DICTIONARY_SUFFIX );
+    }
+
+    public static Path getPostingsPath( Path indexFolder, String indexName ) {
+        return indexFolder.resolve( indexName + POSTINGS_SUFFIX );
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.compact;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+import de.mindscan.furiousiron.index.trigram.TrigramCode;
+
+/**
+ * Reads an inverse trigram index in the compact layout. The dictionary is memory mapped and a trigram 
+ * is found by a binary search over the fixed size entries. The postings file is memory mapped as well,
+ * postings files larger than 2 GiB are mapped per posting list.
+ * 
+ * @see CompactTrigramIndexFormat
+ */
+public class CompactTrigramIndexReader {
+
+    private final ByteBuffer dictionary;
+    private final int entryCount;
+
+    private final Path postingsPath;
+    private final ByteBuffer postings;
+
+    private CompactTrigramIndexReader( ByteBuffer dictionary, Path postingsPath, ByteBuffer postings ) throws IOException {
+        this.dictionary = dictionary;
+        this.postingsPath = postingsPath;
+        this.postings = postings;
+
+        if (dictionary.capacity() < CompactTrigramIndexFormat.DICTIONARY_HEADER_SIZE
+                        || dictionary.getInt( 0 ) != CompactTrigramIndexFormat.DICTIONARY_MAGIC) {
+            throw new IOException( "Not a trigram dictionary." );
+        }
+        if (dictionary.getInt( 4 ) != CompactTrigramIndexFormat.VERSION_1) {
+            throw new IOException( "Unsupported trigram dictionary version: " + dictionary.getInt( 4 ) );
+        }
+
+        this.entryCount = dictionary.getInt( 8 );
+        if (dictionary.capacity() < CompactTrigramIndexFormat.DICTIONARY_HEADER_SIZE + (long) entryCount * CompactTrigramIndexFormat.DICTIONARY_ENTRY_SIZE) {
+            throw new IOException( "Trigram dictionary is truncated." );
+        }
+    }
+
+    public static boolean exists( Path indexFolder, String indexName ) {
+        return Files.exists( CompactTrigramIndexFormat.getDictionaryPath( indexFolder, indexName ) )
+                        && Files.exists( CompactTrigramIndexFormat.getPostingsPath( indexFolder, indexName ) );
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @param indexName the name of the inverse index e.g. 'inverseTrigram'
+     * @return the reader
+     * @throws IOException if the files can not be mapped or don't contain a compact index
+     */
+    public static CompactTrigramIndexReader open( Path indexFolder, String indexName ) throws IOException {
+        Path dictionaryPath = CompactTrigramIndexFormat.getDictionaryPath( indexFolder, indexName );
+        Path postingsPath = CompactTrigramIndexFormat.getPostingsPath( indexFolder, indexName );
+
+        ByteBuffer dictionary;
+        try (FileChannel channel = FileChannel.open( dictionaryPath, StandardOpenOption.READ )) {
+            dictionary = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+        }
+
+        ByteBuffer postings = null;
+        try (FileChannel channel = FileChannel.open( postingsPath, StandardOpenOption.READ )) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                postings = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+            }
+        }
+
+        return new CompactTrigramIndexReader( dictionary, postingsPath, postings );
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * @param trigram the trigram
+     * @return the number of documents containing the trigram, 0 if the trigram is not indexed
+     */
+    public long getDocumentCount( String trigram ) {
+        int entry = findEntry( trigram );
+        if (entry < 0) {
+            return 0L;
+        }
+        return dictionary.getInt( getEntryPosition( entry ) + 2 * Long.BYTES + Integer.BYTES );
+    }
+
+    /**
+     * @param trigram the trigram
+     * @return the reader of the posting list or <code>null</code> if the trigram is not indexed
+     * @throws IOException if the posting list can not be read
+     */
+    public PostingListReader getPostingList( String trigram ) throws IOException {
+        int entry = findEntry( trigram );
+        if (entry < 0) {
+            return null;
+        }
+
+        int entryPosition = getEntryPosition( entry );
+        long offset = dictionary.getLong( entryPosition + Long.BYTES );
+        int length = dictionary.getInt( entryPosition + 2 * Long.BYTES );
+
+        if (postings != null) {
+            ByteBuffer postingList = postings.duplicate();
+            postingList.position( (int) offset );
+            postingList.limit( (int) offset + length );
+            return new PostingListReader( postingList );
+        }
+
+        try (FileChannel channel = FileChannel.open( postingsPath, StandardOpenOption.READ )) {
+            return new PostingListReader( channel.map( MapMode.READ_ONLY, offset, length ) );
+        }
+    }
+
+    /**
+     * @param entry the index of the dictionary entry 
+     * @return the trigram of the dictionary entry
+     */
+    public String getTrigram( int entry ) {
+        return TrigramCode.decode( dictionary.getLong( getEntryPosition( entry ) ) );
+    }
+
+    private int findEntry( String trigram ) {
+        if (trigram.length() != 3) {
+            return -1;
+        }
+
+        long trigramCode = TrigramCode.encode( trigram );
+
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleCode = dictionary.getLong( getEntryPosition( middle ) );
+
+            if (middleCode < trigramCode) {
+                low = middle + 1;
+            }
+            else if (middleCode > trigramCode) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int getEntryPosition( int entry ) {
+        return CompactTrigramIndexFormat.DICTIONARY_HEADER_SIZE + entry * CompactTrigramIndexFormat.DICTIONARY_ENTRY_SIZE;
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.compact;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+import de.mindscan.furiousiron.index.trigram.TrigramCode;
+
+/**
+ * Writes an inverse trigram index in the compact layout. The trigrams must be added in increasing 
+ * order of their trigram codes. Both files are written to temporary files and only moved to their 
+ * final location on {@link #close()}, the postings before the dictionary.
+ * 
+ * @see CompactTrigramIndexFormat
+ */
+public class CompactTrigramIndexWriter implements Closeable {
+
+    private final Path dictionaryPath;
+    private final Path postingsPath;
+    private final Path temporaryDictionaryPath;
+    private final Path temporaryPostingsPath;
+
+    private final DataOutputStream postings;
+    private final ByteArrayOutputStream dictionaryEntriesBuffer;
+    private final DataOutputStream dictionaryEntries;
+
+    private long postingsOffset;
+    private long previousTrigramCode = -1L;
+    private int entryCount = 0;
+
+    public CompactTrigramIndexWriter( Path dictionaryPath, Path postingsPath ) throws IOException {
+        this.dictionaryPath = dictionaryPath;
+        this.postingsPath = postingsPath;
+        this.temporaryDictionaryPath = dictionaryPath.resolveSibling( dictionaryPath.getFileName().toString() + ".tmp" );
+        this.temporaryPostingsPath = postingsPath.resolveSibling( postingsPath.getFileName().toString() + ".tmp" );
+
+        Files.createDirectories( postingsPath.getParent() );
+
+        this.postings = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryPostingsPath ), 1 << 16 ) );
+        this.postings.writeInt( CompactTrigramIndexFormat.POSTINGS_MAGIC );
+        this.postings.writeInt( CompactTrigramIndexFormat.VERSION_1 );
+        this.postings.writeLong( 0L );
+        this.postingsOffset = CompactTrigramIndexFormat.POSTINGS_HEADER_SIZE;
+
+        this.dictionaryEntriesBuffer = new ByteArrayOutputStream();
+        this.dictionaryEntries = new DataOutputStream( dictionaryEntriesBuffer );
+    }
+
+    /**
+     * @param trigram the trigram, must be greater than the previously added trigram
+     * @param sortedOrdinals the strictly increasing ordinals of the documents containing the trigram
+     * @throws IOException if the posting list can not be written
+     */
+    public void add( String trigram, int[] sortedOrdinals ) throws IOException {
+        long trigramCode = TrigramCode.encode( trigram );
+        if (trigramCode <= previousTrigramCode) {
+            throw new IllegalArgumentException( "Trigrams must be added in increasing order, but found '" + trigram + "' after '"
+                            + TrigramCode.decode( previousTrigramCode ) + "'." );
+        }
+
+        ByteBuffer encodedPostingList = PostingListWriter.encode( sortedOrdinals );
+        int postingsLength = encodedPostingList.remaining();
+        postings.write( encodedPostingList.array(), encodedPostingList.arrayOffset() + encodedPostingList.position(), postingsLength );
+
+        dictionaryEntries.writeLong( trigramCode );
+        dictionaryEntries.writeLong( postingsOffset );
+        dictionaryEntries.writeInt( postingsLength );
+        dictionaryEntries.writeInt( sortedOrdinals.length );
+
+        postingsOffset += postingsLength;
+        previousTrigramCode = trigramCode;
+        entryCount++;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        postings.close();
+        dictionaryEntries.flush();
+
+        try (DataOutputStream dictionary = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryDictionaryPath ) ) )) {
+            dictionary.writeInt( CompactTrigramIndexFormat.DICTIONARY_MAGIC );
+            dictionary.writeInt( CompactTrigramIndexFormat.VERSION_1 );
+            dictionary.writeInt( entryCount );
+            dictionary.writeInt( 0 );
+            dictionaryEntriesBuffer.writeTo( dictionary );
+        }
+
+        // the dictionary is moved last, the compact index is only used, when the dictionary exists.
+        Files.move( temporaryPostingsPath, postingsPath, StandardCopyOption.REPLACE_EXISTING );
+        Files.move( temporaryDictionaryPath, dictionaryPath, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    /**
+     * Removes a compact index, e.g. because the inverse index tree was updated and the compact index 
+     * is outdated now.
+     * 
+     * @param indexFolder the index folder
+     * @param indexName the name of the inverse index e.g. 'inverseTrigram'
+     * @throws IOException if the files can not be removed
+     */
+    public static void delete( Path indexFolder, String indexName ) throws IOException {
+        // the dictionary is removed first, the compact index is only used, when the dictionary exists.
+        Files.deleteIfExists( CompactTrigramIndexFormat.getDictionaryPath( indexFolder, indexName ) );
+        Files.deleteIfExists( CompactTrigramIndexFormat.getPostingsPath( indexFolder, indexName ) );
+    }
+
+}
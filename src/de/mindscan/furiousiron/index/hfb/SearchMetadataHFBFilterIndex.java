@@ -25,27 +25,50 @@
  */
 package de.mindscan.furiousiron.index.hfb;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import de.mindscan.furiousiron.hfb.HFBFilterBank;
 import de.mindscan.furiousiron.hfb.HFBFilterFactory;
 import de.mindscan.furiousiron.hfb.io.HFBFilterBankWriterV1Impl;
 import de.mindscan.furiousiron.index.trigram.TrigramSubPathCalculator;
+import de.mindscan.furiousiron.util.cache.CacheStatistics;
+import de.mindscan.furiousiron.util.cache.WeightedLRUCache;
 
 /**
  * This is a read-only index for the metadata hfb filters. 
+ * 
+ * The loaded filter banks are kept in a cache, which is bounded by the file size of the filter banks,
+ * so the filter banks of frequently used trigrams are not read and parsed again for every query.
  */
 public class SearchMetadataHFBFilterIndex {
 
     private static final String HFB_INVERSE_METADATA_INDEX = "hfbInverseMetadataFilters.index";
     private static final String HFB_FILE_EXTENSION = HFBFilterBankWriterV1Impl.FILE_DOT_SUFFIX;
 
+    // size of the filter banks kept in memory
+    public static final long DEFAULT_FILTER_BANK_CACHE_SIZE_IN_BYTES = 32L * 1024L * 1024L;
+
+    // weight of a neutral filter bank, which replaces a missing or broken filter bank file
+    private static final long NEUTRAL_FILTER_BANK_WEIGHT = 64L;
+
     private final Path inverseTrigramsHFBFiltersPath;
 
     private final HFBFilterFactory hfbFactory = new HFBFilterFactory();
 
+    private final WeightedLRUCache<String, WeightedFilterBank> filterBankCache;
+
     public SearchMetadataHFBFilterIndex( Path indexFolder ) {
+        this( indexFolder, DEFAULT_FILTER_BANK_CACHE_SIZE_IN_BYTES );
+    }
+
+    /**
+     * @param indexFolder
+     * @param filterBankCacheSizeInBytes the maximum size of the filter banks kept in memory
+     */
+    public SearchMetadataHFBFilterIndex( Path indexFolder, long filterBankCacheSizeInBytes ) {
         this.inverseTrigramsHFBFiltersPath = indexFolder.resolve( HFB_INVERSE_METADATA_INDEX );
+        this.filterBankCache = new WeightedLRUCache<>( filterBankCacheSizeInBytes, WeightedFilterBank::getWeight );
     }
 
     public static String getLocalIndexFolder() {
@@ -53,17 +76,43 @@ public class SearchMetadataHFBFilterIndex {
     }
 
     public HFBFilterBank loadFilterBankForTrigram( String trigram ) {
+        return filterBankCache.get( trigram, this::loadFromDisk ).getFilterBank();
+    }
+
+    public CacheStatistics getFilterBankCacheStatistics() {
+        return filterBankCache.getStatistics();
+    }
+
+    private WeightedFilterBank loadFromDisk( String trigram ) {
         Path hfbPath = TrigramSubPathCalculator.getPathForTrigram( inverseTrigramsHFBFiltersPath, trigram, HFB_FILE_EXTENSION );
 
         try {
             HFBFilterBank hfbFilterBank = hfbFactory.fromFile( hfbPath.toString() );
 
-            return hfbFilterBank;
+            // the file size is a good approximation of the size of the loaded filter bank
+            return new WeightedFilterBank( hfbFilterBank, Files.size( hfbPath ) );
         }
         catch (Exception e) {
             // in case of problems, return a neutral filter, which filters nothing.
-            return hfbFactory.neutralFilter();
+            return new WeightedFilterBank( hfbFactory.neutralFilter(), NEUTRAL_FILTER_BANK_WEIGHT );
+        }
+    }
+
+    private static class WeightedFilterBank {
+        private final HFBFilterBank filterBank;
+        private final long weight;
+
+        WeightedFilterBank( HFBFilterBank filterBank, long weight ) {
+            this.filterBank = filterBank;
+            this.weight = weight;
+        }
+
+        HFBFilterBank getFilterBank() {
+            return filterBank;
         }
 
+        long getWeight() {
+            return weight;
+        }
     }
 }
@@ -0,0 +1,66 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.metadata;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes the layout of the columnar metadata store. Instead of one '.metadata' file per 
+ * document, the metadata of all documents is stored column by column in a single memory mapped file. 
+ * The row of a document is its document ordinal.
+ * 
+ * <pre>
+ * header:                 int magic, int version, int rowCount, int classColumnCount
+ * fixed width columns:    rowCount times long fileSize, rowCount times long numberOfLines
+ * string columns:         (rowCount + 1) times int pathOffset, (rowCount + 1) times int filenameOffset
+ * per class column:       string classKey, int dictionarySize, dictionarySize times string value, 
+ *                         rowCount times int valueId
+ * string heap:            int heapLength, heapLength bytes
+ * string:                 int byteLength, byteLength bytes
+ * </pre>
+ * 
+ * The path and the filename of row n are the UTF-8 encoded bytes of the string heap between offset n 
+ * and offset n+1. A row without metadata has an empty path. The values of a class column are dictionary 
+ * encoded, a row without this class has the value id {@link #NO_VALUE}. All values are written in big 
+ * endian byte order.
+ */
+public class ColumnarMetadataFormat {
+
+    public static final int MAGIC = 0x4649434D; // 'FICM'
+
+    public static final int VERSION_1 = 1;
+
+    public static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    public static final int NO_VALUE = -1;
+
+    public static final String METADATA_COLUMNS_FILENAME = "documentMetadata.columns";
+
+    public static Path getMetadataColumnsPath( Path indexFolder ) {
+        return indexFolder.resolve( METADATA_COLUMNS_FILENAME );
+    }
+
+}
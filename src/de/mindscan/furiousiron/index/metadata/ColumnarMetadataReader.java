@@ -0,0 +1,302 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.metadata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentMetadataFactory;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Reads the columnar metadata store. The store is memory mapped, only the small value dictionaries of 
+ * the class columns are decoded when the store is opened. Filtering the documents by a document class 
+ * is a sequential scan over one column of integers.
+ * 
+ * @see ColumnarMetadataFormat
+ */
+public class ColumnarMetadataReader {
+
+    private final ByteBuffer columns;
+    private final int rowCount;
+
+    private final int numberOfLinesPosition;
+    private final int pathOffsetsPosition;
+    private final int filenameOffsetsPosition;
+    private final int stringHeapPosition;
+
+    // class key -> class column
+    private final Map<String, ClassColumn> classColumns;
+
+    private ColumnarMetadataReader( ByteBuffer columns ) throws IOException {
+        this.columns = columns;
+
+        if (columns.capacity() < ColumnarMetadataFormat.HEADER_SIZE || columns.getInt( 0 ) != ColumnarMetadataFormat.MAGIC) {
+            throw new IOException( "Not a columnar metadata store." );
+        }
+        if (columns.getInt( 4 ) != ColumnarMetadataFormat.VERSION_1) {
+            throw new IOException( "Unsupported columnar metadata store version: " + columns.getInt( 4 ) );
+        }
+
+        this.rowCount = columns.getInt( 8 );
+        int classColumnCount = columns.getInt( 12 );
+
+        this.numberOfLinesPosition = ColumnarMetadataFormat.HEADER_SIZE + rowCount * Long.BYTES;
+        this.pathOffsetsPosition = numberOfLinesPosition + rowCount * Long.BYTES;
+        this.filenameOffsetsPosition = pathOffsetsPosition + (rowCount + 1) * Integer.BYTES;
+
+        this.classColumns = new LinkedHashMap<>();
+        int position = filenameOffsetsPosition + (rowCount + 1) * Integer.BYTES;
+        for (int i = 0; i < classColumnCount; i++) {
+            String classKey = readString( position );
+            position += Integer.BYTES + columns.getInt( position );
+
+            int dictionarySize = columns.getInt( position );
+            position += Integer.BYTES;
+
+            String[] dictionary = new String[dictionarySize];
+            for (int valueId = 0; valueId < dictionarySize; valueId++) {
+                dictionary[valueId] = readString( position );
+                position += Integer.BYTES + columns.getInt( position );
+            }
+
+            classColumns.put( classKey, new ClassColumn( dictionary, position ) );
+            position += rowCount * Integer.BYTES;
+        }
+
+        this.stringHeapPosition = position + Integer.BYTES;
+        if (columns.capacity() < (long) stringHeapPosition + columns.getInt( position )) {
+            throw new IOException( "Columnar metadata store is truncated." );
+        }
+    }
+
+    public static boolean exists( Path indexFolder ) {
+        return Files.exists( ColumnarMetadataFormat.getMetadataColumnsPath( indexFolder ) );
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @return the reader
+     * @throws IOException if the store can not be mapped or is not a columnar metadata store
+     */
+    public static ColumnarMetadataReader open( Path indexFolder ) throws IOException {
+        try (FileChannel channel = FileChannel.open( ColumnarMetadataFormat.getMetadataColumnsPath( indexFolder ), StandardOpenOption.READ )) {
+            return new ColumnarMetadataReader( channel.map( MapMode.READ_ONLY, 0, channel.size() ) );
+        }
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return whether the store contains the metadata of the document
+     */
+    public boolean contains( int documentOrdinal ) {
+        return documentOrdinal >= 0 && documentOrdinal < rowCount && getStringLength( pathOffsetsPosition, documentOrdinal ) > 0;
+    }
+
+    public long getFileSize( int documentOrdinal ) {
+        return columns.getLong( ColumnarMetadataFormat.HEADER_SIZE + documentOrdinal * Long.BYTES );
+    }
+
+    public long getNumberOfLines( int documentOrdinal ) {
+        return columns.getLong( numberOfLinesPosition + documentOrdinal * Long.BYTES );
+    }
+
+    public String getRelativePath( int documentOrdinal ) {
+        return getString( pathOffsetsPosition, documentOrdinal );
+    }
+
+    public String getDocumentSimpleName( int documentOrdinal ) {
+        return getString( filenameOffsetsPosition, documentOrdinal );
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @param classKey the key of the document class, e.g. 'filetype'
+     * @return the value of the document class or <code>null</code> if the document doesn't have this class
+     */
+    public String getClassValue( int documentOrdinal, String classKey ) {
+        ClassColumn classColumn = classColumns.get( classKey );
+        if (classColumn == null) {
+            return null;
+        }
+        return classColumn.getValue( documentOrdinal );
+    }
+
+    public Collection<String> getClassKeys() {
+        return Collections.unmodifiableCollection( classColumns.keySet() );
+    }
+
+    /**
+     * Materializes the metadata of a document.
+     * 
+     * @param documentOrdinal the document ordinal
+     * @param documentKey the document key of the ordinal
+     * @return the metadata or <code>null</code> if the store doesn't contain the metadata of the document
+     */
+    public DocumentMetadata getDocumentMetadata( int documentOrdinal, String documentKey ) {
+        if (!contains( documentOrdinal )) {
+            return null;
+        }
+
+        DocumentMetadata documentMetadata = DocumentMetadataFactory.createDocumentMetadata( documentKey, getRelativePath( documentOrdinal ),
+                        getDocumentSimpleName( documentOrdinal ) );
+        documentMetadata.setFileSize( getFileSize( documentOrdinal ) );
+        documentMetadata.setNumberOfLines( getNumberOfLines( documentOrdinal ) );
+
+        for (Entry<String, ClassColumn> classColumn : classColumns.entrySet()) {
+            String value = classColumn.getValue().getValue( documentOrdinal );
+            if (value != null) {
+                documentMetadata.addClass( classColumn.getKey(), value );
+            }
+        }
+
+        return documentMetadata;
+    }
+
+    /**
+     * Returns all documents, which have the given value for a document class.
+     * 
+     * @param classKey the key of the document class, e.g. 'filetype'
+     * @param value the value of the document class, e.g. 'python'
+     * @return the ordinals of the matching documents
+     */
+    public DocumentBitmap findDocuments( String classKey, String value ) {
+        DocumentBitmap result = new DocumentBitmap();
+
+        ClassColumn classColumn = classColumns.get( classKey );
+        int valueId = (classColumn == null) ? ColumnarMetadataFormat.NO_VALUE : classColumn.getValueId( value );
+        if (valueId == ColumnarMetadataFormat.NO_VALUE) {
+            return result;
+        }
+
+        for (int row = 0; row < rowCount; row++) {
+            if (classColumn.getValueIdOfRow( row ) == valueId) {
+                result.add( row );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps only the candidates, which have the given value for a document class. The candidates are 
+     * visited in ascending order, so the column is read sequentially.
+     * 
+     * @param candidates the candidate documents
+     * @param classKey the key of the document class, e.g. 'filetype'
+     * @param value the value of the document class, e.g. 'python'
+     * @return the ordinals of the matching candidates
+     */
+    public DocumentBitmap retainDocuments( DocumentBitmap candidates, String classKey, String value ) {
+        DocumentBitmap result = new DocumentBitmap();
+
+        ClassColumn classColumn = classColumns.get( classKey );
+        int valueId = (classColumn == null) ? ColumnarMetadataFormat.NO_VALUE : classColumn.getValueId( value );
+        if (valueId == ColumnarMetadataFormat.NO_VALUE) {
+            return result;
+        }
+
+        candidates.forEach( ordinal -> {
+            if (ordinal < rowCount && classColumn.getValueIdOfRow( ordinal ) == valueId) {
+                result.add( ordinal );
+            }
+        } );
+        return result;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    private int getStringLength( int offsetsPosition, int row ) {
+        return columns.getInt( offsetsPosition + (row + 1) * Integer.BYTES ) - columns.getInt( offsetsPosition + row * Integer.BYTES );
+    }
+
+    private String getString( int offsetsPosition, int row ) {
+        int start = columns.getInt( offsetsPosition + row * Integer.BYTES );
+        return decode( stringHeapPosition + start, getStringLength( offsetsPosition, row ) );
+    }
+
+    private String readString( int position ) {
+        return decode( position + Integer.BYTES, columns.getInt( position ) );
+    }
+
+    private String decode( int position, int length ) {
+        ByteBuffer slice = columns.duplicate();
+        slice.position( position );
+        slice.limit( position + length );
+        return StandardCharsets.UTF_8.decode( slice ).toString();
+    }
+
+    /**
+     * The dictionary of a class column and the position of its value ids.
+     */
+    private class ClassColumn {
+
+        private final String[] dictionary;
+        private final Map<String, Integer> valueIds;
+        private final int valueIdsPosition;
+
+        ClassColumn( String[] dictionary, int valueIdsPosition ) {
+            this.dictionary = dictionary;
+            this.valueIdsPosition = valueIdsPosition;
+            this.valueIds = new HashMap<>();
+            for (int valueId = 0; valueId < dictionary.length; valueId++) {
+                valueIds.put( dictionary[valueId], valueId );
+            }
+        }
+
+        int getValueId( String value ) {
+            return valueIds.getOrDefault( value, ColumnarMetadataFormat.NO_VALUE );
+        }
+
+        int getValueIdOfRow( int row ) {
+            return columns.getInt( valueIdsPosition + row * Integer.BYTES );
+        }
+
+        String getValue( int row ) {
+            if (row < 0 || row >= rowCount) {
+                return null;
+            }
+
+            int valueId = getValueIdOfRow( row );
+            return (valueId == ColumnarMetadataFormat.NO_VALUE) ? null : dictionary[valueId];
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.metadata;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import de.mindscan.furiousiron.document.DocumentMetadata;
+
+/**
+ * Collects the metadata of the documents row by row and writes them as a columnar metadata store. The 
+ * store is always written as a whole, to a temporary file first, which is then moved, so a reader never 
+ * sees a partially written store.
+ * 
+ * @see ColumnarMetadataFormat
+ */
+public class ColumnarMetadataWriter {
+
+    private long[] fileSizes;
+    private long[] numberOfLines;
+    private String[] paths;
+    private String[] filenames;
+    private int rowCount;
+
+    // class key -> dictionary encoded column
+    private final Map<String, ClassColumn> classColumns;
+
+    public ColumnarMetadataWriter() {
+        this.fileSizes = new long[1024];
+        this.numberOfLines = new long[1024];
+        this.paths = new String[1024];
+        this.filenames = new String[1024];
+        this.classColumns = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param documentOrdinal the ordinal of the document, which is the row of the metadata
+     * @param documentMetadata the metadata of the document
+     */
+    public void add( int documentOrdinal, DocumentMetadata documentMetadata ) {
+        ensureCapacity( documentOrdinal + 1 );
+        rowCount = Math.max( rowCount, documentOrdinal + 1 );
+
+        fileSizes[documentOrdinal] = documentMetadata.getFileSize();
+        numberOfLines[documentOrdinal] = documentMetadata.getNumberOfLines();
+        paths[documentOrdinal] = documentMetadata.getRelativePath();
+        filenames[documentOrdinal] = documentMetadata.getDocumentSimpleName();
+
+        for (Entry<String, String> documentClass : documentMetadata.getClassifierMap().entrySet()) {
+            classColumns.computeIfAbsent( documentClass.getKey(), key -> new ClassColumn() ).setValue( documentOrdinal, documentClass.getValue() );
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @throws IOException if the store can not be written
+     */
+    public void write( Path indexFolder ) throws IOException {
+        Path columnsPath = ColumnarMetadataFormat.getMetadataColumnsPath( indexFolder );
+        Path temporaryPath = columnsPath.resolveSibling( ColumnarMetadataFormat.METADATA_COLUMNS_FILENAME + ".tmp" );
+        Files.createDirectories( indexFolder );
+
+        try (DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryPath ) ) )) {
+            output.writeInt( ColumnarMetadataFormat.MAGIC );
+            output.writeInt( ColumnarMetadataFormat.VERSION_1 );
+            output.writeInt( rowCount );
+            output.writeInt( classColumns.size() );
+
+            for (int row = 0; row < rowCount; row++) {
+                output.writeLong( fileSizes[row] );
+            }
+            for (int row = 0; row < rowCount; row++) {
+                output.writeLong( numberOfLines[row] );
+            }
+
+            // the paths and the filenames share one string heap
+            ByteArrayOutputStream stringHeap = new ByteArrayOutputStream();
+            writeStringOffsets( output, paths, stringHeap );
+            writeStringOffsets( output, filenames, stringHeap );
+
+            for (Entry<String, ClassColumn> classColumn : classColumns.entrySet()) {
+                writeString( output, classColumn.getKey() );
+                classColumn.getValue().write( output, rowCount );
+            }
+
+            output.writeInt( stringHeap.size() );
+            stringHeap.writeTo( output );
+        }
+
+        Files.move( temporaryPath, columnsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Removes the columnar metadata store of the index folder, e.g. because the documents are indexed again.
+     * 
+     * @param indexFolder the index folder
+     * @throws IOException if the store can not be deleted
+     */
+    public static void delete( Path indexFolder ) throws IOException {
+        Files.deleteIfExists( ColumnarMetadataFormat.getMetadataColumnsPath( indexFolder ) );
+    }
+
+    private void writeStringOffsets( DataOutputStream output, String[] strings, ByteArrayOutputStream stringHeap ) throws IOException {
+        output.writeInt( stringHeap.size() );
+        for (int row = 0; row < rowCount; row++) {
+            if (strings[row] != null) {
+                stringHeap.write( strings[row].getBytes( StandardCharsets.UTF_8 ) );
+            }
+            output.writeInt( stringHeap.size() );
+        }
+    }
+
+    static void writeString( DataOutputStream output, String value ) throws IOException {
+        byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+        output.writeInt( bytes.length );
+        output.write( bytes );
+    }
+
+    private void ensureCapacity( int requiredRows ) {
+        if (requiredRows <= fileSizes.length) {
+            return;
+        }
+
+        int newCapacity = Math.max( fileSizes.length * 2, requiredRows );
+        fileSizes = Arrays.copyOf( fileSizes, newCapacity );
+        numberOfLines = Arrays.copyOf( numberOfLines, newCapacity );
+        paths = Arrays.copyOf( paths, newCapacity );
+        filenames = Arrays.copyOf( filenames, newCapacity );
+    }
+
+    /**
+     * The dictionary encoded values of one document class. 
+     */
+    private static class ClassColumn {
+
+        private final Map<String, Integer> valueIds = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] rowValueIds = new int[0];
+
+        void setValue( int row, String value ) {
+            if (row >= rowValueIds.length) {
+                int oldCapacity = rowValueIds.length;
+                rowValueIds = Arrays.copyOf( rowValueIds, Math.max( oldCapacity * 2, Math.max( 1024, row + 1 ) ) );
+                Arrays.fill( rowValueIds, oldCapacity, rowValueIds.length, ColumnarMetadataFormat.NO_VALUE );
+            }
+
+            rowValueIds[row] = valueIds.computeIfAbsent( value, newValue -> {
+                dictionary.add( newValue );
+                return dictionary.size() - 1;
+            } );
+        }
+
+        void write( DataOutputStream output, int rowCount ) throws IOException {
+            output.writeInt( dictionary.size() );
+            for (String value : dictionary) {
+                writeString( output, value );
+            }
+
+            for (int row = 0; row < rowCount; row++) {
+                output.writeInt( row < rowValueIds.length ? rowValueIds[row] : ColumnarMetadataFormat.NO_VALUE );
+            }
+        }
+    }
+
+}
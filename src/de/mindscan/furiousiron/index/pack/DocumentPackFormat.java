@@ -0,0 +1,86 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.pack;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes the layout of the document pack store. Instead of one cached file per document, 
+ * the contents of the documents are appended to a few large pack files, which are memory mapped by the 
+ * search. An offset index, keyed by the document ordinal, tells where the content of a document is located.
+ * 
+ * The start offsets of the lines of each document are stored right behind its content, so a range of 
+ * lines can be located without decoding the whole document.
+ * 
+ * <pre>
+ * pack index header: int magic, int version, int entryCount, int packCount
+ * pack index entry:  int packNumber, int contentLength, long contentOffset, int lineCount, int reserved
+ * pack header:       int magic, int version, long reserved
+ * pack document:     the content, followed by lineCount times int lineStartOffset (relative to the content)
+ * </pre>
+ * 
+ * The entry of a document ordinal is located at the header size plus ordinal times the entry size, the 
+ * pack number of ordinals without a packed document is {@link #NO_PACK}. All values are written in big 
+ * endian byte order.
+ */
+public class DocumentPackFormat {
+
+    public static final int PACK_INDEX_MAGIC = 0x46495049; // 'FIPI'
+
+    public static final int PACK_MAGIC = 0x4649504B; // 'FIPK'
+
+    public static final int VERSION_1 = 1;
+
+    public static final int PACK_INDEX_HEADER_SIZE = 4 * Integer.BYTES;
+
+    public static final int PACK_INDEX_ENTRY_SIZE = Long.BYTES + 4 * Integer.BYTES;
+
+    public static final int PACK_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    public static final int NO_PACK = -1;
+
+    // a pack is mapped as a whole, so it must stay well below 2 GiB
+    public static final long DEFAULT_MAX_PACK_SIZE = 512L * 1024L * 1024L;
+
+    public static final String DOCUMENT_PACKS_FOLDER = "documentPacks";
+
+    public static final String PACK_INDEX_FILENAME = "documents.packindex";
+
+    public static final String PACK_SUFFIX = ".pack";
+
+    public static Path getPackFolder( Path indexFolder ) {
+        return indexFolder.resolve( DOCUMENT_PACKS_FOLDER );
+    }
+
+    public static Path getPackIndexPath( Path indexFolder ) {
+        return getPackFolder( indexFolder ).resolve( PACK_INDEX_FILENAME );
+    }
+
+    public static Path getPackPath( Path indexFolder, int packNumber ) {
+        return getPackFolder( indexFolder ).resolve( "documents." + packNumber + PACK_SUFFIX );
+    }
+
+}
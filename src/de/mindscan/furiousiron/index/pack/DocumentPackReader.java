@@ -0,0 +1,224 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.pack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the documents of a document pack store. The offset index and the pack files are memory mapped,
+ * the content of a document is returned as a read only view into the mapped pack, without copying it.
+ * 
+ * @see DocumentPackFormat
+ */
+public class DocumentPackReader {
+
+    private final Path indexFolder;
+    private final ByteBuffer packIndex;
+    private final int entryCount;
+
+    // the packs are mapped on first access
+    private final ByteBuffer[] packs;
+
+    private DocumentPackReader( Path indexFolder, ByteBuffer packIndex ) throws IOException {
+        this.indexFolder = indexFolder;
+        this.packIndex = packIndex;
+
+        checkHeader( packIndex );
+
+        this.entryCount = packIndex.getInt( 8 );
+        this.packs = new ByteBuffer[packIndex.getInt( 12 )];
+
+        if (packIndex.capacity() < DocumentPackFormat.PACK_INDEX_HEADER_SIZE + (long) entryCount * DocumentPackFormat.PACK_INDEX_ENTRY_SIZE) {
+            throw new IOException( "Document pack index is truncated." );
+        }
+    }
+
+    static void checkHeader( ByteBuffer packIndex ) throws IOException {
+        if (packIndex.capacity() < DocumentPackFormat.PACK_INDEX_HEADER_SIZE || packIndex.getInt( 0 ) != DocumentPackFormat.PACK_INDEX_MAGIC) {
+            throw new IOException( "Not a document pack index." );
+        }
+        if (packIndex.getInt( 4 ) != DocumentPackFormat.VERSION_1) {
+            throw new IOException( "Unsupported document pack index version: " + packIndex.getInt( 4 ) );
+        }
+    }
+
+    public static boolean exists( Path indexFolder ) {
+        return Files.exists( DocumentPackFormat.getPackIndexPath( indexFolder ) );
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @return the reader
+     * @throws IOException if the offset index can not be mapped or is not a document pack index
+     */
+    public static DocumentPackReader open( Path indexFolder ) throws IOException {
+        try (FileChannel channel = FileChannel.open( DocumentPackFormat.getPackIndexPath( indexFolder ), StandardOpenOption.READ )) {
+            return new DocumentPackReader( indexFolder, channel.map( MapMode.READ_ONLY, 0, channel.size() ) );
+        }
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return whether the document is contained in the packs
+     */
+    public boolean contains( int documentOrdinal ) {
+        return documentOrdinal >= 0 && documentOrdinal < entryCount && getPackNumber( documentOrdinal ) != DocumentPackFormat.NO_PACK;
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return a read only view of the content or <code>null</code> if the document is not packed
+     * @throws IOException if the pack can not be mapped
+     */
+    public ByteBuffer getContent( int documentOrdinal ) throws IOException {
+        if (!contains( documentOrdinal )) {
+            return null;
+        }
+
+        return slice( getPack( getPackNumber( documentOrdinal ) ), getContentOffset( documentOrdinal ), getContentLength( documentOrdinal ) );
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return the decoded content or <code>null</code> if the document is not packed
+     * @throws IOException if the pack can not be mapped
+     */
+    public CharSequence getContentAsCharSequence( int documentOrdinal ) throws IOException {
+        ByteBuffer content = getContent( documentOrdinal );
+        if (content == null) {
+            return null;
+        }
+        return StandardCharsets.UTF_8.decode( content );
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return the number of lines of the document, 0 if the document is not packed
+     */
+    public int getLineCount( int documentOrdinal ) {
+        if (!contains( documentOrdinal )) {
+            return 0;
+        }
+        return packIndex.getInt( getEntryPosition( documentOrdinal ) + 2 * Integer.BYTES + Long.BYTES );
+    }
+
+    /**
+     * Returns the lines of a document, only these lines are decoded. The range is limited to the lines 
+     * of the document.
+     * 
+     * @param documentOrdinal the document ordinal
+     * @param firstLine the index of the first line, starting with 0
+     * @param numberOfLines the maximum number of lines
+     * @return the lines without line terminators, or <code>null</code> if the document is not packed
+     * @throws IOException if the pack can not be mapped
+     */
+    public List<String> getLines( int documentOrdinal, int firstLine, int numberOfLines ) throws IOException {
+        if (!contains( documentOrdinal )) {
+            return null;
+        }
+
+        ByteBuffer pack = getPack( getPackNumber( documentOrdinal ) );
+        long contentOffset = getContentOffset( documentOrdinal );
+        int contentLength = getContentLength( documentOrdinal );
+        int lineCount = getLineCount( documentOrdinal );
+        int lineOffsetsPosition = (int) (contentOffset + contentLength);
+
+        int from = Math.max( 0, firstLine );
+        int to = (int) Math.min( lineCount, (long) from + Math.max( 0, numberOfLines ) );
+
+        List<String> lines = new ArrayList<>( Math.max( 0, to - from ) );
+        for (int line = from; line < to; line++) {
+            int lineStart = pack.getInt( lineOffsetsPosition + line * Integer.BYTES );
+            int lineEnd = (line + 1 < lineCount) ? pack.getInt( lineOffsetsPosition + (line + 1) * Integer.BYTES ) : contentLength;
+
+            // strip the line terminator
+            if (lineEnd > lineStart && pack.get( (int) contentOffset + lineEnd - 1 ) == '\n') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart && pack.get( (int) contentOffset + lineEnd - 1 ) == '\r') {
+                lineEnd--;
+            }
+
+            CharBuffer decodedLine = StandardCharsets.UTF_8.decode( slice( pack, contentOffset + lineStart, lineEnd - lineStart ) );
+            lines.add( decodedLine.toString() );
+        }
+
+        return lines;
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    private ByteBuffer getPack( int packNumber ) throws IOException {
+        synchronized (packs) {
+            if (packs[packNumber] == null) {
+                try (FileChannel channel = FileChannel.open( DocumentPackFormat.getPackPath( indexFolder, packNumber ), StandardOpenOption.READ )) {
+                    ByteBuffer pack = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+                    if (pack.capacity() < DocumentPackFormat.PACK_HEADER_SIZE || pack.getInt( 0 ) != DocumentPackFormat.PACK_MAGIC) {
+                        throw new IOException( "Not a document pack: " + packNumber );
+                    }
+                    packs[packNumber] = pack;
+                }
+            }
+            return packs[packNumber];
+        }
+    }
+
+    private static ByteBuffer slice( ByteBuffer pack, long offset, int length ) {
+        ByteBuffer view = pack.duplicate();
+        view.position( (int) offset );
+        view.limit( (int) offset + length );
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    private int getPackNumber( int documentOrdinal ) {
+        return packIndex.getInt( getEntryPosition( documentOrdinal ) );
+    }
+
+    private int getContentLength( int documentOrdinal ) {
+        return packIndex.getInt( getEntryPosition( documentOrdinal ) + Integer.BYTES );
+    }
+
+    private long getContentOffset( int documentOrdinal ) {
+        return packIndex.getLong( getEntryPosition( documentOrdinal ) + 2 * Integer.BYTES );
+    }
+
+    private static int getEntryPosition( int documentOrdinal ) {
+        return DocumentPackFormat.PACK_INDEX_HEADER_SIZE + documentOrdinal * DocumentPackFormat.PACK_INDEX_ENTRY_SIZE;
+    }
+
+}
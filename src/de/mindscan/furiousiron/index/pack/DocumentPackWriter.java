@@ -0,0 +1,344 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.pack;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends documents to the pack files of a document pack store. Already packed documents are never 
+ * rewritten, the pack files only grow. A document, which is added again, is appended as well and its 
+ * entry points to the new copy.
+ * 
+ * The offset index is written on {@link #close()}, a reader never sees a document before it is 
+ * completely written to its pack.
+ * 
+ * @see DocumentPackFormat
+ */
+public class DocumentPackWriter implements Closeable {
+
+    private final Path indexFolder;
+    private final long maxPackSize;
+
+    private int[] packNumbers;
+    private int[] contentLengths;
+    private long[] contentOffsets;
+    private int[] lineCounts;
+    private int entryCount;
+
+    private int packCount;
+    private FileChannel currentPack;
+    private long currentPackSize;
+
+    private DocumentPackWriter( Path indexFolder, long maxPackSize ) {
+        this.indexFolder = indexFolder;
+        this.maxPackSize = maxPackSize;
+
+        this.packNumbers = new int[1024];
+        this.contentLengths = new int[1024];
+        this.contentOffsets = new long[1024];
+        this.lineCounts = new int[1024];
+        Arrays.fill( packNumbers, DocumentPackFormat.NO_PACK );
+    }
+
+    /**
+     * Opens the document pack store of the index folder for appending documents, the store is 
+     * created if it doesn't exist yet.
+     * 
+     * @param indexFolder the index folder
+     * @return the writer
+     * @throws IOException if the existing offset index can not be read
+     */
+    public static DocumentPackWriter openForAppend( Path indexFolder ) throws IOException {
+        return openForAppend( indexFolder, DocumentPackFormat.DEFAULT_MAX_PACK_SIZE );
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @param maxPackSize the size in bytes, after which a new pack file is started
+     * @return the writer
+     * @throws IOException if the existing offset index can not be read
+     */
+    public static DocumentPackWriter openForAppend( Path indexFolder, long maxPackSize ) throws IOException {
+        DocumentPackWriter writer = new DocumentPackWriter( indexFolder, maxPackSize );
+        writer.loadPackIndex();
+        return writer;
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return whether the document is already packed
+     */
+    public boolean contains( int documentOrdinal ) {
+        return documentOrdinal >= 0 && documentOrdinal < entryCount && packNumbers[documentOrdinal] != DocumentPackFormat.NO_PACK;
+    }
+
+    /**
+     * Appends the content of a document to the current pack.
+     * 
+     * @param documentOrdinal the document ordinal
+     * @param content the content of the document, the position of the buffer is not changed
+     * @throws IOException if the document can not be written
+     */
+    public void add( int documentOrdinal, ByteBuffer content ) throws IOException {
+        if (documentOrdinal < 0) {
+            throw new IllegalArgumentException( "Invalid document ordinal: " + documentOrdinal );
+        }
+
+        int[] lineOffsets = computeLineOffsets( content );
+        long documentSize = (long) content.remaining() + (long) lineOffsets.length * Integer.BYTES;
+        if (documentSize > Integer.MAX_VALUE - DocumentPackFormat.PACK_HEADER_SIZE) {
+            throw new IllegalArgumentException( "Document is too large to be packed: " + documentOrdinal );
+        }
+
+        if (currentPack == null || (currentPackSize > DocumentPackFormat.PACK_HEADER_SIZE && currentPackSize + documentSize > maxPackSize)) {
+            startNewPack();
+        }
+
+        long contentOffset = currentPackSize;
+
+        ByteBuffer remainingContent = content.duplicate();
+        while (remainingContent.hasRemaining()) {
+            currentPack.write( remainingContent, currentPackSize + (remainingContent.position() - content.position()) );
+        }
+
+        ByteBuffer encodedLineOffsets = ByteBuffer.allocate( lineOffsets.length * Integer.BYTES );
+        encodedLineOffsets.asIntBuffer().put( lineOffsets );
+        long lineOffsetsPosition = contentOffset + content.remaining();
+        while (encodedLineOffsets.hasRemaining()) {
+            currentPack.write( encodedLineOffsets, lineOffsetsPosition + encodedLineOffsets.position() );
+        }
+
+        currentPackSize += documentSize;
+
+        ensureCapacity( documentOrdinal + 1 );
+        packNumbers[documentOrdinal] = packCount - 1;
+        contentLengths[documentOrdinal] = content.remaining();
+        contentOffsets[documentOrdinal] = contentOffset;
+        lineCounts[documentOrdinal] = lineOffsets.length;
+        entryCount = Math.max( entryCount, documentOrdinal + 1 );
+    }
+
+    /**
+     * Writes the pending data of the current pack and the offset index.
+     */
+    @Override
+    public void close() throws IOException {
+        if (currentPack != null) {
+            currentPack.force( false );
+            currentPack.close();
+            currentPack = null;
+        }
+
+        Path packIndexPath = DocumentPackFormat.getPackIndexPath( indexFolder );
+        Path temporaryPath = packIndexPath.resolveSibling( DocumentPackFormat.PACK_INDEX_FILENAME + ".tmp" );
+        Files.createDirectories( packIndexPath.getParent() );
+
+        try (DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryPath ) ) )) {
+            output.writeInt( DocumentPackFormat.PACK_INDEX_MAGIC );
+            output.writeInt( DocumentPackFormat.VERSION_1 );
+            output.writeInt( entryCount );
+            output.writeInt( packCount );
+
+            for (int i = 0; i < entryCount; i++) {
+                output.writeInt( packNumbers[i] );
+                output.writeInt( contentLengths[i] );
+                output.writeLong( contentOffsets[i] );
+                output.writeInt( lineCounts[i] );
+                output.writeInt( 0 );
+            }
+        }
+
+        Files.move( temporaryPath, packIndexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * @return the number of document ordinals covered by the offset index
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return the number of pack files
+     */
+    public int getPackCount() {
+        return packCount;
+    }
+
+    /**
+     * Removes the document pack store of the index folder, e.g. because the documents are indexed again.
+     * 
+     * @param indexFolder the index folder
+     * @throws IOException if a file of the store can not be deleted
+     */
+    public static void delete( Path indexFolder ) throws IOException {
+        Path packFolder = DocumentPackFormat.getPackFolder( indexFolder );
+        if (!Files.isDirectory( packFolder )) {
+            return;
+        }
+
+        // the offset index first, so a reader never finds an index without its packs
+        Files.deleteIfExists( DocumentPackFormat.getPackIndexPath( indexFolder ) );
+        for (int packNumber = 0;; packNumber++) {
+            if (!Files.deleteIfExists( DocumentPackFormat.getPackPath( indexFolder, packNumber ) )) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Calculates the start offsets of the lines, the same way {@link java.io.BufferedReader#readLine()} 
+     * splits the lines: a line is terminated by '\n', '\r' or "\r\n" and a terminator at the end of the 
+     * content doesn't start another line.
+     * 
+     * @param content the content, the position of the buffer is not changed
+     * @return the start offset of each line relative to the position of the content
+     */
+    static int[] computeLineOffsets( ByteBuffer content ) {
+        int base = content.position();
+        int length = content.remaining();
+        if (length == 0) {
+            return new int[0];
+        }
+
+        int[] lineOffsets = new int[64];
+        int lineCount = 0;
+        lineOffsets[lineCount++] = 0;
+
+        for (int i = 0; i < length; i++) {
+            byte current = content.get( base + i );
+            if (current != '\n' && current != '\r') {
+                continue;
+            }
+            if (current == '\r' && i + 1 < length && content.get( base + i + 1 ) == '\n') {
+                i++;
+            }
+
+            if (i + 1 < length) {
+                if (lineCount == lineOffsets.length) {
+                    lineOffsets = Arrays.copyOf( lineOffsets, lineOffsets.length * 2 );
+                }
+                lineOffsets[lineCount++] = i + 1;
+            }
+        }
+
+        return Arrays.copyOf( lineOffsets, lineCount );
+    }
+
+    private void startNewPack() throws IOException {
+        if (currentPack != null) {
+            currentPack.force( false );
+            currentPack.close();
+        }
+
+        Path packPath = DocumentPackFormat.getPackPath( indexFolder, packCount );
+        Files.createDirectories( packPath.getParent() );
+
+        currentPack = FileChannel.open( packPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING );
+        packCount++;
+
+        ByteBuffer header = ByteBuffer.allocate( DocumentPackFormat.PACK_HEADER_SIZE );
+        header.putInt( DocumentPackFormat.PACK_MAGIC );
+        header.putInt( DocumentPackFormat.VERSION_1 );
+        header.putLong( 0L );
+        header.flip();
+        while (header.hasRemaining()) {
+            currentPack.write( header, header.position() );
+        }
+        currentPackSize = DocumentPackFormat.PACK_HEADER_SIZE;
+    }
+
+    private void loadPackIndex() throws IOException {
+        Path packIndexPath = DocumentPackFormat.getPackIndexPath( indexFolder );
+        if (!Files.exists( packIndexPath )) {
+            return;
+        }
+
+        ByteBuffer packIndex;
+        try (FileChannel channel = FileChannel.open( packIndexPath, StandardOpenOption.READ )) {
+            packIndex = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+        }
+
+        DocumentPackReader.checkHeader( packIndex );
+        int storedEntryCount = packIndex.getInt( 8 );
+        ensureCapacity( storedEntryCount );
+
+        for (int i = 0; i < storedEntryCount; i++) {
+            int entryPosition = DocumentPackFormat.PACK_INDEX_HEADER_SIZE + i * DocumentPackFormat.PACK_INDEX_ENTRY_SIZE;
+            packNumbers[i] = packIndex.getInt( entryPosition );
+            contentLengths[i] = packIndex.getInt( entryPosition + Integer.BYTES );
+            contentOffsets[i] = packIndex.getLong( entryPosition + 2 * Integer.BYTES );
+            lineCounts[i] = packIndex.getInt( entryPosition + 2 * Integer.BYTES + Long.BYTES );
+        }
+        entryCount = storedEntryCount;
+
+        // new documents are appended to the last pack, written bytes behind the last indexed document 
+        // belong to an interrupted run and are overwritten
+        int storedPackCount = packIndex.getInt( 12 );
+        if (storedPackCount > 0) {
+            Path lastPackPath = DocumentPackFormat.getPackPath( indexFolder, storedPackCount - 1 );
+            currentPack = FileChannel.open( lastPackPath, StandardOpenOption.WRITE );
+            packCount = storedPackCount;
+            currentPackSize = getEndOfPack( storedPackCount - 1 );
+        }
+    }
+
+    private long getEndOfPack( int packNumber ) {
+        long endOfPack = DocumentPackFormat.PACK_HEADER_SIZE;
+        for (int i = 0; i < entryCount; i++) {
+            if (packNumbers[i] == packNumber) {
+                endOfPack = Math.max( endOfPack, contentOffsets[i] + contentLengths[i] + (long) lineCounts[i] * Integer.BYTES );
+            }
+        }
+        return endOfPack;
+    }
+
+    private void ensureCapacity( int requiredEntries ) {
+        if (requiredEntries <= packNumbers.length) {
+            return;
+        }
+
+        int newCapacity = Math.max( packNumbers.length * 2, requiredEntries );
+        int oldCapacity = packNumbers.length;
+        packNumbers = Arrays.copyOf( packNumbers, newCapacity );
+        Arrays.fill( packNumbers, oldCapacity, newCapacity, DocumentPackFormat.NO_PACK );
+        contentLengths = Arrays.copyOf( contentLengths, newCapacity );
+        contentOffsets = Arrays.copyOf( contentOffsets, newCapacity );
+        lineCounts = Arrays.copyOf( lineCounts, newCapacity );
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.positional;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Finds the documents containing a phrase using the positional trigram index. The positional postings
+ * of the trigrams of the phrase are intersected like posting lists, and for each document containing
+ * all of them the positions are checked for adjacency: the phrase starts at a position p, if the trigram
+ * at offset i of the phrase occurs at p + i.
+ * 
+ * The trigrams at the offsets 0, 3, 6, ... together with the last trigram cover every character of the
+ * phrase, so only these trigrams are intersected. A phrase can't span multiple lines.
+ */
+public class PhraseMatcher {
+
+    public static final int MIN_PHRASE_LENGTH = 3;
+
+    /**
+     * @param reader the positional trigram index
+     * @param phrase the lower case phrase, at least {@link #MIN_PHRASE_LENGTH} characters long
+     * @param candidates the documents to look at, <code>null</code> for all documents of the index
+     * @return the documents of the index containing the phrase
+     * @throws IOException if a positional posting can not be read
+     */
+    public static DocumentBitmap findDocuments( PositionalTrigramIndexReader reader, String phrase, DocumentBitmap candidates ) throws IOException {
+        if (phrase.length() < MIN_PHRASE_LENGTH) {
+            throw new IllegalArgumentException( "A phrase must be at least " + MIN_PHRASE_LENGTH + " characters long: '" + phrase + "'" );
+        }
+
+        DocumentBitmap result = new DocumentBitmap();
+        if (candidates != null && candidates.isEmpty()) {
+            return result;
+        }
+
+        int[] offsets = getCoveringOffsets( phrase.length() );
+        PositionalPostingsIterator[] iterators = new PositionalPostingsIterator[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            iterators[i] = reader.getPositionalPostings( phrase.substring( offsets[i], offsets[i] + 3 ) );
+            if (iterators[i] == null) {
+                // no document contains this trigram
+                return result;
+            }
+        }
+
+        int document = iterators[0].next();
+        while (document != PositionalPostingsIterator.NO_MORE_ORDINALS) {
+            int nextDocument = document;
+            for (int i = 1; i < iterators.length && nextDocument == document; i++) {
+                nextDocument = iterators[i].advance( document );
+            }
+
+            if (nextDocument != document) {
+                document = iterators[0].advance( nextDocument );
+                continue;
+            }
+
+            if ((candidates == null || candidates.contains( document )) && isAdjacent( iterators, offsets )) {
+                result.add( document );
+            }
+            document = iterators[0].next();
+        }
+
+        return result;
+    }
+
+    /**
+     * @param phraseLength the length of the phrase
+     * @return the offsets of the trigrams covering every character of the phrase
+     */
+    static int[] getCoveringOffsets( int phraseLength ) {
+        int[] offsets = new int[(phraseLength - 1) / 3 + 1];
+        int numberOfOffsets = 0;
+        for (int offset = 0; offset < phraseLength - 3; offset += 3) {
+            offsets[numberOfOffsets++] = offset;
+        }
+        offsets[numberOfOffsets++] = phraseLength - 3;
+        return Arrays.copyOf( offsets, numberOfOffsets );
+    }
+
+    /**
+     * @param iterators the iterators, all positioned on the same document
+     * @param offsets the offset of the trigram of each iterator within the phrase
+     * @return whether the trigrams occur at the offsets relative to a common start position
+     */
+    private static boolean isAdjacent( PositionalPostingsIterator[] iterators, int[] offsets ) {
+        long[] starts = iterators[0].positions().clone();
+        int numberOfStarts = starts.length;
+
+        for (int i = 1; i < iterators.length && numberOfStarts > 0; i++) {
+            long[] positions = iterators[i].positions();
+            int position = 0;
+            int remainingStarts = 0;
+
+            // both are sorted, so the starts are retained in a single merge pass
+            for (int s = 0; s < numberOfStarts; s++) {
+                long expectedPosition = starts[s] + offsets[i];
+                while (position < positions.length && positions[position] < expectedPosition) {
+                    position++;
+                }
+                if (position < positions.length && positions[position] == expectedPosition) {
+                    starts[remainingStarts++] = starts[s];
+                }
+            }
+            numberOfStarts = remainingStarts;
+        }
+
+        return numberOfStarts > 0;
+    }
+
+}
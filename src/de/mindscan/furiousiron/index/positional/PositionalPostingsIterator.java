@@ -0,0 +1,141 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.positional;
+
+import java.nio.ByteBuffer;
+
+import de.mindscan.furiousiron.index.posting.VarIntCodec;
+
+/**
+ * Iterates over the documents of a positional posting in increasing order of their ordinals. The positions
+ * of a document are only decoded, when they are requested, otherwise they are skipped.
+ * 
+ * A positional posting has no skip table, so {@link #advance(int)} visits every document in front of the
+ * target.
+ */
+public class PositionalPostingsIterator {
+
+    public static final int NO_MORE_ORDINALS = Integer.MAX_VALUE;
+
+    private static final long[] NO_POSITIONS = new long[0];
+
+    private final ByteBuffer positionalPostings;
+    private final int documentCount;
+
+    private int visitedDocuments = 0;
+    private int currentOrdinal = -1;
+    private int currentPositionCount = 0;
+    private long[] currentPositions = null;
+
+    PositionalPostingsIterator( ByteBuffer positionalPostings, int documentCount ) {
+        this.positionalPostings = positionalPostings;
+        this.documentCount = documentCount;
+    }
+
+    /**
+     * @return the current ordinal, -1 before the first call to next or advance, {@link #NO_MORE_ORDINALS}
+     *         if the iterator is exhausted
+     */
+    public int ordinal() {
+        return currentOrdinal;
+    }
+
+    /**
+     * @return the next ordinal or {@link #NO_MORE_ORDINALS}
+     */
+    public int next() {
+        if (currentOrdinal == NO_MORE_ORDINALS) {
+            return NO_MORE_ORDINALS;
+        }
+
+        if (currentPositions == null) {
+            skipPositions();
+        }
+
+        if (visitedDocuments == documentCount) {
+            currentOrdinal = NO_MORE_ORDINALS;
+            currentPositionCount = 0;
+            currentPositions = NO_POSITIONS;
+            return NO_MORE_ORDINALS;
+        }
+
+        int gap = VarIntCodec.readVarInt( positionalPostings );
+        currentOrdinal = (visitedDocuments == 0) ? gap : currentOrdinal + gap;
+        currentPositionCount = VarIntCodec.readVarInt( positionalPostings );
+        currentPositions = null;
+        visitedDocuments++;
+
+        return currentOrdinal;
+    }
+
+    /**
+     * @param target the ordinal to advance to
+     * @return the first ordinal, which is greater than or equal to the target, or {@link #NO_MORE_ORDINALS}
+     */
+    public int advance( int target ) {
+        while (currentOrdinal < target) {
+            next();
+        }
+        return currentOrdinal;
+    }
+
+    /**
+     * @return the sorted positions of the trigram in the current document
+     * @see PositionalTrigramIndexFormat#toPosition(int, int)
+     */
+    public long[] positions() {
+        if (currentPositions != null) {
+            return currentPositions;
+        }
+
+        long[] positions = new long[currentPositionCount];
+        int line = 0;
+        int column = 0;
+        for (int i = 0; i < currentPositionCount; i++) {
+            int lineGap = VarIntCodec.readVarInt( positionalPostings );
+            int encodedColumn = VarIntCodec.readVarInt( positionalPostings );
+
+            line += lineGap;
+            column = (i > 0 && lineGap == 0) ? column + encodedColumn : encodedColumn;
+            positions[i] = PositionalTrigramIndexFormat.toPosition( line, column );
+        }
+
+        currentPositions = positions;
+        return positions;
+    }
+
+    private void skipPositions() {
+        // each position consists of two varints, only the last byte of a varint has the highest bit cleared
+        int remainingVarInts = 2 * currentPositionCount;
+        while (remainingVarInts > 0) {
+            if ((positionalPostings.get() & 0x80) == 0) {
+                remainingVarInts--;
+            }
+        }
+        currentPositionCount = 0;
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.positional;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes the layout of the positional trigram index, which records where each trigram
+ * occurs in the documents. The positional index is optional, it is only built on request and answers
+ * phrase queries without reading the content of the candidates.
+ * 
+ * Like the compact inverse index it consists of a dictionary file, which is searched by the trigram code,
+ * and a postings file. Additionally the dictionary contains the ordinals of all documents, whose positions
+ * were recorded, so documents indexed afterwards can be told apart from documents without the trigram.
+ * 
+ * A position consists of the line number and the column of the first character of the trigram in the
+ * trimmed lower case line, which is the same text the content trigrams are taken from.
+ * 
+ * <pre>
+ * dictionary header:  int magic, int version, int entryCount, int coveredDocumentsLength
+ * covered documents:  the serialized document bitmap of the documents with positions
+ * dictionary entry:   long trigramCode, long postingsOffset, int postingsLength, int documentCount
+ * postings header:    int magic, int version, long reserved
+ * positional posting: documentCount times (varint ordinal, varint positionCount,
+ *                     positionCount times (varint line, varint column))
+ * </pre>
+ * 
+ * The first ordinal of a positional posting is stored as is, every following ordinal as the gap to its
+ * predecessor. The lines are stored as the gap to the previous line and the columns as the gap to the
+ * previous column within the same line. All ints are written in big endian byte order.
+ * 
+ * @see de.mindscan.furiousiron.index.compact.CompactTrigramIndexFormat
+ */
+public class PositionalTrigramIndexFormat {
+
+    public static final int DICTIONARY_MAGIC = 0x46495044; // 'FIPD'
+
+    public static final int POSTINGS_MAGIC = 0x4649504F; // 'FIPO'
+
+    public static final int VERSION_1 = 1;
+
+    public static final int DICTIONARY_HEADER_SIZE = 4 * Integer.BYTES;
+
+    public static final int DICTIONARY_ENTRY_SIZE = 2 * Long.BYTES + 2 * Integer.BYTES;
+
+    public static final int POSTINGS_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    public static final String POSITIONAL_INDEX_NAME = "positionalTrigram";
+
+    public static final String DICTIONARY_SUFFIX = ".dictionary";
+
+    public static final String POSTINGS_SUFFIX = ".postings";
+
+    public static Path getDictionaryPath( Path indexFolder ) {
+        return indexFolder.resolve( POSITIONAL_INDEX_NAME + DICTIONARY_SUFFIX );
+    }
+
+    public static Path getPostingsPath( Path indexFolder ) {
+        return indexFolder.resolve( POSITIONAL_INDEX_NAME + POSTINGS_SUFFIX );
+    }
+
+    /**
+     * Packs a line and a column into one value, positions of the same line differ only by their column.
+     * 
+     * @param line the line number, starting with 0
+     * @param column the column, starting with 0
+     * @return the position
+     */
+    public static long toPosition( int line, int column ) {
+        return ((long) line << 32) | (column & 0xFFFF_FFFFL);
+    }
+
+    public static int getLine( long position ) {
+        return (int) (position >>> 32);
+    }
+
+    public static int getColumn( long position ) {
+        return (int) position;
+    }
+
+}
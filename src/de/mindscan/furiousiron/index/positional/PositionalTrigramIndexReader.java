@@ -0,0 +1,201 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.positional;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.mindscan.furiousiron.index.trigram.TrigramCode;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Reads the positional trigram index. The dictionary is memory mapped and a trigram is found by a binary
+ * search over the fixed size entries. The postings file is memory mapped as well, postings files larger
+ * than 2 GiB are mapped per positional posting.
+ * 
+ * @see PositionalTrigramIndexFormat
+ */
+public class PositionalTrigramIndexReader {
+
+    private final ByteBuffer dictionary;
+    private final int entryCount;
+    private final int entriesPosition;
+    private final DocumentBitmap coveredDocuments;
+
+    private final Path postingsPath;
+    private final ByteBuffer postings;
+
+    private PositionalTrigramIndexReader( ByteBuffer dictionary, Path postingsPath, ByteBuffer postings ) throws IOException {
+        this.dictionary = dictionary;
+        this.postingsPath = postingsPath;
+        this.postings = postings;
+
+        if (dictionary.capacity() < PositionalTrigramIndexFormat.DICTIONARY_HEADER_SIZE
+                        || dictionary.getInt( 0 ) != PositionalTrigramIndexFormat.DICTIONARY_MAGIC) {
+            throw new IOException( "Not a positional trigram dictionary." );
+        }
+        if (dictionary.getInt( 4 ) != PositionalTrigramIndexFormat.VERSION_1) {
+            throw new IOException( "Unsupported positional trigram dictionary version: " + dictionary.getInt( 4 ) );
+        }
+
+        this.entryCount = dictionary.getInt( 8 );
+        int coveredDocumentsLength = dictionary.getInt( 12 );
+        this.entriesPosition = PositionalTrigramIndexFormat.DICTIONARY_HEADER_SIZE + coveredDocumentsLength;
+        if (dictionary.capacity() < entriesPosition + (long) entryCount * PositionalTrigramIndexFormat.DICTIONARY_ENTRY_SIZE) {
+            throw new IOException( "Positional trigram dictionary is truncated." );
+        }
+
+        ByteBuffer serializedCoveredDocuments = dictionary.duplicate();
+        serializedCoveredDocuments.position( PositionalTrigramIndexFormat.DICTIONARY_HEADER_SIZE );
+        serializedCoveredDocuments.limit( entriesPosition );
+        this.coveredDocuments = DocumentBitmap.deserialize( serializedCoveredDocuments );
+    }
+
+    public static boolean exists( Path indexFolder ) {
+        return Files.exists( PositionalTrigramIndexFormat.getDictionaryPath( indexFolder ) )
+                        && Files.exists( PositionalTrigramIndexFormat.getPostingsPath( indexFolder ) );
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @return the reader
+     * @throws IOException if the files can not be mapped or don't contain a positional index
+     */
+    public static PositionalTrigramIndexReader open( Path indexFolder ) throws IOException {
+        Path dictionaryPath = PositionalTrigramIndexFormat.getDictionaryPath( indexFolder );
+        Path postingsPath = PositionalTrigramIndexFormat.getPostingsPath( indexFolder );
+
+        ByteBuffer dictionary;
+        try (FileChannel channel = FileChannel.open( dictionaryPath, StandardOpenOption.READ )) {
+            dictionary = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+        }
+
+        ByteBuffer postings = null;
+        try (FileChannel channel = FileChannel.open( postingsPath, StandardOpenOption.READ )) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                postings = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+            }
+        }
+
+        return new PositionalTrigramIndexReader( dictionary, postingsPath, postings );
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return whether the positions of the document are contained in the index
+     */
+    public boolean contains( int documentOrdinal ) {
+        return coveredDocuments.contains( documentOrdinal );
+    }
+
+    /**
+     * @return the documents, whose positions are contained in the index
+     */
+    public DocumentBitmap getCoveredDocuments() {
+        return coveredDocuments;
+    }
+
+    /**
+     * @param trigram the trigram
+     * @return the number of documents containing the trigram, 0 if the trigram is not indexed
+     */
+    public long getDocumentCount( String trigram ) {
+        int entry = findEntry( trigram );
+        if (entry < 0) {
+            return 0L;
+        }
+        return dictionary.getInt( getEntryPosition( entry ) + 2 * Long.BYTES + Integer.BYTES );
+    }
+
+    /**
+     * @param trigram the trigram
+     * @return the iterator over the positional posting or <code>null</code> if the trigram is not indexed
+     * @throws IOException if the positional posting can not be read
+     */
+    public PositionalPostingsIterator getPositionalPostings( String trigram ) throws IOException {
+        int entry = findEntry( trigram );
+        if (entry < 0) {
+            return null;
+        }
+
+        int entryPosition = getEntryPosition( entry );
+        long offset = dictionary.getLong( entryPosition + Long.BYTES );
+        int length = dictionary.getInt( entryPosition + 2 * Long.BYTES );
+        int documentCount = dictionary.getInt( entryPosition + 2 * Long.BYTES + Integer.BYTES );
+
+        if (postings != null) {
+            ByteBuffer positionalPostings = postings.duplicate();
+            positionalPostings.position( (int) offset );
+            positionalPostings.limit( (int) offset + length );
+            return new PositionalPostingsIterator( positionalPostings, documentCount );
+        }
+
+        try (FileChannel channel = FileChannel.open( postingsPath, StandardOpenOption.READ )) {
+            return new PositionalPostingsIterator( channel.map( MapMode.READ_ONLY, offset, length ), documentCount );
+        }
+    }
+
+    private int findEntry( String trigram ) {
+        if (trigram.length() != 3) {
+            return -1;
+        }
+
+        long trigramCode = TrigramCode.encode( trigram );
+
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleCode = dictionary.getLong( getEntryPosition( middle ) );
+
+            if (middleCode < trigramCode) {
+                low = middle + 1;
+            }
+            else if (middleCode > trigramCode) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    private int getEntryPosition( int entry ) {
+        return entriesPosition + entry * PositionalTrigramIndexFormat.DICTIONARY_ENTRY_SIZE;
+    }
+
+}
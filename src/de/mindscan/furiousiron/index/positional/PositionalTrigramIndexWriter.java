@@ -0,0 +1,225 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.positional;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.mindscan.furiousiron.index.posting.VarIntCodec;
+import de.mindscan.furiousiron.index.trigram.TrigramTokenizer;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+import de.mindscan.furiousiron.util.primitive.LongIntHashMap;
+
+/**
+ * Collects the trigram positions of the documents and writes them as a positional trigram index. The
+ * positions are encoded while the documents are added, but the index is kept in memory until it is
+ * written as a whole. Both files are written to temporary files first and moved afterwards, the postings
+ * before the dictionary.
+ * 
+ * @see PositionalTrigramIndexFormat
+ */
+public class PositionalTrigramIndexWriter {
+
+    // the index of the postings of a trigram code plus one, 0 marks an unknown trigram
+    private final LongIntHashMap postingsIndexes;
+    private final List<PositionalPostingsBuffer> postings;
+    private final DocumentBitmap coveredDocuments;
+
+    private int previousOrdinal = -1;
+
+    public PositionalTrigramIndexWriter() {
+        this.postingsIndexes = new LongIntHashMap( 1 << 16 );
+        this.postings = new ArrayList<>();
+        this.coveredDocuments = new DocumentBitmap();
+    }
+
+    /**
+     * @param documentOrdinal the ordinal of the document, must be greater than the previously added ordinal
+     * @param lines the lines of the document
+     */
+    public void add( int documentOrdinal, List<String> lines ) {
+        if (documentOrdinal <= previousOrdinal) {
+            throw new IllegalArgumentException(
+                            "Documents must be added in increasing order of their ordinals, but found " + documentOrdinal + " after " + previousOrdinal + "." );
+        }
+
+        for (int lineNumber = 0; lineNumber < lines.size(); lineNumber++) {
+            int line = lineNumber;
+            // same text as the content trigrams of the document
+            TrigramTokenizer.forEachTrigram( lines.get( lineNumber ).trim().toLowerCase(),
+                            ( trigramCode, column ) -> getPostings( trigramCode ).addPosition( documentOrdinal, line, column ) );
+        }
+
+        coveredDocuments.add( documentOrdinal );
+        previousOrdinal = documentOrdinal;
+    }
+
+    public int getTrigramCount() {
+        return postings.size();
+    }
+
+    public int getDocumentCount() {
+        return coveredDocuments.getCardinality();
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @throws IOException if the index can not be written
+     */
+    public void write( Path indexFolder ) throws IOException {
+        Path dictionaryPath = PositionalTrigramIndexFormat.getDictionaryPath( indexFolder );
+        Path postingsPath = PositionalTrigramIndexFormat.getPostingsPath( indexFolder );
+        Path temporaryDictionaryPath = dictionaryPath.resolveSibling( dictionaryPath.getFileName().toString() + ".tmp" );
+        Path temporaryPostingsPath = postingsPath.resolveSibling( postingsPath.getFileName().toString() + ".tmp" );
+        Files.createDirectories( indexFolder );
+
+        // the dictionary must be written in the order of the trigram codes
+        long[] trigramCodes = postingsIndexes.keys();
+        Arrays.sort( trigramCodes );
+
+        ByteBuffer serializedCoveredDocuments = coveredDocuments.serialize();
+
+        try (DataOutputStream postingsOutput = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryPostingsPath ), 1 << 16 ) );
+                        DataOutputStream dictionaryOutput = new DataOutputStream(
+                                        new BufferedOutputStream( Files.newOutputStream( temporaryDictionaryPath ), 1 << 16 ) )) {
+            postingsOutput.writeInt( PositionalTrigramIndexFormat.POSTINGS_MAGIC );
+            postingsOutput.writeInt( PositionalTrigramIndexFormat.VERSION_1 );
+            postingsOutput.writeLong( 0L );
+            long postingsOffset = PositionalTrigramIndexFormat.POSTINGS_HEADER_SIZE;
+
+            dictionaryOutput.writeInt( PositionalTrigramIndexFormat.DICTIONARY_MAGIC );
+            dictionaryOutput.writeInt( PositionalTrigramIndexFormat.VERSION_1 );
+            dictionaryOutput.writeInt( trigramCodes.length );
+            dictionaryOutput.writeInt( serializedCoveredDocuments.remaining() );
+            dictionaryOutput.write( serializedCoveredDocuments.array(), serializedCoveredDocuments.arrayOffset() + serializedCoveredDocuments.position(),
+                            serializedCoveredDocuments.remaining() );
+
+            for (long trigramCode : trigramCodes) {
+                PositionalPostingsBuffer trigramPostings = postings.get( postingsIndexes.get( trigramCode ) - 1 );
+                trigramPostings.flushDocument();
+
+                dictionaryOutput.writeLong( trigramCode );
+                dictionaryOutput.writeLong( postingsOffset );
+                dictionaryOutput.writeInt( trigramPostings.encoded.size() );
+                dictionaryOutput.writeInt( trigramPostings.documentCount );
+
+                trigramPostings.encoded.writeTo( postingsOutput );
+                postingsOffset += trigramPostings.encoded.size();
+            }
+        }
+
+        // the dictionary is moved last, the positional index is only used, when the dictionary exists.
+        Files.move( temporaryPostingsPath, postingsPath, StandardCopyOption.REPLACE_EXISTING );
+        Files.move( temporaryDictionaryPath, dictionaryPath, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    /**
+     * Removes the positional index of the index folder, e.g. because the documents are indexed again.
+     * 
+     * @param indexFolder the index folder
+     * @throws IOException if the files can not be removed
+     */
+    public static void delete( Path indexFolder ) throws IOException {
+        // the dictionary is removed first, the positional index is only used, when the dictionary exists.
+        Files.deleteIfExists( PositionalTrigramIndexFormat.getDictionaryPath( indexFolder ) );
+        Files.deleteIfExists( PositionalTrigramIndexFormat.getPostingsPath( indexFolder ) );
+    }
+
+    private PositionalPostingsBuffer getPostings( long trigramCode ) {
+        int postingsIndex = postingsIndexes.get( trigramCode );
+        if (postingsIndex > 0) {
+            return postings.get( postingsIndex - 1 );
+        }
+
+        PositionalPostingsBuffer trigramPostings = new PositionalPostingsBuffer();
+        postings.add( trigramPostings );
+        postingsIndexes.put( trigramCode, postings.size() );
+        return trigramPostings;
+    }
+
+    /**
+     * The encoded positional posting of one trigram. The positions of the current document are collected
+     * and only encoded, when the next document contains the trigram or when the index is written.
+     */
+    private static class PositionalPostingsBuffer {
+        private final ByteArrayOutputStream encoded = new ByteArrayOutputStream( 32 );
+        private int documentCount = 0;
+        private int previousOrdinal = 0;
+
+        private int currentOrdinal = -1;
+        private long[] currentPositions = new long[4];
+        private int currentPositionCount = 0;
+
+        void addPosition( int documentOrdinal, int line, int column ) {
+            if (documentOrdinal != currentOrdinal) {
+                flushDocument();
+                currentOrdinal = documentOrdinal;
+            }
+
+            if (currentPositionCount == currentPositions.length) {
+                currentPositions = Arrays.copyOf( currentPositions, currentPositions.length * 2 );
+            }
+            currentPositions[currentPositionCount++] = PositionalTrigramIndexFormat.toPosition( line, column );
+        }
+
+        void flushDocument() {
+            if (currentPositionCount == 0) {
+                return;
+            }
+
+            VarIntCodec.writeVarInt( encoded, documentCount == 0 ? currentOrdinal : currentOrdinal - previousOrdinal );
+            VarIntCodec.writeVarInt( encoded, currentPositionCount );
+
+            int previousLine = 0;
+            int previousColumn = 0;
+            for (int i = 0; i < currentPositionCount; i++) {
+                int line = PositionalTrigramIndexFormat.getLine( currentPositions[i] );
+                int column = PositionalTrigramIndexFormat.getColumn( currentPositions[i] );
+
+                // the lines are visited in order and the columns of a line in increasing order
+                VarIntCodec.writeVarInt( encoded, line - previousLine );
+                VarIntCodec.writeVarInt( encoded, (i > 0 && line == previousLine) ? column - previousColumn : column );
+
+                previousLine = line;
+                previousColumn = column;
+            }
+
+            documentCount++;
+            previousOrdinal = currentOrdinal;
+            currentPositionCount = 0;
+        }
+    }
+
+}
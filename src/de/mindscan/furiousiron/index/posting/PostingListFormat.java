@@ -0,0 +1,67 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+/**
+ * This class describes the binary posting list format.
+ * 
+ * A posting list file contains the sorted document ordinals for one trigram. The ordinals are
+ * split into segments of at most SEGMENT_SIZE ordinals. Within a segment the first ordinal is
+ * stored as is, and every following ordinal is stored as the gap to its predecessor. All values
+ * in a segment are varint encoded.
+ * 
+ * <pre>
+ * header:     int magic, int version, int segmentCount, int totalLength
+ * skip table: int firstOrdinal, int lastOrdinal, int segmentOffset (version 2 only, one entry per segment)
+ * segment:    int ordinalCount, int payloadLength, byte[payloadLength] varint gaps
+ * </pre>
+ * 
+ * The skip table of version 2 allows to find the segment which may contain an ordinal without 
+ * decoding the segments in front of it. The segment offset is relative to the start of the file.
+ * 
+ * All ints are written in big endian byte order. 
+ */
+public class PostingListFormat {
+
+    public static final int MAGIC = 0x4649504c; // 'FIPL'
+
+    public static final int VERSION_1 = 1;
+
+    public static final int VERSION_2 = 2;
+
+    public static final int CURRENT_VERSION = VERSION_2;
+
+    public static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    public static final int SKIP_ENTRY_SIZE = 3 * Integer.BYTES;
+
+    public static final int SEGMENT_HEADER_SIZE = 2 * Integer.BYTES;
+
+    public static final int SEGMENT_SIZE = 128;
+
+    public static final String POSTING_LIST_SUFFIX = ".postings";
+
+}
@@ -0,0 +1,200 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+/**
+ * Iterates over the ordinals of a posting list in increasing order. 
+ * 
+ * Besides the sequential {@link #next()} the iterator supports {@link #advance(int)}, which uses an 
+ * exponential (galloping) search over the skip table first and then within the decoded segment. So 
+ * a small candidate set can be intersected with a large posting list, while only the segments are 
+ * decoded, which may contain one of the candidates.
+ */
+public class PostingListIterator {
+
+    public static final int NO_MORE_ORDINALS = Integer.MAX_VALUE;
+
+    private final PostingListReader reader;
+    private final int segmentCount;
+
+    private final int[] segmentOrdinals = new int[PostingListFormat.SEGMENT_SIZE];
+    private int currentSegment = -1;
+    private int segmentLength = 0;
+    private int position = -1;
+    private int currentOrdinal = -1;
+
+    private int decodedSegments = 0;
+
+    public PostingListIterator( PostingListReader reader ) {
+        this.reader = reader;
+        this.segmentCount = reader.getSegmentCount();
+    }
+
+    /**
+     * @return the current ordinal, -1 before the first call to next or advance, {@link #NO_MORE_ORDINALS} 
+     *         if the iterator is exhausted 
+     */
+    public int ordinal() {
+        return currentOrdinal;
+    }
+
+    /**
+     * @return the next ordinal or {@link #NO_MORE_ORDINALS}
+     */
+    public int next() {
+        if (currentOrdinal == NO_MORE_ORDINALS) {
+            return NO_MORE_ORDINALS;
+        }
+
+        if (position + 1 < segmentLength) {
+            position++;
+            currentOrdinal = segmentOrdinals[position];
+            return currentOrdinal;
+        }
+
+        return moveToSegment( currentSegment + 1 );
+    }
+
+    /**
+     * Advances to the first ordinal greater or equal to the target. The iterator never moves backwards,
+     * if the current ordinal is already greater or equal to the target, the current ordinal is returned.
+     * 
+     * @param target the ordinal to look for
+     * @return the first ordinal greater or equal to the target or {@link #NO_MORE_ORDINALS}
+     */
+    public int advance( int target ) {
+        if (currentOrdinal >= target) {
+            return currentOrdinal;
+        }
+
+        if (currentSegment < 0 || target > reader.getSegmentLastOrdinal( currentSegment )) {
+            int segment = findSegment( target, Math.max( currentSegment + 1, 0 ) );
+            if (segment >= segmentCount) {
+                currentOrdinal = NO_MORE_ORDINALS;
+                return NO_MORE_ORDINALS;
+            }
+            moveToSegment( segment );
+        }
+
+        position = gallop( segmentOrdinals, position, segmentLength, target );
+        if (position >= segmentLength) {
+            // only possible if the last ordinal of the segment was an upper bound (version 1)
+            return moveToSegment( currentSegment + 1 );
+        }
+
+        currentOrdinal = segmentOrdinals[position];
+        return currentOrdinal;
+    }
+
+    /**
+     * @return the number of ordinals of this posting list, an upper bound of the work to iterate it
+     */
+    public int cost() {
+        return reader.getTotalLength();
+    }
+
+    /**
+     * @return the number of segments decoded so far
+     */
+    public int getDecodedSegments() {
+        return decodedSegments;
+    }
+
+    private int moveToSegment( int segment ) {
+        if (segment >= segmentCount) {
+            currentOrdinal = NO_MORE_ORDINALS;
+            return NO_MORE_ORDINALS;
+        }
+
+        currentSegment = segment;
+        segmentLength = reader.decodeSegment( segment, segmentOrdinals, 0 );
+        decodedSegments++;
+        position = 0;
+        currentOrdinal = segmentOrdinals[0];
+        return currentOrdinal;
+    }
+
+    // finds the first segment starting at fromSegment, whose last ordinal is greater or equal to the target
+    private int findSegment( int target, int fromSegment ) {
+        if (fromSegment >= segmentCount || reader.getSegmentLastOrdinal( fromSegment ) >= target) {
+            return fromSegment;
+        }
+
+        // gallop until the segment is behind the bound
+        int low = fromSegment;
+        int step = 1;
+        while (low + step < segmentCount && reader.getSegmentLastOrdinal( low + step ) < target) {
+            low += step;
+            step <<= 1;
+        }
+
+        // binary search in (low, high]
+        int high = Math.min( low + step, segmentCount );
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (reader.getSegmentLastOrdinal( middle ) < target) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * Exponential search for the first position greater or equal to from, with values[position] &gt;= target.
+     * 
+     * @return the position or length if there is no such value
+     */
+    static int gallop( int[] values, int from, int length, int target ) {
+        if (from >= length || values[from] >= target) {
+            return from;
+        }
+
+        int low = from;
+        int step = 1;
+        while (low + step < length && values[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+
+        int high = Math.min( low + step, length );
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < target) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return high;
+    }
+
+}
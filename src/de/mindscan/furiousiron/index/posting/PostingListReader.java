@@ -0,0 +1,205 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a posting list in the binary posting list format. Files are memory mapped, so the 
+ * operating system can share the pages between multiple searches and no copy into the heap 
+ * is made, before the ordinals are decoded. 
+ * 
+ * Version 1 posting lists don't contain a skip table, in that case the skip table is built 
+ * from the segment headers, when the posting list is opened.
+ * 
+ * @see PostingListFormat
+ * @see PostingListIterator
+ */
+public class PostingListReader {
+
+    private final ByteBuffer buffer;
+    private final int version;
+    private final int segmentCount;
+    private final int totalLength;
+
+    // only used for version 1, version 2 reads the skip table directly from the buffer
+    private int[] segmentFirstOrdinals;
+    private int[] segmentOffsets;
+
+    /**
+     * @param buffer the buffer containing exactly one encoded posting list
+     * @throws IOException in case the buffer doesn't contain a posting list of a known version
+     */
+    public PostingListReader( ByteBuffer buffer ) throws IOException {
+        this.buffer = buffer.slice();
+
+        if (this.buffer.remaining() < PostingListFormat.HEADER_SIZE) {
+            throw new IOException( "Posting list is too short to contain a header." );
+        }
+
+        int magic = this.buffer.getInt( 0 );
+        if (magic != PostingListFormat.MAGIC) {
+            throw new IOException( String.format( "Not a posting list, magic is 0x%08x.", magic ) );
+        }
+
+        this.version = this.buffer.getInt( 4 );
+        if (version != PostingListFormat.VERSION_1 && version != PostingListFormat.VERSION_2) {
+            throw new IOException( "Unsupported posting list version: " + version );
+        }
+
+        this.segmentCount = this.buffer.getInt( 8 );
+        this.totalLength = this.buffer.getInt( 12 );
+
+        if (version == PostingListFormat.VERSION_1) {
+            buildSkipTableFromSegments();
+        }
+    }
+
+    private void buildSkipTableFromSegments() {
+        segmentFirstOrdinals = new int[segmentCount];
+        segmentOffsets = new int[segmentCount];
+
+        ByteBuffer segments = buffer.duplicate();
+        int offset = PostingListFormat.HEADER_SIZE;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            segmentOffsets[segment] = offset;
+
+            segments.position( offset + PostingListFormat.SEGMENT_HEADER_SIZE );
+            segmentFirstOrdinals[segment] = VarIntCodec.readVarInt( segments );
+
+            offset += PostingListFormat.SEGMENT_HEADER_SIZE + buffer.getInt( offset + Integer.BYTES );
+        }
+    }
+
+    /**
+     * Opens the posting list file memory mapped.
+     * 
+     * @param postingListPath the path of the posting list
+     * @return the reader for the posting list
+     * @throws IOException if the file can not be mapped or isn't a posting list
+     */
+    public static PostingListReader open( Path postingListPath ) throws IOException {
+        try (FileChannel channel = FileChannel.open( postingListPath, StandardOpenOption.READ )) {
+            ByteBuffer mappedBuffer = channel.map( MapMode.READ_ONLY, 0, channel.size() );
+            return new PostingListReader( mappedBuffer );
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public int getTotalLength() {
+        return totalLength;
+    }
+
+    public int getSegmentFirstOrdinal( int segment ) {
+        if (version == PostingListFormat.VERSION_1) {
+            return segmentFirstOrdinals[segment];
+        }
+        return buffer.getInt( PostingListFormat.HEADER_SIZE + segment * PostingListFormat.SKIP_ENTRY_SIZE );
+    }
+
+    /**
+     * Returns the last ordinal of the segment. Version 1 posting lists don't know the last ordinal 
+     * without decoding the segment, so an upper bound is returned instead.
+     * 
+     * @param segment the segment
+     * @return the last ordinal or an upper bound of the last ordinal of the segment 
+     */
+    public int getSegmentLastOrdinal( int segment ) {
+        if (version == PostingListFormat.VERSION_1) {
+            if (segment + 1 < segmentCount) {
+                return segmentFirstOrdinals[segment + 1] - 1;
+            }
+            return Integer.MAX_VALUE - 1;
+        }
+        return buffer.getInt( PostingListFormat.HEADER_SIZE + segment * PostingListFormat.SKIP_ENTRY_SIZE + Integer.BYTES );
+    }
+
+    private int getSegmentOffset( int segment ) {
+        if (version == PostingListFormat.VERSION_1) {
+            return segmentOffsets[segment];
+        }
+        return buffer.getInt( PostingListFormat.HEADER_SIZE + segment * PostingListFormat.SKIP_ENTRY_SIZE + 2 * Integer.BYTES );
+    }
+
+    /**
+     * Decodes a single segment into the target array.
+     * 
+     * @param segment the segment to decode
+     * @param target the target array, must provide room for {@link PostingListFormat#SEGMENT_SIZE} ordinals 
+     * @param targetOffset the first position to write to
+     * @return the number of decoded ordinals
+     */
+    public int decodeSegment( int segment, int[] target, int targetOffset ) {
+        int offset = getSegmentOffset( segment );
+        int ordinalCount = buffer.getInt( offset );
+
+        ByteBuffer payload = buffer.duplicate();
+        payload.position( offset + PostingListFormat.SEGMENT_HEADER_SIZE );
+
+        int ordinal = VarIntCodec.readVarInt( payload );
+        target[targetOffset] = ordinal;
+
+        for (int i = 1; i < ordinalCount; i++) {
+            ordinal += VarIntCodec.readVarInt( payload );
+            target[targetOffset + i] = ordinal;
+        }
+
+        return ordinalCount;
+    }
+
+    /**
+     * Decodes all document ordinals of this posting list.
+     * 
+     * @return the sorted document ordinals
+     */
+    public int[] readAll() {
+        int[] result = new int[totalLength];
+        int resultIndex = 0;
+
+        for (int segment = 0; segment < segmentCount; segment++) {
+            resultIndex += decodeSegment( segment, result, resultIndex );
+        }
+
+        return result;
+    }
+
+    public static int[] readAll( Path postingListPath ) throws IOException {
+        return open( postingListPath ).readAll();
+    }
+
+}
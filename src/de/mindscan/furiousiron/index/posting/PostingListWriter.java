@@ -0,0 +1,167 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a sorted list of document ordinals in the binary posting list format.
+ * 
+ * @see PostingListFormat
+ */
+public class PostingListWriter {
+
+    /**
+     * Encodes the first length ordinals of the given array. The ordinals must be sorted in 
+     * strictly increasing order.
+     * 
+     * @param sortedOrdinals the sorted document ordinals
+     * @param length number of ordinals to encode
+     * @return the encoded posting list, ready to be written
+     */
+    public static ByteBuffer encode( int[] sortedOrdinals, int length ) {
+        return encode( sortedOrdinals, length, PostingListFormat.CURRENT_VERSION );
+    }
+
+    /**
+     * Encodes the first length ordinals of the given array using the given version of the format.
+     * 
+     * @param sortedOrdinals the sorted document ordinals
+     * @param length number of ordinals to encode
+     * @param version the version of the posting list format
+     * @return the encoded posting list, ready to be written
+     */
+    public static ByteBuffer encode( int[] sortedOrdinals, int length, int version ) {
+        if (version != PostingListFormat.VERSION_1 && version != PostingListFormat.VERSION_2) {
+            throw new IllegalArgumentException( "Unsupported posting list version: " + version );
+        }
+
+        int segmentCount = (length + PostingListFormat.SEGMENT_SIZE - 1) / PostingListFormat.SEGMENT_SIZE;
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream( length * 2 + 16 );
+        int[] segmentOrdinalCounts = new int[segmentCount];
+        int[] segmentPayloadLengths = new int[segmentCount];
+
+        int previousOrdinal = -1;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int start = segment * PostingListFormat.SEGMENT_SIZE;
+            int end = Math.min( start + PostingListFormat.SEGMENT_SIZE, length );
+            int payloadStart = payload.size();
+
+            // first ordinal of a segment is stored as is, so each segment can be decoded on its own.
+            VarIntCodec.writeVarInt( payload, sortedOrdinals[start] );
+            checkOrder( previousOrdinal, sortedOrdinals[start] );
+
+            for (int i = start + 1; i < end; i++) {
+                checkOrder( sortedOrdinals[i - 1], sortedOrdinals[i] );
+                VarIntCodec.writeVarInt( payload, sortedOrdinals[i] - sortedOrdinals[i - 1] );
+            }
+
+            previousOrdinal = sortedOrdinals[end - 1];
+            segmentOrdinalCounts[segment] = end - start;
+            segmentPayloadLengths[segment] = payload.size() - payloadStart;
+        }
+
+        byte[] payloadBytes = payload.toByteArray();
+
+        int skipTableSize = (version == PostingListFormat.VERSION_2) ? segmentCount * PostingListFormat.SKIP_ENTRY_SIZE : 0;
+
+        ByteBuffer result = ByteBuffer.allocate(
+                        PostingListFormat.HEADER_SIZE + skipTableSize + segmentCount * PostingListFormat.SEGMENT_HEADER_SIZE + payloadBytes.length );
+        result.putInt( PostingListFormat.MAGIC );
+        result.putInt( version );
+        result.putInt( segmentCount );
+        result.putInt( length );
+
+        if (version == PostingListFormat.VERSION_2) {
+            int segmentOffset = PostingListFormat.HEADER_SIZE + skipTableSize;
+            for (int segment = 0; segment < segmentCount; segment++) {
+                int start = segment * PostingListFormat.SEGMENT_SIZE;
+                result.putInt( sortedOrdinals[start] );
+                result.putInt( sortedOrdinals[start + segmentOrdinalCounts[segment] - 1] );
+                result.putInt( segmentOffset );
+                segmentOffset += PostingListFormat.SEGMENT_HEADER_SIZE + segmentPayloadLengths[segment];
+            }
+        }
+
+        int payloadOffset = 0;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            result.putInt( segmentOrdinalCounts[segment] );
+            result.putInt( segmentPayloadLengths[segment] );
+            result.put( payloadBytes, payloadOffset, segmentPayloadLengths[segment] );
+            payloadOffset += segmentPayloadLengths[segment];
+        }
+
+        result.flip();
+        return result;
+    }
+
+    public static ByteBuffer encode( int[] sortedOrdinals ) {
+        return encode( sortedOrdinals, sortedOrdinals.length );
+    }
+
+    /**
+     * Writes the posting list to the given path. The content is written into a temporary file
+     * first and then moved to its final location, so readers never see a partially written file.
+     * 
+     * @param postingListPath the target path
+     * @param sortedOrdinals the sorted document ordinals
+     * @throws IOException if the posting list can not be written 
+     */
+    public static void write( Path postingListPath, int[] sortedOrdinals ) throws IOException {
+        write( postingListPath, encode( sortedOrdinals ) );
+    }
+
+    public static void write( Path postingListPath, ByteBuffer encodedPostingList ) throws IOException {
+        Files.createDirectories( postingListPath.getParent() );
+
+        Path temporaryPath = postingListPath.resolveSibling( postingListPath.getFileName().toString() + ".tmp" );
+
+        try (FileChannel channel = FileChannel.open( temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING )) {
+            while (encodedPostingList.hasRemaining()) {
+                channel.write( encodedPostingList );
+            }
+        }
+
+        Files.move( temporaryPath, postingListPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    private static void checkOrder( int previousOrdinal, int currentOrdinal ) {
+        if (currentOrdinal <= previousOrdinal) {
+            throw new IllegalArgumentException(
+                            String.format( "Ordinals must be strictly increasing, but found %d after %d.", currentOrdinal, previousOrdinal ) );
+        }
+    }
+
+}
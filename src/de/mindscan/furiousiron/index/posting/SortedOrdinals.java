@@ -0,0 +1,189 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+import java.util.Arrays;
+
+/**
+ * Operations on strictly increasing arrays of document ordinals. These arrays are the in-memory
+ * representation of posting lists and of candidate sets in the search.
+ */
+public class SortedOrdinals {
+
+    public static final int[] EMPTY = new int[0];
+
+    /**
+     * Sorts the first length values and removes duplicates.
+     * 
+     * @param values the values, the array is modified in place
+     * @param length the number of valid values in the array
+     * @return a strictly increasing array of ordinals
+     */
+    public static int[] sortedUnique( int[] values, int length ) {
+        if (length == 0) {
+            return EMPTY;
+        }
+
+        Arrays.sort( values, 0, length );
+
+        int uniqueLength = 1;
+        for (int i = 1; i < length; i++) {
+            if (values[i] != values[uniqueLength - 1]) {
+                values[uniqueLength++] = values[i];
+            }
+        }
+
+        return Arrays.copyOf( values, uniqueLength );
+    }
+
+    /**
+     * Calculates the intersection of two strictly increasing arrays by merging them.
+     * 
+     * @param left strictly increasing ordinals
+     * @param right strictly increasing ordinals
+     * @return the strictly increasing ordinals contained in both arrays
+     */
+    public static int[] intersect( int[] left, int[] right ) {
+        int[] result = new int[Math.min( left.length, right.length )];
+        int resultLength = 0;
+
+        int leftIndex = 0;
+        int rightIndex = 0;
+        while (leftIndex < left.length && rightIndex < right.length) {
+            int leftValue = left[leftIndex];
+            int rightValue = right[rightIndex];
+
+            if (leftValue == rightValue) {
+                result[resultLength++] = leftValue;
+                leftIndex++;
+                rightIndex++;
+            }
+            else if (leftValue < rightValue) {
+                leftIndex++;
+            }
+            else {
+                rightIndex++;
+            }
+        }
+
+        return resultLength == result.length ? result : Arrays.copyOf( result, resultLength );
+    }
+
+    /**
+     * Calculates the union of two strictly increasing arrays by merging them.
+     * 
+     * @param left strictly increasing ordinals
+     * @param right strictly increasing ordinals
+     * @return the strictly increasing ordinals contained in any of both arrays
+     */
+    public static int[] union( int[] left, int[] right ) {
+        int[] result = new int[left.length + right.length];
+        int resultLength = 0;
+
+        int leftIndex = 0;
+        int rightIndex = 0;
+        while (leftIndex < left.length && rightIndex < right.length) {
+            int leftValue = left[leftIndex];
+            int rightValue = right[rightIndex];
+
+            if (leftValue == rightValue) {
+                result[resultLength++] = leftValue;
+                leftIndex++;
+                rightIndex++;
+            }
+            else if (leftValue < rightValue) {
+                result[resultLength++] = leftValue;
+                leftIndex++;
+            }
+            else {
+                result[resultLength++] = rightValue;
+                rightIndex++;
+            }
+        }
+
+        while (leftIndex < left.length) {
+            result[resultLength++] = left[leftIndex++];
+        }
+        while (rightIndex < right.length) {
+            result[resultLength++] = right[rightIndex++];
+        }
+
+        return resultLength == result.length ? result : Arrays.copyOf( result, resultLength );
+    }
+
+    /**
+     * Calculates the intersection of two strictly increasing arrays of very different length. Each 
+     * ordinal of the smaller array is looked up in the larger array by an exponential search starting 
+     * at the position of the previous match, so the cost is O(small * log(large / small)).
+     * 
+     * @param smaller strictly increasing ordinals, should be the shorter array
+     * @param larger strictly increasing ordinals
+     * @return the strictly increasing ordinals contained in both arrays
+     */
+    public static int[] intersectGalloping( int[] smaller, int[] larger ) {
+        int[] result = new int[smaller.length];
+        int resultLength = 0;
+
+        int position = 0;
+        for (int ordinal : smaller) {
+            position = PostingListIterator.gallop( larger, position, larger.length, ordinal );
+            if (position >= larger.length) {
+                break;
+            }
+            if (larger[position] == ordinal) {
+                result[resultLength++] = ordinal;
+            }
+        }
+
+        return resultLength == result.length ? result : Arrays.copyOf( result, resultLength );
+    }
+
+    /**
+     * Calculates the intersection of strictly increasing candidates and a posting list. The posting list
+     * is only decoded where it may contain one of the candidates. 
+     * 
+     * @param candidates strictly increasing ordinals
+     * @param postings the iterator of the posting list
+     * @return the strictly increasing candidates contained in the posting list
+     */
+    public static int[] intersect( int[] candidates, PostingListIterator postings ) {
+        int[] result = new int[candidates.length];
+        int resultLength = 0;
+
+        for (int candidate : candidates) {
+            int ordinal = postings.advance( candidate );
+            if (ordinal == PostingListIterator.NO_MORE_ORDINALS) {
+                break;
+            }
+            if (ordinal == candidate) {
+                result[resultLength++] = candidate;
+            }
+        }
+
+        return resultLength == result.length ? result : Arrays.copyOf( result, resultLength );
+    }
+
+}
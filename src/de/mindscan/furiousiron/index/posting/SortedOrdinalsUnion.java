@@ -0,0 +1,148 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Iterates over the union of many strictly increasing arrays of ordinals, e.g. the posting lists of 
+ * the alternatives of an OR query, in increasing order without duplicates.
+ * 
+ * The arrays are merged at once (k-way merge), the current position of each array is kept in a binary 
+ * min heap, so each ordinal costs O(log k) instead of merging the arrays pairwise, which copies the 
+ * ordinals of the first arrays again and again. The union is produced lazily, so a caller, which only 
+ * needs the first results, can stop early.
+ */
+public class SortedOrdinalsUnion {
+
+    public static final int NO_MORE_ORDINALS = PostingListIterator.NO_MORE_ORDINALS;
+
+    private final int[][] arrays;
+    private final int[] positions;
+
+    // indexes of the arrays, ordered as a min heap by the ordinal at their current position
+    private final int[] heap;
+    private int heapSize;
+
+    private int currentOrdinal = -1;
+
+    public SortedOrdinalsUnion( List<int[]> sortedOrdinals ) {
+        this.arrays = sortedOrdinals.toArray( new int[sortedOrdinals.size()][] );
+        this.positions = new int[arrays.length];
+        this.heap = new int[arrays.length];
+        this.heapSize = 0;
+
+        for (int i = 0; i < arrays.length; i++) {
+            if (arrays[i].length > 0) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown( i );
+        }
+    }
+
+    /**
+     * @return the next ordinal of the union or {@link #NO_MORE_ORDINALS}
+     */
+    public int next() {
+        while (heapSize > 0) {
+            int array = heap[0];
+            int ordinal = arrays[array][positions[array]];
+
+            positions[array]++;
+            if (positions[array] < arrays[array].length) {
+                siftDown( 0 );
+            }
+            else {
+                heap[0] = heap[--heapSize];
+                siftDown( 0 );
+            }
+
+            // the same ordinal may be contained in several arrays
+            if (ordinal != currentOrdinal) {
+                currentOrdinal = ordinal;
+                return ordinal;
+            }
+        }
+
+        currentOrdinal = NO_MORE_ORDINALS;
+        return NO_MORE_ORDINALS;
+    }
+
+    /**
+     * Calculates the union of many strictly increasing arrays.
+     * 
+     * @param sortedOrdinals strictly increasing arrays of ordinals
+     * @return the strictly increasing ordinals contained in any array
+     */
+    public static int[] unionAll( List<int[]> sortedOrdinals ) {
+        int totalLength = 0;
+        for (int[] ordinals : sortedOrdinals) {
+            totalLength += ordinals.length;
+        }
+
+        int[] result = new int[totalLength];
+        int resultLength = 0;
+
+        SortedOrdinalsUnion union = new SortedOrdinalsUnion( sortedOrdinals );
+        for (int ordinal = union.next(); ordinal != NO_MORE_ORDINALS; ordinal = union.next()) {
+            result[resultLength++] = ordinal;
+        }
+
+        return resultLength == result.length ? result : Arrays.copyOf( result, resultLength );
+    }
+
+    private void siftDown( int index ) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+
+            if (left < heapSize && currentValue( left ) < currentValue( smallest )) {
+                smallest = left;
+            }
+            if (right < heapSize && currentValue( right ) < currentValue( smallest )) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+
+            int swap = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = swap;
+            index = smallest;
+        }
+    }
+
+    private int currentValue( int heapIndex ) {
+        int array = heap[heapIndex];
+        return arrays[array][positions[array]];
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.posting;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Variable length encoding for non negative integers. Each byte carries seven bits of the 
+ * value, the highest bit marks, that another byte follows. Small values, like the gaps in
+ * a sorted posting list, only need one or two bytes instead of four.
+ */
+public class VarIntCodec {
+
+    public static void writeVarInt( ByteArrayOutputStream output, int value ) {
+        if (value < 0) {
+            throw new IllegalArgumentException( "Only non negative values can be encoded: " + value );
+        }
+
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            output.write( (remaining & 0x7f) | 0x80 );
+            remaining >>>= 7;
+        }
+        output.write( remaining );
+    }
+
+    public static int readVarInt( ByteBuffer input ) {
+        int result = 0;
+        int shift = 0;
+
+        while (shift < 32) {
+            byte currentByte = input.get();
+            result |= (currentByte & 0x7f) << shift;
+            if ((currentByte & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+
+        throw new IllegalStateException( "Malformed varint at position " + input.position() );
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Reads the document counts and posting lists of the trigram indexes in the background, so a query 
+ * doesn't wait for one blocking file read after the other. 
+ * 
+ * All document counts of a query are requested at once, and the posting lists of the next trigrams 
+ * are read, while the candidates are intersected with the posting list of the current trigram. The 
+ * readers of the {@link SearchTrigramIndex} and the {@link SearchMetadataTrigramIndex} are safe to be 
+ * used concurrently.
+ */
+public class AsyncTrigramFetcher {
+
+    public static final int DEFAULT_FETCH_THREADS = 8;
+
+    private final ExecutorService executor;
+
+    public AsyncTrigramFetcher() {
+        this( DEFAULT_FETCH_THREADS );
+    }
+
+    /**
+     * @param fetchThreads the number of threads reading from the index
+     */
+    public AsyncTrigramFetcher( int fetchThreads ) {
+        if (fetchThreads < 1) {
+            throw new IllegalArgumentException( "At least one fetch thread is required, but was " + fetchThreads );
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool( fetchThreads, runnable -> {
+            Thread fetcher = new Thread( runnable, "trigram-fetch-" + threadCounter.getAndIncrement() );
+            fetcher.setDaemon( true );
+            return fetcher;
+        } );
+    }
+
+    /**
+     * Loads the document counts of all trigrams in parallel.
+     * 
+     * @param trigrams the trigrams
+     * @param loader loads the document count of a single trigram
+     * @return the document counts in the order of the trigrams
+     */
+    public List<TrigramOccurrence> fetchDocumentCounts( Collection<String> trigrams, Function<String, TrigramOccurrence> loader ) {
+        List<TrigramOccurrence> result = new ArrayList<>( trigrams.size() );
+
+        if (trigrams.size() < 2) {
+            // nothing to gain from another thread
+            for (String trigram : trigrams) {
+                result.add( loader.apply( trigram ) );
+            }
+            return result;
+        }
+
+        List<Future<TrigramOccurrence>> pendingCounts = new ArrayList<>( trigrams.size() );
+        for (String trigram : trigrams) {
+            pendingCounts.add( executor.submit( () -> loader.apply( trigram ) ) );
+        }
+
+        for (Future<TrigramOccurrence> pendingCount : pendingCounts) {
+            result.add( await( pendingCount ) );
+        }
+
+        return result;
+    }
+
+    /**
+     * Starts a prefetch of posting lists for a single query.
+     * 
+     * @param loader loads the posting list of a single trigram
+     * @return the prefetch, which must be cancelled after the query
+     */
+    public PostingListPrefetch startPrefetch( Function<String, int[]> loader ) {
+        return new PostingListPrefetch( this, loader );
+    }
+
+    <T> Future<T> submit( String trigram, Function<String, T> loader ) {
+        return executor.submit( () -> loader.apply( trigram ) );
+    }
+
+    static <T> T await( Future<T> pending ) {
+        try {
+            return pending.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while waiting for the trigram index.", e );
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException( "Reading the trigram index failed.", e.getCause() );
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
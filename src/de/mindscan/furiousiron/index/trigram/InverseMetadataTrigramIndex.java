@@ -25,6 +25,8 @@
  */
 package de.mindscan.furiousiron.index.trigram;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
@@ -32,6 +34,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexFormat;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexWriter;
 
 /**
  * 
@@ -42,12 +47,16 @@ public class InverseMetadataTrigramIndex {
 
     private Map<String, TrigramIndex> inverseIndex = new HashMap<>();
     private final Path inverseTrigramsPath;
+    private final DocumentOrdinalDictionary documentOrdinals;
+    private TrigramIndexFlushExecutor flushExecutor;
 
     /**
      * @param indexFolder
+     * @param documentOrdinals the dictionary, which assigns the ordinals stored in the posting lists
      */
-    public InverseMetadataTrigramIndex( Path indexFolder ) {
+    public InverseMetadataTrigramIndex( Path indexFolder, DocumentOrdinalDictionary documentOrdinals ) {
         this.inverseTrigramsPath = indexFolder.resolve( TRIGRAM_INVERSE_METADATA_INDEX );
+        this.documentOrdinals = documentOrdinals;
     }
 
     public static String getLocalIndexFolder() {
@@ -59,6 +68,7 @@ public class InverseMetadataTrigramIndex {
      */
     public void init() {
         inverseIndex = new HashMap<>();
+        shutdownFlushExecutor();
     }
 
     /**
@@ -66,27 +76,72 @@ public class InverseMetadataTrigramIndex {
      * @param uniqueTrigramlist the collection of trigrams contained in the document metadata
      */
     public void addTrigramsForMetadata( DocumentId documentId, Collection<String> uniqueTrigramlist ) {
+        int documentOrdinal = documentOrdinals.getOrCreateOrdinal( documentId.getDocumentKey() );
+
         for (String trigramKey : uniqueTrigramlist) {
-            inverseIndex.computeIfAbsent( trigramKey, this::createEmptyTrigramIndex ).add( documentId.getDocumentKey() );
+            inverseIndex.computeIfAbsent( trigramKey, this::createEmptyTrigramIndex ).add( documentOrdinal );
         }
     }
 
     /**
-     * This method implements the save operation for the whole inverse index. 
+     * This method implements the save operation for the whole inverse index. It returns after all
+     * generations were written.
+     * 
+     * @throws UncheckedIOException if a generation could not be written
      */
     public void save() {
+        Map<String, Long> documentCounts = new HashMap<>();
+
         for (Entry<String, TrigramIndex> entry : inverseIndex.entrySet()) {
             try {
                 entry.getValue().save();
+                documentCounts.put( entry.getKey(), entry.getValue().getDocumentCount() );
             }
             catch (Exception ex) {
                 // ignore
             }
         }
+
+        if (flushExecutor != null) {
+            try {
+                flushExecutor.flushAndAwait();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException( "Saving the inverse index failed.", e );
+            }
+            finally {
+                shutdownFlushExecutor();
+            }
+        }
+
+        try {
+            TrigramDocumentCountTable.fromDocumentCounts( documentCounts ).save( inverseTrigramsPath );
+
+            // the trigram tree was updated, so a compact index built from it is outdated
+            CompactTrigramIndexWriter.delete( inverseTrigramsPath.getParent(), CompactTrigramIndexFormat.METADATA_INDEX_NAME );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private TrigramIndex createEmptyTrigramIndex( String trigram ) {
-        return new TrigramIndex( trigram, 0, inverseTrigramsPath );
+        return new TrigramIndex( trigram, 0, inverseTrigramsPath, this::getFlushExecutor );
+    }
+
+    private TrigramIndexFlushExecutor getFlushExecutor() {
+        // the writer threads are only started, when something is indexed
+        if (flushExecutor == null) {
+            flushExecutor = new TrigramIndexFlushExecutor();
+        }
+        return flushExecutor;
+    }
+
+    private void shutdownFlushExecutor() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            flushExecutor = null;
+        }
     }
 
 }
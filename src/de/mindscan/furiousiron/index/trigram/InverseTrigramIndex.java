@@ -25,13 +25,21 @@
  */
 package de.mindscan.furiousiron.index.trigram;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Stream;
 
 import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexFormat;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexWriter;
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
 
 /**
  * 
@@ -40,14 +48,27 @@ public class InverseTrigramIndex {
 
     private static final String TRIGRAM_INVERSE_INDEX = "inverseTrigram.index";
 
+    private static final String TRIGRAM_REFERENCE_SUFFIX = ".reference";
+
     private Map<String, TrigramIndex> inverseIndex = new HashMap<>();
     private final Path inverseTrigramsPath;
+    private final DocumentOrdinalDictionary documentOrdinals;
+    private TrigramIndexFlushExecutor flushExecutor;
+
+    // if set, the index is built by an external sort instead of an in memory index per trigram
+    private SortedRunTrigramIndexBuilder sortedRunBuilder;
+
+    // if set, the documents are added as new generations to the existing index, instead of replacing it
+    private boolean appendMode;
+    private TrigramDocumentCountTable appendedDocumentCounts;
 
     /**
      * @param indexFolder
+     * @param documentOrdinals the dictionary, which assigns the ordinals stored in the posting lists
      */
-    public InverseTrigramIndex( Path indexFolder ) {
+    public InverseTrigramIndex( Path indexFolder, DocumentOrdinalDictionary documentOrdinals ) {
         this.inverseTrigramsPath = indexFolder.resolve( TRIGRAM_INVERSE_INDEX );
+        this.documentOrdinals = documentOrdinals;
     }
 
     /**
@@ -55,6 +76,44 @@ public class InverseTrigramIndex {
      */
     public void init() {
         inverseIndex = new HashMap<>();
+        sortedRunBuilder = null;
+        appendMode = false;
+        appendedDocumentCounts = null;
+        shutdownFlushExecutor();
+    }
+
+    /**
+     * Builds the index by writing sorted runs of (trigram, document) pairs, which are merged into a single 
+     * posting list per trigram on {@link #save()}. The heap used while indexing is bounded by the memory budget.
+     * 
+     * @param memoryBudgetInBytes the memory used for buffering the pairs of a sorted run
+     */
+    public void useSortedRuns( long memoryBudgetInBytes ) {
+        sortedRunBuilder = new SortedRunTrigramIndexBuilder( inverseTrigramsPath, memoryBudgetInBytes );
+        appendMode = false;
+        appendedDocumentCounts = null;
+    }
+
+    /**
+     * Adds the documents as delta segments to the existing index. Each touched trigram continues with 
+     * the next free generation and the document counts of the existing index are kept. Sorted runs
+     * always replace the whole index, so they are not used in append mode.
+     * 
+     * The readers only look at the binary posting lists, once a trigram has one. So an index, which 
+     * still consists of json reference files, must be migrated before documents can be appended.
+     * 
+     * @throws IllegalStateException if the index contains trigrams, which are not migrated to posting lists
+     */
+    public void useAppendMode() {
+        if (containsJsonOnlyTrigrams()) {
+            throw new IllegalStateException( String.format(
+                            "The inverse index '%s' contains json reference files, run the PostingListMigrationMain before indexing incrementally.",
+                            inverseTrigramsPath ) );
+        }
+
+        sortedRunBuilder = null;
+        appendMode = true;
+        appendedDocumentCounts = TrigramDocumentCountTable.loadIfExists( inverseTrigramsPath );
     }
 
     /**
@@ -62,27 +121,146 @@ public class InverseTrigramIndex {
      * @param uniqueTrigramlist the collection of trigrams contained in the document
      */
     public void addTrigramsForDocument( DocumentId documentId, Collection<String> uniqueTrigramlist ) {
+        int documentOrdinal = documentOrdinals.getOrCreateOrdinal( documentId.getDocumentKey() );
+
+        if (sortedRunBuilder != null) {
+            try {
+                sortedRunBuilder.addTrigramsForDocument( documentOrdinal, uniqueTrigramlist );
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException( "Writing a sorted run failed.", e );
+            }
+            return;
+        }
+
         for (String trigramKey : uniqueTrigramlist) {
-            inverseIndex.computeIfAbsent( trigramKey, this::createEmptyTrigramIndex ).add( documentId.getDocumentKey() );
+            inverseIndex.computeIfAbsent( trigramKey, this::createEmptyTrigramIndex ).add( documentOrdinal );
         }
     }
 
     /**
-     * This method implements the save operation for the whole inverse index. 
+     * This method implements the save operation for the whole inverse index. It returns after all
+     * generations were written.
+     * 
+     * @throws UncheckedIOException if a generation could not be written
      */
     public void save() {
+        if (sortedRunBuilder != null) {
+            try {
+                saveDocumentCounts( sortedRunBuilder.mergeRuns( getFlushExecutor() ) );
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException( "Merging the sorted runs failed.", e );
+            }
+            finally {
+                shutdownFlushExecutor();
+            }
+            return;
+        }
+
+        Map<String, Long> documentCounts = new HashMap<>();
+        if (appendMode && appendedDocumentCounts != null) {
+            documentCounts.putAll( appendedDocumentCounts.toDocumentCounts() );
+        }
+
         for (Entry<String, TrigramIndex> entry : inverseIndex.entrySet()) {
             try {
                 entry.getValue().save();
+                documentCounts.put( entry.getKey(), entry.getValue().getDocumentCount() );
             }
             catch (Exception ex) {
                 // ignore
             }
         }
+
+        if (flushExecutor != null) {
+            try {
+                flushExecutor.flushAndAwait();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException( "Saving the inverse index failed.", e );
+            }
+            finally {
+                shutdownFlushExecutor();
+            }
+        }
+
+        saveDocumentCounts( TrigramDocumentCountTable.fromDocumentCounts( documentCounts ) );
+    }
+
+    private void saveDocumentCounts( TrigramDocumentCountTable documentCounts ) {
+        try {
+            documentCounts.save( inverseTrigramsPath );
+
+            // the trigram tree was updated, so a compact index built from it is outdated
+            CompactTrigramIndexWriter.delete( inverseTrigramsPath.getParent(), CompactTrigramIndexFormat.CONTENT_INDEX_NAME );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private TrigramIndex createEmptyTrigramIndex( String trigram ) {
-        return new TrigramIndex( trigram, 0, inverseTrigramsPath );
+        if (appendMode) {
+            long documentCount = (appendedDocumentCounts != null) ? appendedDocumentCounts.getDocumentCount( trigram ) : 0L;
+            return new TrigramIndex( trigram, findFirstFreeGeneration( trigram ), inverseTrigramsPath, this::getFlushExecutor, documentCount );
+        }
+
+        return new TrigramIndex( trigram, 0, inverseTrigramsPath, this::getFlushExecutor );
+    }
+
+    private int findFirstFreeGeneration( String trigram ) {
+        int generation = 0;
+        while (generationExists( trigram, generation )) {
+            generation++;
+        }
+        return generation;
+    }
+
+    private boolean generationExists( String trigram, int generation ) {
+        // json reference files kept after the migration are merged into the first posting list, so they are no generations
+        Path postingListPath = TrigramSubPathCalculator.getPathForTrigram( inverseTrigramsPath, trigram,
+                        "." + generation + PostingListFormat.POSTING_LIST_SUFFIX );
+        return Files.exists( postingListPath );
+    }
+
+    private boolean containsJsonOnlyTrigrams() {
+        if (!Files.isDirectory( inverseTrigramsPath )) {
+            return false;
+        }
+
+        try (Stream<Path> files = Files.walk( inverseTrigramsPath )) {
+            return files.anyMatch( this::isJsonOnlyTrigram );
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException( "Looking for json reference files failed.", e );
+        }
+    }
+
+    private boolean isJsonOnlyTrigram( Path file ) {
+        String fileName = file.getFileName().toString();
+        String firstReferenceSuffix = ".0" + TRIGRAM_REFERENCE_SUFFIX;
+        if (!fileName.endsWith( firstReferenceSuffix )) {
+            return false;
+        }
+
+        String trigramFileName = fileName.substring( 0, fileName.length() - firstReferenceSuffix.length() );
+        return !Files.exists( file.resolveSibling( trigramFileName + ".0" + PostingListFormat.POSTING_LIST_SUFFIX ) );
+    }
+
+    private TrigramIndexFlushExecutor getFlushExecutor() {
+        // the writer threads are only started, when something is indexed
+        if (flushExecutor == null) {
+            flushExecutor = new TrigramIndexFlushExecutor();
+        }
+        return flushExecutor;
+    }
+
+    private void shutdownFlushExecutor() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            flushExecutor = null;
+        }
     }
 
 }
@@ -0,0 +1,89 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The posting lists of a single query, which are read in the background by the 
+ * {@link AsyncTrigramFetcher}. A posting list, which was not requested in advance, is read by the 
+ * calling thread. 
+ * 
+ * Once the query is done, e.g. because no candidate is left, the outstanding reads are cancelled. Reads,
+ * which are already running, are not interrupted, because an interrupt closes the file channels of the
+ * index. They still complete and fill the posting list cache of the index.
+ */
+public class PostingListPrefetch {
+
+    private final AsyncTrigramFetcher fetcher;
+    private final Function<String, int[]> loader;
+    private final Map<String, Future<int[]>> pendingPostingLists;
+
+    PostingListPrefetch( AsyncTrigramFetcher fetcher, Function<String, int[]> loader ) {
+        this.fetcher = fetcher;
+        this.loader = loader;
+        this.pendingPostingLists = new HashMap<>();
+    }
+
+    /**
+     * Starts reading the posting list of the trigram in the background, unless it was already requested.
+     * 
+     * @param trigram
+     */
+    public void request( String trigram ) {
+        pendingPostingLists.computeIfAbsent( trigram, t -> fetcher.submit( t, loader ) );
+    }
+
+    public boolean isRequested( String trigram ) {
+        return pendingPostingLists.containsKey( trigram );
+    }
+
+    /**
+     * @param trigram
+     * @return the strictly increasing ordinals of all documents containing the trigram
+     */
+    public int[] get( String trigram ) {
+        Future<int[]> pending = pendingPostingLists.remove( trigram );
+        if (pending == null) {
+            return loader.apply( trigram );
+        }
+        return AsyncTrigramFetcher.await( pending );
+    }
+
+    /**
+     * Cancels all outstanding reads, which are not yet running.
+     */
+    public void cancel() {
+        for (Future<int[]> pending : pendingPostingLists.values()) {
+            pending.cancel( false );
+        }
+        pendingPostingLists.clear();
+    }
+
+}
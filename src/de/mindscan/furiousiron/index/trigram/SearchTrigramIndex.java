@@ -25,18 +25,32 @@
  */
 package de.mindscan.furiousiron.index.trigram;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
 import com.google.gson.Gson;
 
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexFormat;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexReader;
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListIterator;
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
 import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
 import de.mindscan.furiousiron.index.trigram.model.TrigramIndexJsonModel;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+import de.mindscan.furiousiron.util.cache.CacheStatistics;
+import de.mindscan.furiousiron.util.cache.WeightedLRUCache;
 
 /**
  * 
@@ -48,16 +62,53 @@ public class SearchTrigramIndex {
     private static final String TRIGRAM_REFERENCE_SUFFIX = ".reference";
     private static final String TRIGRAM_COUNT_SUFFIX = ".reference_count";
 
-    // Means that we can inversely reference 1024 * 3072 documents
-    private static final int MAX_INDEX_REFERENCES = 1024;
+    // size of the decoded posting lists kept in memory
+    public static final long DEFAULT_POSTING_LIST_CACHE_SIZE_IN_BYTES = 64L * 1024L * 1024L;
+
+    // number of trigram counts kept in memory, if the index has no count table
+    private static final long DOCUMENT_COUNT_CACHE_SIZE = 65536L;
 
     private Path searchTrigramsPath;
 
+    private final DocumentOrdinalDictionary documentOrdinals;
+
+    // the compact index replaces the trigram tree, if it exists
+    private final CompactTrigramIndexReader compactIndex;
+
+    private final TrigramDocumentCountTable documentCountTable;
+    private final WeightedLRUCache<String, TrigramOccurrence> documentCountCache;
+    private final WeightedLRUCache<String, int[]> postingListCache;
+
     /**
      * @param indexFolder
      */
     public SearchTrigramIndex( Path indexFolder ) {
+        this( indexFolder, DocumentOrdinalDictionary.loadOrCreate( indexFolder ) );
+    }
+
+    /**
+     * @param indexFolder
+     * @param documentOrdinals the dictionary to translate the ordinals of binary posting lists into document keys
+     */
+    public SearchTrigramIndex( Path indexFolder, DocumentOrdinalDictionary documentOrdinals ) {
+        this( indexFolder, documentOrdinals, DEFAULT_POSTING_LIST_CACHE_SIZE_IN_BYTES );
+    }
+
+    /**
+     * @param indexFolder
+     * @param documentOrdinals the dictionary to translate the ordinals of binary posting lists into document keys
+     * @param postingListCacheSizeInBytes the maximum size of the decoded posting lists kept in memory
+     */
+    public SearchTrigramIndex( Path indexFolder, DocumentOrdinalDictionary documentOrdinals, long postingListCacheSizeInBytes ) {
         this.searchTrigramsPath = indexFolder.resolve( TRIGRAM_INVERSE_INDEX_LOCATION );
+        this.documentOrdinals = documentOrdinals;
+
+        this.compactIndex = openCompactIndex( indexFolder );
+
+        // the count table is small and used for every query, so it is loaded once and kept resident.
+        this.documentCountTable = TrigramDocumentCountTable.loadIfExists( searchTrigramsPath );
+        this.documentCountCache = new WeightedLRUCache<>( DOCUMENT_COUNT_CACHE_SIZE, occurrence -> 1L );
+        this.postingListCache = new WeightedLRUCache<>( postingListCacheSizeInBytes, ordinals -> 16L + 4L * ordinals.length );
     }
 
     /**
@@ -65,19 +116,124 @@ public class SearchTrigramIndex {
     * @return
     */
     public Collection<String> getDocumentIdsForTrigram( String trigram ) {
-        return loadFromDisk( trigram );
+        Set<String> result = new TreeSet<>();
+
+        for (int ordinal : getDocumentOrdinalsForTrigram( trigram )) {
+            String documentKey = documentOrdinals.getDocumentKey( ordinal );
+            if (documentKey != null) {
+                result.add( documentKey );
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param trigram
+     * @return the strictly increasing ordinals of all documents containing the trigram
+     */
+    public int[] getDocumentOrdinalsForTrigram( String trigram ) {
+        // the cached arrays are shared, so they must never be modified
+        return postingListCache.get( trigram, this::loadFromDisk );
+    }
+
+    /**
+     * @param trigram
+     * @return the compressed bitmap of all documents containing the trigram
+     */
+    public DocumentBitmap getDocumentBitmapForTrigram( String trigram ) {
+        return DocumentBitmap.fromSortedOrdinals( getDocumentOrdinalsForTrigram( trigram ) );
+    }
+
+    /**
+     * Retains the candidates, which contain the trigram. Instead of decoding the complete posting lists, 
+     * the skip tables are used to decode only those segments, which may contain one of the candidates.
+     * This is much cheaper than {@link #getDocumentBitmapForTrigram(String)}, when the candidate set is 
+     * small compared to the number of documents containing the trigram.
+     * 
+     * @param candidates the candidate documents
+     * @param trigram
+     * @return the candidates containing the trigram
+     */
+    public DocumentBitmap retainDocumentsContainingTrigram( DocumentBitmap candidates, String trigram ) {
+        int[] cachedOrdinals = postingListCache.getIfPresent( trigram );
+        if (cachedOrdinals != null) {
+            return DocumentBitmap.fromSortedOrdinals( SortedOrdinals.intersectGalloping( candidates.toSortedOrdinals(), cachedOrdinals ) );
+        }
+
+        List<PostingListReader> generations = openPostingLists( trigram );
+        if (generations.isEmpty() && compactIndex != null) {
+            return new DocumentBitmap();
+        }
+        if (generations.isEmpty()) {
+            return candidates.and( DocumentBitmap.fromSortedOrdinals( loadJsonReferences( trigram ) ) );
+        }
+
+        int[] candidateOrdinals = candidates.toSortedOrdinals();
+
+        DocumentBitmap retained = new DocumentBitmap();
+        for (PostingListReader generation : generations) {
+            int[] retainedOrdinals = SortedOrdinals.intersect( candidateOrdinals, new PostingListIterator( generation ) );
+            retained = retained.or( DocumentBitmap.fromSortedOrdinals( retainedOrdinals ) );
+        }
+
+        return retained;
+    }
+
+    public DocumentOrdinalDictionary getDocumentOrdinalDictionary() {
+        return documentOrdinals;
+    }
+
+    public CacheStatistics getPostingListCacheStatistics() {
+        return postingListCache.getStatistics();
+    }
+
+    public CacheStatistics getDocumentCountCacheStatistics() {
+        return documentCountCache.getStatistics();
     }
 
     /**
-     * This will open and load the trigram count file from disk. This should be done once for the involved trigrams,
-     * because of speed.
+     * Returns the number of documents containing the trigram. The count is taken from the resident count 
+     * table, only indexes without a count table have to open and load the trigram count file from disk.
      * 
      * @param trigram
      * @return
      */
     public TrigramOccurrence loadDocumentCountForTrigram( String trigram ) {
-        // TODO: LRU Cache for the number of trigrams, so the number is only calculated/read once from disk.
+        if (compactIndex != null) {
+            return new TrigramOccurrence( trigram, compactIndex.getDocumentCount( trigram ) );
+        }
+
+        if (documentCountTable != null) {
+            return new TrigramOccurrence( trigram, documentCountTable.getDocumentCount( trigram ) );
+        }
+
+        return documentCountCache.get( trigram, this::loadDocumentCountFromDisk );
+    }
+
+    /**
+     * @return <code>true</code> if the document counts are resident and are looked up without reading from disk
+     */
+    public boolean isDocumentCountResident() {
+        return compactIndex != null || documentCountTable != null;
+    }
+
+    private static CompactTrigramIndexReader openCompactIndex( Path indexFolder ) {
+        if (!CompactTrigramIndexReader.exists( indexFolder, CompactTrigramIndexFormat.CONTENT_INDEX_NAME )) {
+            return null;
+        }
+
+        try {
+            return CompactTrigramIndexReader.open( indexFolder, CompactTrigramIndexFormat.CONTENT_INDEX_NAME );
+        }
+        catch (IOException e) {
+            // fall back to the trigram tree
+            e.printStackTrace();
+            return null;
+        }
+    }
 
+    private TrigramOccurrence loadDocumentCountFromDisk( String trigram ) {
         Path pathForTrigramCount = TrigramSubPathCalculator.getPathForTrigram( searchTrigramsPath, trigram, TRIGRAM_COUNT_SUFFIX );
 
         if (Files.exists( pathForTrigramCount, LinkOption.NOFOLLOW_LINKS )) {
@@ -97,17 +253,38 @@ public class SearchTrigramIndex {
         }
     }
 
-    private Set<String> loadFromDisk( String trigram ) {
-        Set<String> result = new TreeSet<>();
+    private int[] loadFromDisk( String trigram ) {
+        // the binary posting lists are preferred, the json reference files are only read for not yet migrated indexes
+        int[] result = loadBinaryPostingLists( trigram );
+        if (result != null) {
+            return result;
+        }
+
+        if (compactIndex != null) {
+            return SortedOrdinals.EMPTY;
+        }
 
-        for (int counter = 0; counter < MAX_INDEX_REFERENCES; counter++) {
+        return loadJsonReferences( trigram );
+    }
+
+    private int[] loadJsonReferences( String trigram ) {
+        int[] collected = new int[256];
+        int collectedLength = 0;
+
+        for (int counter = 0;; counter++) {
             Path pathForTrigrams = TrigramSubPathCalculator.getPathForTrigram( searchTrigramsPath, trigram, "." + counter + TRIGRAM_REFERENCE_SUFFIX );
 
             if (Files.exists( pathForTrigrams, LinkOption.NOFOLLOW_LINKS )) {
                 Gson gson = new Gson();
                 try (Reader json = Files.newBufferedReader( pathForTrigrams )) {
                     TrigramIndexJsonModel fromJson = gson.fromJson( json, TrigramIndexJsonModel.class );
-                    result.addAll( fromJson.getRelatedDocuments() );
+                    for (String documentKey : fromJson.getRelatedDocuments()) {
+                        if (collectedLength == collected.length) {
+                            collected = Arrays.copyOf( collected, collected.length * 2 );
+                        }
+                        // not yet migrated indexes have no persisted ordinals, so they are assigned on the fly
+                        collected[collectedLength++] = documentOrdinals.getOrCreateOrdinal( documentKey );
+                    }
                 }
                 catch (Exception e) {
                     break;
@@ -118,7 +295,70 @@ public class SearchTrigramIndex {
             }
         }
 
-        return result;
+        return SortedOrdinals.sortedUnique( collected, collectedLength );
+    }
+
+    private int[] loadBinaryPostingLists( String trigram ) {
+        List<PostingListReader> generations = openPostingLists( trigram );
+        if (generations.isEmpty()) {
+            return null;
+        }
+
+        // a single generation is already strictly increasing
+        if (generations.size() == 1) {
+            return generations.get( 0 ).readAll();
+        }
+
+        int collectedLength = 0;
+        for (PostingListReader generation : generations) {
+            collectedLength += generation.getTotalLength();
+        }
+
+        int[] collected = new int[collectedLength];
+        int offset = 0;
+        for (PostingListReader generation : generations) {
+            int[] ordinals = generation.readAll();
+            System.arraycopy( ordinals, 0, collected, offset, ordinals.length );
+            offset += ordinals.length;
+        }
+
+        return SortedOrdinals.sortedUnique( collected, collectedLength );
+    }
+
+    private List<PostingListReader> openPostingLists( String trigram ) {
+        List<PostingListReader> generations = new ArrayList<>();
+
+        if (compactIndex != null) {
+            try {
+                PostingListReader postingList = compactIndex.getPostingList( trigram );
+                if (postingList != null) {
+                    generations.add( postingList );
+                }
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+            }
+            return generations;
+        }
+
+        for (int counter = 0;; counter++) {
+            Path pathForPostings = TrigramSubPathCalculator.getPathForTrigram( searchTrigramsPath, trigram,
+                            "." + counter + PostingListFormat.POSTING_LIST_SUFFIX );
+
+            if (!Files.exists( pathForPostings, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            try {
+                generations.add( PostingListReader.open( pathForPostings ) );
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+                break;
+            }
+        }
+
+        return generations;
     }
 
 }
@@ -0,0 +1,351 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.google.gson.Gson;
+
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
+
+/**
+ * Builds the inverse trigram index with an external sort, instead of keeping a growing index per trigram
+ * in memory. 
+ * 
+ * The (trigram, document ordinal) pairs are collected in a fixed size buffer. When the buffer is full, 
+ * it is sorted and written as a sorted run file. At the end all runs are merged at once and each trigram 
+ * gets a single posting list (generation 0) instead of many generations. The heap used for the pairs 
+ * is bounded by the memory budget, independent of the size of the corpus; only the posting list of the 
+ * trigram currently merged is held completely. The merge visits the trigrams in the order of their 
+ * trigram codes, so the document counts are collected directly into a {@link TrigramDocumentCountTable},
+ * which grows with the number of distinct trigrams (16 bytes each), but not with the number of documents.
+ */
+public class SortedRunTrigramIndexBuilder {
+
+    public static final long DEFAULT_MEMORY_BUDGET_IN_BYTES = 64L * 1024L * 1024L;
+
+    private static final String RUN_FOLDER = "sortedRuns";
+    private static final String RUN_FILE_SUFFIX = ".run";
+    private static final String TRIGRAM_COUNT_SUFFIX = ".reference_count";
+
+    private static final int RUN_MAGIC = 0x46495252; // 'FIRR'
+
+    // each pair uses a long for the trigram code and an int for the ordinal
+    private static final int BYTES_PER_PAIR = Long.BYTES + Integer.BYTES;
+
+    // below this size the ranges are sorted by insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    private final Path trigramsBasePath;
+    private final Path runFolder;
+
+    private final long[] trigramCodes;
+    private final int[] ordinals;
+    private int pairCount;
+
+    private final List<Path> runFiles = new ArrayList<>();
+
+    /**
+     * @param trigramsBasePath the folder of the inverse trigram index tree
+     * @param memoryBudgetInBytes the memory used for buffering the pairs before they are written as a sorted run
+     */
+    public SortedRunTrigramIndexBuilder( Path trigramsBasePath, long memoryBudgetInBytes ) {
+        long capacity = memoryBudgetInBytes / BYTES_PER_PAIR;
+        if (capacity < 1) {
+            throw new IllegalArgumentException( "The memory budget is too small: " + memoryBudgetInBytes );
+        }
+
+        this.trigramsBasePath = trigramsBasePath;
+        this.runFolder = trigramsBasePath.resolve( RUN_FOLDER );
+        this.trigramCodes = new long[(int) Math.min( capacity, Integer.MAX_VALUE - 8 )];
+        this.ordinals = new int[trigramCodes.length];
+        this.pairCount = 0;
+    }
+
+    /**
+     * @param documentOrdinal the ordinal of the document
+     * @param uniqueTrigramlist the trigrams contained in the document
+     * @throws IOException if a sorted run can not be written
+     */
+    public void addTrigramsForDocument( int documentOrdinal, Collection<String> uniqueTrigramlist ) throws IOException {
+        for (String trigram : uniqueTrigramlist) {
+            if (trigram.length() != 3) {
+                continue;
+            }
+
+            if (pairCount == trigramCodes.length) {
+                writeSortedRun();
+            }
+
+            trigramCodes[pairCount] = TrigramCode.encode( trigram );
+            ordinals[pairCount] = documentOrdinal;
+            pairCount++;
+        }
+    }
+
+    /**
+     * Merges all sorted runs into the posting lists of the inverse index tree and removes the runs.
+     * 
+     * @param flushExecutor writes the posting lists and count files of the trigrams 
+     * @return the number of documents per trigram
+     * @throws IOException if the runs can not be read or the posting lists can not be written
+     */
+    public TrigramDocumentCountTable mergeRuns( TrigramIndexFlushExecutor flushExecutor ) throws IOException {
+        writeSortedRun();
+
+        TrigramDocumentCountTable.Builder documentCounts = TrigramDocumentCountTable.builder();
+
+        PriorityQueue<SortedRunReader> readers = new PriorityQueue<>( Math.max( 1, runFiles.size() ), SortedRunReader::compareTo );
+        try {
+            for (Path runFile : runFiles) {
+                SortedRunReader reader = new SortedRunReader( runFile );
+                if (reader.next()) {
+                    readers.add( reader );
+                }
+                else {
+                    reader.close();
+                }
+            }
+
+            int[] postingList = new int[1024];
+            while (!readers.isEmpty()) {
+                long currentTrigramCode = readers.peek().trigramCode;
+                int postingListLength = 0;
+
+                // collect the ordinals of the current trigram from all runs, the runs are sorted by trigram and ordinal
+                while (!readers.isEmpty() && readers.peek().trigramCode == currentTrigramCode) {
+                    SortedRunReader reader = readers.poll();
+
+                    if (postingListLength == 0 || postingList[postingListLength - 1] != reader.ordinal) {
+                        if (postingListLength == postingList.length) {
+                            postingList = Arrays.copyOf( postingList, postingList.length * 2 );
+                        }
+                        postingList[postingListLength++] = reader.ordinal;
+                    }
+
+                    if (reader.next()) {
+                        readers.add( reader );
+                    }
+                    else {
+                        reader.close();
+                    }
+                }
+
+                String trigram = TrigramCode.decode( currentTrigramCode );
+                int[] sortedOrdinals = Arrays.copyOf( postingList, postingListLength );
+                documentCounts.add( currentTrigramCode, postingListLength );
+
+                flushExecutor.submit( trigram, () -> writePostingList( trigram, sortedOrdinals ) );
+            }
+        }
+        finally {
+            for (SortedRunReader reader : readers) {
+                reader.close();
+            }
+        }
+
+        flushExecutor.flushAndAwait();
+
+        for (Path runFile : runFiles) {
+            Files.deleteIfExists( runFile );
+        }
+        runFiles.clear();
+        Files.deleteIfExists( runFolder );
+
+        return documentCounts.build();
+    }
+
+    public int getRunCount() {
+        return runFiles.size();
+    }
+
+    private void writeSortedRun() throws IOException {
+        if (pairCount == 0) {
+            return;
+        }
+
+        sortPairs( 0, pairCount - 1 );
+
+        Files.createDirectories( runFolder );
+        Path runFile = runFolder.resolve( "run-" + runFiles.size() + RUN_FILE_SUFFIX );
+
+        try (DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( runFile ), 1 << 16 ) )) {
+            output.writeInt( RUN_MAGIC );
+            for (int i = 0; i < pairCount; i++) {
+                output.writeLong( trigramCodes[i] );
+                output.writeInt( ordinals[i] );
+            }
+        }
+
+        runFiles.add( runFile );
+        pairCount = 0;
+    }
+
+    private void writePostingList( String trigram, int[] sortedOrdinals ) throws IOException {
+        Path postingListPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, ".0" + PostingListFormat.POSTING_LIST_SUFFIX );
+        PostingListWriter.write( postingListPath, sortedOrdinals );
+
+        Path trigramCountPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, TRIGRAM_COUNT_SUFFIX );
+        try (BufferedWriter writer = Files.newBufferedWriter( trigramCountPath, StandardCharsets.UTF_8 )) {
+            Gson gson = new Gson();
+            writer.write( gson.toJson( new TrigramDocumentCountJsonModel( trigram, sortedOrdinals.length ) ) );
+        }
+    }
+
+    // sorts the pairs by trigram code and then by ordinal, without boxing them
+    private void sortPairs( int low, int high ) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int middle = (low + high) >>> 1;
+
+            // median of three as pivot
+            if (comparePairs( middle, low ) < 0) {
+                swapPairs( middle, low );
+            }
+            if (comparePairs( high, low ) < 0) {
+                swapPairs( high, low );
+            }
+            if (comparePairs( high, middle ) < 0) {
+                swapPairs( high, middle );
+            }
+
+            long pivotCode = trigramCodes[middle];
+            int pivotOrdinal = ordinals[middle];
+
+            int left = low;
+            int right = high;
+            while (left <= right) {
+                while (comparePairTo( left, pivotCode, pivotOrdinal ) < 0) {
+                    left++;
+                }
+                while (comparePairTo( right, pivotCode, pivotOrdinal ) > 0) {
+                    right--;
+                }
+                if (left <= right) {
+                    swapPairs( left, right );
+                    left++;
+                    right--;
+                }
+            }
+
+            // recurse into the smaller part, so the stack depth stays logarithmic
+            if (right - low < high - left) {
+                sortPairs( low, right );
+                low = left;
+            }
+            else {
+                sortPairs( left, high );
+                high = right;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && comparePairs( j, j - 1 ) < 0; j--) {
+                swapPairs( j, j - 1 );
+            }
+        }
+    }
+
+    private int comparePairs( int first, int second ) {
+        return comparePairTo( first, trigramCodes[second], ordinals[second] );
+    }
+
+    private int comparePairTo( int index, long trigramCode, int ordinal ) {
+        int result = Long.compare( trigramCodes[index], trigramCode );
+        if (result != 0) {
+            return result;
+        }
+        return Integer.compare( ordinals[index], ordinal );
+    }
+
+    private void swapPairs( int first, int second ) {
+        long trigramCode = trigramCodes[first];
+        trigramCodes[first] = trigramCodes[second];
+        trigramCodes[second] = trigramCode;
+
+        int ordinal = ordinals[first];
+        ordinals[first] = ordinals[second];
+        ordinals[second] = ordinal;
+    }
+
+    private static class SortedRunReader implements Closeable, Comparable<SortedRunReader> {
+        private final DataInputStream input;
+
+        long trigramCode;
+        int ordinal;
+
+        SortedRunReader( Path runFile ) throws IOException {
+            this.input = new DataInputStream( new BufferedInputStream( Files.newInputStream( runFile ), 1 << 16 ) );
+
+            if (input.readInt() != RUN_MAGIC) {
+                input.close();
+                throw new IOException( "Not a sorted run: " + runFile );
+            }
+        }
+
+        boolean next() throws IOException {
+            try {
+                trigramCode = input.readLong();
+            }
+            catch (EOFException e) {
+                return false;
+            }
+            ordinal = input.readInt();
+            return true;
+        }
+
+        @Override
+        public int compareTo( SortedRunReader other ) {
+            int result = Long.compare( trigramCode, other.trigramCode );
+            if (result != 0) {
+                return result;
+            }
+            return Integer.compare( ordinal, other.ordinal );
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+/**
+ * Decides, which generations of a trigram are merged into a larger segment.
+ * 
+ * Each generation belongs to a tier by its size: generations smaller than mergeFactor times the floor 
+ * segment size are in tier 0, each further tier is mergeFactor times larger. A merge is selected as soon 
+ * as the newest generations up to a tier contain at least mergeFactor generations of that tier, smaller 
+ * generations in between are merged as well. Only the newest generations are merged, so the generation numbers stay contiguous and a reader 
+ * can still discover them one after another. New generations are added to the end and are usually 
+ * small, so an old and large segment is only rewritten after enough data was merged into its tier.
+ */
+public class TieredMergePolicy {
+
+    public static final int NO_MERGE = -1;
+
+    public static final int DEFAULT_MERGE_FACTOR = 10;
+
+    public static final long DEFAULT_FLOOR_SEGMENT_SIZE = 64L * 1024L;
+
+    private final int mergeFactor;
+    private final long floorSegmentSize;
+
+    public TieredMergePolicy() {
+        this( DEFAULT_MERGE_FACTOR, DEFAULT_FLOOR_SEGMENT_SIZE );
+    }
+
+    /**
+     * @param mergeFactor the number of generations of a tier, which are merged into a single segment
+     * @param floorSegmentSize the size in bytes, below which all generations are treated as equally small
+     */
+    public TieredMergePolicy( int mergeFactor, long floorSegmentSize ) {
+        if (mergeFactor < 2) {
+            throw new IllegalArgumentException( "The merge factor must be at least 2, but was " + mergeFactor );
+        }
+        if (floorSegmentSize < 1L) {
+            throw new IllegalArgumentException( "The floor segment size must be positive, but was " + floorSegmentSize );
+        }
+
+        this.mergeFactor = mergeFactor;
+        this.floorSegmentSize = floorSegmentSize;
+    }
+
+    /**
+     * @param segmentSize the size of a generation in bytes
+     * @return the tier of the generation
+     */
+    public int getTier( long segmentSize ) {
+        int tier = 0;
+        long tierLimit = floorSegmentSize * mergeFactor;
+        while (segmentSize >= tierLimit && tierLimit <= Long.MAX_VALUE / mergeFactor) {
+            tier++;
+            tierLimit *= mergeFactor;
+        }
+        return tier;
+    }
+
+    /**
+     * @param segmentSizes the sizes of the generations of a trigram, oldest generation first
+     * @return the first generation of the newest generations to merge or {@link #NO_MERGE}
+     */
+    public int findTailMerge( long[] segmentSizes ) {
+        if (segmentSizes.length < mergeFactor) {
+            return NO_MERGE;
+        }
+
+        int[] tiers = new int[segmentSizes.length];
+        int maxTier = 0;
+        for (int i = 0; i < segmentSizes.length; i++) {
+            tiers[i] = getTier( segmentSizes[i] );
+            maxTier = Math.max( maxTier, tiers[i] );
+        }
+
+        // prefer the lowest tier, which means the least amount of data is rewritten
+        for (int tier = 0; tier <= maxTier; tier++) {
+            int start = segmentSizes.length;
+            int generationsOfTier = 0;
+            while (start > 0 && tiers[start - 1] <= tier) {
+                start--;
+                if (tiers[start] == tier) {
+                    generationsOfTier++;
+                }
+            }
+
+            if (generationsOfTier >= mergeFactor) {
+                return start;
+            }
+        }
+
+        return NO_MERGE;
+    }
+
+    public int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    public long getFloorSegmentSize() {
+        return floorSegmentSize;
+    }
+
+}
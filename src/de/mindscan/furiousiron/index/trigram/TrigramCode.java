@@ -0,0 +1,56 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+/**
+ * Packs the three UTF-16 characters of a trigram into the lower 48 bits of a long. The codes sort 
+ * in the same order as the trigram strings, so they can be used as keys of sorted tables.
+ */
+public class TrigramCode {
+
+    public static final long TRIGRAM_CODE_MASK = 0xFFFF_FFFF_FFFFL;
+
+    public static long encode( String trigram ) {
+        if (trigram.length() != 3) {
+            throw new IllegalArgumentException( "A trigram must consist of exactly three characters: '" + trigram + "'" );
+        }
+
+        return encode( trigram.charAt( 0 ), trigram.charAt( 1 ), trigram.charAt( 2 ) );
+    }
+
+    public static long encode( char first, char second, char third ) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    public static String decode( long trigramCode ) {
+        char[] chars = new char[3];
+        chars[0] = (char) (trigramCode >>> 32);
+        chars[1] = (char) (trigramCode >>> 16);
+        chars[2] = (char) trigramCode;
+        return new String( chars );
+    }
+
+}
@@ -0,0 +1,224 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Compact table of the document counts of all trigrams of an inverse index. The trigrams are kept as 
+ * sorted trigram codes in a primitive array, so the whole table is loaded once and each lookup is a 
+ * binary search instead of opening and parsing a '.reference_count' file.
+ * 
+ * Binary format (big endian): int magic, int version, int size, followed by size times (long trigramCode, long count).
+ */
+public class TrigramDocumentCountTable {
+
+    public static final String TRIGRAM_COUNT_TABLE_FILENAME = "trigramDocumentCounts.table";
+
+    public static final int MAGIC = 0x46495443; // 'FITC'
+
+    public static final int VERSION_1 = 1;
+
+    private final long[] trigramCodes;
+    private final long[] documentCounts;
+
+    private TrigramDocumentCountTable( long[] trigramCodes, long[] documentCounts ) {
+        this.trigramCodes = trigramCodes;
+        this.documentCounts = documentCounts;
+    }
+
+    /**
+     * @param documentCounts the document count per trigram
+     * @return the table for the given counts
+     */
+    public static TrigramDocumentCountTable fromDocumentCounts( Map<String, Long> documentCounts ) {
+        long[][] entries = new long[documentCounts.size()][];
+        int index = 0;
+        for (Entry<String, Long> entry : documentCounts.entrySet()) {
+            entries[index++] = new long[] { TrigramCode.encode( entry.getKey() ), entry.getValue().longValue() };
+        }
+        Arrays.sort( entries, ( left, right ) -> Long.compare( left[0], right[0] ) );
+
+        long[] trigramCodes = new long[entries.length];
+        long[] counts = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            trigramCodes[i] = entries[i][0];
+            counts[i] = entries[i][1];
+        }
+
+        return new TrigramDocumentCountTable( trigramCodes, counts );
+    }
+
+    /**
+     * @return a builder, which collects the counts in the order of the trigram codes
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param trigram the trigram
+     * @return the number of documents containing this trigram, 0 if the trigram is not indexed at all
+     */
+    public long getDocumentCount( String trigram ) {
+        if (trigram.length() != 3) {
+            return 0L;
+        }
+
+        int index = Arrays.binarySearch( trigramCodes, TrigramCode.encode( trigram ) );
+        if (index < 0) {
+            return 0L;
+        }
+        return documentCounts[index];
+    }
+
+    /**
+     * @return the document count per trigram, as accepted by {@link #fromDocumentCounts(Map)}
+     */
+    public Map<String, Long> toDocumentCounts() {
+        Map<String, Long> result = new HashMap<>( trigramCodes.length * 2 );
+        for (int i = 0; i < trigramCodes.length; i++) {
+            result.put( TrigramCode.decode( trigramCodes[i] ), documentCounts[i] );
+        }
+        return result;
+    }
+
+    public boolean contains( String trigram ) {
+        return trigram.length() == 3 && Arrays.binarySearch( trigramCodes, TrigramCode.encode( trigram ) ) >= 0;
+    }
+
+    public int size() {
+        return trigramCodes.length;
+    }
+
+    /**
+     * Saves the table into the given folder of an inverse index.
+     * 
+     * @param inverseIndexFolder the folder of the inverse index
+     * @throws IOException if the table can not be written
+     */
+    public void save( Path inverseIndexFolder ) throws IOException {
+        Files.createDirectories( inverseIndexFolder );
+
+        Path tablePath = inverseIndexFolder.resolve( TRIGRAM_COUNT_TABLE_FILENAME );
+        Path temporaryPath = inverseIndexFolder.resolve( TRIGRAM_COUNT_TABLE_FILENAME + ".tmp" );
+
+        try (DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryPath ) ) )) {
+            output.writeInt( MAGIC );
+            output.writeInt( VERSION_1 );
+            output.writeInt( trigramCodes.length );
+            for (int i = 0; i < trigramCodes.length; i++) {
+                output.writeLong( trigramCodes[i] );
+                output.writeLong( documentCounts[i] );
+            }
+        }
+
+        Files.move( temporaryPath, tablePath, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    /**
+     * @param inverseIndexFolder the folder of the inverse index
+     * @return the table or <code>null</code>, if the inverse index has no count table
+     */
+    public static TrigramDocumentCountTable loadIfExists( Path inverseIndexFolder ) {
+        Path tablePath = inverseIndexFolder.resolve( TRIGRAM_COUNT_TABLE_FILENAME );
+        if (!Files.exists( tablePath )) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream( new BufferedInputStream( Files.newInputStream( tablePath ) ) )) {
+            int magic = input.readInt();
+            int version = input.readInt();
+            if (magic != MAGIC || version != VERSION_1) {
+                throw new IOException( String.format( "Not a trigram count table of a known version: '%s'", tablePath ) );
+            }
+
+            int size = input.readInt();
+            long[] trigramCodes = new long[size];
+            long[] documentCounts = new long[size];
+            for (int i = 0; i < size; i++) {
+                trigramCodes[i] = input.readLong();
+                documentCounts[i] = input.readLong();
+            }
+
+            return new TrigramDocumentCountTable( trigramCodes, documentCounts );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "loading file: '%s' caused this error...", tablePath ) );
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Collects the document counts directly into the primitive arrays of the table, when the trigrams 
+     * are visited in increasing order of their trigram codes, e.g. while merging sorted runs.
+     */
+    public static class Builder {
+        private long[] trigramCodes = new long[1024];
+        private long[] documentCounts = new long[1024];
+        private int size = 0;
+
+        /**
+         * @param trigramCode the trigram code, must be greater than the previously added trigram code
+         * @param documentCount the number of documents containing the trigram
+         * @return this builder
+         */
+        public Builder add( long trigramCode, long documentCount ) {
+            if (size > 0 && trigramCode <= trigramCodes[size - 1]) {
+                throw new IllegalArgumentException( "Trigram codes must be added in increasing order, but found " + trigramCode + " after "
+                                + trigramCodes[size - 1] + "." );
+            }
+
+            if (size == trigramCodes.length) {
+                trigramCodes = Arrays.copyOf( trigramCodes, size * 2 );
+                documentCounts = Arrays.copyOf( documentCounts, size * 2 );
+            }
+
+            trigramCodes[size] = trigramCode;
+            documentCounts[size] = documentCount;
+            size++;
+            return this;
+        }
+
+        public TrigramDocumentCountTable build() {
+            return new TrigramDocumentCountTable( Arrays.copyOf( trigramCodes, size ), Arrays.copyOf( documentCounts, size ) );
+        }
+    }
+
+}
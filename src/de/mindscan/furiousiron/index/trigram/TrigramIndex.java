@@ -30,13 +30,15 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 import com.google.gson.Gson;
 
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
 import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
-import de.mindscan.furiousiron.index.trigram.model.TrigramIndexJsonModel;
 
 /**
  * 
@@ -45,37 +47,56 @@ public class TrigramIndex {
     // This should be configurable.
     public final static int MAX_TRIGRAMS_PER_REFERENCEFILE = 3720;
 
-    private static final String TRIGRAM_REFERENCE_SUFFIX = ".reference";
     private static final String TRIGRAM_COUNT_SUFFIX = ".reference_count";
 
     private final String trigram;
     private int indexGeneration;
 
-    private Set<String> relatedDocuments;
+    private int[] relatedDocuments;
     private int relatedDocumentsCounter;
     private long globalRelatedDocumentsCounter;
     private final Path trigramsBasePath;
+    private final Supplier<TrigramIndexFlushExecutor> flushExecutor;
 
     /**
      * @param trigram
      * @param indexGeneration
      * @param trigramsBasePath 
+     * @param flushExecutor provides the executor, which writes the full generations in the background
      */
-    public TrigramIndex( String trigram, int indexGeneration, Path trigramsBasePath ) {
+    public TrigramIndex( String trigram, int indexGeneration, Path trigramsBasePath, Supplier<TrigramIndexFlushExecutor> flushExecutor ) {
+        this( trigram, indexGeneration, trigramsBasePath, flushExecutor, 0L );
+    }
+
+    /**
+     * @param trigram
+     * @param indexGeneration the first generation to write, the generations before are kept
+     * @param trigramsBasePath 
+     * @param flushExecutor provides the executor, which writes the full generations in the background. It is 
+     *          asked for each generation, because the owner shuts the executor down, when the index is saved.
+     * @param initialDocumentCount the number of documents already contained in the kept generations
+     */
+    public TrigramIndex( String trigram, int indexGeneration, Path trigramsBasePath, Supplier<TrigramIndexFlushExecutor> flushExecutor,
+                    long initialDocumentCount ) {
         this.trigram = trigram;
         this.indexGeneration = indexGeneration;
         this.trigramsBasePath = trigramsBasePath;
-        this.relatedDocuments = new TreeSet<>();
+        this.flushExecutor = flushExecutor;
+        this.relatedDocuments = new int[16];
         this.relatedDocumentsCounter = 0;
-        this.globalRelatedDocumentsCounter = 0L;
+        this.globalRelatedDocumentsCounter = initialDocumentCount;
     }
 
     /**
-     * Add the document key to a list of related documents to the current trigram.
-     * @param documentKey the document key to add to this index
+     * Add the document ordinal to a list of related documents to the current trigram.
+     * @param documentOrdinal the document ordinal to add to this index
      */
-    public void add( String documentKey ) {
-        relatedDocuments.add( documentKey );
+    public void add( int documentOrdinal ) {
+        if (relatedDocumentsCounter == relatedDocuments.length) {
+            relatedDocuments = Arrays.copyOf( relatedDocuments, Math.min( relatedDocuments.length * 2, MAX_TRIGRAMS_PER_REFERENCEFILE ) );
+        }
+
+        relatedDocuments[relatedDocumentsCounter] = documentOrdinal;
         relatedDocumentsCounter++;
         globalRelatedDocumentsCounter++;
 
@@ -85,7 +106,8 @@ public class TrigramIndex {
     }
 
     /**
-     *
+     * Submits the remaining documents to the flush executor, the caller has to wait for the 
+     * executor to complete the write.
      */
     public void save() {
         saveInternal();
@@ -97,50 +119,45 @@ public class TrigramIndex {
             return;
         }
 
-        final TrigramIndexJsonModel model = new TrigramIndexJsonModel( relatedDocuments, indexGeneration, trigram );
+        // documents may arrive in any order (e.g. metadata indexing), the posting list must be strictly increasing
+        final int[] sortedOrdinals = SortedOrdinals.sortedUnique( relatedDocuments, relatedDocumentsCounter );
+        final int generation = indexGeneration;
         final TrigramDocumentCountJsonModel count = new TrigramDocumentCountJsonModel( trigram, globalRelatedDocumentsCounter );
 
         indexGeneration++;
-        relatedDocuments = new TreeSet<>();
+        relatedDocuments = new int[16];
         relatedDocumentsCounter = 0;
 
-        // put that save action and all unnecessary path calculations into a thread pool, 
-        // no need that other word can't be indexed, because of someone's save action... 
-
-        Runnable runnable = new Runnable() {
-            @Override
-            public void run() {
-                Path trigramsPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram,
-                                "." + model.getIndexGeneration() + TRIGRAM_REFERENCE_SUFFIX );
-                createTargetDirectoryIfNotExist( trigramsPath.getParent() );
-
-                // write content of one part of the index
-                try (BufferedWriter writer = Files.newBufferedWriter( trigramsPath, StandardCharsets.UTF_8 )) {
-                    Gson gson = new Gson();
-                    writer.write( gson.toJson( model ) );
-                }
-                catch (IOException e) {
-                    System.out.println( String.format( "saving file: '%s' caused this error...", trigramsPath ) );
-                    e.printStackTrace();
-                }
-
-                // write+overwrite the global documents counter as well
-                Path trigramCountPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, TRIGRAM_COUNT_SUFFIX );
-
-                try (BufferedWriter writer = Files.newBufferedWriter( trigramCountPath, StandardCharsets.UTF_8 )) {
-                    Gson gson = new Gson();
-                    writer.write( gson.toJson( count ) );
-                }
-                catch (IOException e) {
-                    System.out.println( String.format( "saving file: '%s' caused this error...", trigramCountPath ) );
-                    e.printStackTrace();
-                }
+        // the save action and all path calculations are done by the flush executor, no need that other 
+        // words can't be indexed, because of someone's save action... The generations of the same trigram 
+        // are written in order, so the last count file written contains the latest count.
+        flushExecutor.get().submit( trigram, () -> writeGeneration( generation, sortedOrdinals, count ) );
+    }
 
-            }
-        };
+    private void writeGeneration( int generation, int[] sortedOrdinals, TrigramDocumentCountJsonModel count ) throws IOException {
+        Path postingListPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, "." + generation + PostingListFormat.POSTING_LIST_SUFFIX );
 
-        // TODO: put into task thread-pool (deque) for really saving indexing time.
-        runnable.run();
+        // write content of one part of the index
+        try {
+            PostingListWriter.write( postingListPath, sortedOrdinals );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "saving file: '%s' caused this error...", postingListPath ) );
+            throw e;
+        }
+
+        // write+overwrite the global documents counter as well
+        Path trigramCountPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, TRIGRAM_COUNT_SUFFIX );
+        createTargetDirectoryIfNotExist( trigramCountPath.getParent() );
+
+        try (BufferedWriter writer = Files.newBufferedWriter( trigramCountPath, StandardCharsets.UTF_8 )) {
+            Gson gson = new Gson();
+            writer.write( gson.toJson( count ) );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "saving file: '%s' caused this error...", trigramCountPath ) );
+            throw e;
+        }
     }
 
     public String getTrigram() {
@@ -151,6 +168,13 @@ public class TrigramIndex {
         return indexGeneration;
     }
 
+    /**
+     * @return the number of documents added to this trigram over all generations
+     */
+    public long getDocumentCount() {
+        return globalRelatedDocumentsCounter;
+    }
+
     private void createTargetDirectoryIfNotExist( Path path ) {
         if (!Files.isDirectory( path )) {
             try {
@@ -0,0 +1,211 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes the full generations of the trigram indexes in the background, so indexing doesn't wait 
+ * for the disk. 
+ * 
+ * The tasks are distributed over a fixed number of writer threads by their trigram, so all tasks of 
+ * one trigram are written by the same thread in the order they were submitted. Each writer thread has 
+ * a bounded queue, a submitting thread is only blocked, when the queue of the writer is full.
+ * 
+ * The first failed write is kept and thrown to the caller on the next submit or by 
+ * {@link #flushAndAwait()}.
+ */
+public class TrigramIndexFlushExecutor {
+
+    public static final int DEFAULT_WRITER_THREADS = 4;
+
+    public static final int DEFAULT_QUEUE_CAPACITY_PER_WRITER = 256;
+
+    @FunctionalInterface
+    public interface FlushTask {
+        void flush() throws IOException;
+    }
+
+    // each writer stops, when it takes this task from its queue
+    private static final FlushTask SHUTDOWN = () -> {
+    };
+
+    private final List<BlockingQueue<FlushTask>> queues;
+    private final Thread[] writers;
+
+    private final AtomicReference<IOException> firstFailure = new AtomicReference<>();
+
+    private final Object pendingTasksLock = new Object();
+    private long pendingTasks = 0L;
+
+    private volatile boolean shutdown = false;
+
+    public TrigramIndexFlushExecutor() {
+        this( DEFAULT_WRITER_THREADS, DEFAULT_QUEUE_CAPACITY_PER_WRITER );
+    }
+
+    /**
+     * @param writerThreads the number of writer threads
+     * @param queueCapacityPerWriter the number of tasks waiting for each writer, before submitting blocks
+     */
+    public TrigramIndexFlushExecutor( int writerThreads, int queueCapacityPerWriter ) {
+        if (writerThreads < 1) {
+            throw new IllegalArgumentException( "At least one writer thread is required, but was " + writerThreads );
+        }
+
+        this.queues = new ArrayList<>( writerThreads );
+        this.writers = new Thread[writerThreads];
+
+        for (int i = 0; i < writerThreads; i++) {
+            BlockingQueue<FlushTask> queue = new ArrayBlockingQueue<>( queueCapacityPerWriter );
+            queues.add( queue );
+
+            writers[i] = new Thread( () -> writeTasks( queue ), "trigram-flush-" + i );
+            writers[i].setDaemon( true );
+            writers[i].start();
+        }
+    }
+
+    /**
+     * Submits a write task, the tasks of the same trigram are executed in the order they were submitted.
+     * 
+     * @param trigram the trigram, which is written by the task
+     * @param task the write task
+     * @throws UncheckedIOException if a previously submitted task failed
+     * @throws IllegalStateException if the executor was shut down
+     */
+    public void submit( String trigram, FlushTask task ) {
+        if (shutdown) {
+            throw new IllegalStateException( "The trigram index flush executor was already shut down." );
+        }
+
+        throwIfFailed();
+
+        synchronized (pendingTasksLock) {
+            pendingTasks++;
+        }
+
+        try {
+            queues.get( (trigram.hashCode() & Integer.MAX_VALUE) % queues.size() ).put( task );
+        }
+        catch (InterruptedException e) {
+            taskCompleted();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while waiting for a trigram index writer.", e );
+        }
+    }
+
+    /**
+     * Waits until all submitted tasks are written.
+     * 
+     * @throws IOException the first failure of any submitted task
+     */
+    public void flushAndAwait() throws IOException {
+        synchronized (pendingTasksLock) {
+            while (pendingTasks > 0) {
+                try {
+                    pendingTasksLock.wait();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException( "Interrupted while waiting for the trigram index writers.", e );
+                }
+            }
+        }
+
+        IOException failure = firstFailure.get();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Stops the writer threads after they wrote all submitted tasks. 
+     */
+    public void shutdown() {
+        shutdown = true;
+
+        for (BlockingQueue<FlushTask> queue : queues) {
+            try {
+                queue.put( SHUTDOWN );
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeTasks( BlockingQueue<FlushTask> queue ) {
+        try {
+            while (true) {
+                FlushTask task = queue.take();
+                if (task == SHUTDOWN) {
+                    return;
+                }
+
+                try {
+                    task.flush();
+                }
+                catch (IOException e) {
+                    firstFailure.compareAndSet( null, e );
+                }
+                catch (RuntimeException e) {
+                    firstFailure.compareAndSet( null, new IOException( e ) );
+                }
+                finally {
+                    taskCompleted();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void taskCompleted() {
+        synchronized (pendingTasksLock) {
+            pendingTasks--;
+            if (pendingTasks == 0) {
+                pendingTasksLock.notifyAll();
+            }
+        }
+    }
+
+    private void throwIfFailed() {
+        IOException failure = firstFailure.get();
+        if (failure != null) {
+            throw new UncheckedIOException( "Writing the trigram index failed.", failure );
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.trigram;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import de.mindscan.furiousiron.util.primitive.LongIntHashMap;
+
+/**
+ * Splits text into overlapping trigrams, without creating a String for each trigram. Each trigram 
+ * is packed into a {@link TrigramCode} and counted in a primitive map. Strings are only created once 
+ * per distinct trigram, when the result is handed over to the caches and the inverse index.
+ */
+public class TrigramTokenizer {
+
+    /**
+     * Counts each trigram of the text, e.g. "abcd" counts "abc" and "bcd".
+     * 
+     * @param text the text
+     * @param trigramCounts the counts to update
+     */
+    public static void countTrigrams( CharSequence text, LongIntHashMap trigramCounts ) {
+        int length = text.length();
+        if (length < 3) {
+            return;
+        }
+
+        long trigramCode = TrigramCode.encode( text.charAt( 0 ), text.charAt( 1 ), text.charAt( 2 ) );
+        trigramCounts.addTo( trigramCode, 1 );
+
+        for (int position = 3; position < length; position++) {
+            // shift out the first character and append the next one
+            trigramCode = ((trigramCode << 16) | text.charAt( position )) & TrigramCode.TRIGRAM_CODE_MASK;
+            trigramCounts.addTo( trigramCode, 1 );
+        }
+    }
+
+    /**
+     * Visits each trigram of the text together with the position of its first character, e.g. "abcd" 
+     * visits "abc" at 0 and "bcd" at 1.
+     * 
+     * @param text the text
+     * @param consumer the consumer of the trigram codes and their positions
+     */
+    public static void forEachTrigram( CharSequence text, TrigramPositionConsumer consumer ) {
+        int length = text.length();
+        if (length < 3) {
+            return;
+        }
+
+        long trigramCode = TrigramCode.encode( text.charAt( 0 ), text.charAt( 1 ), text.charAt( 2 ) );
+        consumer.accept( trigramCode, 0 );
+
+        for (int position = 3; position < length; position++) {
+            trigramCode = ((trigramCode << 16) | text.charAt( position )) & TrigramCode.TRIGRAM_CODE_MASK;
+            consumer.accept( trigramCode, position - 2 );
+        }
+    }
+
+    /**
+     * @param trigramCounts the counted trigram codes
+     * @return the counts by trigram
+     */
+    public static Map<String, Integer> toTrigramCountMap( LongIntHashMap trigramCounts ) {
+        Map<String, Integer> result = new HashMap<>( trigramCounts.size() * 2 );
+        trigramCounts.forEach( ( trigramCode, count ) -> result.put( TrigramCode.decode( trigramCode ), count ) );
+        return result;
+    }
+
+    /**
+     * @param trigramCounts the counted trigram codes
+     * @return the distinct trigrams
+     */
+    public static Set<String> toTrigramSet( LongIntHashMap trigramCounts ) {
+        Set<String> result = new HashSet<>( trigramCounts.size() * 2 );
+        trigramCounts.forEach( ( trigramCode, count ) -> result.add( TrigramCode.decode( trigramCode ) ) );
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface TrigramPositionConsumer {
+        void accept( long trigramCode, int position );
+    }
+
+}
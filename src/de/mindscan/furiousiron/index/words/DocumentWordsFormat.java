@@ -0,0 +1,65 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.words;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes the layout of the document words store, which replaces the JSON wordlist of 
+ * each document for the verification of search candidates. All unique words of all documents are 
+ * collected in one word dictionary, where the position of a word is its word id. Each document only 
+ * stores the sorted ids of its words.
+ * 
+ * <pre>
+ * header:               int magic, int version, int documentCount, int wordCount
+ * document entry:       int firstWordIdPosition, int numberOfWords
+ * word ids:             the sorted word ids of all documents
+ * word dictionary:      wordCount times (int byteLength, byteLength bytes UTF-8)
+ * </pre>
+ * 
+ * The entry of a document ordinal is located at the header size plus ordinal times the entry size, 
+ * the number of words of ordinals without words in the store is {@link #NOT_CONTAINED}. All values are
+ * written in big endian byte order.
+ */
+public class DocumentWordsFormat {
+
+    public static final int MAGIC = 0x46494457; // 'FIDW'
+
+    public static final int VERSION_1 = 1;
+
+    public static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    public static final int ENTRY_SIZE = 2 * Integer.BYTES;
+
+    public static final int NOT_CONTAINED = -1;
+
+    public static final String DOCUMENT_WORDS_FILENAME = "documentWords.store";
+
+    public static Path getDocumentWordsPath( Path indexFolder ) {
+        return indexFolder.resolve( DOCUMENT_WORDS_FILENAME );
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.words;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Reads the document words store. The word ids of the documents are memory mapped, the word dictionary
+ * is decoded once when the store is opened.
+ * 
+ * A search term is resolved only once against the word dictionary, which results in the set of word ids
+ * of all words containing the term. Checking a document is then a single pass over its word ids, the 
+ * words of the document don't need to be decoded or compared.
+ * 
+ * @see DocumentWordsFormat
+ */
+public class DocumentWordsReader {
+
+    private final ByteBuffer store;
+    private final int documentCount;
+    private final int wordIdsPosition;
+    private final String[] words;
+
+    private DocumentWordsReader( ByteBuffer store ) throws IOException {
+        this.store = store;
+
+        if (store.capacity() < DocumentWordsFormat.HEADER_SIZE || store.getInt( 0 ) != DocumentWordsFormat.MAGIC) {
+            throw new IOException( "Not a document words store." );
+        }
+        if (store.getInt( 4 ) != DocumentWordsFormat.VERSION_1) {
+            throw new IOException( "Unsupported document words store version: " + store.getInt( 4 ) );
+        }
+
+        this.documentCount = store.getInt( 8 );
+        this.words = new String[store.getInt( 12 )];
+        this.wordIdsPosition = DocumentWordsFormat.HEADER_SIZE + documentCount * DocumentWordsFormat.ENTRY_SIZE;
+
+        int numberOfWordIds = 0;
+        for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+            numberOfWordIds += Math.max( 0, getNumberOfWords( ordinal ) );
+        }
+
+        ByteBuffer dictionary = store.duplicate();
+        dictionary.position( wordIdsPosition + numberOfWordIds * Integer.BYTES );
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            int length = dictionary.getInt();
+            ByteBuffer word = dictionary.slice();
+            word.limit( length );
+            words[wordId] = StandardCharsets.UTF_8.decode( word ).toString();
+            dictionary.position( dictionary.position() + length );
+        }
+    }
+
+    public static boolean exists( Path indexFolder ) {
+        return Files.exists( DocumentWordsFormat.getDocumentWordsPath( indexFolder ) );
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @return the reader
+     * @throws IOException if the store can not be mapped or is not a document words store
+     */
+    public static DocumentWordsReader open( Path indexFolder ) throws IOException {
+        try (FileChannel channel = FileChannel.open( DocumentWordsFormat.getDocumentWordsPath( indexFolder ), StandardOpenOption.READ )) {
+            return new DocumentWordsReader( channel.map( MapMode.READ_ONLY, 0, channel.size() ) );
+        }
+        catch (RuntimeException e) {
+            // a truncated store
+            throw new IOException( "Document words store is corrupt.", e );
+        }
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @return whether the words of the document are contained in the store
+     */
+    public boolean contains( int documentOrdinal ) {
+        return documentOrdinal >= 0 && documentOrdinal < documentCount && getNumberOfWords( documentOrdinal ) != DocumentWordsFormat.NOT_CONTAINED;
+    }
+
+    /**
+     * Resolves a search term against the word dictionary.
+     * 
+     * @param term the search term
+     * @return the word ids of all words, which contain the search term
+     */
+    public BitSet findWordsContaining( String term ) {
+        BitSet matchingWordIds = new BitSet( words.length );
+
+        int termLength = term.length();
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            String word = words[wordId];
+            if (word.length() >= termLength && word.contains( term )) {
+                matchingWordIds.set( wordId );
+            }
+        }
+
+        return matchingWordIds;
+    }
+
+    /**
+     * @param documentOrdinal the document ordinal
+     * @param wordIds the word ids to look for, e.g. from {@link #findWordsContaining(String)}
+     * @return whether the document contains at least one of the words
+     */
+    public boolean containsAnyWord( int documentOrdinal, BitSet wordIds ) {
+        if (!contains( documentOrdinal ) || wordIds.isEmpty()) {
+            return false;
+        }
+
+        int entryPosition = DocumentWordsFormat.HEADER_SIZE + documentOrdinal * DocumentWordsFormat.ENTRY_SIZE;
+        int firstWordIdPosition = wordIdsPosition + store.getInt( entryPosition ) * Integer.BYTES;
+        int numberOfWords = getNumberOfWords( documentOrdinal );
+
+        for (int i = 0; i < numberOfWords; i++) {
+            if (wordIds.get( store.getInt( firstWordIdPosition + i * Integer.BYTES ) )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return documentCount;
+    }
+
+    public int getWordCount() {
+        return words.length;
+    }
+
+    private int getNumberOfWords( int documentOrdinal ) {
+        return store.getInt( DocumentWordsFormat.HEADER_SIZE + documentOrdinal * DocumentWordsFormat.ENTRY_SIZE + Integer.BYTES );
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.index.words;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the words of the documents and writes them as a document words store. The store is always
+ * written as a whole, to a temporary file first, which is then moved, so a reader never sees a partially
+ * written store.
+ * 
+ * @see DocumentWordsFormat
+ */
+public class DocumentWordsWriter {
+
+    private final Map<String, Integer> wordIds;
+    private final List<String> words;
+
+    private int[][] documentWordIds;
+    private int documentCount;
+
+    public DocumentWordsWriter() {
+        this.wordIds = new HashMap<>();
+        this.words = new ArrayList<>();
+        this.documentWordIds = new int[1024][];
+    }
+
+    /**
+     * @param documentOrdinal the ordinal of the document
+     * @param documentWords the unique words of the document
+     */
+    public void add( int documentOrdinal, Collection<String> documentWords ) {
+        ensureCapacity( documentOrdinal + 1 );
+        documentCount = Math.max( documentCount, documentOrdinal + 1 );
+
+        int[] ids = new int[documentWords.size()];
+        int numberOfIds = 0;
+        for (String word : documentWords) {
+            ids[numberOfIds++] = wordIds.computeIfAbsent( word, newWord -> {
+                words.add( newWord );
+                return words.size() - 1;
+            } );
+        }
+
+        Arrays.sort( ids );
+        documentWordIds[documentOrdinal] = ids;
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public int getWordCount() {
+        return words.size();
+    }
+
+    /**
+     * @param indexFolder the index folder
+     * @throws IOException if the store can not be written
+     */
+    public void write( Path indexFolder ) throws IOException {
+        Path documentWordsPath = DocumentWordsFormat.getDocumentWordsPath( indexFolder );
+        Path temporaryPath = documentWordsPath.resolveSibling( DocumentWordsFormat.DOCUMENT_WORDS_FILENAME + ".tmp" );
+        Files.createDirectories( indexFolder );
+
+        try (DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryPath ) ) )) {
+            output.writeInt( DocumentWordsFormat.MAGIC );
+            output.writeInt( DocumentWordsFormat.VERSION_1 );
+            output.writeInt( documentCount );
+            output.writeInt( words.size() );
+
+            int position = 0;
+            for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+                int[] ids = documentWordIds[ordinal];
+                output.writeInt( position );
+                output.writeInt( ids == null ? DocumentWordsFormat.NOT_CONTAINED : ids.length );
+                position += (ids == null) ? 0 : ids.length;
+            }
+
+            for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+                int[] ids = documentWordIds[ordinal];
+                if (ids != null) {
+                    for (int id : ids) {
+                        output.writeInt( id );
+                    }
+                }
+            }
+
+            for (String word : words) {
+                byte[] bytes = word.getBytes( StandardCharsets.UTF_8 );
+                output.writeInt( bytes.length );
+                output.write( bytes );
+            }
+        }
+
+        Files.move( temporaryPath, documentWordsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Removes the document words store of the index folder, e.g. because the documents are indexed again.
+     * 
+     * @param indexFolder the index folder
+     * @throws IOException if the store can not be deleted
+     */
+    public static void delete( Path indexFolder ) throws IOException {
+        Files.deleteIfExists( DocumentWordsFormat.getDocumentWordsPath( indexFolder ) );
+    }
+
+    private void ensureCapacity( int requiredDocuments ) {
+        if (requiredDocuments <= documentWordIds.length) {
+            return;
+        }
+
+        documentWordIds = Arrays.copyOf( documentWordIds, Math.max( documentWordIds.length * 2, requiredDocuments ) );
+    }
+
+}
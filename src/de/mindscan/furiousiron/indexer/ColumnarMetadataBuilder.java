@@ -0,0 +1,82 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.cache.MetadataCache;
+import de.mindscan.furiousiron.index.metadata.ColumnarMetadataWriter;
+
+/**
+ * Builds the columnar metadata store from the cached metadata ('.metadata' files) of an index. The store
+ * is always built completely, so it can simply be built again after an incremental indexing run.
+ */
+public class ColumnarMetadataBuilder {
+
+    /**
+     * @param indexFolder the index folder, where the metadata cache and the document ordinal dictionary are located
+     */
+    public void build( Path indexFolder ) {
+        DocumentOrdinalDictionary documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        MetadataCache metadataCache = new MetadataCache( indexFolder );
+        ColumnarMetadataWriter writer = new ColumnarMetadataWriter();
+
+        int missingDocuments = 0;
+
+        for (int documentOrdinal = 0; documentOrdinal < documentOrdinals.size(); documentOrdinal++) {
+            String documentKey = documentOrdinals.getDocumentKey( documentOrdinal );
+            if (documentKey == null) {
+                continue;
+            }
+
+            Path metadataPath = metadataCache.buildCacheTargetPathFromKey( documentKey, MetadataCache.METADATA_FILE_SUFFIX );
+            if (!Files.exists( metadataPath )) {
+                missingDocuments++;
+                continue;
+            }
+
+            DocumentMetadata documentMetadata = metadataCache.loadMetadata( documentKey );
+            if (documentMetadata != null) {
+                writer.add( documentOrdinal, documentMetadata );
+            }
+        }
+
+        try {
+            writer.write( indexFolder );
+            System.out.println( String.format( "Wrote the metadata of %d document ordinals, %d cached metadata files are missing.", writer.getRowCount(),
+                            missingDocuments ) );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "writing the metadata columns of: '%s' caused this error...", indexFolder ) );
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexFormat;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexWriter;
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.index.trigram.TrigramCode;
+import de.mindscan.furiousiron.index.trigram.TrigramSubPathCalculator;
+import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
+import de.mindscan.furiousiron.index.trigram.model.TrigramIndexJsonModel;
+
+/**
+ * Converts an inverse trigram index tree, where each trigram is stored in its own files, into the
+ * compact layout, which consists of a single trigram dictionary and a single postings file. 
+ * 
+ * The binary posting lists of all generations are merged, for not yet migrated trigrams the json
+ * reference files are read instead. The compact index is named after the tree, e.g. the tree
+ * 'inverseTrigram.index' is compacted into 'inverseTrigram.dictionary' and 'inverseTrigram.postings'.
+ */
+public class CompactTrigramIndexBuilder implements FileContentIndexer {
+
+    private static final String TRIGRAM_INDEX_FOLDER_SUFFIX = ".index";
+
+    private static final String TRIGRAM_REFERENCE_SUFFIX = ".reference";
+
+    private DocumentOrdinalDictionary documentOrdinals;
+
+    /**
+     * @param filesToBeIndexed the reference count files of the trigrams to compact
+     * @param crawlFolder the folder of the inverse trigram index tree
+     * @param indexFolder the index folder, where the document ordinal dictionary and the compact index are located
+     */
+    public void buildIndex( Deque<Path> filesToBeIndexed, Path crawlFolder, Path indexFolder ) {
+        documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+
+        String indexName = getIndexName( crawlFolder );
+
+        // the dictionary must be written in the order of the trigram codes
+        TreeMap<Long, String> sortedTrigrams = new TreeMap<>();
+        for (Path referenceCountFile : filesToBeIndexed) {
+            String trigram = loadTrigram( referenceCountFile );
+            if (trigram == null || trigram.length() != 3) {
+                continue;
+            }
+
+            sortedTrigrams.put( TrigramCode.encode( trigram ), trigram );
+        }
+
+        long compactedReferences = 0L;
+
+        try (CompactTrigramIndexWriter writer = new CompactTrigramIndexWriter( CompactTrigramIndexFormat.getDictionaryPath( indexFolder, indexName ),
+                        CompactTrigramIndexFormat.getPostingsPath( indexFolder, indexName ) )) {
+            for (Entry<Long, String> entry : sortedTrigrams.entrySet()) {
+                int[] ordinals = loadOrdinals( crawlFolder, entry.getValue() );
+                writer.add( entry.getValue(), ordinals );
+                compactedReferences += ordinals.length;
+            }
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "compacting index: '%s' caused this error...", crawlFolder ) );
+            e.printStackTrace();
+            return;
+        }
+
+        // the json reference files may have assigned new ordinals
+        documentOrdinals.save( indexFolder );
+
+        System.out.println( String.format( "Compacted %d trigrams with %d references into '%s'.", sortedTrigrams.size(), compactedReferences,
+                        CompactTrigramIndexFormat.getDictionaryPath( indexFolder, indexName ) ) );
+    }
+
+    static String getIndexName( Path crawlFolder ) {
+        String folderName = crawlFolder.getFileName().toString();
+        if (folderName.endsWith( TRIGRAM_INDEX_FOLDER_SUFFIX )) {
+            return folderName.substring( 0, folderName.length() - TRIGRAM_INDEX_FOLDER_SUFFIX.length() );
+        }
+        return folderName;
+    }
+
+    private int[] loadOrdinals( Path trigramsBasePath, String trigram ) throws IOException {
+        int[] collected = new int[256];
+        int collectedLength = 0;
+
+        for (int generation = 0;; generation++) {
+            Path pathForPostings = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram,
+                            "." + generation + PostingListFormat.POSTING_LIST_SUFFIX );
+            if (!Files.exists( pathForPostings, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            int[] ordinals = PostingListReader.readAll( pathForPostings );
+            if (collectedLength + ordinals.length > collected.length) {
+                collected = Arrays.copyOf( collected, Math.max( collected.length * 2, collectedLength + ordinals.length ) );
+            }
+            System.arraycopy( ordinals, 0, collected, collectedLength, ordinals.length );
+            collectedLength += ordinals.length;
+        }
+
+        if (collectedLength > 0) {
+            return SortedOrdinals.sortedUnique( collected, collectedLength );
+        }
+
+        for (int generation = 0;; generation++) {
+            Path pathForTrigrams = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, "." + generation + TRIGRAM_REFERENCE_SUFFIX );
+            if (!Files.exists( pathForTrigrams, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            Gson gson = new Gson();
+            try (Reader json = Files.newBufferedReader( pathForTrigrams )) {
+                TrigramIndexJsonModel fromJson = gson.fromJson( json, TrigramIndexJsonModel.class );
+                for (String documentKey : fromJson.getRelatedDocuments()) {
+                    if (collectedLength == collected.length) {
+                        collected = Arrays.copyOf( collected, collected.length * 2 );
+                    }
+                    collected[collectedLength++] = documentOrdinals.getOrCreateOrdinal( documentKey );
+                }
+            }
+        }
+
+        return SortedOrdinals.sortedUnique( collected, collectedLength );
+    }
+
+    String loadTrigram( Path pathForTrigramCount ) {
+        Gson gson = new Gson();
+
+        try (Reader json = Files.newBufferedReader( pathForTrigramCount )) {
+            TrigramDocumentCountJsonModel fromJson = gson.fromJson( json, TrigramDocumentCountJsonModel.class );
+            return fromJson.getTrigram();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+}
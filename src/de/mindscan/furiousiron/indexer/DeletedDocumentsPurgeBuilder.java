@@ -0,0 +1,253 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.DeletedDocuments;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexWriter;
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.index.trigram.TrigramDocumentCountTable;
+import de.mindscan.furiousiron.index.trigram.TrigramSubPathCalculator;
+import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
+import de.mindscan.furiousiron.index.trigram.model.TrigramIndexJsonModel;
+
+/**
+ * Rewrites the posting lists of an inverse trigram index tree without the postings of deleted documents.
+ * All generations of a trigram are merged into a single posting list file, which only contains the 
+ * ordinals that are neither marked as deleted nor removed from the document ordinal dictionary. 
+ * Trigrams without any remaining document are removed completely.
+ * 
+ * The tombstones are not cleared by this builder, because the content index and the metadata index 
+ * share them, they can only be cleared after both trees were purged.
+ */
+public class DeletedDocumentsPurgeBuilder implements FileContentIndexer {
+
+    private static final String TRIGRAM_COUNT_SUFFIX = ".reference_count";
+
+    private static final String TRIGRAM_REFERENCE_SUFFIX = ".reference";
+
+    private DocumentOrdinalDictionary documentOrdinals;
+    private DeletedDocuments deletedDocuments;
+
+    private boolean failed;
+
+    /**
+     * @param filesToBeIndexed the reference count files of the trigrams to purge
+     * @param crawlFolder the folder of the inverse trigram index tree
+     * @param indexFolder the index folder, where the document ordinal dictionary and the tombstones are located
+     */
+    public void buildIndex( Deque<Path> filesToBeIndexed, Path crawlFolder, Path indexFolder ) {
+        documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        deletedDocuments = DeletedDocuments.loadOrCreate( indexFolder );
+        failed = false;
+
+        long purgedTrigrams = 0L;
+        long removedTrigrams = 0L;
+        long purgedReferences = 0L;
+        Map<String, Long> documentCounts = new HashMap<>();
+
+        for (Path referenceCountFile : filesToBeIndexed) {
+            String trigram = loadTrigram( referenceCountFile );
+            if (trigram == null) {
+                continue;
+            }
+
+            try {
+                int[] ordinals = loadOrdinals( crawlFolder, trigram );
+                int[] liveOrdinals = removeDeadOrdinals( ordinals );
+                purgedReferences += ordinals.length - liveOrdinals.length;
+
+                if (liveOrdinals.length == 0) {
+                    removeTrigram( crawlFolder, trigram );
+                    removedTrigrams++;
+                }
+                else {
+                    rewriteTrigram( crawlFolder, trigram, liveOrdinals );
+                    documentCounts.put( trigram, (long) liveOrdinals.length );
+                    purgedTrigrams++;
+                }
+            }
+            catch (IOException e) {
+                System.out.println( String.format( "purging trigram: '%s' caused this error...", trigram ) );
+                e.printStackTrace();
+                failed = true;
+            }
+        }
+
+        try {
+            TrigramDocumentCountTable.fromDocumentCounts( documentCounts ).save( crawlFolder );
+
+            // the compact index still contains the deleted documents
+            CompactTrigramIndexWriter.delete( indexFolder, CompactTrigramIndexBuilder.getIndexName( crawlFolder ) );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            failed = true;
+        }
+
+        System.out.println( String.format( "Purged %d references from %d trigrams, %d trigrams removed.", purgedReferences, purgedTrigrams,
+                        removedTrigrams ) );
+    }
+
+    /**
+     * @return whether a trigram could not be purged, in that case the tombstones must be kept
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    private int[] removeDeadOrdinals( int[] sortedOrdinals ) {
+        int[] liveOrdinals = new int[sortedOrdinals.length];
+        int liveLength = 0;
+
+        for (int ordinal : sortedOrdinals) {
+            if (deletedDocuments.isDeleted( ordinal ) || documentOrdinals.getDocumentKey( ordinal ) == null) {
+                continue;
+            }
+            liveOrdinals[liveLength++] = ordinal;
+        }
+
+        return Arrays.copyOf( liveOrdinals, liveLength );
+    }
+
+    private void rewriteTrigram( Path trigramsBasePath, String trigram, int[] liveOrdinals ) throws IOException {
+        // the first generation is replaced atomically, the other generations are removed afterwards
+        PostingListWriter.write( getPostingListPath( trigramsBasePath, trigram, 0 ), liveOrdinals );
+        deleteGenerations( trigramsBasePath, trigram, 1 );
+
+        Path trigramCountPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, TRIGRAM_COUNT_SUFFIX );
+        try (BufferedWriter writer = Files.newBufferedWriter( trigramCountPath, StandardCharsets.UTF_8 )) {
+            Gson gson = new Gson();
+            writer.write( gson.toJson( new TrigramDocumentCountJsonModel( trigram, liveOrdinals.length ) ) );
+        }
+    }
+
+    private void removeTrigram( Path trigramsBasePath, String trigram ) throws IOException {
+        Files.deleteIfExists( TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, TRIGRAM_COUNT_SUFFIX ) );
+        deleteGenerations( trigramsBasePath, trigram, 0 );
+    }
+
+    private void deleteGenerations( Path trigramsBasePath, String trigram, int firstGeneration ) throws IOException {
+        for (int generation = firstGeneration;; generation++) {
+            boolean postingListDeleted = Files.deleteIfExists( getPostingListPath( trigramsBasePath, trigram, generation ) );
+            boolean referenceDeleted = Files.deleteIfExists( getReferencePath( trigramsBasePath, trigram, generation ) );
+            if (!postingListDeleted && !referenceDeleted) {
+                break;
+            }
+        }
+
+        // the json reference files are merged into the posting list as well
+        if (firstGeneration > 0) {
+            for (int generation = 0; generation < firstGeneration; generation++) {
+                Files.deleteIfExists( getReferencePath( trigramsBasePath, trigram, generation ) );
+            }
+        }
+    }
+
+    private int[] loadOrdinals( Path trigramsBasePath, String trigram ) throws IOException {
+        int[] collected = new int[256];
+        int collectedLength = 0;
+
+        for (int generation = 0;; generation++) {
+            Path pathForPostings = getPostingListPath( trigramsBasePath, trigram, generation );
+            if (!Files.exists( pathForPostings, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            int[] ordinals = PostingListReader.readAll( pathForPostings );
+            if (collectedLength + ordinals.length > collected.length) {
+                collected = Arrays.copyOf( collected, Math.max( collected.length * 2, collectedLength + ordinals.length ) );
+            }
+            System.arraycopy( ordinals, 0, collected, collectedLength, ordinals.length );
+            collectedLength += ordinals.length;
+        }
+
+        if (collectedLength > 0) {
+            return SortedOrdinals.sortedUnique( collected, collectedLength );
+        }
+
+        for (int generation = 0;; generation++) {
+            Path pathForTrigrams = getReferencePath( trigramsBasePath, trigram, generation );
+            if (!Files.exists( pathForTrigrams, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            Gson gson = new Gson();
+            try (Reader json = Files.newBufferedReader( pathForTrigrams )) {
+                TrigramIndexJsonModel fromJson = gson.fromJson( json, TrigramIndexJsonModel.class );
+                for (String documentKey : fromJson.getRelatedDocuments()) {
+                    if (collectedLength == collected.length) {
+                        collected = Arrays.copyOf( collected, collected.length * 2 );
+                    }
+                    // unknown document keys in the json references belong to removed documents
+                    collected[collectedLength++] = documentOrdinals.getOrdinal( documentKey );
+                }
+            }
+        }
+
+        return SortedOrdinals.sortedUnique( collected, collectedLength );
+    }
+
+    private Path getPostingListPath( Path trigramsBasePath, String trigram, int generation ) {
+        return TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, "." + generation + PostingListFormat.POSTING_LIST_SUFFIX );
+    }
+
+    private Path getReferencePath( Path trigramsBasePath, String trigram, int generation ) {
+        return TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, "." + generation + TRIGRAM_REFERENCE_SUFFIX );
+    }
+
+    String loadTrigram( Path pathForTrigramCount ) {
+        Gson gson = new Gson();
+
+        try (Reader json = Files.newBufferedReader( pathForTrigramCount )) {
+            TrigramDocumentCountJsonModel fromJson = gson.fromJson( json, TrigramDocumentCountJsonModel.class );
+            return fromJson.getTrigram();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.cache.DocumentCache;
+import de.mindscan.furiousiron.index.pack.DocumentPackWriter;
+
+/**
+ * Packs the cached documents ('.originalContent' files) of an index into the document pack store. The 
+ * documents are packed in the order of their ordinals and only documents, which are not yet packed are
+ * appended, so the builder can be run again after an incremental indexing run. A reindexed document has 
+ * a new ordinal and is packed again.
+ */
+public class DocumentPackBuilder {
+
+    /**
+     * @param indexFolder the index folder, where the document cache and the document ordinal dictionary are located
+     */
+    public void build( Path indexFolder ) {
+        DocumentOrdinalDictionary documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        DocumentCache documentCache = new DocumentCache( indexFolder );
+
+        int packedDocuments = 0;
+        int missingDocuments = 0;
+
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( indexFolder )) {
+            for (int documentOrdinal = 0; documentOrdinal < documentOrdinals.size(); documentOrdinal++) {
+                String documentKey = documentOrdinals.getDocumentKey( documentOrdinal );
+                if (documentKey == null || writer.contains( documentOrdinal )) {
+                    continue;
+                }
+
+                Path cachedDocumentPath = documentCache.buildCacheTargetPathFromKey( documentKey, DocumentCache.CACHED_FILE_SUFFIX );
+                if (!Files.exists( cachedDocumentPath )) {
+                    missingDocuments++;
+                    continue;
+                }
+
+                writer.add( documentOrdinal, readContent( cachedDocumentPath ) );
+                packedDocuments++;
+            }
+
+            System.out.println( String.format( "Packed %d documents into %d packs, %d cached documents are missing.", packedDocuments,
+                            writer.getPackCount(), missingDocuments ) );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "packing the documents of: '%s' caused this error...", indexFolder ) );
+            e.printStackTrace();
+        }
+    }
+
+    private ByteBuffer readContent( Path cachedDocumentPath ) throws IOException {
+        try (FileChannel channel = FileChannel.open( cachedDocumentPath, StandardOpenOption.READ )) {
+            return channel.map( MapMode.READ_ONLY, 0, channel.size() );
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.cache.WordlistCache;
+import de.mindscan.furiousiron.index.words.DocumentWordsWriter;
+
+/**
+ * Builds the document words store from the cached wordlists ('.wordlist' files) of an index. The store
+ * is always built completely, so it can simply be built again after an incremental indexing run.
+ */
+public class DocumentWordsBuilder {
+
+    /**
+     * @param indexFolder the index folder, where the wordlist cache and the document ordinal dictionary are located
+     */
+    public void build( Path indexFolder ) {
+        DocumentOrdinalDictionary documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        WordlistCache wordlistCache = new WordlistCache( indexFolder );
+        DocumentWordsWriter writer = new DocumentWordsWriter();
+
+        int missingDocuments = 0;
+
+        for (int documentOrdinal = 0; documentOrdinal < documentOrdinals.size(); documentOrdinal++) {
+            String documentKey = documentOrdinals.getDocumentKey( documentOrdinal );
+            if (documentKey == null) {
+                continue;
+            }
+
+            Path wordlistPath = wordlistCache.buildCacheTargetPathFromKey( documentKey, WordlistCache.WORDLIST_FILE_SUFFIX );
+            if (!Files.exists( wordlistPath )) {
+                missingDocuments++;
+                continue;
+            }
+
+            writer.add( documentOrdinal, wordlistCache.loadWordList( documentKey ) );
+        }
+
+        try {
+            writer.write( indexFolder );
+            System.out.println( String.format( "Wrote %d unique words of %d document ordinals, %d cached wordlists are missing.", writer.getWordCount(),
+                            writer.getDocumentCount(), missingDocuments ) );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "writing the document words of: '%s' caused this error...", indexFolder ) );
+            e.printStackTrace();
+        }
+    }
+
+}
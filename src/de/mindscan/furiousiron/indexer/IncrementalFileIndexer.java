@@ -0,0 +1,199 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.mindscan.furiousiron.classifier.Classifier;
+import de.mindscan.furiousiron.classifier.SimpleClassifier;
+import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentIdFactory;
+import de.mindscan.furiousiron.document.DocumentManifest;
+import de.mindscan.furiousiron.document.DocumentManifestEntry;
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentMetadataFactory;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.Index;
+import de.mindscan.furiousiron.indexer.pipeline.AnalyzedDocument;
+
+/**
+ * Updates an existing index with the changes since the last indexing run.
+ * 
+ * The document manifest of the index folder tells, which files were indexed with which size, last 
+ * modified time and content hash. Files with unchanged size and last modified time are skipped 
+ * without reading them. Changed and new files are tokenized again and their trigrams are appended 
+ * as new generations (delta segments) to the inverse index. The old ordinal of a changed file and 
+ * the ordinal of a deleted file are recorded as tombstones, because their postings stay in the 
+ * posting lists until these are rewritten.
+ */
+public class IncrementalFileIndexer implements FileContentIndexer {
+    private Index index;
+    private Classifier classifier;
+    private DocumentManifest manifest;
+
+    private int unchangedDocuments;
+    private int indexedDocuments;
+    private int removedDocuments;
+
+    /**
+     * @param filesToBeIndexed all files currently found in the crawl folder
+     * @param crawlFolder the base folder, of what files to index
+     * @param indexFolder the index folder, where to find and update the index
+     */
+    public void buildIndex( Deque<Path> filesToBeIndexed, Path crawlFolder, Path indexFolder ) {
+        setIndex( new Index( indexFolder ) );
+        setClassifier( new SimpleClassifier() );
+
+        manifest = DocumentManifest.loadOrCreate( indexFolder );
+
+        index.getInverseTrigramIndex().init();
+        index.getInverseTrigramIndex().useAppendMode();
+
+        Set<String> crawledDocumentKeys = new HashSet<>();
+
+        for (Path fileToIndex : filesToBeIndexed) {
+            DocumentId documentId = DocumentIdFactory.createDocumentID( fileToIndex, crawlFolder );
+
+            // a file which can't be read this time is not considered deleted
+            crawledDocumentKeys.add( documentId.getDocumentKey() );
+
+            try {
+                updateIndexWithSingleFile( documentId, fileToIndex );
+            }
+            catch (Exception ignore) {
+                // intentionally left blank yet.
+                // File should be appended again, if temporary problem or scheduled again for later indexing operation. 
+            }
+        }
+
+        removeDeletedDocuments( crawledDocumentKeys );
+
+        index.getInverseTrigramIndex().save();
+        index.saveDocumentOrdinalDictionary();
+        index.saveDeletedDocuments();
+        manifest.save( indexFolder );
+        index.advanceIndexEpoch();
+
+        System.out.println( String.format( "%d documents unchanged, %d documents indexed, %d documents removed.", unchangedDocuments,
+                        indexedDocuments, removedDocuments ) );
+    }
+
+    private void updateIndexWithSingleFile( DocumentId documentId, Path fileToIndex ) throws IOException {
+        String documentKey = documentId.getDocumentKey();
+        BasicFileAttributes attributes = Files.readAttributes( fileToIndex, BasicFileAttributes.class );
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        DocumentManifestEntry knownEntry = manifest.get( documentKey );
+        if (knownEntry != null && knownEntry.isUnchanged( attributes.size(), lastModified )) {
+            unchangedDocuments++;
+            return;
+        }
+
+        DocumentMetadata documentMetaData = DocumentMetadataFactory.createDocumentMetadata( documentId, fileToIndex, attributes );
+        AnalyzedDocument analyzedDocument = SinglePassDocumentAnalyzer.analyze( documentId, documentMetaData, fileToIndex );
+        String contentHash = DocumentManifest.computeContentHash( analyzedDocument.getContent() );
+
+        DocumentManifestEntry currentEntry = new DocumentManifestEntry( documentKey, documentId.getDocumentLocation(), attributes.size(),
+                        lastModified, contentHash );
+
+        // e.g. the file was touched or copied, but the content is the same
+        if (knownEntry != null && knownEntry.getContentHash().equals( contentHash )) {
+            manifest.put( currentEntry );
+            unchangedDocuments++;
+            return;
+        }
+
+        System.out.println( documentKey );
+        System.out.println( documentId.getDocumentLocation() );
+
+        // the postings of the former version remain in the index, so the document gets a new ordinal
+        DocumentOrdinalDictionary documentOrdinals = index.getDocumentOrdinalDictionary();
+        if (documentOrdinals.getOrdinal( documentKey ) != DocumentOrdinalDictionary.UNKNOWN_ORDINAL) {
+            index.removeDocument( documentId );
+            documentOrdinals.reassignOrdinal( documentKey );
+        }
+
+        index.getDocumentCache().createDocumentCopy( documentId, analyzedDocument.getContent() );
+
+        Map<String, Integer> ttfList = analyzedDocument.getTtfList();
+        Set<String> uniqueTrigramlist = analyzedDocument.getUniqueTrigramlist();
+        List<String> uniqueWordlist = analyzedDocument.getUniqueWordlist();
+
+        index.getWordlistCache().addTTFList( documentId, ttfList );
+        index.getWordlistCache().addUniqueWordlist( documentId, uniqueWordlist );
+        index.getWordlistCache().addUniqueTrigrams( documentId, uniqueTrigramlist );
+        index.getInverseTrigramIndex().addTrigramsForDocument( documentId, uniqueTrigramlist );
+
+        getClassifier().classify( documentId, documentMetaData, fileToIndex );
+        getClassifier().classify( documentId, documentMetaData, uniqueWordlist );
+
+        index.getMetadataCache().addDocumentMetadata( documentId, documentMetaData );
+
+        // only documents which are completely indexed are recorded, failed documents are retried next time
+        manifest.put( currentEntry );
+        indexedDocuments++;
+    }
+
+    private void removeDeletedDocuments( Set<String> crawledDocumentKeys ) {
+        for (String documentKey : manifest.getDocumentKeys()) {
+            if (crawledDocumentKeys.contains( documentKey )) {
+                continue;
+            }
+
+            System.out.println( String.format( "removing document: %s", documentKey ) );
+
+            index.removeDocument( DocumentIdFactory.createDocumentIDFromDocumentKey( documentKey ) );
+            index.getDocumentOrdinalDictionary().removeDocument( documentKey );
+            index.removeCachedDocument( documentKey );
+            manifest.remove( documentKey );
+            removedDocuments++;
+        }
+    }
+
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex( Index index ) {
+        this.index = index;
+    }
+
+    public Classifier getClassifier() {
+        return classifier;
+    }
+
+    public void setClassifier( Classifier classifier ) {
+        this.classifier = classifier;
+    }
+}
@@ -57,6 +57,8 @@ public class MetadataFileIndexer implements FileContentIndexer {
         }
 
         index.getInverseMetadataTrigramIndex().save();
+        index.saveDocumentOrdinalDictionary();
+        index.advanceIndexEpoch();
     }
 
     private void updateMetaIndexWithSingleFile( Path fileToIndex, Path crawlFolder, Path indexFolder ) {
@@ -0,0 +1,243 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import de.mindscan.furiousiron.classifier.Classifier;
+import de.mindscan.furiousiron.classifier.SimpleClassifier;
+import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentIdFactory;
+import de.mindscan.furiousiron.document.DocumentManifest;
+import de.mindscan.furiousiron.document.DocumentManifestEntry;
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentMetadataFactory;
+import de.mindscan.furiousiron.index.Index;
+import de.mindscan.furiousiron.indexer.pipeline.AnalyzedDocument;
+import de.mindscan.furiousiron.indexer.pipeline.IndexingPipelineConfiguration;
+import de.mindscan.furiousiron.indexer.pipeline.PipelineStage;
+
+/**
+ * This indexer does the same work as the {@link SimpleFileIndexer}, but it is organized as a staged
+ * pipeline, where the stages are connected by bounded queues:
+ * 
+ * <pre>
+ * crawl --&gt; read and tokenize --&gt; accumulate inverse index (single writer) --&gt; classify --&gt; write caches
+ * </pre>
+ * 
+ * The read, classify and cache writer stages use multiple threads. The inverse trigram index is not
+ * thread safe and is only updated by the accumulator thread, which also assigns the document ordinals. 
+ * Only documents accepted by the accumulator are classified and cached, and like in the 
+ * {@link SimpleFileIndexer} the metadata of a document is written last.
+ */
+public class ParallelFileIndexer implements FileContentIndexer {
+
+    private static final String INDEX_ACCUMULATOR_STAGE = "index-accumulator";
+    private static final String CACHE_WRITER_STAGE = "cache-writer";
+    private static final String CLASSIFIER_STAGE = "classifier";
+    private static final String READER_STAGE = "reader";
+
+    private final IndexingPipelineConfiguration configuration;
+
+    private Index index;
+    private Classifier classifier;
+    private DocumentManifest manifest;
+
+    // the manifest entries of the documents read, which are not yet completely indexed
+    private final Map<String, DocumentManifestEntry> pendingManifestEntries = new ConcurrentHashMap<>();
+
+    // 0 means, that each trigram is indexed in memory
+    private long sortedRunMemoryBudget = 0L;
+
+    public ParallelFileIndexer( IndexingPipelineConfiguration configuration ) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @param filesToBeIndexed provider for files which should be indexed
+     * @param crawlFolder the base folder, of what files to index
+     * @param indexFolder the index folder, where to put the index
+     */
+    public void buildIndex( Deque<Path> filesToBeIndexed, Path crawlFolder, Path indexFolder ) {
+        buildIndex( filesToBeIndexed::forEach, crawlFolder, indexFolder );
+    }
+
+    /**
+     * @param crawler the crawl stage, which hands each file to index to the given consumer, this runs in the calling thread.
+     * @param crawlFolder the base folder, of what files to index
+     * @param indexFolder the index folder, where to put the index
+     */
+    public void buildIndex( Consumer<Consumer<Path>> crawler, Path crawlFolder, Path indexFolder ) {
+        setIndex( new Index( indexFolder ) );
+        setClassifier( new SimpleClassifier() );
+
+        // the index is built from scratch, so the manifest only contains the documents of this run
+        manifest = new DocumentManifest();
+        pendingManifestEntries.clear();
+
+        index.getInverseTrigramIndex().init();
+        index.deleteDocumentPacks();
+        index.deleteColumnarMetadata();
+        index.deleteDocumentWords();
+        if (sortedRunMemoryBudget > 0L) {
+            index.getInverseTrigramIndex().useSortedRuns( sortedRunMemoryBudget );
+        }
+
+        int queueCapacity = configuration.getQueueCapacity();
+        PipelineStage<AnalyzedDocument> accumulatorStage = new PipelineStage<>( INDEX_ACCUMULATOR_STAGE, 1, queueCapacity );
+        PipelineStage<AnalyzedDocument> cacheWriterStage = new PipelineStage<>( CACHE_WRITER_STAGE, configuration.getCacheWriterThreads(), queueCapacity );
+        PipelineStage<AnalyzedDocument> classifierStage = new PipelineStage<>( CLASSIFIER_STAGE, configuration.getClassifierThreads(), queueCapacity );
+        PipelineStage<Path> readerStage = new PipelineStage<>( READER_STAGE, configuration.getReaderThreads(), queueCapacity );
+
+        cacheWriterStage.start( this::writeCaches );
+        classifierStage.start( analyzedDocument -> {
+            classify( analyzedDocument );
+            cacheWriterStage.put( analyzedDocument );
+        } );
+        accumulatorStage.start( analyzedDocument -> {
+            // a document, which is not contained in the inverse index, must not be cached
+            accumulateInverseIndex( analyzedDocument );
+            classifierStage.put( analyzedDocument );
+        } );
+        readerStage.start( fileToIndex -> {
+            AnalyzedDocument analyzedDocument = analyzeDocument( fileToIndex, crawlFolder );
+            if (analyzedDocument != null) {
+                accumulatorStage.put( analyzedDocument );
+            }
+        } );
+
+        crawler.accept( readerStage::put );
+
+        // each stage is finished after all the stages feeding it
+        readerStage.finish();
+        accumulatorStage.finish();
+        classifierStage.finish();
+        cacheWriterStage.finish();
+
+        // the remaining entries belong to documents, which failed in a later stage
+        pendingManifestEntries.clear();
+
+        index.getInverseTrigramIndex().save();
+        index.saveDocumentOrdinalDictionary();
+        manifest.save( indexFolder );
+        index.advanceIndexEpoch();
+
+        logStage( readerStage );
+        logStage( accumulatorStage );
+        logStage( classifierStage );
+        logStage( cacheWriterStage );
+    }
+
+    private AnalyzedDocument analyzeDocument( Path fileToIndex, Path crawlFolder ) {
+        if (SkippedDocuments.isSkipDocument( fileToIndex )) {
+            return null;
+        }
+
+        DocumentId documentId = DocumentIdFactory.createDocumentID( fileToIndex, crawlFolder );
+
+        System.out.println( documentId.getDocumentKey() + " " + documentId.getDocumentLocation() );
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes( fileToIndex, BasicFileAttributes.class );
+            DocumentMetadata documentMetaData = DocumentMetadataFactory.createDocumentMetadata( documentId, fileToIndex, attributes );
+            AnalyzedDocument analyzedDocument = SinglePassDocumentAnalyzer.analyze( documentId, documentMetaData, fileToIndex );
+
+            pendingManifestEntries.put( documentId.getDocumentKey(), new DocumentManifestEntry( documentId.getDocumentKey(),
+                            documentId.getDocumentLocation(), attributes.size(), attributes.lastModifiedTime().toMillis(),
+                            DocumentManifest.computeContentHash( analyzedDocument.getContent() ) ) );
+            return analyzedDocument;
+        }
+        catch (IOException e) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private void classify( AnalyzedDocument analyzedDocument ) {
+        DocumentId documentId = analyzedDocument.getDocumentId();
+        DocumentMetadata documentMetaData = analyzedDocument.getDocumentMetadata();
+
+        getClassifier().classify( documentId, documentMetaData, analyzedDocument.getFileToIndex() );
+        getClassifier().classify( documentId, documentMetaData, analyzedDocument.getUniqueWordlist() );
+    }
+
+    private void writeCaches( AnalyzedDocument analyzedDocument ) {
+        DocumentId documentId = analyzedDocument.getDocumentId();
+
+        index.getDocumentCache().createDocumentCopy( documentId, analyzedDocument.getContent() );
+        index.getWordlistCache().addTTFList( documentId, analyzedDocument.getTtfList() );
+        index.getWordlistCache().addUniqueWordlist( documentId, analyzedDocument.getUniqueWordlist() );
+        index.getWordlistCache().addUniqueTrigrams( documentId, analyzedDocument.getUniqueTrigramlist() );
+
+        // the metadata is written after classifying the document
+        index.getMetadataCache().addDocumentMetadata( documentId, analyzedDocument.getDocumentMetadata() );
+
+        // only documents which are completely indexed are recorded, so a following incremental run retries the others
+        DocumentManifestEntry manifestEntry = pendingManifestEntries.remove( documentId.getDocumentKey() );
+        if (manifestEntry != null) {
+            manifest.put( manifestEntry );
+        }
+    }
+
+    private void accumulateInverseIndex( AnalyzedDocument analyzedDocument ) {
+        index.getInverseTrigramIndex().addTrigramsForDocument( analyzedDocument.getDocumentId(), analyzedDocument.getUniqueTrigramlist() );
+    }
+
+    private void logStage( PipelineStage<?> stage ) {
+        System.out.println( String.format( "Stage '%s' processed %d elements, %d failed.", stage.getName(), stage.getProcessedCount(),
+                        stage.getFailedCount() ) );
+    }
+
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex( Index index ) {
+        this.index = index;
+    }
+
+    /**
+     * @param sortedRunMemoryBudget the memory budget in bytes for building the inverse index by sorted runs, 
+     *                              0 to index each trigram in memory
+     */
+    public void setSortedRunMemoryBudget( long sortedRunMemoryBudget ) {
+        this.sortedRunMemoryBudget = sortedRunMemoryBudget;
+    }
+
+    public Classifier getClassifier() {
+        return classifier;
+    }
+
+    public void setClassifier( Classifier classifier ) {
+        this.classifier = classifier;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.cache.DocumentCache;
+import de.mindscan.furiousiron.index.pack.DocumentPackReader;
+import de.mindscan.furiousiron.index.positional.PositionalTrigramIndexWriter;
+
+/**
+ * Builds the positional trigram index from the content of the indexed documents. The content is read
+ * from the document packs, if the document is packed, otherwise from the cached document ('.originalContent'
+ * file). The index is always built completely, so it can simply be built again after an incremental 
+ * indexing run. Documents indexed afterwards are not contained and are verified by their content.
+ */
+public class PositionalTrigramIndexBuilder {
+
+    /**
+     * @param indexFolder the index folder, where the document cache and the document ordinal dictionary are located
+     */
+    public void build( Path indexFolder ) {
+        DocumentOrdinalDictionary documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        DocumentCache documentCache = new DocumentCache( indexFolder );
+        DocumentPackReader documentPacks = openDocumentPacks( indexFolder );
+        PositionalTrigramIndexWriter writer = new PositionalTrigramIndexWriter();
+
+        int missingDocuments = 0;
+
+        for (int documentOrdinal = 0; documentOrdinal < documentOrdinals.size(); documentOrdinal++) {
+            String documentKey = documentOrdinals.getDocumentKey( documentOrdinal );
+            if (documentKey == null) {
+                continue;
+            }
+
+            CharSequence content = readContent( documentPacks, documentCache, documentOrdinal, documentKey );
+            if (content == null) {
+                missingDocuments++;
+                continue;
+            }
+
+            writer.add( documentOrdinal, SinglePassDocumentAnalyzer.splitLines( content ) );
+        }
+
+        try {
+            writer.write( indexFolder );
+            System.out.println( String.format( "Wrote the positions of %d trigrams in %d documents, %d documents are missing or not readable.",
+                            writer.getTrigramCount(), writer.getDocumentCount(), missingDocuments ) );
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "writing the positional trigram index of: '%s' caused this error...", indexFolder ) );
+            e.printStackTrace();
+        }
+    }
+
+    private CharSequence readContent( DocumentPackReader documentPacks, DocumentCache documentCache, int documentOrdinal, String documentKey ) {
+        try {
+            if (documentPacks != null && documentPacks.contains( documentOrdinal )) {
+                return documentPacks.getContentAsCharSequence( documentOrdinal );
+            }
+
+            Path cachedDocumentPath = documentCache.buildCacheTargetPathFromKey( documentKey, DocumentCache.CACHED_FILE_SUFFIX );
+            if (!Files.exists( cachedDocumentPath )) {
+                return null;
+            }
+
+            return SinglePassDocumentAnalyzer.decode( SinglePassDocumentAnalyzer.readContent( cachedDocumentPath ) );
+        }
+        catch (IOException e) {
+            // e.g. not valid UTF-8, such a document is verified by its content
+            return null;
+        }
+    }
+
+    private DocumentPackReader openDocumentPacks( Path indexFolder ) {
+        if (!DocumentPackReader.exists( indexFolder )) {
+            return null;
+        }
+
+        try {
+            return DocumentPackReader.open( indexFolder );
+        }
+        catch (IOException e) {
+            // fall back to the document cache
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.Gson;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+import de.mindscan.furiousiron.index.trigram.TrigramDocumentCountTable;
+import de.mindscan.furiousiron.index.trigram.TrigramSubPathCalculator;
+import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
+import de.mindscan.furiousiron.index.trigram.model.TrigramIndexJsonModel;
+
+/**
+ * Converts an existing inverse trigram index tree, where each trigram is stored as multiple json 
+ * reference files into the binary posting list format. All generations of a trigram are merged into
+ * a single posting list file, the document keys are replaced by the document ordinals.
+ */
+public class PostingListMigrationBuilder implements FileContentIndexer {
+
+    private static final String TRIGRAM_REFERENCE_SUFFIX = ".reference";
+
+    private final boolean removeJsonReferences;
+
+    private DocumentOrdinalDictionary documentOrdinals;
+
+    public PostingListMigrationBuilder( boolean removeJsonReferences ) {
+        this.removeJsonReferences = removeJsonReferences;
+    }
+
+    /**
+     * @param filesToBeIndexed the reference count files of the trigrams to migrate
+     * @param crawlFolder the folder of the inverse trigram index tree
+     * @param indexFolder the index folder, where the document ordinal dictionary is located
+     */
+    public void buildIndex( Deque<Path> filesToBeIndexed, Path crawlFolder, Path indexFolder ) {
+        documentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+
+        long migratedTrigrams = 0L;
+        long migratedReferences = 0L;
+        Map<String, Long> documentCounts = new HashMap<>();
+
+        for (Path referenceCountFile : filesToBeIndexed) {
+            String trigram = loadTrigram( referenceCountFile );
+            if (trigram == null) {
+                continue;
+            }
+
+            try {
+                int documentCount = migrateTrigram( crawlFolder, trigram );
+                documentCounts.put( trigram, (long) documentCount );
+                migratedReferences += documentCount;
+                migratedTrigrams++;
+            }
+            catch (IOException e) {
+                System.out.println( String.format( "migrating trigram: '%s' caused this error...", trigram ) );
+                e.printStackTrace();
+            }
+        }
+
+        // the posting lists are worthless without the ordinals
+        documentOrdinals.save( indexFolder );
+
+        try {
+            TrigramDocumentCountTable.fromDocumentCounts( documentCounts ).save( crawlFolder );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println( String.format( "Migrated %d trigrams with %d references for %d documents.", migratedTrigrams, migratedReferences,
+                        documentOrdinals.size() ) );
+    }
+
+    private int migrateTrigram( Path trigramsBasePath, String trigram ) throws IOException {
+        Set<String> documentKeys = new HashSet<>();
+
+        int generation = 0;
+        for (;; generation++) {
+            Path pathForTrigrams = getReferencePath( trigramsBasePath, trigram, generation );
+            if (!Files.exists( pathForTrigrams, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            Gson gson = new Gson();
+            try (Reader json = Files.newBufferedReader( pathForTrigrams )) {
+                TrigramIndexJsonModel fromJson = gson.fromJson( json, TrigramIndexJsonModel.class );
+                documentKeys.addAll( fromJson.getRelatedDocuments() );
+            }
+        }
+
+        int[] ordinals = new int[documentKeys.size()];
+        int index = 0;
+        for (String documentKey : documentKeys) {
+            ordinals[index++] = documentOrdinals.getOrCreateOrdinal( documentKey );
+        }
+        Arrays.sort( ordinals );
+
+        Path pathForPostings = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, ".0" + PostingListFormat.POSTING_LIST_SUFFIX );
+        PostingListWriter.write( pathForPostings, ordinals );
+
+        if (removeJsonReferences) {
+            // only remove the json files after the posting list was written completely
+            for (int i = 0; i < generation; i++) {
+                Files.deleteIfExists( getReferencePath( trigramsBasePath, trigram, i ) );
+            }
+        }
+
+        return ordinals.length;
+    }
+
+    private Path getReferencePath( Path trigramsBasePath, String trigram, int generation ) {
+        return TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, "." + generation + TRIGRAM_REFERENCE_SUFFIX );
+    }
+
+    String loadTrigram( Path pathForTrigramCount ) {
+        Gson gson = new Gson();
+
+        try (Reader json = Files.newBufferedReader( pathForTrigramCount )) {
+            TrigramDocumentCountJsonModel fromJson = gson.fromJson( json, TrigramDocumentCountJsonModel.class );
+            return fromJson.getTrigram();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+}
@@ -26,7 +26,9 @@
 package de.mindscan.furiousiron.indexer;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
@@ -36,9 +38,12 @@ import de.mindscan.furiousiron.classifier.Classifier;
 import de.mindscan.furiousiron.classifier.SimpleClassifier;
 import de.mindscan.furiousiron.document.DocumentId;
 import de.mindscan.furiousiron.document.DocumentIdFactory;
+import de.mindscan.furiousiron.document.DocumentManifest;
+import de.mindscan.furiousiron.document.DocumentManifestEntry;
 import de.mindscan.furiousiron.document.DocumentMetadata;
 import de.mindscan.furiousiron.document.DocumentMetadataFactory;
 import de.mindscan.furiousiron.index.Index;
+import de.mindscan.furiousiron.indexer.pipeline.AnalyzedDocument;
 
 /**
  * 
@@ -46,6 +51,10 @@ import de.mindscan.furiousiron.index.Index;
 public class SimpleFileIndexer implements FileContentIndexer {
     private Index index;
     private Classifier classifier;
+    private DocumentManifest manifest;
+
+    // 0 means, that each trigram is indexed in memory
+    private long sortedRunMemoryBudget = 0L;
 
     /**
      * @param filesToBeIndexed provider for files which should be indexed
@@ -57,7 +66,16 @@ public class SimpleFileIndexer implements FileContentIndexer {
         setIndex( new Index( indexFolder ) );
         setClassifier( new SimpleClassifier() );
 
+        // the index is built from scratch, so the manifest only contains the documents of this run
+        manifest = new DocumentManifest();
+
         index.getInverseTrigramIndex().init();
+        index.deleteDocumentPacks();
+        index.deleteColumnarMetadata();
+        index.deleteDocumentWords();
+        if (sortedRunMemoryBudget > 0L) {
+            index.getInverseTrigramIndex().useSortedRuns( sortedRunMemoryBudget );
+        }
 
         for (Path fileToIndex : filesToBeIndexed) {
             try {
@@ -73,28 +91,33 @@ public class SimpleFileIndexer implements FileContentIndexer {
         }
 
         index.getInverseTrigramIndex().save();
+        index.saveDocumentOrdinalDictionary();
+        manifest.save( indexFolder );
+        index.advanceIndexEpoch();
     }
 
     private void updateIndexWithSingleFile( Path fileToIndex, Path crawlFolder, Path indexFolder ) throws IOException {
-        if (isSkipDocument( fileToIndex )) {
+        if (SkippedDocuments.isSkipDocument( fileToIndex )) {
             return;
         }
 
         DocumentId documentId = DocumentIdFactory.createDocumentID( fileToIndex, crawlFolder );
-        DocumentMetadata documentMetaData = DocumentMetadataFactory.createDocumentMetadata( documentId, fileToIndex );
+        BasicFileAttributes attributes = Files.readAttributes( fileToIndex, BasicFileAttributes.class );
+        DocumentMetadata documentMetaData = DocumentMetadataFactory.createDocumentMetadata( documentId, fileToIndex, attributes );
 
         System.out.println( documentId.getDocumentKey() );
         System.out.println( documentId.getDocumentLocation() );
 
+        // the file to index is read only once, the content is used for the cache, the trigrams and the words
+        AnalyzedDocument analyzedDocument = SinglePassDocumentAnalyzer.analyze( documentId, documentMetaData, fileToIndex );
+
         // store a copy of the document in the cache
-        index.getDocumentCache().createDocumentCopy( documentId, fileToIndex );
+        index.getDocumentCache().createDocumentCopy( documentId, analyzedDocument.getContent() );
 
-        // Actually the file to index is read twice. with the previous createDocumentCopy actually three times...
-        // this should be optimized. fileToIndex - 
-        Map<String, Integer> ttfList = SimpleWordUtils.buildTrigramTermFrequencyByLines( documentMetaData, fileToIndex );
-        Set<String> uniqueTrigramlist = ttfList.keySet();
+        Map<String, Integer> ttfList = analyzedDocument.getTtfList();
+        Set<String> uniqueTrigramlist = analyzedDocument.getUniqueTrigramlist();
         // get unique word list for document
-        List<String> uniqueWordlist = SimpleWordUtils.buildUniqueWordlist( documentMetaData, fileToIndex );
+        List<String> uniqueWordlist = analyzedDocument.getUniqueWordlist();
 
         index.getWordlistCache().addTTFList( documentId, ttfList );
         index.getWordlistCache().addUniqueWordlist( documentId, uniqueWordlist );
@@ -112,16 +135,10 @@ public class SimpleFileIndexer implements FileContentIndexer {
 
         // this should be done after parsing/analysing/classifying/indexing the document
         index.getMetadataCache().addDocumentMetadata( documentId, documentMetaData );
-    }
 
-    private boolean isSkipDocument( Path fileToIndex ) {
-        // TODO implement a black list of documents, which should be skippedm files which should be skipped
-        // with low quality (in terms of source code) and high effort.
-        // 
-        // like 'copyright.txt' (e.g. 20MB large copyright files)
-        // creates  a lot of inverse index files for no useful reason.
-        // like 'everylegalutf8character.txt'
-        return false;
+        // a following incremental run skips this document, as long as it is unchanged
+        manifest.put( new DocumentManifestEntry( documentId.getDocumentKey(), documentId.getDocumentLocation(), attributes.size(),
+                        attributes.lastModifiedTime().toMillis(), DocumentManifest.computeContentHash( analyzedDocument.getContent() ) ) );
     }
 
     public Index getIndex() {
@@ -132,6 +149,14 @@ public class SimpleFileIndexer implements FileContentIndexer {
         this.index = index;
     }
 
+    /**
+     * @param sortedRunMemoryBudget the memory budget in bytes for building the inverse index by sorted runs, 
+     *                              0 to index each trigram in memory
+     */
+    public void setSortedRunMemoryBudget( long sortedRunMemoryBudget ) {
+        this.sortedRunMemoryBudget = sortedRunMemoryBudget;
+    }
+
     public Classifier getClassifier() {
         return classifier;
     }
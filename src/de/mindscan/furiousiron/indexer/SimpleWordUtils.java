@@ -32,7 +32,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,6 +39,8 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.index.trigram.TrigramTokenizer;
+import de.mindscan.furiousiron.util.primitive.LongIntHashMap;
 
 /**
  * 
@@ -71,17 +72,17 @@ public class SimpleWordUtils {
     }
 
     public static Map<String, Integer> buildTrigramTermFrequencyByLines( DocumentMetadata documentMetaData, Path fileToIndex ) throws IOException {
-        List<String> allLines = Files.readAllLines( fileToIndex );
-
-        // collect the trigrams per line
-        List<List<String>> collectedTrigramsPerLine = allLines.stream().map( String::trim ).map( SimpleWordUtils::toLowerCase )
-                        .map( SimpleWordUtils::trigramsplitter ).collect( Collectors.toList() );
-
-        Map<String, Integer> ttfMap = new HashMap<>();
+        return buildTrigramTermFrequencyByLines( Files.readAllLines( fileToIndex ) );
+    }
 
-        collectedTrigramsPerLine.stream().flatMap( List::stream ).forEach( ttf -> increaseWordCount( ttfMap, ttf ) );
+    public static Map<String, Integer> buildTrigramTermFrequencyByLines( List<String> allLines ) {
+        // count the trigrams of all lines as packed trigram codes, the trigram strings are only created once per distinct trigram
+        LongIntHashMap trigramCounts = new LongIntHashMap();
+        for (String line : allLines) {
+            TrigramTokenizer.countTrigrams( toLowerCase( line.trim() ), trigramCounts );
+        }
 
-        return ttfMap;
+        return TrigramTokenizer.toTrigramCountMap( trigramCounts );
     }
 
     private static void increaseTTFCount( Map<String, Integer> ttfMap, String word, Integer count ) {
@@ -111,6 +112,10 @@ public class SimpleWordUtils {
         // collect the number of lines
         documentMetaData.setNumberOfLines( allLines.size() );
 
+        return buildUniqueWordlist( allLines );
+    }
+
+    public static List<String> buildUniqueWordlist( List<String> allLines ) {
         // collect the words per line
         List<List<String>> collectedWordsPerLine = allLines.stream().map( SimpleWordUtils::toLowerCase ).map( SimpleWordUtils::nonwordsplitter )
                         .filter( SimpleWordUtils::onlyNonEmpy ).collect( Collectors.toList() );
@@ -148,7 +153,9 @@ public class SimpleWordUtils {
     }
 
     public static Collection<String> getUniqueTrigramsFromWord( String word ) {
-        return new HashSet<>( trigramsplitter( word ) );
+        LongIntHashMap trigramCounts = new LongIntHashMap();
+        TrigramTokenizer.countTrigrams( word, trigramCounts );
+        return TrigramTokenizer.toTrigramSet( trigramCounts );
     }
 
     public static Collection<String> getTrigramsFromLine( String word ) {
@@ -160,12 +167,12 @@ public class SimpleWordUtils {
     }
 
     public static Set<String> getUniqueTrigramsFromWordList( Collection<String> flatWordList ) {
-        List<List<String>> collectedTrigramsForEachWord = flatWordList.stream().map( SimpleWordUtils::trigramsplitter ).distinct()
-                        .collect( Collectors.toList() );
-
-        Set<String> uniqueTrigrams = collectedTrigramsForEachWord.stream().flatMap( List::stream ).collect( Collectors.toSet() );
+        LongIntHashMap trigramCounts = new LongIntHashMap();
+        for (String word : flatWordList) {
+            TrigramTokenizer.countTrigrams( word, trigramCounts );
+        }
 
-        return uniqueTrigrams;
+        return TrigramTokenizer.toTrigramSet( trigramCounts );
     }
 
     static List<String> trigramsplitter( String string ) {
@@ -0,0 +1,121 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.indexer.pipeline.AnalyzedDocument;
+
+/**
+ * Analyzes a document by reading its content only once. The same content is used for the document
+ * cache, the trigram term frequencies, the unique word list, the line count and the classifiers.
+ * 
+ * The content is read into the heap. It is not memory mapped, because the analyzed documents wait in 
+ * the queue of the cache writers, a mapping would keep the file locked on Windows and a file truncated
+ * meanwhile would crash the indexer when the mapping is accessed.
+ */
+public class SinglePassDocumentAnalyzer {
+
+    /**
+     * @param documentId the document id
+     * @param documentMetaData the metadata of the document, the number of lines is updated
+     * @param fileToIndex the file to analyze
+     * @return the analyzed document
+     * @throws IOException if the file can not be read or is not valid UTF-8 
+     */
+    public static AnalyzedDocument analyze( DocumentId documentId, DocumentMetadata documentMetaData, Path fileToIndex ) throws IOException {
+        ByteBuffer content = readContent( fileToIndex );
+
+        List<String> allLines = splitLines( decode( content ) );
+
+        // collect the number of lines
+        documentMetaData.setNumberOfLines( allLines.size() );
+
+        Map<String, Integer> ttfList = SimpleWordUtils.buildTrigramTermFrequencyByLines( allLines );
+        List<String> uniqueWordlist = SimpleWordUtils.buildUniqueWordlist( allLines );
+
+        return new AnalyzedDocument( fileToIndex, documentId, documentMetaData, content, ttfList, uniqueWordlist );
+    }
+
+    static ByteBuffer readContent( Path fileToIndex ) throws IOException {
+        return ByteBuffer.wrap( Files.readAllBytes( fileToIndex ) );
+    }
+
+    static CharBuffer decode( ByteBuffer content ) throws IOException {
+        // same as Files.readAllLines, malformed input is reported instead of being replaced
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput( CodingErrorAction.REPORT )
+                        .onUnmappableCharacter( CodingErrorAction.REPORT );
+
+        return decoder.decode( content.duplicate() );
+    }
+
+    /**
+     * Splits the content into lines like {@link java.io.BufferedReader#readLine()}, a line is terminated 
+     * by '\n', '\r' or "\r\n".
+     * 
+     * @param content the decoded content
+     * @return the lines without line terminators
+     */
+    static List<String> splitLines( CharSequence content ) {
+        List<String> allLines = new ArrayList<>();
+
+        int length = content.length();
+        int lineStart = 0;
+        int position = 0;
+        while (position < length) {
+            char currentChar = content.charAt( position );
+            if (currentChar == '\n' || currentChar == '\r') {
+                allLines.add( content.subSequence( lineStart, position ).toString() );
+
+                if (currentChar == '\r' && position + 1 < length && content.charAt( position + 1 ) == '\n') {
+                    position++;
+                }
+
+                lineStart = position + 1;
+            }
+            position++;
+        }
+
+        if (lineStart < length) {
+            allLines.add( content.subSequence( lineStart, length ).toString() );
+        }
+
+        return allLines;
+    }
+
+}
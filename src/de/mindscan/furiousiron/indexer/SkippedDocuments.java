@@ -0,0 +1,50 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.nio.file.Path;
+
+/**
+ * Decides which crawled files are not indexed at all. The indexers share this decision, so the same
+ * crawl results in the same set of indexed documents, whichever indexer is used.
+ */
+public class SkippedDocuments {
+
+    /**
+     * @param fileToIndex the crawled file
+     * @return whether the file should not be indexed
+     */
+    public static boolean isSkipDocument( Path fileToIndex ) {
+        // TODO implement a black list of documents, which should be skippedm files which should be skipped
+        // with low quality (in terms of source code) and high effort.
+        // 
+        // like 'copyright.txt' (e.g. 20MB large copyright files)
+        // creates  a lot of inverse index files for no useful reason.
+        // like 'everylegalutf8character.txt'
+        return false;
+    }
+
+}
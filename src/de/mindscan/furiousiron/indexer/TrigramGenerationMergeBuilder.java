@@ -0,0 +1,173 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+
+import com.google.gson.Gson;
+
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.index.trigram.TieredMergePolicy;
+import de.mindscan.furiousiron.index.trigram.TrigramSubPathCalculator;
+import de.mindscan.furiousiron.index.trigram.model.TrigramDocumentCountJsonModel;
+
+/**
+ * Merges the posting list generations of each trigram of an inverse trigram index tree into larger 
+ * segments, as selected by the {@link TieredMergePolicy}.
+ * 
+ * A merge of the generations n..m writes the merged posting list to a temporary file, which then 
+ * atomically replaces generation n. Afterwards the generations m down to n+1 are removed, so the
+ * generations stay contiguous at any time and an interrupted merge only leaves duplicate postings 
+ * behind, which are removed when the generations are merged again.
+ */
+public class TrigramGenerationMergeBuilder implements FileContentIndexer {
+
+    private final TieredMergePolicy mergePolicy;
+
+    private long mergedTrigrams;
+    private long merges;
+    private long generationsBefore;
+    private long generationsAfter;
+
+    public TrigramGenerationMergeBuilder( TieredMergePolicy mergePolicy ) {
+        this.mergePolicy = mergePolicy;
+    }
+
+    /**
+     * @param filesToBeIndexed the reference count files of the trigrams to merge
+     * @param crawlFolder the folder of the inverse trigram index tree
+     * @param indexFolder the index folder
+     */
+    public void buildIndex( Deque<Path> filesToBeIndexed, Path crawlFolder, Path indexFolder ) {
+        for (Path referenceCountFile : filesToBeIndexed) {
+            String trigram = loadTrigram( referenceCountFile );
+            if (trigram == null) {
+                continue;
+            }
+
+            try {
+                mergeTrigram( crawlFolder, trigram );
+            }
+            catch (IOException e) {
+                System.out.println( String.format( "merging trigram: '%s' caused this error...", trigram ) );
+                e.printStackTrace();
+            }
+        }
+
+        System.out.println( String.format( "Merged %d trigrams in %d merges, reduced %d generations to %d generations.", mergedTrigrams, merges,
+                        generationsBefore, generationsAfter ) );
+    }
+
+    private void mergeTrigram( Path trigramsBasePath, String trigram ) throws IOException {
+        long[] segmentSizes = getSegmentSizes( trigramsBasePath, trigram );
+        generationsBefore += segmentSizes.length;
+
+        boolean merged = false;
+        int start;
+        while ((start = mergePolicy.findTailMerge( segmentSizes )) != TieredMergePolicy.NO_MERGE) {
+            mergeGenerations( trigramsBasePath, trigram, start, segmentSizes.length );
+            merges++;
+            merged = true;
+
+            // the merged segment may complete the next tier
+            segmentSizes = getSegmentSizes( trigramsBasePath, trigram );
+        }
+
+        if (merged) {
+            mergedTrigrams++;
+        }
+        generationsAfter += segmentSizes.length;
+    }
+
+    private void mergeGenerations( Path trigramsBasePath, String trigram, int firstGeneration, int generationCount ) throws IOException {
+        int[] collected = new int[256];
+        int collectedLength = 0;
+
+        for (int generation = firstGeneration; generation < generationCount; generation++) {
+            int[] ordinals = PostingListReader.readAll( getPostingListPath( trigramsBasePath, trigram, generation ) );
+            if (collectedLength + ordinals.length > collected.length) {
+                collected = Arrays.copyOf( collected, Math.max( collected.length * 2, collectedLength + ordinals.length ) );
+            }
+            System.arraycopy( ordinals, 0, collected, collectedLength, ordinals.length );
+            collectedLength += ordinals.length;
+        }
+
+        PostingListWriter.write( getPostingListPath( trigramsBasePath, trigram, firstGeneration ),
+                        SortedOrdinals.sortedUnique( collected, collectedLength ) );
+
+        // remove the newest generation first, so there is never a gap in the generations
+        for (int generation = generationCount - 1; generation > firstGeneration; generation--) {
+            Files.delete( getPostingListPath( trigramsBasePath, trigram, generation ) );
+        }
+    }
+
+    private long[] getSegmentSizes( Path trigramsBasePath, String trigram ) throws IOException {
+        long[] segmentSizes = new long[16];
+        int generation = 0;
+
+        for (;; generation++) {
+            Path pathForPostings = getPostingListPath( trigramsBasePath, trigram, generation );
+            if (!Files.exists( pathForPostings, LinkOption.NOFOLLOW_LINKS )) {
+                break;
+            }
+
+            if (generation == segmentSizes.length) {
+                segmentSizes = Arrays.copyOf( segmentSizes, segmentSizes.length * 2 );
+            }
+            segmentSizes[generation] = Files.size( pathForPostings );
+        }
+
+        return Arrays.copyOf( segmentSizes, generation );
+    }
+
+    private Path getPostingListPath( Path trigramsBasePath, String trigram, int generation ) {
+        return TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, "." + generation + PostingListFormat.POSTING_LIST_SUFFIX );
+    }
+
+    String loadTrigram( Path pathForTrigramCount ) {
+        Gson gson = new Gson();
+
+        try (Reader json = Files.newBufferedReader( pathForTrigramCount )) {
+            TrigramDocumentCountJsonModel fromJson = gson.fromJson( json, TrigramDocumentCountJsonModel.class );
+            return fromJson.getTrigram();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.main;
+
+import java.nio.file.Path;
+
+import de.mindscan.furiousiron.indexer.ColumnarMetadataBuilder;
+import picocli.CommandLine;
+
+/**
+ * This writes the cached metadata of all documents into one columnar metadata store, so the search can 
+ * materialize and filter the metadata of many candidates without reading a file per document.
+ */
+public class ColumnarMetadataMain {
+
+    /**
+     * @param indexFolder the index folder
+     */
+    public void run( Path indexFolder ) {
+        ColumnarMetadataBuilder metadataBuilder = new ColumnarMetadataBuilder();
+        metadataBuilder.build( indexFolder );
+    }
+
+    public static void main( String[] args ) {
+        int exitCode = new CommandLine( new ColumnarMetadataMainParameters() ).execute( args );
+        System.exit( exitCode );
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import de.mindscan.furiousiron.crawler.MetaDataTrigramCountCrawler;
+import de.mindscan.furiousiron.index.DeletedDocuments;
+import de.mindscan.furiousiron.index.compact.CompactTrigramIndexFormat;
+import de.mindscan.furiousiron.indexer.DeletedDocumentsPurgeBuilder;
+import picocli.CommandLine;
+
+/**
+ * This rewrites the posting lists of the content index (inverseTrigram.index) and of the metadata index 
+ * (inverseMetadataTrigram.index) without the postings of the deleted documents. When both indexes were
+ * purged, the tombstones are cleared, so the search doesn't need to filter the deleted documents anymore.
+ * 
+ * The index must not be updated while the deleted documents are purged.
+ */
+public class DeletedDocumentsPurgeMain {
+
+    private static final String TRIGRAM_INDEX_FOLDER_SUFFIX = ".index";
+
+    /**
+     * @param indexFolder the index folder
+     */
+    public void run( Path indexFolder ) {
+        boolean failed = false;
+
+        for (String indexName : new String[] { CompactTrigramIndexFormat.CONTENT_INDEX_NAME, CompactTrigramIndexFormat.METADATA_INDEX_NAME }) {
+            Path trigramsFolder = indexFolder.resolve( indexName + TRIGRAM_INDEX_FOLDER_SUFFIX );
+            if (!Files.isDirectory( trigramsFolder )) {
+                continue;
+            }
+
+            Deque<Path> trigramCountFiles = new ArrayDeque<Path>();
+
+            MetaDataTrigramCountCrawler trigramCountCrawler = new MetaDataTrigramCountCrawler();
+            trigramCountCrawler.crawl( trigramCountFiles::add, trigramsFolder );
+
+            System.out.println( String.format( "%d trigrams found for purging in '%s'.", trigramCountFiles.size(), trigramsFolder ) );
+
+            DeletedDocumentsPurgeBuilder purgeBuilder = new DeletedDocumentsPurgeBuilder();
+            purgeBuilder.buildIndex( trigramCountFiles, trigramsFolder, indexFolder );
+            failed |= purgeBuilder.hasFailed();
+        }
+
+        if (failed) {
+            System.out.println( "The tombstones are kept, because not all trigrams could be purged." );
+            return;
+        }
+
+        DeletedDocuments deletedDocuments = DeletedDocuments.loadOrCreate( indexFolder );
+        System.out.println( String.format( "Clearing %d tombstones.", deletedDocuments.size() ) );
+        deletedDocuments.clear();
+        deletedDocuments.save( indexFolder );
+    }
+
+    public static void main( String[] args ) {
+        int exitCode = new CommandLine( new DeletedDocumentsPurgeMainParameters() ).execute( args );
+        System.exit( exitCode );
+    }
+
+}
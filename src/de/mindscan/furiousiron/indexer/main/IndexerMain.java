@@ -30,7 +30,11 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 
 import de.mindscan.furiousiron.crawler.SimpleFileCrawler;
+import de.mindscan.furiousiron.indexer.IncrementalFileIndexer;
+import de.mindscan.furiousiron.indexer.ParallelFileIndexer;
+import de.mindscan.furiousiron.indexer.PositionalTrigramIndexBuilder;
 import de.mindscan.furiousiron.indexer.SimpleFileIndexer;
+import de.mindscan.furiousiron.indexer.pipeline.IndexingPipelineConfiguration;
 import picocli.CommandLine;
 
 /**
@@ -43,6 +47,15 @@ import picocli.CommandLine;
 public class IndexerMain {
 
     void run( Path crawlFolder, Path indexFolder ) {
+        run( crawlFolder, indexFolder, 0L );
+    }
+
+    /**
+     * @param crawlFolder the folder to index
+     * @param indexFolder the folder where the index shall be stored
+     * @param sortedRunMemoryBudget the memory budget in bytes for building the inverse index by sorted runs, 0 to disable
+     */
+    void run( Path crawlFolder, Path indexFolder, long sortedRunMemoryBudget ) {
         Deque<Path> filesToBeIndexed = new ArrayDeque<Path>();
 
         SimpleFileCrawler crawler = new SimpleFileCrawler();
@@ -51,10 +64,56 @@ public class IndexerMain {
         System.out.println( String.format( "%d files found for indexing.", filesToBeIndexed.size() ) );
 
         SimpleFileIndexer indexer = new SimpleFileIndexer();
+        indexer.setSortedRunMemoryBudget( sortedRunMemoryBudget );
         indexer.buildIndex( filesToBeIndexed, crawlFolder, indexFolder );
 
     }
 
+    /**
+     * Updates an existing index with the files, which were added, changed or deleted since the last 
+     * incremental run.
+     * 
+     * @param crawlFolder the folder to index
+     * @param indexFolder the folder where the index is stored
+     */
+    void runIncremental( Path crawlFolder, Path indexFolder ) {
+        Deque<Path> filesToBeIndexed = new ArrayDeque<Path>();
+
+        SimpleFileCrawler crawler = new SimpleFileCrawler();
+        crawler.crawl( filesToBeIndexed::add, crawlFolder );
+
+        System.out.println( String.format( "%d files found for incremental indexing.", filesToBeIndexed.size() ) );
+
+        IncrementalFileIndexer indexer = new IncrementalFileIndexer();
+        indexer.buildIndex( filesToBeIndexed, crawlFolder, indexFolder );
+    }
+
+    /**
+     * Crawls and indexes the files concurrently in a staged pipeline. 
+     * 
+     * @param crawlFolder the folder to index
+     * @param indexFolder the folder where the index shall be stored
+     * @param configuration the worker counts and queue capacity of the pipeline stages
+     * @param sortedRunMemoryBudget the memory budget in bytes for building the inverse index by sorted runs, 0 to disable
+     */
+    void runPipeline( Path crawlFolder, Path indexFolder, IndexingPipelineConfiguration configuration, long sortedRunMemoryBudget ) {
+        SimpleFileCrawler crawler = new SimpleFileCrawler();
+
+        ParallelFileIndexer indexer = new ParallelFileIndexer( configuration );
+        indexer.setSortedRunMemoryBudget( sortedRunMemoryBudget );
+        indexer.buildIndex( fileCollector -> crawler.crawl( fileCollector, crawlFolder ), crawlFolder, indexFolder );
+    }
+
+    /**
+     * Builds the positional trigram index of all indexed documents, after the documents were indexed.
+     * 
+     * @param indexFolder the folder where the index is stored
+     */
+    void runPositional( Path indexFolder ) {
+        PositionalTrigramIndexBuilder positionalBuilder = new PositionalTrigramIndexBuilder();
+        positionalBuilder.build( indexFolder );
+    }
+
     public static void main( String[] args ) {
         long starttime = System.nanoTime();
 
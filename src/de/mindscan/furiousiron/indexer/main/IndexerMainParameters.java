@@ -28,29 +28,89 @@ package de.mindscan.furiousiron.indexer.main;
 import java.nio.file.Path;
 import java.util.concurrent.Callable;
 
+import de.mindscan.furiousiron.indexer.pipeline.IndexingPipelineConfiguration;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.ParseResult;
+import picocli.CommandLine.Spec;
 
 /**
  * 
  */
 class IndexerMainParameters implements Callable<Integer> {
 
+    // an incremental run always appends to the existing index one file after another
+    private static final String[] FULL_BUILD_OPTIONS = { "--singleThreaded", "--readerThreads", "--classifierThreads", "--cacheWriterThreads",
+                    "--queueCapacity", "--sortedRunBudgetMB" };
+
+    @Spec
+    private CommandSpec spec;
+
     @Option( names = "--crawlFolder", defaultValue = "D:\\Analysis\\CrawlerProjects\\NonGPL", description = "The folder to index." )
     private Path crawlFolder;
 
     @Option( names = "--indexFolder", defaultValue = "D:\\Analysis\\CrawlerProjects\\IndexedNew", description = "The folder where the index shall be stored." )
     private Path indexFolder;
 
+    @Option( names = "--singleThreaded", defaultValue = "false", description = "Index the files one after another, instead of using the indexing pipeline." )
+    private boolean singleThreaded;
+
+    @Option( names = "--incremental", defaultValue = "false", description = "Only index the files added or changed since the last incremental run and remove the deleted files from the index. An index with json reference files must be migrated first. Can't be combined with the options of a full build." )
+    private boolean incremental;
+
+    @Option( names = "--readerThreads", defaultValue = "4", description = "The number of threads reading and tokenizing the documents." )
+    private int readerThreads;
+
+    @Option( names = "--classifierThreads", defaultValue = "1", description = "The number of threads classifying the documents." )
+    private int classifierThreads;
+
+    @Option( names = "--cacheWriterThreads", defaultValue = "4", description = "The number of threads writing the document caches." )
+    private int cacheWriterThreads;
+
+    @Option( names = "--queueCapacity", defaultValue = "1024", description = "The maximum number of documents waiting in front of each pipeline stage." )
+    private int queueCapacity;
+
+    @Option( names = "--sortedRunBudgetMB", defaultValue = "0", description = "Build the inverse index by merging sorted runs, using this many megabytes for buffering. 0 keeps each trigram in memory." )
+    private long sortedRunBudgetMB;
+
+    @Option( names = "--positional", defaultValue = "false", description = "Also build the positional trigram index, which answers phrase queries without reading the documents." )
+    private boolean positional;
+
     /** 
      * {@inheritDoc}
      */
     @Override
     public Integer call() throws Exception {
         IndexerMain main = new IndexerMain();
-        main.run( crawlFolder, indexFolder );
+        if (incremental) {
+            rejectFullBuildOptions();
+            main.runIncremental( crawlFolder, indexFolder );
+        }
+        else if (singleThreaded) {
+            main.run( crawlFolder, indexFolder, sortedRunBudgetMB * 1024L * 1024L );
+        }
+        else {
+            main.runPipeline( crawlFolder, indexFolder,
+                            new IndexingPipelineConfiguration( readerThreads, classifierThreads, cacheWriterThreads, queueCapacity ),
+                            sortedRunBudgetMB * 1024L * 1024L );
+        }
+
+        if (positional) {
+            main.runPositional( indexFolder );
+        }
         return 0;
     }
 
+    private void rejectFullBuildOptions() {
+        ParseResult parseResult = spec.commandLine().getParseResult();
+        for (String option : FULL_BUILD_OPTIONS) {
+            if (parseResult.hasMatchedOption( option )) {
+                throw new ParameterException( spec.commandLine(), String.format( "The option '%s' can't be combined with '--incremental'.", option ) );
+            }
+        }
+    }
+
     /**
      * @return the crawlFolder
      */
@@ -65,4 +125,60 @@ class IndexerMainParameters implements Callable<Integer> {
         return indexFolder;
     }
 
+    /**
+     * @return whether the files are indexed one after another
+     */
+    public boolean isSingleThreaded() {
+        return singleThreaded;
+    }
+
+    /**
+     * @return whether only the changes since the last incremental run are indexed
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return the readerThreads
+     */
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    /**
+     * @return the classifierThreads
+     */
+    public int getClassifierThreads() {
+        return classifierThreads;
+    }
+
+    /**
+     * @return the cacheWriterThreads
+     */
+    public int getCacheWriterThreads() {
+        return cacheWriterThreads;
+    }
+
+    /**
+     * @return the queueCapacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the sortedRunBudgetMB
+     */
+    public long getSortedRunBudgetMB() {
+        return sortedRunBudgetMB;
+    }
+
+    /**
+     * @return whether the positional trigram index is built
+     */
+    public boolean isPositional() {
+        return positional;
+    }
+
 }
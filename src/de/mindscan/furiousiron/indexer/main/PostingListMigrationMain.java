@@ -0,0 +1,67 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.main;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import de.mindscan.furiousiron.crawler.MetaDataTrigramCountCrawler;
+import de.mindscan.furiousiron.indexer.PostingListMigrationBuilder;
+import picocli.CommandLine;
+
+/**
+ * This migrates an already built inverse trigram index from the json reference files to the 
+ * binary posting list format. 
+ * 
+ * It can be used for the content index (inverseTrigram.index) and also for the metadata index
+ * (inverseMetadataTrigram.index), both share the same document ordinals.
+ */
+public class PostingListMigrationMain {
+
+    /**
+     * @param crawlFolder the inverse trigram index tree to migrate
+     * @param indexFolder the index folder
+     * @param removeJsonReferences whether the json reference files should be removed after migration
+     */
+    public void run( Path crawlFolder, Path indexFolder, boolean removeJsonReferences ) {
+        Deque<Path> trigramCountFiles = new ArrayDeque<Path>();
+
+        MetaDataTrigramCountCrawler trigramCountCrawler = new MetaDataTrigramCountCrawler();
+        trigramCountCrawler.crawl( trigramCountFiles::add, crawlFolder );
+
+        System.out.println( String.format( "%d trigrams found for migration.", trigramCountFiles.size() ) );
+
+        PostingListMigrationBuilder migrationBuilder = new PostingListMigrationBuilder( removeJsonReferences );
+        migrationBuilder.buildIndex( trigramCountFiles, crawlFolder, indexFolder );
+    }
+
+    public static void main( String[] args ) {
+        int exitCode = new CommandLine( new PostingListMigrationMainParameters() ).execute( args );
+        System.exit( exitCode );
+    }
+
+}
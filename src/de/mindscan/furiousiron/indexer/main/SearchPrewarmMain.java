@@ -0,0 +1,87 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.main;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+import de.mindscan.furiousiron.search.LoggedQuery;
+import de.mindscan.furiousiron.search.Search;
+import de.mindscan.furiousiron.search.SearchPrewarmer;
+import de.mindscan.furiousiron.search.SearchQueryLog;
+import picocli.CommandLine;
+
+/**
+ * This replays the most frequent or the most expensive queries of the query log of the index in use 
+ * against a freshly built index, before the new index is swapped in. So the first requests for the 
+ * popular queries don't have to wait for the files of the new index to be read from disk.
+ */
+public class SearchPrewarmMain {
+
+    public static final String RANK_BY_FREQUENCY = "frequency";
+
+    public static final String RANK_BY_COST = "cost";
+
+    /**
+     * @param indexFolder the freshly built index
+     * @param queryLogFolder the folder of the query log, usually the folder of the index in use
+     * @param topQueries the number of queries to replay
+     * @param rankBy how the queries are ranked, {@link #RANK_BY_FREQUENCY} or {@link #RANK_BY_COST}
+     * @throws IllegalArgumentException if the queries can't be ranked by rankBy
+     */
+    public void run( Path indexFolder, Path queryLogFolder, int topQueries, String rankBy ) {
+        Comparator<LoggedQuery> order = getOrder( rankBy );
+        List<LoggedQuery> queries = new SearchQueryLog( queryLogFolder ).getTopQueries( topQueries, order );
+
+        System.out.println( String.format( "Replaying %d queries ranked by %s.", queries.size(), rankBy ) );
+
+        // the replayed queries must not be logged again
+        Search search = new Search( indexFolder, null );
+        new SearchPrewarmer( search ).prewarm( queries );
+    }
+
+    /**
+     * @param rankBy how the queries are ranked, {@link #RANK_BY_FREQUENCY} or {@link #RANK_BY_COST}
+     * @return the order of the logged queries
+     * @throws IllegalArgumentException if the queries can't be ranked by rankBy
+     */
+    static Comparator<LoggedQuery> getOrder( String rankBy ) {
+        if (RANK_BY_FREQUENCY.equalsIgnoreCase( rankBy )) {
+            return LoggedQuery.BY_FREQUENCY;
+        }
+        if (RANK_BY_COST.equalsIgnoreCase( rankBy )) {
+            return LoggedQuery.BY_COST;
+        }
+        throw new IllegalArgumentException( String.format( "The queries can't be ranked by '%s', use '%s' or '%s'.", rankBy, RANK_BY_FREQUENCY, RANK_BY_COST ) );
+    }
+
+    public static void main( String[] args ) {
+        int exitCode = new CommandLine( new SearchPrewarmMainParameters() ).execute( args );
+        System.exit( exitCode );
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.main;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+/**
+ * 
+ */
+public class SearchPrewarmMainParameters implements Callable<Integer> {
+
+    @Spec
+    private CommandSpec spec;
+
+    @Option( names = "--indexFolder", defaultValue = "D:\\Analysis\\CrawlerProjects\\IndexedNew", description = "The folder of the freshly built index." )
+    private Path indexFolder;
+
+    @Option( names = "--queryLogFolder", defaultValue = "D:\\Analysis\\CrawlerProjects\\Indexed", description = "The folder of the query log, usually the index in use." )
+    private Path queryLogFolder;
+
+    @Option( names = "--topQueries", defaultValue = "100", description = "The number of queries to replay." )
+    private int topQueries;
+
+    @Option( names = "--rankBy", defaultValue = SearchPrewarmMain.RANK_BY_FREQUENCY, description = "Rank the logged queries by 'frequency' or by 'cost' (total latency)." )
+    private String rankBy;
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        try {
+            SearchPrewarmMain.getOrder( rankBy );
+        }
+        catch (IllegalArgumentException e) {
+            throw new ParameterException( spec.commandLine(), e.getMessage() );
+        }
+
+        SearchPrewarmMain prewarmMain = new SearchPrewarmMain();
+        prewarmMain.run( indexFolder, queryLogFolder, topQueries, rankBy );
+        return 0;
+    }
+
+    /**
+     * @return the indexFolder
+     */
+    public Path getIndexFolder() {
+        return indexFolder;
+    }
+
+    /**
+     * @return the queryLogFolder
+     */
+    public Path getQueryLogFolder() {
+        return queryLogFolder;
+    }
+
+    /**
+     * @return the topQueries
+     */
+    public int getTopQueries() {
+        return topQueries;
+    }
+
+    /**
+     * @return the rankBy
+     */
+    public String getRankBy() {
+        return rankBy;
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.main;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+import de.mindscan.furiousiron.index.trigram.TieredMergePolicy;
+import picocli.CommandLine.Option;
+
+/**
+ * 
+ */
+public class TrigramGenerationMergeMainParameters implements Callable<Integer> {
+
+    @Option( names = "--crawlFolder", defaultValue = "D:\\Analysis\\CrawlerProjects\\IndexedNew\\inverseTrigram.index", description = "The trigrams folder to merge." )
+    private Path crawlFolder;
+
+    @Option( names = "--mergeFactor", defaultValue = "10", description = "The number of generations of the same tier, which are merged into one segment." )
+    private int mergeFactor;
+
+    @Option( names = "--floorSegmentKB", defaultValue = "64", description = "Generations below this size in kilobytes are treated as equally small." )
+    private long floorSegmentKB;
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        TrigramGenerationMergeMain mergeMain = new TrigramGenerationMergeMain();
+        mergeMain.run( crawlFolder, new TieredMergePolicy( mergeFactor, floorSegmentKB * 1024L ) );
+        return 0;
+    }
+
+    /**
+     * @return the crawlFolder
+     */
+    public Path getCrawlFolder() {
+        return crawlFolder;
+    }
+
+    /**
+     * @return the mergeFactor
+     */
+    public int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    /**
+     * @return the floorSegmentKB
+     */
+    public long getFloorSegmentKB() {
+        return floorSegmentKB;
+    }
+
+}
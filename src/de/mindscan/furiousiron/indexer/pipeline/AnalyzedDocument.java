@@ -0,0 +1,90 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.pipeline;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentMetadata;
+
+/**
+ * A document, which was read and tokenized, on its way through the indexing pipeline. 
+ */
+public class AnalyzedDocument {
+
+    private final Path fileToIndex;
+    private final DocumentId documentId;
+    private final DocumentMetadata documentMetadata;
+    private final ByteBuffer content;
+    private final Map<String, Integer> ttfList;
+    private final List<String> uniqueWordlist;
+
+    public AnalyzedDocument( Path fileToIndex, DocumentId documentId, DocumentMetadata documentMetadata, ByteBuffer content,
+                    Map<String, Integer> ttfList, List<String> uniqueWordlist ) {
+        this.fileToIndex = fileToIndex;
+        this.documentId = documentId;
+        this.documentMetadata = documentMetadata;
+        this.content = content;
+        this.ttfList = ttfList;
+        this.uniqueWordlist = uniqueWordlist;
+    }
+
+    public Path getFileToIndex() {
+        return fileToIndex;
+    }
+
+    public DocumentId getDocumentId() {
+        return documentId;
+    }
+
+    public DocumentMetadata getDocumentMetadata() {
+        return documentMetadata;
+    }
+
+    /**
+     * @return the content of the document as read from the file, the buffer must not be modified
+     */
+    public ByteBuffer getContent() {
+        return content;
+    }
+
+    public Map<String, Integer> getTtfList() {
+        return ttfList;
+    }
+
+    public Set<String> getUniqueTrigramlist() {
+        return ttfList.keySet();
+    }
+
+    public List<String> getUniqueWordlist() {
+        return uniqueWordlist;
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.pipeline;
+
+/**
+ * The worker counts and the queue capacity of the indexing pipeline. The inverse index is always 
+ * accumulated by a single writer, so it needs no worker count.
+ */
+public class IndexingPipelineConfiguration {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final int readerThreads;
+    private final int classifierThreads;
+    private final int cacheWriterThreads;
+    private final int queueCapacity;
+
+    public IndexingPipelineConfiguration() {
+        this( Runtime.getRuntime().availableProcessors(), 1, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY );
+    }
+
+    /**
+     * @param readerThreads number of threads reading and tokenizing the documents
+     * @param classifierThreads number of threads classifying the documents
+     * @param cacheWriterThreads number of threads writing the document, wordlist and metadata caches
+     * @param queueCapacity the maximum number of documents waiting in front of each stage
+     */
+    public IndexingPipelineConfiguration( int readerThreads, int classifierThreads, int cacheWriterThreads, int queueCapacity ) {
+        if (readerThreads < 1 || classifierThreads < 1 || cacheWriterThreads < 1) {
+            throw new IllegalArgumentException( "Each stage of the indexing pipeline needs at least one thread." );
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException( "The queue capacity must be positive, but was " + queueCapacity );
+        }
+
+        this.readerThreads = readerThreads;
+        this.classifierThreads = classifierThreads;
+        this.cacheWriterThreads = cacheWriterThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    public int getClassifierThreads() {
+        return classifierThreads;
+    }
+
+    public int getCacheWriterThreads() {
+        return cacheWriterThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.indexer.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A single stage of the indexing pipeline. The elements are handed to the stage through a bounded 
+ * queue and are processed by a fixed number of worker threads. A producer is blocked, when the queue
+ * is full, so a fast stage can't flood a slow stage with work.
+ * 
+ * A stage is shut down by {@link #finish()}, after all its producers finished. All elements put 
+ * before are processed.
+ * 
+ * @param <T> the type of the elements processed by this stage
+ */
+public class PipelineStage<T> {
+
+    // each worker stops, when it takes this element from the queue
+    private static final Object END_OF_STAGE = new Object();
+
+    private final String name;
+    private final int workerCount;
+    private final BlockingQueue<Object> queue;
+    private final List<Thread> workers;
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public PipelineStage( String name, int workerCount, int queueCapacity ) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException( "A pipeline stage needs at least one worker, but was " + workerCount );
+        }
+
+        this.name = name;
+        this.workerCount = workerCount;
+        this.queue = new ArrayBlockingQueue<>( queueCapacity );
+        this.workers = new ArrayList<>( workerCount );
+    }
+
+    /**
+     * Starts the worker threads of this stage.
+     * 
+     * @param processor processes a single element, exceptions are counted as failed elements and the worker continues. 
+     */
+    public void start( Consumer<T> processor ) {
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread( () -> processElements( processor ), name + "-" + i );
+            worker.setDaemon( true );
+            workers.add( worker );
+            worker.start();
+        }
+    }
+
+    /**
+     * Hands an element to this stage, blocks while the queue of this stage is full.
+     * 
+     * @param element the element to process
+     */
+    public void put( T element ) {
+        try {
+            queue.put( element );
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Signals that no more elements will be put into this stage and waits until all workers processed
+     * the remaining elements.
+     */
+    public void finish() {
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                queue.put( END_OF_STAGE );
+            }
+
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void processElements( Consumer<T> processor ) {
+        try {
+            while (true) {
+                Object element = queue.take();
+                if (element == END_OF_STAGE) {
+                    return;
+                }
+
+                try {
+                    processor.accept( (T) element );
+                    processedCount.incrementAndGet();
+                }
+                catch (Exception e) {
+                    // File should be appended again, if temporary problem or scheduled again for later indexing operation.
+                    failedCount.incrementAndGet();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
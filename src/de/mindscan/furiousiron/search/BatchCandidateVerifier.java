@@ -0,0 +1,109 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.search;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Verifies the candidates of the trigram intersection in one batch. The trigrams only tell, that a 
+ * document may contain the search term, each candidate must still be checked against its words. The
+ * candidates are split into ranges, which are verified in parallel on a fork-join pool.
+ */
+public class BatchCandidateVerifier {
+
+    // below this number of candidates a range is verified by a single task
+    public static final int DEFAULT_RANGE_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int rangeSize;
+
+    public BatchCandidateVerifier() {
+        this( ForkJoinPool.commonPool(), DEFAULT_RANGE_SIZE );
+    }
+
+    public BatchCandidateVerifier( ForkJoinPool pool, int rangeSize ) {
+        this.pool = pool;
+        this.rangeSize = Math.max( 1, rangeSize );
+    }
+
+    /**
+     * @param candidates the candidate documents
+     * @param documentVerifier tells, whether a candidate really matches, must be safe to be called concurrently
+     * @return the matching candidates
+     */
+    public DocumentBitmap verify( DocumentBitmap candidates, IntPredicate documentVerifier ) {
+        int[] candidateOrdinals = candidates.toSortedOrdinals();
+        if (candidateOrdinals.length <= rangeSize) {
+            return new VerifyRangeTask( candidateOrdinals, 0, candidateOrdinals.length, documentVerifier ).compute();
+        }
+        return pool.invoke( new VerifyRangeTask( candidateOrdinals, 0, candidateOrdinals.length, documentVerifier ) );
+    }
+
+    private class VerifyRangeTask extends RecursiveTask<DocumentBitmap> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] candidateOrdinals;
+        private final int from;
+        private final int to;
+        private final transient IntPredicate documentVerifier;
+
+        VerifyRangeTask( int[] candidateOrdinals, int from, int to, IntPredicate documentVerifier ) {
+            this.candidateOrdinals = candidateOrdinals;
+            this.from = from;
+            this.to = to;
+            this.documentVerifier = documentVerifier;
+        }
+
+        /** 
+         * {@inheritDoc}
+         */
+        @Override
+        protected DocumentBitmap compute() {
+            if (to - from <= rangeSize) {
+                DocumentBitmap matchingOrdinals = new DocumentBitmap();
+                for (int i = from; i < to; i++) {
+                    if (documentVerifier.test( candidateOrdinals[i] )) {
+                        matchingOrdinals.add( candidateOrdinals[i] );
+                    }
+                }
+                return matchingOrdinals;
+            }
+
+            int middle = (from + to) >>> 1;
+            VerifyRangeTask lowerRange = new VerifyRangeTask( candidateOrdinals, from, middle, documentVerifier );
+            VerifyRangeTask upperRange = new VerifyRangeTask( candidateOrdinals, middle, to, documentVerifier );
+            lowerRange.fork();
+            DocumentBitmap upperResult = upperRange.compute();
+            return lowerRange.join().or( upperResult );
+        }
+    }
+
+}
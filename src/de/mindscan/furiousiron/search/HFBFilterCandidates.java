@@ -0,0 +1,108 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.search;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.hfb.HFBFilterBank;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * The candidate documents of a metadata search, which are reduced by the hfb filters of the query 
+ * trigrams. The hfb filters test the numeric value of a document key, so the document key of each 
+ * candidate is converted into its numeric value only once per query, instead of once per trigram. 
+ * Retaining the candidates compacts the arrays in place, so the filter checks don't allocate.
+ */
+class HFBFilterCandidates {
+
+    private final int[] ordinals;
+    private final BigInteger[] numericDocumentKeys;
+    private int size;
+
+    private HFBFilterCandidates( int capacity ) {
+        this.ordinals = new int[capacity];
+        this.numericDocumentKeys = new BigInteger[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param candidates the candidate documents
+     * @param documentOrdinals the dictionary to translate the ordinals into document keys
+     * @return the candidates, without the removed or reindexed documents
+     */
+    public static HFBFilterCandidates of( DocumentBitmap candidates, DocumentOrdinalDictionary documentOrdinals ) {
+        int[] candidateOrdinals = candidates.toSortedOrdinals();
+        HFBFilterCandidates result = new HFBFilterCandidates( candidateOrdinals.length );
+
+        for (int documentOrdinal : candidateOrdinals) {
+            String documentId = documentOrdinals.getDocumentKey( documentOrdinal );
+            if (documentId == null) {
+                // removed or reindexed document
+                continue;
+            }
+            result.ordinals[result.size] = documentOrdinal;
+            result.numericDocumentKeys[result.size] = new BigInteger( documentId, 16 );
+            result.size++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Retains the candidates, which pass the filter bank.
+     * 
+     * @param filterBank the hfb filter bank of a trigram
+     */
+    public void retain( HFBFilterBank filterBank ) {
+        int retained = 0;
+        for (int i = 0; i < size; i++) {
+            if (filterBank.containsDocumentId( numericDocumentKeys[i] )) {
+                ordinals[retained] = ordinals[i];
+                numericDocumentKeys[retained] = numericDocumentKeys[i];
+                retained++;
+            }
+        }
+
+        // release the keys of the rejected candidates
+        for (int i = retained; i < size; i++) {
+            numericDocumentKeys[i] = null;
+        }
+
+        size = retained;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public DocumentBitmap toDocumentBitmap() {
+        // the retained ordinals keep their order
+        return DocumentBitmap.fromSortedOrdinals( Arrays.copyOf( ordinals, size ) );
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.search;
+
+import java.util.Comparator;
+
+/**
+ * The aggregated entries of the search query log for one query.
+ */
+public class LoggedQuery {
+
+    // the most frequent queries first
+    public static final Comparator<LoggedQuery> BY_FREQUENCY = Comparator.comparingLong( LoggedQuery::getCount ).reversed()
+                    .thenComparing( Comparator.comparingLong( LoggedQuery::getTotalLatencyMicros ).reversed() );
+
+    // the queries, which took the most time altogether first
+    public static final Comparator<LoggedQuery> BY_COST = Comparator.comparingLong( LoggedQuery::getTotalLatencyMicros ).reversed()
+                    .thenComparing( Comparator.comparingLong( LoggedQuery::getCount ).reversed() );
+
+    private final String kind;
+    private final String query;
+
+    private long count;
+    private long totalLatencyMicros;
+    private long maxLatencyMicros;
+    private int lastResultCount;
+
+    LoggedQuery( String kind, String query ) {
+        this.kind = kind;
+        this.query = query;
+    }
+
+    void add( long latencyMicros, int resultCount ) {
+        count++;
+        totalLatencyMicros += latencyMicros;
+        maxLatencyMicros = Math.max( maxLatencyMicros, latencyMicros );
+        lastResultCount = resultCount;
+    }
+
+    /**
+     * @return the kind of the search, e.g. {@link SearchQueryLog#CONTENT_SEARCH}
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the normalised query
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalLatencyMicros() {
+        return totalLatencyMicros;
+    }
+
+    public long getMaxLatencyMicros() {
+        return maxLatencyMicros;
+    }
+
+    public long getAverageLatencyMicros() {
+        return (count == 0) ? 0L : totalLatencyMicros / count;
+    }
+
+    public int getLastResultCount() {
+        return lastResultCount;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format( "%s:'%s' count=%d avg=%dus max=%dus results=%d", kind, query, count, getAverageLatencyMicros(), maxLatencyMicros,
+                        lastResultCount );
+    }
+
+}
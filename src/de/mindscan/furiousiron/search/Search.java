@@ -30,11 +30,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -43,30 +43,61 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import de.mindscan.furiousiron.core.plan.QueryPlan;
+import de.mindscan.furiousiron.core.plan.QueryPlanner;
 import de.mindscan.furiousiron.document.DocumentId;
 import de.mindscan.furiousiron.document.DocumentIdFactory;
-import de.mindscan.furiousiron.hfb.HFBFilterBank;
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.DeletedDocuments;
 import de.mindscan.furiousiron.index.cache.DocumentCache;
 import de.mindscan.furiousiron.index.cache.MetadataCache;
 import de.mindscan.furiousiron.index.cache.SearchQueryCache;
 import de.mindscan.furiousiron.index.cache.WordlistCache;
 import de.mindscan.furiousiron.index.hfb.SearchMetadataHFBFilterIndex;
+import de.mindscan.furiousiron.index.metadata.ColumnarMetadataReader;
+import de.mindscan.furiousiron.index.pack.DocumentPackReader;
+import de.mindscan.furiousiron.index.positional.PhraseMatcher;
+import de.mindscan.furiousiron.index.positional.PositionalTrigramIndexReader;
+import de.mindscan.furiousiron.index.words.DocumentWordsReader;
+import de.mindscan.furiousiron.index.trigram.AsyncTrigramFetcher;
+import de.mindscan.furiousiron.index.trigram.PostingListPrefetch;
 import de.mindscan.furiousiron.index.trigram.SearchMetadataTrigramIndex;
 import de.mindscan.furiousiron.index.trigram.SearchTrigramIndex;
 import de.mindscan.furiousiron.index.trigram.TrigramOccurrence;
 import de.mindscan.furiousiron.index.trigram.TrigramUsage;
 import de.mindscan.furiousiron.index.trigram.TrigramUsage.TrigramUsageState;
+import de.mindscan.furiousiron.index.posting.SortedOrdinalsUnion;
 import de.mindscan.furiousiron.indexer.SimpleWordUtils;
+import de.mindscan.furiousiron.query.ast.AndNode;
+import de.mindscan.furiousiron.query.ast.ExactMatchingTextNode;
+import de.mindscan.furiousiron.query.ast.ExcludingNode;
+import de.mindscan.furiousiron.query.ast.IncludingNode;
+import de.mindscan.furiousiron.query.ast.OrNode;
+import de.mindscan.furiousiron.query.ast.QueryNode;
+import de.mindscan.furiousiron.query.ast.TextNode;
 import de.mindscan.furiousiron.util.StopWatch;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+import de.mindscan.furiousiron.util.cache.CacheStatistics;
 
 /**
  * 
  */
 public class Search {
 
+    // if the posting list is this many times larger than the candidate set, the candidates are looked up 
+    private static final int GALLOPING_INTERSECTION_RATIO = 8;
+
+    // number of posting lists read in advance, while the candidates are intersected
+    private static final int POSTING_LIST_PREFETCH_DEPTH = 2;
+
+    // the fetch threads are shared by all searches, like the common pool of the candidate verifier
+    private static final AsyncTrigramFetcher SHARED_TRIGRAM_FETCHER = new AsyncTrigramFetcher();
+
     // for content search
     private final DocumentCache theFileCache;
     // for ranking
@@ -81,6 +112,25 @@ public class Search {
     private final SearchMetadataHFBFilterIndex theSearchMetadataHFBFilterIndex;
     // for performance
     private final SearchQueryCache theSearchQueryCache;
+    // for translating the document ordinals back into document keys
+    private final DocumentOrdinalDictionary theDocumentOrdinals;
+    // for content access without a file per document, null if the documents are not packed
+    private final DocumentPackReader theDocumentPacks;
+    // for reading the metadata of many documents without a file per document, null if there is no columnar metadata store
+    private final ColumnarMetadataReader theMetadataColumns;
+    // for verifying the candidates without reading their wordlists, null if there is no document words store
+    private final DocumentWordsReader theDocumentWords;
+    private final BatchCandidateVerifier theCandidateVerifier;
+    // for phrase queries without reading the content of the candidates, null if there is no positional trigram index
+    private final PositionalTrigramIndexReader thePositionalIndex;
+    // for reading the trigram counts and posting lists in the background
+    private final AsyncTrigramFetcher theTrigramFetcher;
+    // for planning and executing queries with their boolean structure
+    private final SearchQueryPlanContext thePlanContext;
+    // records the executed searches, null if the searches are not logged
+    private final SearchQueryLog theQueryLog;
+    // the ordinals of deleted documents, which are still contained in the posting lists
+    private final DeletedDocuments theDeletedDocuments;
 
     private SearchExecutionDetails searchDetails;
     private SearchExecutionDetails metadataSearchDetails;
@@ -91,11 +141,32 @@ public class Search {
      * @param indexFolder The folder, where the index root is located
      */
     public Search( Path indexFolder ) {
+        this( indexFolder, new SearchQueryLog( indexFolder ) );
+    }
+
+    /**
+     * Ctor.
+     * 
+     * @param indexFolder The folder, where the index root is located
+     * @param queryLog The log for the executed searches, <code>null</code> if the searches should not be logged
+     */
+    public Search( Path indexFolder, SearchQueryLog queryLog ) {
+        theQueryLog = queryLog;
         theFileCache = new DocumentCache( indexFolder );
         theMetadataCache = new MetadataCache( indexFolder );
         theWordlistCache = new WordlistCache( indexFolder );
-        theSearchTrigramIndex = new SearchTrigramIndex( indexFolder );
-        theSearchMetadataTrigramIndex = new SearchMetadataTrigramIndex( indexFolder );
+        theDocumentOrdinals = DocumentOrdinalDictionary.loadOrCreate( indexFolder );
+        theDeletedDocuments = DeletedDocuments.loadOrCreate( indexFolder );
+        theDocumentPacks = openDocumentPacks( indexFolder );
+        theMetadataColumns = openMetadataColumns( indexFolder );
+        theDocumentWords = openDocumentWords( indexFolder );
+        theCandidateVerifier = new BatchCandidateVerifier();
+        thePositionalIndex = openPositionalIndex( indexFolder );
+        theTrigramFetcher = SHARED_TRIGRAM_FETCHER;
+        theSearchTrigramIndex = new SearchTrigramIndex( indexFolder, theDocumentOrdinals );
+        theSearchMetadataTrigramIndex = new SearchMetadataTrigramIndex( indexFolder, theDocumentOrdinals );
+        thePlanContext = new SearchQueryPlanContext( theSearchTrigramIndex, theSearchMetadataTrigramIndex, theTrigramFetcher, theDocumentOrdinals,
+                        theDeletedDocuments, theDocumentWords, theCandidateVerifier, thePositionalIndex );
         theSearchMetadataHFBFilterIndex = new SearchMetadataHFBFilterIndex( indexFolder );
         theSearchQueryCache = new SearchQueryCache( indexFolder );
 
@@ -108,25 +179,34 @@ public class Search {
      * @return the collection of documents
      */
     public Collection<SearchResultCandidates> search( String searchterm ) {
+        return search( searchterm, Integer.MAX_VALUE );
+    }
+
+    /**
+     * The candidates are verified in one batch, the metadata and the wordlists are only loaded for the 
+     * returned documents and only when they are accessed.
+     * 
+     * @param searchterm the searchterm to search for in the index.
+     * @param maxResults the maximum number of documents to return, e.g. the number of displayed results
+     * @return the first matching documents in the order of their ordinals
+     */
+    public List<SearchResultCandidates> search( String searchterm, int maxResults ) {
+        long startTime = System.nanoTime();
+
         // assume current search term is exactly one word.
         String processedSearchTerm = searchterm.toLowerCase();
 
-        // extract words from searchterm 
-        Collection<String> uniqueTrigramsFromWord = SimpleWordUtils.getUniqueTrigramsFromWord( processedSearchTerm );
-
-        Set<String> documentIdsForOneWord = collectDocumentIdsForTrigramsOpt( uniqueTrigramsFromWord );
+        DocumentBitmap verifiedDocuments = collectVerifiedDocuments( processedSearchTerm );
 
-        // check, that a word is part of a page
         List<SearchResultCandidates> searchResult = new ArrayList<>();
-        // convert these into a List of searchResultCandidate
-        for (String documentId : documentIdsForOneWord) {
-            SearchResultCandidates candidate = new SearchResultCandidates( documentId );
-            candidate.loadFrom( theMetadataCache, theWordlistCache );
-            if (candidate.containsWord( processedSearchTerm )) {
-                searchResult.add( candidate );
+        for (int documentOrdinal : verifiedDocuments.toSortedOrdinals()) {
+            if (searchResult.size() >= maxResults) {
+                break;
             }
+            searchResult.add( createCandidate( documentOrdinal, theDocumentOrdinals.getDocumentKey( documentOrdinal ) ) );
         }
 
+        logSearch( SearchQueryLog.CONTENT_SEARCH, searchterm, startTime, verifiedDocuments.getCardinality() );
         return searchResult;
     }
 
@@ -135,40 +215,94 @@ public class Search {
      * @return a map of documents
      */
     public Map<String, SearchResultCandidates> searchToMap( String searchterm ) {
+        long startTime = System.nanoTime();
+
         // assume current search term is exactly one word.
         String processedSearchTerm = searchterm.toLowerCase();
 
+        DocumentBitmap verifiedDocuments = collectVerifiedDocuments( processedSearchTerm );
+
+        Map<String, SearchResultCandidates> searchResult = new HashMap<>();
+        for (int documentOrdinal : verifiedDocuments.toSortedOrdinals()) {
+            String documentId = theDocumentOrdinals.getDocumentKey( documentOrdinal );
+            searchResult.put( documentId, createCandidate( documentOrdinal, documentId ) );
+        }
+
+        logSearch( SearchQueryLog.CONTENT_SEARCH, searchterm, startTime, searchResult.size() );
+        return searchResult;
+    }
+
+    private void logSearch( String kind, String searchterm, long startTime, int resultCount ) {
+        if (theQueryLog != null) {
+            theQueryLog.record( kind, searchterm, (System.nanoTime() - startTime) / 1000L, resultCount );
+        }
+    }
+
+    /**
+     * Collects the candidates for the search term from the trigram index and verifies them, whether one of 
+     * their words, their filename or their path really contains the search term.
+     * 
+     * @param processedSearchTerm the lower case search term
+     * @return the ordinals of the matching documents
+     */
+    private DocumentBitmap collectVerifiedDocuments( String processedSearchTerm ) {
         // extract words from searchterm 
         Collection<String> uniqueTrigramsFromWord = SimpleWordUtils.getUniqueTrigramsFromWord( processedSearchTerm );
 
-        Set<String> documentIdsForOneWord = collectDocumentIdsForTrigramsOpt( uniqueTrigramsFromWord );
+        DocumentBitmap documentsForOneWord = collectDocumentBitmapForTrigramsOpt( uniqueTrigramsFromWord );
 
-        // check, that a word is part of a page
-        Map<String, SearchResultCandidates> searchResult = new HashMap<>();
-        // convert these into a List of searchResultCandidate
-        for (String documentId : documentIdsForOneWord) {
-            SearchResultCandidates candidate = new SearchResultCandidates( documentId );
-            candidate.loadFrom( theMetadataCache, theWordlistCache );
-            if (candidate.containsWord( processedSearchTerm )) {
-                searchResult.put( documentId, candidate );
+        // the search term is resolved only once against the words of all documents
+        BitSet matchingWordIds = (theDocumentWords != null) ? theDocumentWords.findWordsContaining( processedSearchTerm ) : null;
+
+        return theCandidateVerifier.verify( documentsForOneWord, documentOrdinal -> verifyCandidate( documentOrdinal, processedSearchTerm, matchingWordIds ) );
+    }
+
+    private boolean verifyCandidate( int documentOrdinal, String processedSearchTerm, BitSet matchingWordIds ) {
+        String documentKey = theDocumentOrdinals.getDocumentKey( documentOrdinal );
+        if (documentKey == null) {
+            // removed or reindexed document
+            return false;
+        }
+
+        if (matchingWordIds != null && theDocumentWords.contains( documentOrdinal )) {
+            if (theDocumentWords.containsAnyWord( documentOrdinal, matchingWordIds )) {
+                return true;
             }
+
+            // the search term may still be part of the filename or the path
+            DocumentMetadata documentMetadata = loadMetadata( documentOrdinal, documentKey );
+            return documentMetadata != null && (documentMetadata.getDocumentSimpleName().toLowerCase().contains( processedSearchTerm )
+                            || documentMetadata.getRelativePath().toLowerCase().contains( processedSearchTerm ));
         }
 
-        return searchResult;
+        // documents which were indexed after the store was built, are verified with their cached wordlist
+        return createCandidate( documentOrdinal, documentKey ).containsWord( processedSearchTerm );
+    }
+
+    private SearchResultCandidates createCandidate( int documentOrdinal, String documentKey ) {
+        return new SearchResultCandidates( documentKey, () -> loadMetadata( documentOrdinal, documentKey ),
+                        () -> theWordlistCache.loadWordList( documentKey ) );
     }
 
     public Map<String, SearchResultCandidates> searchMetadataToMap( String metadatasearchterm ) {
+        long startTime = System.nanoTime();
+
         // assume current search term is exactly one word.
         String processedSearchTerm = metadatasearchterm.toLowerCase();
 
         // extract word  from searchterm 
         Collection<String> uniqueTrigramsFromWord = SimpleWordUtils.getUniqueTrigramsFromWord( processedSearchTerm );
 
-        Set<String> documentIdsForOneWord = collectDocumentIdsForMetadataTrigramsOptV2( uniqueTrigramsFromWord );
+        DocumentBitmap documentsForOneWord = collectDocumentBitmapForMetadataTrigramsOptV2( uniqueTrigramsFromWord );
 
         // check, that a word is part of a page
         Map<String, SearchResultCandidates> searchResult = new HashMap<>();
-        for (String documentId : documentIdsForOneWord) {
+        for (int documentOrdinal : documentsForOneWord.toSortedOrdinals()) {
+            String documentId = theDocumentOrdinals.getDocumentKey( documentOrdinal );
+            if (documentId == null) {
+                // removed or reindexed document
+                continue;
+            }
             SearchResultCandidates candidate = new SearchResultCandidates( documentId );
 
             // TODO: i would like to check the metadata values, but this might be way too many documents.
@@ -177,6 +311,7 @@ public class Search {
             searchResult.put( documentId, candidate );
         }
 
+        logSearch( SearchQueryLog.METADATA_SEARCH, metadatasearchterm, startTime, searchResult.size() );
         return searchResult;
     }
 
@@ -187,7 +322,17 @@ public class Search {
      * @return
      */
     public Set<String> collectDocumentIdsForTrigramsOpt( Collection<String> uniqueTrigramsFromWord ) {
-        HashSet<String> resultSet = new HashSet<String>();
+        return toDocumentKeys( collectDocumentBitmapForTrigramsOpt( uniqueTrigramsFromWord ) );
+    }
+
+    /**
+     * Same as {@link #collectDocumentIdsForTrigramsOpt(Collection)}, but the candidates are kept as a compressed
+     * bitmap of document ordinals. 
+     * @param uniqueTrigramsFromWord
+     * @return
+     */
+    public DocumentBitmap collectDocumentBitmapForTrigramsOpt( Collection<String> uniqueTrigramsFromWord ) {
+        DocumentBitmap resultSet = new DocumentBitmap();
         List<TrigramUsage> trigramUsage = new ArrayList<>( uniqueTrigramsFromWord.size() );
 
         List<TrigramOccurrence> sortedTrigramOccurrences = getTrigramOccurrencesSortedByOccurrence( uniqueTrigramsFromWord );
@@ -203,51 +348,58 @@ public class Search {
 
         StopWatch retainAllStopWatch = StopWatch.createStarted();
 
+        // the posting lists of the next trigrams are read, while the candidates are intersected 
+        PostingListPrefetch prefetch = theTrigramFetcher.startPrefetch( theSearchTrigramIndex::getDocumentOrdinalsForTrigram );
+        int position = 0;
+
         // fill resultSet with first document list (shortest), it will only get shorter 
         Iterator<TrigramOccurrence> collectedOccurencesIterator = sortedTrigramOccurrences.iterator();
         if (collectedOccurencesIterator.hasNext()) {
             TrigramOccurrence firstTrigramOccurence = collectedOccurencesIterator.next();
-            resultSet = new HashSet<String>( getDocumentsForTrigram( firstTrigramOccurence.getTrigram() ) );
+            position++;
+            prefetchPostingLists( prefetch, sortedTrigramOccurrences, position, firstTrigramOccurence.getOccurrenceCount() );
+
+            resultSet = removeDeletedDocuments( DocumentBitmap.fromSortedOrdinals( prefetch.get( firstTrigramOccurence.getTrigram() ) ) );
 
             trigramUsage.add( new TrigramUsage( firstTrigramOccurence, TrigramUsageState.SUCCESS ) );
             previousSetSize = firstTrigramOccurence.getOccurrenceCount();
 
-            System.out.println( "Reduction starts from: " + resultSet.size() + " for " + firstTrigramOccurence.getTrigram() );
+            System.out.println( "Reduction starts from: " + resultSet.getCardinality() + " for " + firstTrigramOccurence.getTrigram() );
         }
 
-        // we make at least one round of reducing the number of document candidates by combining the set of 
-        // the first and second trigram's associated documents and continue until it becomes inefficient
+        // we reduce the number of document candidates by combining the candidates with every other trigram's 
+        // associated documents, until no candidate is left.
         while (collectedOccurencesIterator.hasNext()) {
             TrigramOccurrence trigram = collectedOccurencesIterator.next();
-
-            Collection<String> documentIds = theSearchTrigramIndex.getDocumentIdsForTrigram( trigram.getTrigram() );
-
-            // At the moment this code is fast enough. the only bottleneck is to load
-            // the json documents from disk. The retainall operation is not that slow,
-            // as i was expecting.
+            position++;
+            prefetchPostingLists( prefetch, sortedTrigramOccurrences, position, resultSet.getCardinality() );
 
             // sorting trigrams leads to a highly imbalanced (retain) comparison, 
             // resultSet will become smaller and smaller and the documentIds are becoming bigger and bigger.
-            // so it might be important to optimize this implementation?
-
-            // in case of majority of time consumed here, this retainAll operation has to be switched to a 
-            // more efficient mode e.g. Skiplists or we are looking for each resultset-item via a bloomfilter
-            // in documentIds-Collection, where the documentIds are the bloomfilter-hashed eleemnts.
+            // In that case the candidates are looked up in the posting lists using the skip tables, so only
+            // the segments containing candidates are decoded and every trigram can be applied cheaply.
 
-            resultSet.retainAll( documentIds );
-            int remainingSetSize = resultSet.size();
+            if (isGallopingIntersectionPreferred( resultSet, trigram ) && !prefetch.isRequested( trigram.getTrigram() )) {
+                resultSet = theSearchTrigramIndex.retainDocumentsContainingTrigram( resultSet, trigram.getTrigram() );
+            }
+            else {
+                resultSet = resultSet.and( DocumentBitmap.fromSortedOrdinals( prefetch.get( trigram.getTrigram() ) ) );
+            }
+            int remainingSetSize = resultSet.getCardinality();
 
             trigramUsage.add( getTrigramUsageByReduction( trigram, remainingSetSize < previousSetSize ) );
 
             System.out.println( "Reduction to: " + remainingSetSize + " using trigram: " + trigram.getTrigram() );
 
-            if (trigram.getOccurrenceCount() > (48 * remainingSetSize)) {
-                // stop if it is too unbalanced... we probably already are in X+10% range of maximal search results
+            if (remainingSetSize == 0) {
+                // nothing left to reduce
                 break;
             }
 
             previousSetSize = remainingSetSize;
         }
+        // the posting lists of the skipped trigrams are not needed anymore
+        prefetch.cancel();
         retainAllStopWatch.stop();
 
         List<TrigramOccurrence> skippedTrigrams = new ArrayList<>();
@@ -266,9 +418,182 @@ public class Search {
         return resultSet;
     }
 
+    /**
+     * Plans the query with its boolean structure, the operators are ordered and their strategies are 
+     * chosen using the document counts of the trigrams. Use {@link QueryPlan#explain()} to see the plan.
+     * 
+     * @param ast the semantic search tree
+     * @return the query plan
+     */
+    public QueryPlan planQuery( QueryNode ast ) {
+        return new QueryPlanner( thePlanContext ).plan( ast );
+    }
+
+    /**
+     * Executes the query plan. Like the trigram search, a query without any trigram doesn't produce 
+     * candidates.
+     * 
+     * @param plan the query plan
+     * @return the candidate documents
+     */
+    public DocumentBitmap collectDocumentBitmapForQueryPlan( QueryPlan plan ) {
+        if (plan.isUnrestricted()) {
+            return new DocumentBitmap();
+        }
+
+        StopWatch executionStopWatch = StopWatch.createStarted();
+        DocumentBitmap resultSet = removeDeletedDocuments( plan.execute( thePlanContext ) );
+        executionStopWatch.stop();
+
+        System.out.println( "Query plan:\n" + plan.explain() );
+        System.out.println( "Time to execute the query plan: " + (executionStopWatch.getElapsedTime()) );
+
+        return resultSet;
+    }
+
+    public Set<String> collectDocumentIdsForQuery( QueryNode ast ) {
+        return toDocumentKeys( collectDocumentBitmapForQueryPlan( planQuery( ast ) ) );
+    }
+
+    /**
+     * Searches the documents matching the query. The candidates of the query plan are verified against 
+     * the words of each document, the terms of the query are resolved only once against the words of 
+     * all documents.
+     * 
+     * If the query is a sparse union, e.g. <code>foo OR bar</code>, the alternatives are merged lazily 
+     * and merging and verifying stops, once there are enough results.
+     * 
+     * @param ast the semantic search tree
+     * @param maxResults the maximum number of results
+     * @return the matching documents in the order of their ordinals
+     */
+    public List<SearchResultCandidates> searchQuery( QueryNode ast, int maxResults ) {
+        List<SearchResultCandidates> searchResult = new ArrayList<>();
+
+        QueryPlan plan = planQuery( ast );
+        if (plan.isUnrestricted()) {
+            return searchResult;
+        }
+
+        Map<String, BitSet> matchingWordIds = new ConcurrentHashMap<>();
+        Map<String, DocumentBitmap> matchingPhrases = new ConcurrentHashMap<>();
+
+        if (plan.isIterable()) {
+            SortedOrdinalsUnion candidates = plan.iterate( thePlanContext );
+            for (int documentOrdinal = candidates.next(); documentOrdinal != SortedOrdinalsUnion.NO_MORE_ORDINALS
+                            && searchResult.size() < maxResults; documentOrdinal = candidates.next()) {
+                if (!theDeletedDocuments.isDeleted( documentOrdinal ) && verifyQueryCandidate( documentOrdinal, ast, matchingWordIds, matchingPhrases )) {
+                    searchResult.add( createCandidate( documentOrdinal, theDocumentOrdinals.getDocumentKey( documentOrdinal ) ) );
+                }
+            }
+            return searchResult;
+        }
+
+        DocumentBitmap candidates = collectDocumentBitmapForQueryPlan( plan );
+        DocumentBitmap verifiedDocuments = theCandidateVerifier.verify( candidates,
+                        documentOrdinal -> verifyQueryCandidate( documentOrdinal, ast, matchingWordIds, matchingPhrases ) );
+
+        for (int documentOrdinal : verifiedDocuments.toSortedOrdinals()) {
+            if (searchResult.size() >= maxResults) {
+                break;
+            }
+            searchResult.add( createCandidate( documentOrdinal, theDocumentOrdinals.getDocumentKey( documentOrdinal ) ) );
+        }
+
+        return searchResult;
+    }
+
+    private boolean verifyQueryCandidate( int documentOrdinal, QueryNode ast, Map<String, BitSet> matchingWordIds, Map<String, DocumentBitmap> matchingPhrases ) {
+        if (theDocumentOrdinals.getDocumentKey( documentOrdinal ) == null) {
+            // removed or reindexed document
+            return false;
+        }
+        return verifyQuery( documentOrdinal, ast, matchingWordIds, matchingPhrases );
+    }
+
+    private boolean verifyQuery( int documentOrdinal, QueryNode ast, Map<String, BitSet> matchingWordIds, Map<String, DocumentBitmap> matchingPhrases ) {
+        if (ast instanceof ExactMatchingTextNode && ((ExactMatchingTextNode) ast).isPhrase()) {
+            return verifyPhrase( documentOrdinal, ast.getContent().toLowerCase(), matchingPhrases );
+        }
+
+        if (ast instanceof TextNode || ast instanceof ExactMatchingTextNode) {
+            String processedSearchTerm = ast.getContent().toLowerCase();
+            return verifyCandidate( documentOrdinal, processedSearchTerm, getMatchingWordIds( processedSearchTerm, matchingWordIds ) );
+        }
+
+        if (ast instanceof AndNode || ast instanceof IncludingNode) {
+            for (QueryNode queryNode : ast.getChildren()) {
+                if (!verifyQuery( documentOrdinal, queryNode, matchingWordIds, matchingPhrases )) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (ast instanceof OrNode) {
+            for (QueryNode queryNode : ast.getChildren()) {
+                if (verifyQuery( documentOrdinal, queryNode, matchingWordIds, matchingPhrases )) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (ast instanceof ExcludingNode) {
+            for (QueryNode queryNode : ast.getChildren()) {
+                if (verifyQuery( documentOrdinal, queryNode, matchingWordIds, matchingPhrases )) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // empty nodes and metadata values are not verified, like in the metadata search
+        return true;
+    }
+
+    /**
+     * A phrase can't be verified by the words of a document. The phrase is looked up in the positional 
+     * trigram index once, only documents without recorded positions are verified by their content.
+     */
+    private boolean verifyPhrase( int documentOrdinal, String phrase, Map<String, DocumentBitmap> matchingPhrases ) {
+        if (thePositionalIndex != null && thePositionalIndex.contains( documentOrdinal ) && phrase.length() >= PhraseMatcher.MIN_PHRASE_LENGTH) {
+            return matchingPhrases.computeIfAbsent( phrase, this::findDocumentsContainingPhrase ).contains( documentOrdinal );
+        }
+
+        // like the content trigrams, the phrase is searched within the trimmed lower case lines
+        for (String line : getDocumentContentLines( theDocumentOrdinals.getDocumentKey( documentOrdinal ) )) {
+            if (line.trim().toLowerCase().contains( phrase )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DocumentBitmap findDocumentsContainingPhrase( String phrase ) {
+        try {
+            return PhraseMatcher.findDocuments( thePositionalIndex, phrase, null );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new DocumentBitmap();
+    }
+
+    private BitSet getMatchingWordIds( String processedSearchTerm, Map<String, BitSet> matchingWordIds ) {
+        if (theDocumentWords == null) {
+            return null;
+        }
+        return matchingWordIds.computeIfAbsent( processedSearchTerm, theDocumentWords::findWordsContaining );
+    }
+
     // implementation of search algorithm on metadata using same idea as in collectDocumentIdsForTrigramOpt 
     public Set<String> collectDocumentIdsForMetadataTrigramsOpt( Collection<String> uniqueTrigramsFromWord ) {
-        HashSet<String> resultSet = new HashSet<String>();
+        return toDocumentKeys( collectDocumentBitmapForMetadataTrigramsOpt( uniqueTrigramsFromWord ) );
+    }
+
+    public DocumentBitmap collectDocumentBitmapForMetadataTrigramsOpt( Collection<String> uniqueTrigramsFromWord ) {
+        DocumentBitmap resultSet = new DocumentBitmap();
         List<TrigramUsage> trigramUsage = new ArrayList<>( uniqueTrigramsFromWord.size() );
 
         List<TrigramOccurrence> sortedMetadataTrigramOccurrences = getMetadataTrigramOccurrencesSortedByOccurrence( uniqueTrigramsFromWord );
@@ -284,52 +609,59 @@ public class Search {
 
         StopWatch retainAllStopWatch = StopWatch.createStarted();
 
+        // the posting lists of the next trigrams are read, while the candidates are intersected 
+        PostingListPrefetch prefetch = theTrigramFetcher.startPrefetch( theSearchMetadataTrigramIndex::getDocumentOrdinalsForTrigram );
+        int position = 0;
+
         // fill resultSet with first document list (shortest), it will only get shorter 
         Iterator<TrigramOccurrence> collectedOccurencesIterator = sortedMetadataTrigramOccurrences.iterator();
         if (collectedOccurencesIterator.hasNext()) {
             TrigramOccurrence firstTrigramOccurence = collectedOccurencesIterator.next();
-            resultSet = new HashSet<String>( getDocumentsForMetadataTrigram( firstTrigramOccurence.getTrigram() ) );
+            position++;
+            prefetchPostingLists( prefetch, sortedMetadataTrigramOccurrences, position, firstTrigramOccurence.getOccurrenceCount() );
+
+            resultSet = removeDeletedDocuments( DocumentBitmap.fromSortedOrdinals( prefetch.get( firstTrigramOccurence.getTrigram() ) ) );
 
             trigramUsage.add( new TrigramUsage( firstTrigramOccurence, TrigramUsageState.SUCCESS ) );
             previousSetSize = firstTrigramOccurence.getOccurrenceCount();
 
-            System.out.println( "Reduction starts from: " + resultSet.size() + " elements for " + firstTrigramOccurence.getTrigram() );
+            System.out.println( "Reduction starts from: " + resultSet.getCardinality() + " elements for " + firstTrigramOccurence.getTrigram() );
         }
 
-        // we make at least one round of reducing the number of document candidates by combining the set of 
-        // the first and second trigram's associated documents and continue until it becomes inefficient
+        // we reduce the number of document candidates by combining the candidates with every other trigram's 
+        // associated documents, until no candidate is left.
         while (collectedOccurencesIterator.hasNext()) {
             TrigramOccurrence trigram = collectedOccurencesIterator.next();
-
-            Collection<String> documentIds = getDocumentsForMetadataTrigram( trigram.getTrigram() );
-
-            // At the moment this code is fast enough. the only bottleneck is to load
-            // the json documents from disk. The retainall operation is not that slow,
-            // as i was expecting.
+            position++;
+            prefetchPostingLists( prefetch, sortedMetadataTrigramOccurrences, position, resultSet.getCardinality() );
 
             // using sorted trigrams leads to a highly unbalanced (retain) comparison, (the first two or 
             // three retain operations will do most of the heavy lifting, at the same time, the resultSet
             // will become smaller and smaller and the listsize of documentIds is becoming bigger and bigger.
-            // So most of the time we can just skip the loading of the document ids, when >95% of the maximum 
-            // reduction is already done.
-            // Each following iteration of this loop will become more and more expensive IO wise, but 
-            // leads to less and less reduction of the final set, therefore breaking this loop early 
-            // is highly encouraged.
+            // Instead of loading the complete document ids, the remaining candidates are looked up using 
+            // the skip tables of the posting lists, which only decodes the segments containing candidates.
 
-            resultSet.retainAll( documentIds );
-            int remainingSetSize = resultSet.size();
+            if (isGallopingIntersectionPreferred( resultSet, trigram ) && !prefetch.isRequested( trigram.getTrigram() )) {
+                resultSet = theSearchMetadataTrigramIndex.retainDocumentsContainingTrigram( resultSet, trigram.getTrigram() );
+            }
+            else {
+                resultSet = resultSet.and( DocumentBitmap.fromSortedOrdinals( prefetch.get( trigram.getTrigram() ) ) );
+            }
+            int remainingSetSize = resultSet.getCardinality();
 
             trigramUsage.add( getTrigramUsageByReduction( trigram, remainingSetSize < previousSetSize ) );
 
             System.out.println( "Reduction to: " + remainingSetSize + " elemenets using trigram: " + trigram.getTrigram() );
 
-            if (trigram.getOccurrenceCount() > (192 * remainingSetSize)) {
-                // stop if it is too unbalanced... we probably already are in X+10% range of maximal search results
+            if (remainingSetSize == 0) {
+                // nothing left to reduce
                 break;
             }
 
             previousSetSize = remainingSetSize;
         }
+        // the posting lists of the skipped trigrams are not needed anymore
+        prefetch.cancel();
         retainAllStopWatch.stop();
 
         List<TrigramOccurrence> skippedTrigrams = new ArrayList<>();
@@ -349,7 +681,11 @@ public class Search {
 
     // implementation of search algorithm on metadata using the list+hfb filter method 
     public Set<String> collectDocumentIdsForMetadataTrigramsOptV2( Collection<String> uniqueTrigramsFromWord ) {
-        Set<String> resultSet = new HashSet<String>();
+        return toDocumentKeys( collectDocumentBitmapForMetadataTrigramsOptV2( uniqueTrigramsFromWord ) );
+    }
+
+    public DocumentBitmap collectDocumentBitmapForMetadataTrigramsOptV2( Collection<String> uniqueTrigramsFromWord ) {
+        DocumentBitmap resultSet = new DocumentBitmap();
         List<TrigramUsage> trigramUsage = new ArrayList<>( uniqueTrigramsFromWord.size() );
 
         List<TrigramOccurrence> sortedMetadataTrigramOccurrences = getMetadataTrigramOccurrencesSortedByOccurrence( uniqueTrigramsFromWord );
@@ -370,20 +706,23 @@ public class Search {
         Iterator<TrigramOccurrence> collectedOccurencesIterator = sortedMetadataTrigramOccurrences.iterator();
         if (collectedOccurencesIterator.hasNext()) {
             TrigramOccurrence firstTrigramOccurence = collectedOccurencesIterator.next();
-            resultSet = new HashSet<String>( getDocumentsForMetadataTrigram( firstTrigramOccurence.getTrigram() ) );
+            resultSet = removeDeletedDocuments( getDocumentBitmapForMetadataTrigram( firstTrigramOccurence.getTrigram() ) );
 
             trigramUsage.add( new TrigramUsage( firstTrigramOccurence, TrigramUsageState.SUCCESS ) );
             previousSetSize = firstTrigramOccurence.getOccurrenceCount();
 
-            System.out.println( "Reduction v2 starts from: " + resultSet.size() + " elements for " + firstTrigramOccurence.getTrigram() );
+            System.out.println( "Reduction v2 starts from: " + resultSet.getCardinality() + " elements for " + firstTrigramOccurence.getTrigram() );
         }
 
+        // the numeric document keys of the candidates are calculated once and are reused for all filters
+        HFBFilterCandidates candidates = HFBFilterCandidates.of( resultSet, theDocumentOrdinals );
+
         // we make at least one round of reducing the number of document candidates by combining the set of 
         // the first and second trigram's associated documents and continue until it becomes inefficient
         while (collectedOccurencesIterator.hasNext()) {
             TrigramOccurrence trigram = collectedOccurencesIterator.next();
 
-            resultSet = retainDocuments( resultSet, trigram.getTrigram() );
+            candidates.retain( theSearchMetadataHFBFilterIndex.loadFilterBankForTrigram( trigram.getTrigram() ) );
 
             // using sorted trigrams leads to a highly unbalanced (retain) comparison, (the first two or 
             // three retain operations will do most of the heavy lifting, at the same time, the resultSet
@@ -394,7 +733,7 @@ public class Search {
             // leads to less and less reduction of the final set, therefore breaking this loop early 
             // is highly encouraged and saves time spend better else where.
 
-            int remainingSetSize = resultSet.size();
+            int remainingSetSize = candidates.size();
 
             trigramUsage.add( getTrigramUsageByReduction( trigram, remainingSetSize < previousSetSize ) );
 
@@ -407,6 +746,7 @@ public class Search {
 
             previousSetSize = remainingSetSize;
         }
+        resultSet = candidates.toDocumentBitmap();
         retainAllStopWatch.stop();
 
         List<TrigramOccurrence> skippedTrigrams = new ArrayList<>();
@@ -424,22 +764,25 @@ public class Search {
         return resultSet;
     }
 
-    private Set<String> retainDocuments( Set<String> resultSet, String trigram ) {
-        Set<String> retained = new HashSet<>();
-
-        HFBFilterBank hfbfilterBank = this.theSearchMetadataHFBFilterIndex.loadFilterBankForTrigram( trigram );
-
-        for (String documentId : resultSet) {
-            // TODO: this  sh*t here is expensive ... we actually do not need to convert the same document ids over and over again into a big integer
-            // was done for the proof of concept, but should be improved.
-            BigInteger biDocumentId = new BigInteger( documentId, 16 );
-            if (hfbfilterBank.containsDocumentId( biDocumentId )) {
-                // only spend time on retained documents.
-                retained.add( documentId );
-            }
+    // the deleted documents are removed from the shortest posting list, so no further posting list is 
+    // read or decoded for a dead candidate
+    private DocumentBitmap removeDeletedDocuments( DocumentBitmap candidates ) {
+        if (theDeletedDocuments.isEmpty()) {
+            return candidates;
         }
+        return theDeletedDocuments.removeDeleted( candidates );
+    }
 
-        return retained;
+    private Set<String> toDocumentKeys( DocumentBitmap documentBitmap ) {
+        Set<String> documentKeys = new HashSet<>( documentBitmap.getCardinality() * 2 );
+        documentBitmap.forEach( documentOrdinal -> {
+            // ordinals of removed or reindexed documents don't resolve to a document key
+            String documentKey = theDocumentOrdinals.getDocumentKey( documentOrdinal );
+            if (documentKey != null) {
+                documentKeys.add( documentKey );
+            }
+        } );
+        return documentKeys;
     }
 
     private long collectSkippedTrigrams( Iterator<TrigramOccurrence> collectedOccurencesIterator, Function<TrigramOccurrence, Boolean> collector ) {
@@ -452,6 +795,29 @@ public class Search {
         return ignoredElements;
     }
 
+    private boolean isGallopingIntersectionPreferred( DocumentBitmap candidates, TrigramOccurrence trigram ) {
+        return isGallopingIntersectionPreferred( candidates.getCardinality(), trigram );
+    }
+
+    private boolean isGallopingIntersectionPreferred( long numberOfCandidates, TrigramOccurrence trigram ) {
+        // each candidate costs a lookup in the skip table and in one segment, while loading the whole list
+        // costs decoding every ordinal of it.
+        return numberOfCandidates * GALLOPING_INTERSECTION_RATIO < trigram.getOccurrenceCount();
+    }
+
+    // requests the complete posting lists of the next trigrams. The candidates only become fewer, so a trigram, 
+    // which is intersected using the skip tables for the current number of candidates, is never read completely.
+    private void prefetchPostingLists( PostingListPrefetch prefetch, List<TrigramOccurrence> sortedTrigramOccurrences, int position,
+                    long numberOfCandidates ) {
+        int end = Math.min( position + POSTING_LIST_PREFETCH_DEPTH, sortedTrigramOccurrences.size() );
+        for (int i = position; i < end; i++) {
+            TrigramOccurrence trigram = sortedTrigramOccurrences.get( i );
+            if (!isGallopingIntersectionPreferred( numberOfCandidates, trigram )) {
+                prefetch.request( trigram.getTrigram() );
+            }
+        }
+    }
+
     private TrigramUsage getTrigramUsageByReduction( TrigramOccurrence trigram, boolean isReduction ) {
         if (isReduction) {
             return new TrigramUsage( trigram, TrigramUsageState.SUCCESS );
@@ -462,8 +828,8 @@ public class Search {
 
     public List<TrigramOccurrence> getTrigramOccurrencesSortedByOccurrence( Collection<String> uniqueTrigramsFromWord ) {
         // convert trigrams to TrigramOccurences
-        List<TrigramOccurrence> collectedOccurrences = uniqueTrigramsFromWord.stream().map( ( trigram ) -> this.getTrigramOccurrence( trigram ) )
-                        .collect( Collectors.toList() );
+        List<TrigramOccurrence> collectedOccurrences = fetchDocumentCounts( uniqueTrigramsFromWord, theSearchTrigramIndex.isDocumentCountResident(),
+                        this::getTrigramOccurrence );
 
         // sort uniqueTrigramsFromWord by number of expected results in increasing order.
         collectedOccurrences.sort( Comparator.<TrigramOccurrence> comparingLong( occurence -> occurence.getOccurrenceCount() ) );
@@ -472,17 +838,33 @@ public class Search {
 
     public List<TrigramOccurrence> getMetadataTrigramOccurrencesSortedByOccurrence( Collection<String> uniqueTrigramsFromWord ) {
         // convert trigrams to TrigramOccurences
-        List<TrigramOccurrence> collectedOccurrences = uniqueTrigramsFromWord.stream().map( ( trigram ) -> this.getMetadataTrigramOccurrence( trigram ) )
-                        .collect( Collectors.toList() );
+        List<TrigramOccurrence> collectedOccurrences = fetchDocumentCounts( uniqueTrigramsFromWord,
+                        theSearchMetadataTrigramIndex.isDocumentCountResident(), this::getMetadataTrigramOccurrence );
 
         // sort uniqueTrigramsFromWord by number of expected results in increasing order.
         collectedOccurrences.sort( Comparator.<TrigramOccurrence> comparingLong( occurence -> occurence.getOccurrenceCount() ) );
         return collectedOccurrences;
     }
 
+    private List<TrigramOccurrence> fetchDocumentCounts( Collection<String> uniqueTrigramsFromWord, boolean isResident,
+                    Function<String, TrigramOccurrence> loader ) {
+        if (isResident) {
+            // a lookup in the resident count table is cheaper than handing it to another thread
+            return uniqueTrigramsFromWord.stream().map( loader ).collect( Collectors.toList() );
+        }
+
+        // every count is read from its own file, so all of them are read in parallel
+        return theTrigramFetcher.fetchDocumentCounts( uniqueTrigramsFromWord, loader );
+    }
+
     public String getDocumentContent( String path ) {
         DocumentId documentId = DocumentIdFactory.createDocumentIDFromRelativePath( Paths.get( path ) );
 
+        CharSequence packedContent = getPackedContent( documentId.getDocumentKey() );
+        if (packedContent != null) {
+            return packedContent.toString();
+        }
+
         try (InputStream fileContentReader = theFileCache.getContentAsStream( documentId ); ByteArrayOutputStream result = new ByteArrayOutputStream()) {
             byte[] buffer = new byte[1024];
             int length;
@@ -499,6 +881,11 @@ public class Search {
     }
 
     public List<String> getDocumentContentLines( String documentIdmd5 ) {
+        List<String> packedLines = getPackedContentLines( documentIdmd5, 0, Integer.MAX_VALUE );
+        if (packedLines != null) {
+            return packedLines;
+        }
+
         DocumentId documentId = DocumentIdFactory.createDocumentIDFromDocumentKey( documentIdmd5 );
 
         try (BufferedReader bufferedReader = new BufferedReader(
@@ -512,12 +899,170 @@ public class Search {
         return List.of();
     }
 
+    /**
+     * Returns some lines of a document, e.g. to render a preview around a hit. If the documents are packed,
+     * only the requested lines are decoded.
+     * 
+     * @param documentIdmd5 the document key
+     * @param firstLine the index of the first line, starting with 0
+     * @param numberOfLines the maximum number of lines
+     * @return the lines of the document within the range
+     */
+    public List<String> getDocumentContentLines( String documentIdmd5, int firstLine, int numberOfLines ) {
+        List<String> packedLines = getPackedContentLines( documentIdmd5, firstLine, numberOfLines );
+        if (packedLines != null) {
+            return packedLines;
+        }
+
+        List<String> allLines = getDocumentContentLines( documentIdmd5 );
+        int from = Math.min( Math.max( 0, firstLine ), allLines.size() );
+        int to = (int) Math.min( allLines.size(), (long) from + Math.max( 0, numberOfLines ) );
+        return allLines.subList( from, to );
+    }
+
+    private CharSequence getPackedContent( String documentKey ) {
+        if (theDocumentPacks == null) {
+            return null;
+        }
+
+        try {
+            return theDocumentPacks.getContentAsCharSequence( theDocumentOrdinals.getOrdinal( documentKey ) );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private List<String> getPackedContentLines( String documentKey, int firstLine, int numberOfLines ) {
+        if (theDocumentPacks == null) {
+            return null;
+        }
+
+        try {
+            return theDocumentPacks.getLines( theDocumentOrdinals.getOrdinal( documentKey ), firstLine, numberOfLines );
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private static DocumentPackReader openDocumentPacks( Path indexFolder ) {
+        if (!DocumentPackReader.exists( indexFolder )) {
+            return null;
+        }
+
+        try {
+            return DocumentPackReader.open( indexFolder );
+        }
+        catch (IOException e) {
+            // fall back to the document cache
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     public List<String> getDocumentWordlist( String documentID ) {
         return theWordlistCache.loadWordList( documentID );
     }
 
     public Map<String, String> getDocumentMetadataMap( String documentID ) {
-        return theMetadataCache.loadMetadata( documentID ).getKeyValuesAsMap();
+        return loadMetadata( theDocumentOrdinals.getOrdinal( documentID ), documentID ).getKeyValuesAsMap();
+    }
+
+    /**
+     * Keeps only the documents, which have the given value for a document class, e.g. 'filetype' and 
+     * 'python'. With a columnar metadata store this is a scan over one column, otherwise the cached 
+     * metadata of each document is read.
+     * 
+     * @param documents the documents to filter
+     * @param classKey the key of the document class
+     * @param value the value of the document class
+     * @return the matching documents
+     */
+    public DocumentBitmap retainDocumentsWithClass( DocumentBitmap documents, String classKey, String value ) {
+        if (theMetadataColumns != null) {
+            DocumentBitmap result = theMetadataColumns.retainDocuments( documents, classKey, value );
+
+            // documents which were indexed after the store was built, are not contained in the columns
+            documents.forEach( ordinal -> {
+                if (!theMetadataColumns.contains( ordinal ) && hasClass( ordinal, classKey, value )) {
+                    result.add( ordinal );
+                }
+            } );
+            return result;
+        }
+
+        DocumentBitmap result = new DocumentBitmap();
+        documents.forEach( ordinal -> {
+            if (hasClass( ordinal, classKey, value )) {
+                result.add( ordinal );
+            }
+        } );
+        return result;
+    }
+
+    private boolean hasClass( int documentOrdinal, String classKey, String value ) {
+        String documentKey = theDocumentOrdinals.getDocumentKey( documentOrdinal );
+        if (documentKey == null) {
+            return false;
+        }
+
+        DocumentMetadata documentMetadata = theMetadataCache.loadMetadata( documentKey );
+        return documentMetadata != null && value.equals( documentMetadata.getClassifierMap().get( classKey ) );
+    }
+
+    private DocumentMetadata loadMetadata( int documentOrdinal, String documentKey ) {
+        if (theMetadataColumns != null && theMetadataColumns.contains( documentOrdinal )) {
+            return theMetadataColumns.getDocumentMetadata( documentOrdinal, documentKey );
+        }
+        return theMetadataCache.loadMetadata( documentKey );
+    }
+
+    private static PositionalTrigramIndexReader openPositionalIndex( Path indexFolder ) {
+        if (!PositionalTrigramIndexReader.exists( indexFolder )) {
+            return null;
+        }
+
+        try {
+            return PositionalTrigramIndexReader.open( indexFolder );
+        }
+        catch (IOException e) {
+            // fall back to reading the content of the candidates
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private static DocumentWordsReader openDocumentWords( Path indexFolder ) {
+        if (!DocumentWordsReader.exists( indexFolder )) {
+            return null;
+        }
+
+        try {
+            return DocumentWordsReader.open( indexFolder );
+        }
+        catch (IOException e) {
+            // fall back to the wordlist cache
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private static ColumnarMetadataReader openMetadataColumns( Path indexFolder ) {
+        if (!ColumnarMetadataReader.exists( indexFolder )) {
+            return null;
+        }
+
+        try {
+            return ColumnarMetadataReader.open( indexFolder );
+        }
+        catch (IOException e) {
+            // fall back to the metadata cache
+            e.printStackTrace();
+        }
+        return null;
     }
 
     public Map<String, Integer> getTrigramTermFrequencyData( String documentID ) {
@@ -532,12 +1077,8 @@ public class Search {
         return theSearchMetadataTrigramIndex.loadDocumentCountForTrigram( trigram );
     }
 
-    private Collection<String> getDocumentsForTrigram( String trigram ) {
-        return theSearchTrigramIndex.getDocumentIdsForTrigram( trigram );
-    }
-
-    private Collection<String> getDocumentsForMetadataTrigram( String trigram ) {
-        return theSearchMetadataTrigramIndex.getDocumentIdsForTrigram( trigram );
+    private DocumentBitmap getDocumentBitmapForMetadataTrigram( String trigram ) {
+        return theSearchMetadataTrigramIndex.getDocumentBitmapForTrigram( trigram );
     }
 
     public MetadataCache getMetaDataCache() {
@@ -552,6 +1093,18 @@ public class Search {
         return theSearchQueryCache;
     }
 
+    public CacheStatistics getPostingListCacheStatistics() {
+        return theSearchTrigramIndex.getPostingListCacheStatistics();
+    }
+
+    public CacheStatistics getMetadataPostingListCacheStatistics() {
+        return theSearchMetadataTrigramIndex.getPostingListCacheStatistics();
+    }
+
+    public CacheStatistics getFilterBankCacheStatistics() {
+        return theSearchMetadataHFBFilterIndex.getFilterBankCacheStatistics();
+    }
+
     // TODO: decide if this is needed.
 //    public SearchMetadataHFBFilterIndex getSearchMetadataHFBFilterIndex() {
 //        return theSearchMetadataHFBFilterIndex;
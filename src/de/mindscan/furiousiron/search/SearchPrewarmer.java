@@ -0,0 +1,76 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.search;
+
+import java.util.Collection;
+
+/**
+ * Replays logged queries against a search, before the search is used to answer requests. The files 
+ * of the index, which are needed for these queries, are then already in the page cache of the 
+ * operating system, and when the same search instance is used afterwards, its posting list caches 
+ * are filled as well.
+ */
+public class SearchPrewarmer {
+
+    private final Search search;
+
+    public SearchPrewarmer( Search search ) {
+        this.search = search;
+    }
+
+    /**
+     * @param queries the queries to replay, e.g. the most frequent queries of the query log
+     * @return the time it took to replay all queries in microseconds
+     */
+    public long prewarm( Collection<LoggedQuery> queries ) {
+        long startTime = System.nanoTime();
+
+        int replayedQueries = 0;
+        for (LoggedQuery query : queries) {
+            long queryStartTime = System.nanoTime();
+            int resultCount;
+
+            if (SearchQueryLog.METADATA_SEARCH.equals( query.getKind() )) {
+                resultCount = search.searchMetadataToMap( query.getQuery() ).size();
+            }
+            else if (SearchQueryLog.CONTENT_SEARCH.equals( query.getKind() )) {
+                resultCount = search.search( query.getQuery() ).size();
+            }
+            else {
+                continue;
+            }
+
+            replayedQueries++;
+            System.out.println( String.format( "Prewarmed %s in %dus, %d results (was %dus on average, %d results).", query.getQuery(),
+                            (System.nanoTime() - queryStartTime) / 1000L, resultCount, query.getAverageLatencyMicros(), query.getLastResultCount() ) );
+        }
+
+        long duration = (System.nanoTime() - startTime) / 1000L;
+        System.out.println( String.format( "Prewarmed %d queries in %dms.", replayedQueries, duration / 1000L ) );
+        return duration;
+    }
+
+}
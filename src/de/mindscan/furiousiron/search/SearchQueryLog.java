@@ -0,0 +1,180 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An append-only log of the executed searches. Each line contains the time, the kind of the search, the
+ * latency in microseconds, the number of results and the normalised query, separated by tabs. 
+ * 
+ * The log is used to find the popular and the expensive queries, which are replayed against a new 
+ * index before it is used. When the log exceeds its maximum size, it is rotated once, so the log and 
+ * its predecessor never use more than twice the maximum size.
+ */
+public class SearchQueryLog {
+
+    public static final String QUERY_LOG_FILENAME = "searchQueries.log";
+
+    public static final String ROTATED_LOG_SUFFIX = ".1";
+
+    public static final long DEFAULT_MAX_LOG_SIZE = 64L * 1024L * 1024L;
+
+    public static final String CONTENT_SEARCH = "content";
+
+    public static final String METADATA_SEARCH = "metadata";
+
+    private final Path logPath;
+    private final Path rotatedLogPath;
+    private final long maxLogSize;
+
+    // size of the log, determined on the first write
+    private long logSize = -1L;
+
+    /**
+     * @param logFolder the folder of the log, usually the index folder
+     */
+    public SearchQueryLog( Path logFolder ) {
+        this( logFolder, DEFAULT_MAX_LOG_SIZE );
+    }
+
+    /**
+     * @param logFolder the folder of the log, usually the index folder
+     * @param maxLogSize the size in bytes, when the log is rotated
+     */
+    public SearchQueryLog( Path logFolder, long maxLogSize ) {
+        this.logPath = logFolder.resolve( QUERY_LOG_FILENAME );
+        this.rotatedLogPath = logFolder.resolve( QUERY_LOG_FILENAME + ROTATED_LOG_SUFFIX );
+        this.maxLogSize = maxLogSize;
+    }
+
+    /**
+     * @param query the query as entered
+     * @return the query in lower case, without leading and trailing white space and with each inner 
+     *         white space sequence replaced by a single space 
+     */
+    public static String normalise( String query ) {
+        return query.trim().toLowerCase( Locale.ROOT ).replaceAll( "\\s+", " " );
+    }
+
+    /**
+     * @param kind the kind of the search, e.g. {@link #CONTENT_SEARCH}
+     * @param query the query
+     * @param latencyMicros the time the search took in microseconds
+     * @param resultCount the number of results
+     */
+    public synchronized void record( String kind, String query, long latencyMicros, int resultCount ) {
+        String line = String.format( "%d\t%s\t%d\t%d\t%s\n", System.currentTimeMillis(), kind, latencyMicros, resultCount, normalise( query ) );
+        byte[] bytes = line.getBytes( StandardCharsets.UTF_8 );
+
+        try {
+            if (logSize < 0L) {
+                logSize = Files.exists( logPath ) ? Files.size( logPath ) : 0L;
+            }
+
+            if (logSize + bytes.length > maxLogSize && logSize > 0L) {
+                Files.move( logPath, rotatedLogPath, StandardCopyOption.REPLACE_EXISTING );
+                logSize = 0L;
+            }
+
+            Files.write( logPath, bytes, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND );
+            logSize += bytes.length;
+        }
+        catch (IOException e) {
+            System.out.println( String.format( "appending to file: '%s' caused this error...", logPath ) );
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Aggregates the entries of the log by kind and query.
+     * 
+     * @return the aggregated queries
+     */
+    public synchronized Collection<LoggedQuery> aggregate() {
+        Map<String, LoggedQuery> loggedQueries = new HashMap<>();
+
+        aggregate( rotatedLogPath, loggedQueries );
+        aggregate( logPath, loggedQueries );
+
+        return loggedQueries.values();
+    }
+
+    /**
+     * @param maxQueries the maximum number of queries
+     * @param order the order of the queries, e.g. {@link LoggedQuery#BY_FREQUENCY}
+     * @return the first queries of the aggregated log in the given order
+     */
+    public List<LoggedQuery> getTopQueries( int maxQueries, Comparator<LoggedQuery> order ) {
+        List<LoggedQuery> loggedQueries = new ArrayList<>( aggregate() );
+        loggedQueries.sort( order );
+        return loggedQueries.subList( 0, Math.min( maxQueries, loggedQueries.size() ) );
+    }
+
+    private void aggregate( Path path, Map<String, LoggedQuery> loggedQueries ) {
+        try (BufferedReader reader = Files.newBufferedReader( path, StandardCharsets.UTF_8 )) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split( "\t", 5 );
+                if (columns.length != 5 || columns[4].isEmpty()) {
+                    // incomplete line of an interrupted write
+                    continue;
+                }
+
+                try {
+                    long latencyMicros = Long.parseLong( columns[2] );
+                    int resultCount = Integer.parseInt( columns[3] );
+                    loggedQueries.computeIfAbsent( columns[1] + '\t' + columns[4], key -> new LoggedQuery( columns[1], columns[4] ) ).add( latencyMicros,
+                                    resultCount );
+                }
+                catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+        }
+        catch (NoSuchFileException e) {
+            // nothing logged yet
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+}
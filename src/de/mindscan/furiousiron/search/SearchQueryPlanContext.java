@@ -0,0 +1,189 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.search;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import de.mindscan.furiousiron.core.plan.QueryPlanContext;
+import de.mindscan.furiousiron.core.plan.TrigramIndexKind;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.DeletedDocuments;
+import de.mindscan.furiousiron.index.positional.PhraseMatcher;
+import de.mindscan.furiousiron.index.positional.PositionalTrigramIndexReader;
+import de.mindscan.furiousiron.index.trigram.AsyncTrigramFetcher;
+import de.mindscan.furiousiron.index.trigram.SearchMetadataTrigramIndex;
+import de.mindscan.furiousiron.index.trigram.SearchTrigramIndex;
+import de.mindscan.furiousiron.index.trigram.TrigramOccurrence;
+import de.mindscan.furiousiron.index.words.DocumentWordsReader;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+/**
+ * Provides the trigram indexes of a {@link Search} to the query planner.
+ */
+class SearchQueryPlanContext implements QueryPlanContext {
+
+    private final SearchTrigramIndex contentIndex;
+    private final SearchMetadataTrigramIndex metadataIndex;
+    private final AsyncTrigramFetcher trigramFetcher;
+    private final DocumentOrdinalDictionary documentOrdinals;
+    private final DeletedDocuments deletedDocuments;
+    // null, if there is no document words store
+    private final DocumentWordsReader documentWords;
+    private final BatchCandidateVerifier candidateVerifier;
+    // null, if there is no positional trigram index
+    private final PositionalTrigramIndexReader positionalIndex;
+
+    SearchQueryPlanContext( SearchTrigramIndex contentIndex, SearchMetadataTrigramIndex metadataIndex, AsyncTrigramFetcher trigramFetcher,
+                    DocumentOrdinalDictionary documentOrdinals, DeletedDocuments deletedDocuments, DocumentWordsReader documentWords,
+                    BatchCandidateVerifier candidateVerifier, PositionalTrigramIndexReader positionalIndex ) {
+        this.contentIndex = contentIndex;
+        this.metadataIndex = metadataIndex;
+        this.trigramFetcher = trigramFetcher;
+        this.documentOrdinals = documentOrdinals;
+        this.deletedDocuments = deletedDocuments;
+        this.documentWords = documentWords;
+        this.candidateVerifier = candidateVerifier;
+        this.positionalIndex = positionalIndex;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfDocuments() {
+        return documentOrdinals.size();
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TrigramOccurrence> getDocumentCounts( Collection<String> trigrams, TrigramIndexKind kind ) {
+        if (kind == TrigramIndexKind.METADATA) {
+            if (metadataIndex.isDocumentCountResident()) {
+                return trigrams.stream().map( metadataIndex::loadDocumentCountForTrigram ).collect( Collectors.toList() );
+            }
+            return trigramFetcher.fetchDocumentCounts( trigrams, metadataIndex::loadDocumentCountForTrigram );
+        }
+
+        if (contentIndex.isDocumentCountResident()) {
+            return trigrams.stream().map( contentIndex::loadDocumentCountForTrigram ).collect( Collectors.toList() );
+        }
+        return trigramFetcher.fetchDocumentCounts( trigrams, contentIndex::loadDocumentCountForTrigram );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getPostingList( String trigram, TrigramIndexKind kind ) {
+        if (kind == TrigramIndexKind.METADATA) {
+            return metadataIndex.getDocumentOrdinalsForTrigram( trigram );
+        }
+        return contentIndex.getDocumentOrdinalsForTrigram( trigram );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public DocumentBitmap retainDocumentsContaining( DocumentBitmap candidates, String trigram, TrigramIndexKind kind ) {
+        if (kind == TrigramIndexKind.METADATA) {
+            return metadataIndex.retainDocumentsContainingTrigram( candidates, trigram );
+        }
+        return contentIndex.retainDocumentsContainingTrigram( candidates, trigram );
+    }
+
+    /** 
+     * {@inheritDoc}
+     * 
+     * Only documents contained in the document words store are confirmed, if they contain a word 
+     * containing the term.
+     */
+    @Override
+    public DocumentBitmap confirmDocumentsContainingTerm( DocumentBitmap candidates, String term ) {
+        if (documentWords == null || candidates.isEmpty()) {
+            return new DocumentBitmap();
+        }
+
+        // the term is resolved only once against the words of all documents
+        BitSet matchingWordIds = documentWords.findWordsContaining( term );
+        if (matchingWordIds.isEmpty()) {
+            return new DocumentBitmap();
+        }
+
+        return candidateVerifier.verify( candidates,
+                        documentOrdinal -> documentWords.contains( documentOrdinal ) && documentWords.containsAnyWord( documentOrdinal, matchingWordIds ) );
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public DocumentBitmap retainDocumentsContainingPhrase( DocumentBitmap candidates, String phrase ) {
+        if (positionalIndex == null || phrase.length() < PhraseMatcher.MIN_PHRASE_LENGTH) {
+            return candidates;
+        }
+
+        try {
+            DocumentBitmap documentsContainingPhrase = PhraseMatcher.findDocuments( positionalIndex, phrase, candidates );
+
+            // documents which were indexed after the positional index was built, are verified later, the 
+            // ordinals of removed documents are dropped right away
+            candidates.andNot( positionalIndex.getCoveredDocuments() ).forEach( documentOrdinal -> {
+                if (documentOrdinals.getDocumentKey( documentOrdinal ) != null) {
+                    documentsContainingPhrase.add( documentOrdinal );
+                }
+            } );
+            return documentsContainingPhrase;
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        return candidates;
+    }
+
+    /** 
+     * {@inheritDoc}
+     */
+    @Override
+    public DocumentBitmap getAllDocuments() {
+        DocumentBitmap allDocuments = new DocumentBitmap();
+        int numberOfDocuments = documentOrdinals.size();
+        for (int documentOrdinal = 0; documentOrdinal < numberOfDocuments; documentOrdinal++) {
+            // ordinals of removed or reindexed documents don't resolve to a document key
+            if (documentOrdinals.getDocumentKey( documentOrdinal ) != null && !deletedDocuments.isDeleted( documentOrdinal )) {
+                allDocuments.add( documentOrdinal );
+            }
+        }
+        return allDocuments;
+    }
+
+}
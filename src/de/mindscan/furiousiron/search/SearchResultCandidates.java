@@ -27,6 +27,7 @@ package de.mindscan.furiousiron.search;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import de.mindscan.furiousiron.document.DocumentMetadata;
 import de.mindscan.furiousiron.index.cache.MetadataCache;
@@ -42,6 +43,10 @@ public class SearchResultCandidates {
     private List<String> worddata;
     private Map<Integer, String> preview;
 
+    // the metadata and the wordlist of a verified candidate are only loaded, when they are accessed
+    private transient Supplier<DocumentMetadata> metadataLoader;
+    private transient Supplier<List<String>> worddataLoader;
+
     /**
      * 
      */
@@ -50,6 +55,20 @@ public class SearchResultCandidates {
         this.preview = null;
     }
 
+    /**
+     * Creates a candidate, which was already verified. The metadata and the wordlist are loaded on first
+     * access, so only the displayed results must be materialized. 
+     * 
+     * @param documentId the document key
+     * @param metadataLoader loads the metadata of the document
+     * @param worddataLoader loads the wordlist of the document
+     */
+    public SearchResultCandidates( String documentId, Supplier<DocumentMetadata> metadataLoader, Supplier<List<String>> worddataLoader ) {
+        this( documentId );
+        this.metadataLoader = metadataLoader;
+        this.worddataLoader = worddataLoader;
+    }
+
     // load the metadata, and the wordlists
     public void loadFrom( MetadataCache theMetadataCache, WordlistCache theWordlistCache ) {
         metadata = theMetadataCache.loadMetadata( documentId );
@@ -60,7 +79,7 @@ public class SearchResultCandidates {
         // check, whether the searched word is in the word data
 
         int wordLength = wordtoLookFor.length();
-        for (String wordInDocument : worddata) {
+        for (String wordInDocument : getWorddata()) {
 
             // TODO: should be removed from here later / tree structure, that sorts words by length
             if (wordInDocument.length() < wordLength) {
@@ -73,11 +92,11 @@ public class SearchResultCandidates {
         }
 
         // check, whether the searched word is in the meta data
-        if (metadata.getDocumentSimpleName().toLowerCase().contains( wordtoLookFor )) {
+        if (getMetadata().getDocumentSimpleName().toLowerCase().contains( wordtoLookFor )) {
             return true;
         }
 
-        if (metadata.getRelativePath().toLowerCase().contains( wordtoLookFor )) {
+        if (getMetadata().getRelativePath().toLowerCase().contains( wordtoLookFor )) {
             return true;
         }
 
@@ -85,15 +104,27 @@ public class SearchResultCandidates {
     }
 
     public DocumentMetadata getMetadata() {
+        if (metadata == null && metadataLoader != null) {
+            metadata = metadataLoader.get();
+            metadataLoader = null;
+        }
         return metadata;
     }
 
+    public List<String> getWorddata() {
+        if (worddata == null && worddataLoader != null) {
+            worddata = worddataLoader.get();
+            worddataLoader = null;
+        }
+        return worddata;
+    }
+
     /** 
      * {@inheritDoc}
      */
     @Override
     public String toString() {
-        return metadata.toString();
+        return getMetadata().toString();
     }
 
     public String getDocumentId() {
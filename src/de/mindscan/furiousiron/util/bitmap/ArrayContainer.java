@@ -0,0 +1,252 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.bitmap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Sparse container, which keeps up to {@link #MAX_CARDINALITY} values as a sorted char array.
+ */
+final class ArrayContainer extends Container {
+
+    // beyond this cardinality the bitmap container (8 KiB) is smaller than the array
+    static final int MAX_CARDINALITY = 4096;
+
+    private char[] content;
+    private int cardinality;
+
+    ArrayContainer() {
+        this( new char[4], 0 );
+    }
+
+    ArrayContainer( char[] content, int cardinality ) {
+        this.content = content;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_ARRAY;
+    }
+
+    @Override
+    Container add( char value ) {
+        int index = Arrays.binarySearch( content, 0, cardinality, value );
+        if (index >= 0) {
+            return this;
+        }
+
+        if (cardinality >= MAX_CARDINALITY) {
+            return toBitmapContainer().add( value );
+        }
+
+        if (cardinality == content.length) {
+            content = Arrays.copyOf( content, Math.min( Math.max( content.length * 2, 4 ), MAX_CARDINALITY ) );
+        }
+
+        int insertionPoint = -index - 1;
+        System.arraycopy( content, insertionPoint, content, insertionPoint + 1, cardinality - insertionPoint );
+        content[insertionPoint] = value;
+        cardinality++;
+        return this;
+    }
+
+    @Override
+    boolean contains( char value ) {
+        return Arrays.binarySearch( content, 0, cardinality, value ) >= 0;
+    }
+
+    @Override
+    int getCardinality() {
+        return cardinality;
+    }
+
+    @Override
+    Container and( Container other ) {
+        if (other instanceof ArrayContainer) {
+            ArrayContainer otherArray = (ArrayContainer) other;
+            char[] result = new char[Math.min( cardinality, otherArray.cardinality )];
+            int resultLength = 0;
+
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < otherArray.cardinality) {
+                char left = content[i];
+                char right = otherArray.content[j];
+                if (left == right) {
+                    result[resultLength++] = left;
+                    i++;
+                    j++;
+                }
+                else if (left < right) {
+                    i++;
+                }
+                else {
+                    j++;
+                }
+            }
+
+            return new ArrayContainer( result, resultLength );
+        }
+
+        // the other container answers contains in constant or logarithmic time 
+        char[] result = new char[cardinality];
+        int resultLength = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (other.contains( content[i] )) {
+                result[resultLength++] = content[i];
+            }
+        }
+        return new ArrayContainer( result, resultLength );
+    }
+
+    @Override
+    Container or( Container other ) {
+        if (!(other instanceof ArrayContainer)) {
+            return other.or( this );
+        }
+
+        ArrayContainer otherArray = (ArrayContainer) other;
+        if (cardinality + otherArray.cardinality > MAX_CARDINALITY) {
+            return toBitmapContainer().or( otherArray );
+        }
+
+        char[] result = new char[cardinality + otherArray.cardinality];
+        int resultLength = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < otherArray.cardinality) {
+            char left = content[i];
+            char right = otherArray.content[j];
+            if (left == right) {
+                result[resultLength++] = left;
+                i++;
+                j++;
+            }
+            else if (left < right) {
+                result[resultLength++] = left;
+                i++;
+            }
+            else {
+                result[resultLength++] = right;
+                j++;
+            }
+        }
+        while (i < cardinality) {
+            result[resultLength++] = content[i++];
+        }
+        while (j < otherArray.cardinality) {
+            result[resultLength++] = otherArray.content[j++];
+        }
+
+        return new ArrayContainer( result, resultLength );
+    }
+
+    @Override
+    Container andNot( Container other ) {
+        char[] result = new char[cardinality];
+        int resultLength = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (!other.contains( content[i] )) {
+                result[resultLength++] = content[i];
+            }
+        }
+        return new ArrayContainer( result, resultLength );
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer( Arrays.copyOf( content, Math.max( cardinality, 1 ) ), cardinality );
+    }
+
+    @Override
+    Container runOptimize() {
+        int runCount = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (i == 0 || content[i] != content[i - 1] + 1) {
+                runCount++;
+            }
+        }
+
+        if (RunContainer.getSerializedPayloadSizeInBytes( runCount ) < getSerializedPayloadSizeInBytes()) {
+            return RunContainer.fromSortedValues( content, cardinality, runCount );
+        }
+        return this;
+    }
+
+    @Override
+    BitmapContainer toBitmapContainer() {
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < cardinality; i++) {
+            bitmap.add( content[i] );
+        }
+        return bitmap;
+    }
+
+    @Override
+    int fillArray( int[] target, int offset, int high ) {
+        for (int i = 0; i < cardinality; i++) {
+            target[offset++] = high | content[i];
+        }
+        return offset;
+    }
+
+    @Override
+    void forEach( int high, IntConsumer consumer ) {
+        for (int i = 0; i < cardinality; i++) {
+            consumer.accept( high | content[i] );
+        }
+    }
+
+    @Override
+    int getSerializedCount() {
+        return cardinality;
+    }
+
+    @Override
+    int getSerializedPayloadSizeInBytes() {
+        return cardinality * Character.BYTES;
+    }
+
+    @Override
+    void writePayload( ByteBuffer buffer ) {
+        for (int i = 0; i < cardinality; i++) {
+            buffer.putChar( content[i] );
+        }
+    }
+
+    static ArrayContainer readPayload( int cardinality, ByteBuffer buffer ) {
+        char[] content = new char[Math.max( cardinality, 1 )];
+        for (int i = 0; i < cardinality; i++) {
+            content[i] = buffer.getChar();
+        }
+        return new ArrayContainer( content, cardinality );
+    }
+
+}
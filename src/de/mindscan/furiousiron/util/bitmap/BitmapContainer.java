@@ -0,0 +1,240 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.bitmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * Dense container, which keeps the 65536 possible values as a plain bitset of 1024 long words.
+ */
+final class BitmapContainer extends Container {
+
+    static final int WORD_COUNT = 1024;
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer() {
+        this( new long[WORD_COUNT], 0 );
+    }
+
+    private BitmapContainer( long[] words, int cardinality ) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_BITMAP;
+    }
+
+    @Override
+    Container add( char value ) {
+        long mask = 1L << value;
+        int index = value >>> 6;
+        if ((words[index] & mask) == 0) {
+            words[index] |= mask;
+            cardinality++;
+        }
+        return this;
+    }
+
+    void addRange( int start, int endInclusive ) {
+        for (int value = start; value <= endInclusive; value++) {
+            add( (char) value );
+        }
+    }
+
+    @Override
+    boolean contains( char value ) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int getCardinality() {
+        return cardinality;
+    }
+
+    @Override
+    Container and( Container other ) {
+        if (other instanceof ArrayContainer) {
+            return other.and( this );
+        }
+
+        long[] otherWords = other.toBitmapContainer().words;
+        long[] result = new long[WORD_COUNT];
+        int resultCardinality = 0;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            result[i] = words[i] & otherWords[i];
+            resultCardinality += Long.bitCount( result[i] );
+        }
+        return new BitmapContainer( result, resultCardinality ).shrinkIfSparse();
+    }
+
+    @Override
+    Container or( Container other ) {
+        if (other instanceof ArrayContainer) {
+            BitmapContainer result = (BitmapContainer) copy();
+            ((ArrayContainer) other).forEach( 0, value -> result.add( (char) value ) );
+            return result;
+        }
+
+        long[] otherWords = other.toBitmapContainer().words;
+        long[] result = new long[WORD_COUNT];
+        int resultCardinality = 0;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            result[i] = words[i] | otherWords[i];
+            resultCardinality += Long.bitCount( result[i] );
+        }
+        return new BitmapContainer( result, resultCardinality ).shrinkIfSparse();
+    }
+
+    @Override
+    Container andNot( Container other ) {
+        if (other instanceof ArrayContainer) {
+            BitmapContainer result = (BitmapContainer) copy();
+            ((ArrayContainer) other).forEach( 0, value -> result.remove( (char) value ) );
+            return result.shrinkIfSparse();
+        }
+
+        long[] otherWords = other.toBitmapContainer().words;
+        long[] result = new long[WORD_COUNT];
+        int resultCardinality = 0;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            result[i] = words[i] & ~otherWords[i];
+            resultCardinality += Long.bitCount( result[i] );
+        }
+        return new BitmapContainer( result, resultCardinality ).shrinkIfSparse();
+    }
+
+    private void remove( char value ) {
+        long mask = 1L << value;
+        int index = value >>> 6;
+        if ((words[index] & mask) != 0) {
+            words[index] &= ~mask;
+            cardinality--;
+        }
+    }
+
+    private Container shrinkIfSparse() {
+        if (cardinality > ArrayContainer.MAX_CARDINALITY) {
+            return this;
+        }
+
+        char[] content = new char[Math.max( cardinality, 1 )];
+        int[] position = new int[1];
+        forEach( 0, value -> content[position[0]++] = (char) value );
+        return new ArrayContainer( content, cardinality );
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer( words.clone(), cardinality );
+    }
+
+    @Override
+    Container runOptimize() {
+        int runCount = 0;
+        long previousWord = 0L;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            long word = words[i];
+            // a run starts at every set bit, whose predecessor is not set
+            long runStarts = word & ~((word << 1) | (previousWord >>> 63));
+            runCount += Long.bitCount( runStarts );
+            previousWord = word;
+        }
+
+        if (RunContainer.getSerializedPayloadSizeInBytes( runCount ) < getSerializedPayloadSizeInBytes()) {
+            char[] content = new char[cardinality];
+            int[] position = new int[1];
+            forEach( 0, value -> content[position[0]++] = (char) value );
+            return RunContainer.fromSortedValues( content, cardinality, runCount );
+        }
+        return this;
+    }
+
+    @Override
+    BitmapContainer toBitmapContainer() {
+        return this;
+    }
+
+    @Override
+    int fillArray( int[] target, int offset, int high ) {
+        for (int i = 0; i < WORD_COUNT; i++) {
+            long word = words[i];
+            while (word != 0) {
+                target[offset++] = high | ((i << 6) + Long.numberOfTrailingZeros( word ));
+                word &= word - 1;
+            }
+        }
+        return offset;
+    }
+
+    @Override
+    void forEach( int high, IntConsumer consumer ) {
+        for (int i = 0; i < WORD_COUNT; i++) {
+            long word = words[i];
+            while (word != 0) {
+                consumer.accept( high | ((i << 6) + Long.numberOfTrailingZeros( word )) );
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    int getSerializedCount() {
+        return cardinality;
+    }
+
+    @Override
+    int getSerializedPayloadSizeInBytes() {
+        return WORD_COUNT * Long.BYTES;
+    }
+
+    @Override
+    void writePayload( ByteBuffer buffer ) {
+        for (int i = 0; i < WORD_COUNT; i++) {
+            buffer.putLong( words[i] );
+        }
+    }
+
+    static BitmapContainer readPayload( int cardinality, ByteBuffer buffer ) throws IOException {
+        long[] words = new long[WORD_COUNT];
+        int actualCardinality = 0;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            words[i] = buffer.getLong();
+            actualCardinality += Long.bitCount( words[i] );
+        }
+
+        if (actualCardinality != cardinality) {
+            throw new IOException( "Corrupt bitmap container, expected " + cardinality + " values, but found " + actualCardinality );
+        }
+        return new BitmapContainer( words, cardinality );
+    }
+
+}
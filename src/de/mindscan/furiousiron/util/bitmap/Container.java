@@ -0,0 +1,97 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.bitmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * A container holds the lower 16 bits of all ordinals of a {@link DocumentBitmap}, which share the
+ * same upper 16 bits. 
+ * 
+ * The binary operations never modify their operands and always return a new container.
+ */
+abstract class Container {
+
+    static final byte TYPE_ARRAY = 0;
+    static final byte TYPE_BITMAP = 1;
+    static final byte TYPE_RUN = 2;
+
+    abstract byte getType();
+
+    abstract Container add( char value );
+
+    abstract boolean contains( char value );
+
+    abstract int getCardinality();
+
+    abstract Container and( Container other );
+
+    abstract Container or( Container other );
+
+    abstract Container andNot( Container other );
+
+    abstract Container copy();
+
+    /**
+     * @return the container with the smallest serialized representation for the same values
+     */
+    abstract Container runOptimize();
+
+    abstract BitmapContainer toBitmapContainer();
+
+    /**
+     * Writes the values combined with the high bits into the target array.
+     * 
+     * @return the next free position in the target array
+     */
+    abstract int fillArray( int[] target, int offset, int high );
+
+    abstract void forEach( int high, IntConsumer consumer );
+
+    /**
+     * @return the number written in front of the payload, which is needed to read the payload again  
+     */
+    abstract int getSerializedCount();
+
+    abstract int getSerializedPayloadSizeInBytes();
+
+    abstract void writePayload( ByteBuffer buffer );
+
+    static Container readPayload( byte type, int count, ByteBuffer buffer ) throws IOException {
+        switch (type) {
+            case TYPE_ARRAY:
+                return ArrayContainer.readPayload( count, buffer );
+            case TYPE_BITMAP:
+                return BitmapContainer.readPayload( count, buffer );
+            case TYPE_RUN:
+                return RunContainer.readPayload( count, buffer );
+            default:
+                throw new IOException( "Unknown container type: " + type );
+        }
+    }
+}
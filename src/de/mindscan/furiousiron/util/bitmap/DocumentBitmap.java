@@ -0,0 +1,368 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.bitmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap of document ordinals, organized like a roaring bitmap.
+ * 
+ * The ordinals are partitioned by their upper 16 bits into chunks of 65536 ordinals. Each chunk is 
+ * stored in the container which fits its density best: sparse chunks are stored as a sorted array, 
+ * dense chunks are stored as a plain bitset and chunks of consecutive ordinals are stored as runs 
+ * (after {@link #runOptimize()}). The intersection of two bitmaps only has to look at the chunks 
+ * present in both of them.
+ * 
+ * Binary format (big endian): int magic, int version, int containerCount, followed by each container 
+ * as char key, byte type, int count and the container specific payload. 
+ */
+public class DocumentBitmap {
+
+    public static final int MAGIC = 0x46494442; // "FIDB"
+
+    public static final int VERSION_1 = 1;
+
+    public static final String DOCUMENT_BITMAP_SUFFIX = ".bitmap";
+
+    private static final int HEADER_SIZE = 12;
+    private static final int CONTAINER_HEADER_SIZE = 7;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public DocumentBitmap() {
+        this( new char[4], new Container[4], 0 );
+    }
+
+    private DocumentBitmap( char[] keys, Container[] containers, int size ) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * @param sortedOrdinals strictly increasing, non negative document ordinals
+     * @return a bitmap containing the given ordinals
+     */
+    public static DocumentBitmap fromSortedOrdinals( int[] sortedOrdinals ) {
+        DocumentBitmap result = new DocumentBitmap();
+
+        int start = 0;
+        while (start < sortedOrdinals.length) {
+            int high = sortedOrdinals[start] >>> 16;
+            int end = start;
+            while (end < sortedOrdinals.length && (sortedOrdinals[end] >>> 16) == high) {
+                end++;
+            }
+
+            int chunkLength = end - start;
+            Container container;
+            if (chunkLength > ArrayContainer.MAX_CARDINALITY) {
+                container = new BitmapContainer();
+                for (int i = start; i < end; i++) {
+                    container.add( (char) sortedOrdinals[i] );
+                }
+            }
+            else {
+                char[] content = new char[chunkLength];
+                for (int i = start; i < end; i++) {
+                    content[i - start] = (char) sortedOrdinals[i];
+                }
+                container = new ArrayContainer( content, chunkLength );
+            }
+
+            result.append( (char) high, container );
+            start = end;
+        }
+
+        return result;
+    }
+
+    public void add( int ordinal ) {
+        char high = (char) (ordinal >>> 16);
+        int index = findContainerIndex( high );
+        if (index >= 0) {
+            containers[index] = containers[index].add( (char) ordinal );
+        }
+        else {
+            insertContainerAt( -index - 1, high, new ArrayContainer().add( (char) ordinal ) );
+        }
+    }
+
+    public boolean contains( int ordinal ) {
+        int index = findContainerIndex( (char) (ordinal >>> 16) );
+        return index >= 0 && containers[index].contains( (char) ordinal );
+    }
+
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].getCardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return a new bitmap containing the ordinals contained in both bitmaps
+     */
+    public DocumentBitmap and( DocumentBitmap other ) {
+        DocumentBitmap result = new DocumentBitmap();
+
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] == other.keys[j]) {
+                Container container = containers[i].and( other.containers[j] );
+                if (container.getCardinality() > 0) {
+                    result.append( keys[i], container );
+                }
+                i++;
+                j++;
+            }
+            else if (keys[i] < other.keys[j]) {
+                i++;
+            }
+            else {
+                j++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return a new bitmap containing the ordinals contained in any of both bitmaps
+     */
+    public DocumentBitmap or( DocumentBitmap other ) {
+        DocumentBitmap result = new DocumentBitmap();
+
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] == other.keys[j]) {
+                result.append( keys[i], containers[i].or( other.containers[j] ) );
+                i++;
+                j++;
+            }
+            else if (keys[i] < other.keys[j]) {
+                result.append( keys[i], containers[i].copy() );
+                i++;
+            }
+            else {
+                result.append( other.keys[j], other.containers[j].copy() );
+                j++;
+            }
+        }
+        while (i < size) {
+            result.append( keys[i], containers[i].copy() );
+            i++;
+        }
+        while (j < other.size) {
+            result.append( other.keys[j], other.containers[j].copy() );
+            j++;
+        }
+
+        return result;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return a new bitmap containing the ordinals of this bitmap, which are not contained in the other bitmap
+     */
+    public DocumentBitmap andNot( DocumentBitmap other ) {
+        DocumentBitmap result = new DocumentBitmap();
+
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+
+            Container container;
+            if (j < other.size && other.keys[j] == keys[i]) {
+                container = containers[i].andNot( other.containers[j] );
+            }
+            else {
+                container = containers[i].copy();
+            }
+
+            if (container.getCardinality() > 0) {
+                result.append( keys[i], container );
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts each container into its smallest representation, this should be done before the bitmap 
+     * is serialized.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    /**
+     * @return the strictly increasing ordinals contained in this bitmap
+     */
+    public int[] toSortedOrdinals() {
+        int[] result = new int[getCardinality()];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            offset = containers[i].fillArray( result, offset, keys[i] << 16 );
+        }
+        return result;
+    }
+
+    /**
+     * Calls the consumer for each ordinal in increasing order.
+     * 
+     * @param consumer the consumer
+     */
+    public void forEach( IntConsumer consumer ) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach( keys[i] << 16, consumer );
+        }
+    }
+
+    public ByteBuffer serialize() {
+        int length = HEADER_SIZE;
+        for (int i = 0; i < size; i++) {
+            length += CONTAINER_HEADER_SIZE + containers[i].getSerializedPayloadSizeInBytes();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate( length );
+        buffer.putInt( MAGIC );
+        buffer.putInt( VERSION_1 );
+        buffer.putInt( size );
+
+        for (int i = 0; i < size; i++) {
+            buffer.putChar( keys[i] );
+            buffer.put( containers[i].getType() );
+            buffer.putInt( containers[i].getSerializedCount() );
+            containers[i].writePayload( buffer );
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    public static DocumentBitmap deserialize( ByteBuffer buffer ) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException( "Document bitmap is too short: " + buffer.remaining() + " bytes" );
+        }
+
+        int magic = buffer.getInt();
+        if (magic != MAGIC) {
+            throw new IOException( String.format( "Not a document bitmap, unexpected magic: 0x%08x", magic ) );
+        }
+
+        int version = buffer.getInt();
+        if (version != VERSION_1) {
+            throw new IOException( "Unsupported document bitmap version: " + version );
+        }
+
+        int containerCount = buffer.getInt();
+        DocumentBitmap result = new DocumentBitmap( new char[Math.max( containerCount, 1 )], new Container[Math.max( containerCount, 1 )], 0 );
+        for (int i = 0; i < containerCount; i++) {
+            char key = buffer.getChar();
+            byte type = buffer.get();
+            int count = buffer.getInt();
+            result.append( key, Container.readPayload( type, count, buffer ) );
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes the bitmap to a temporary file first and moves it to its final location afterwards, so 
+     * a reader never sees a partially written bitmap. 
+     * 
+     * @param bitmapPath the path of the bitmap file
+     * @throws IOException if the bitmap can not be written
+     */
+    public void write( Path bitmapPath ) throws IOException {
+        Files.createDirectories( bitmapPath.getParent() );
+
+        Path temporaryPath = bitmapPath.resolveSibling( bitmapPath.getFileName().toString() + ".tmp" );
+        ByteBuffer buffer = serialize();
+        try (FileChannel channel = FileChannel.open( temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING )) {
+            while (buffer.hasRemaining()) {
+                channel.write( buffer );
+            }
+        }
+
+        Files.move( temporaryPath, bitmapPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    public static DocumentBitmap read( Path bitmapPath ) throws IOException {
+        return deserialize( ByteBuffer.wrap( Files.readAllBytes( bitmapPath ) ) );
+    }
+
+    private int findContainerIndex( char high ) {
+        // appending in increasing order is the common case
+        if (size > 0 && keys[size - 1] == high) {
+            return size - 1;
+        }
+        return Arrays.binarySearch( keys, 0, size, high );
+    }
+
+    private void append( char high, Container container ) {
+        insertContainerAt( size, high, container );
+    }
+
+    private void insertContainerAt( int index, char high, Container container ) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf( keys, keys.length * 2 );
+            containers = Arrays.copyOf( containers, containers.length * 2 );
+        }
+
+        System.arraycopy( keys, index, keys, index + 1, size - index );
+        System.arraycopy( containers, index, containers, index + 1, size - index );
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+}
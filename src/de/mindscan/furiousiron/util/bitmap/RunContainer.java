@@ -0,0 +1,218 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.bitmap;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * Run length encoded container, which keeps pairs of (start, length - 1). This container is the smallest
+ * representation for long stretches of consecutive ordinals, e.g. trigrams contained in almost every document
+ * or the documents of a single indexing run.
+ * 
+ * Run containers are only created by {@link Container#runOptimize()} and by deserialization, the binary 
+ * operations work on the array or bitmap representation.
+ */
+final class RunContainer extends Container {
+
+    private final char[] runs;
+    private final int runCount;
+    private final int cardinality;
+
+    private RunContainer( char[] runs, int runCount ) {
+        this.runs = runs;
+        this.runCount = runCount;
+
+        int sum = 0;
+        for (int i = 0; i < runCount; i++) {
+            sum += getLengthMinusOne( i ) + 1;
+        }
+        this.cardinality = sum;
+    }
+
+    static RunContainer fromSortedValues( char[] values, int length, int runCount ) {
+        char[] runs = new char[runCount * 2];
+        int run = -1;
+        for (int i = 0; i < length; i++) {
+            if (i == 0 || values[i] != values[i - 1] + 1) {
+                run++;
+                runs[2 * run] = values[i];
+                runs[2 * run + 1] = 0;
+            }
+            else {
+                runs[2 * run + 1]++;
+            }
+        }
+        return new RunContainer( runs, runCount );
+    }
+
+    static int getSerializedPayloadSizeInBytes( int runCount ) {
+        return runCount * 2 * Character.BYTES;
+    }
+
+    private int getStart( int run ) {
+        return runs[2 * run];
+    }
+
+    private int getLengthMinusOne( int run ) {
+        return runs[2 * run + 1];
+    }
+
+    @Override
+    byte getType() {
+        return TYPE_RUN;
+    }
+
+    @Override
+    Container add( char value ) {
+        if (contains( value )) {
+            return this;
+        }
+        return toEfficientContainer().add( value );
+    }
+
+    @Override
+    boolean contains( char value ) {
+        // find the last run starting at or before the value
+        int low = 0;
+        int high = runCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (getStart( middle ) <= value) {
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        if (high < 0) {
+            return false;
+        }
+        return value <= getStart( high ) + getLengthMinusOne( high );
+    }
+
+    @Override
+    int getCardinality() {
+        return cardinality;
+    }
+
+    @Override
+    Container and( Container other ) {
+        if (other instanceof ArrayContainer) {
+            return other.and( this );
+        }
+        return toBitmapContainer().and( other );
+    }
+
+    @Override
+    Container or( Container other ) {
+        return toBitmapContainer().or( other );
+    }
+
+    @Override
+    Container andNot( Container other ) {
+        return toEfficientContainer().andNot( other );
+    }
+
+    @Override
+    Container copy() {
+        // run containers are never modified in place
+        return this;
+    }
+
+    @Override
+    Container runOptimize() {
+        return this;
+    }
+
+    private Container toEfficientContainer() {
+        if (cardinality > ArrayContainer.MAX_CARDINALITY) {
+            return toBitmapContainer();
+        }
+
+        char[] content = new char[Math.max( cardinality, 1 )];
+        int[] position = new int[1];
+        forEach( 0, value -> content[position[0]++] = (char) value );
+        return new ArrayContainer( content, cardinality );
+    }
+
+    @Override
+    BitmapContainer toBitmapContainer() {
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < runCount; i++) {
+            bitmap.addRange( getStart( i ), getStart( i ) + getLengthMinusOne( i ) );
+        }
+        return bitmap;
+    }
+
+    @Override
+    int fillArray( int[] target, int offset, int high ) {
+        for (int i = 0; i < runCount; i++) {
+            int end = getStart( i ) + getLengthMinusOne( i );
+            for (int value = getStart( i ); value <= end; value++) {
+                target[offset++] = high | value;
+            }
+        }
+        return offset;
+    }
+
+    @Override
+    void forEach( int high, IntConsumer consumer ) {
+        for (int i = 0; i < runCount; i++) {
+            int end = getStart( i ) + getLengthMinusOne( i );
+            for (int value = getStart( i ); value <= end; value++) {
+                consumer.accept( high | value );
+            }
+        }
+    }
+
+    @Override
+    int getSerializedCount() {
+        return runCount;
+    }
+
+    @Override
+    int getSerializedPayloadSizeInBytes() {
+        return getSerializedPayloadSizeInBytes( runCount );
+    }
+
+    @Override
+    void writePayload( ByteBuffer buffer ) {
+        for (int i = 0; i < runCount * 2; i++) {
+            buffer.putChar( runs[i] );
+        }
+    }
+
+    static RunContainer readPayload( int runCount, ByteBuffer buffer ) {
+        char[] runs = new char[runCount * 2];
+        for (int i = 0; i < runCount * 2; i++) {
+            runs[i] = buffer.getChar();
+        }
+        return new RunContainer( runs, runCount );
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A least recently used cache, which is bounded by the sum of the weights of its values instead of 
+ * the number of entries. The weight of a value is usually its approximate size in bytes. 
+ * 
+ * The cache is thread safe. Values are loaded outside of the lock, so a slow load doesn't block
+ * other lookups; in case two threads load the same key, the later value wins.
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class WeightedLRUCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+    private final ToLongFunction<V> weigher;
+    private final long maximumWeight;
+    private final CacheStatistics statistics;
+
+    private long currentWeight;
+
+    /**
+     * @param maximumWeight the maximum sum of the weights of all cached values
+     * @param weigher calculates the weight of a value
+     */
+    public WeightedLRUCache( long maximumWeight, ToLongFunction<V> weigher ) {
+        this.entries = new LinkedHashMap<>( 16, 0.75f, true );
+        this.weigher = weigher;
+        this.maximumWeight = maximumWeight;
+        this.statistics = new CacheStatistics();
+        this.currentWeight = 0L;
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value or <code>null</code>
+     */
+    public synchronized V getIfPresent( K key ) {
+        V value = entries.get( key );
+        if (value != null) {
+            statistics.recordHit();
+        }
+        else {
+            statistics.recordMiss();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value without recording a hit or a miss, e.g. because the lookup was already 
+     * counted. The entry still becomes the most recently used entry.
+     * 
+     * @param key the key
+     * @return the cached value or <code>null</code>
+     */
+    public synchronized V peek( K key ) {
+        return entries.get( key );
+    }
+
+    /**
+     * Returns the cached value, or loads and caches the value, if it is not cached yet.
+     * 
+     * @param key the key
+     * @param loader the loader for a missing value, may return <code>null</code>, which is not cached
+     * @return the value
+     */
+    public V get( K key, Function<K, V> loader ) {
+        V value = getIfPresent( key );
+        if (value != null) {
+            return value;
+        }
+
+        V loadedValue = loader.apply( key );
+        if (loadedValue != null) {
+            put( key, loadedValue );
+        }
+        return loadedValue;
+    }
+
+    public synchronized void put( K key, V value ) {
+        long weight = weigher.applyAsLong( value );
+        if (weight > maximumWeight) {
+            // would evict everything else and itself
+            return;
+        }
+
+        V previousValue = entries.put( key, value );
+        if (previousValue != null) {
+            currentWeight -= weigher.applyAsLong( previousValue );
+        }
+        currentWeight += weight;
+
+        evictLeastRecentlyUsed();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Iterator<Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (currentWeight > maximumWeight && iterator.hasNext()) {
+            Entry<K, V> eldest = iterator.next();
+            currentWeight -= weigher.applyAsLong( eldest.getValue() );
+            iterator.remove();
+            statistics.recordEviction();
+        }
+    }
+
+    public synchronized void invalidate( K key ) {
+        V previousValue = entries.remove( key );
+        if (previousValue != null) {
+            currentWeight -= weigher.applyAsLong( previousValue );
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        currentWeight = 0L;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentWeight() {
+        return currentWeight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+}
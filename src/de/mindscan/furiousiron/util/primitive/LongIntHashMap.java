@@ -0,0 +1,220 @@
+/**
+ * 
+ * MIT License
+ *
+ * Copyright (c) 2022 Maxim Gansert, Mindscan
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package de.mindscan.furiousiron.util.primitive;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from non-negative long keys to int values, using open addressing with linear probing. 
+ * Keys and values are stored in primitive arrays, so counting doesn't box and doesn't create an entry 
+ * object per key. Negative keys are not supported, because they mark the free slots.
+ * 
+ * The map is not thread safe.
+ */
+public class LongIntHashMap {
+
+    private static final long FREE_KEY = -1L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongIntHashMap() {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * @param expectedSize the number of keys, which can be stored without resizing
+     */
+    public LongIntHashMap( int expectedSize ) {
+        allocate( tableSizeFor( expectedSize ) );
+    }
+
+    /**
+     * Adds the delta to the value of the key, a new key starts with the value 0.
+     * 
+     * @param key the key, must not be negative
+     * @param delta the delta to add
+     * @return the new value
+     */
+    public int addTo( long key, int delta ) {
+        checkKey( key );
+
+        int slot = findSlot( key );
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            values[slot] = delta;
+
+            if (++size > resizeThreshold) {
+                resize( keys.length * 2 );
+            }
+            return delta;
+        }
+
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * @param key the key
+     * @param value the value
+     */
+    public void put( long key, int value ) {
+        checkKey( key );
+
+        int slot = findSlot( key );
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            values[slot] = value;
+
+            if (++size > resizeThreshold) {
+                resize( keys.length * 2 );
+            }
+            return;
+        }
+
+        values[slot] = value;
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the key or 0 if the key is not contained
+     */
+    public int get( long key ) {
+        if (key < 0) {
+            return 0;
+        }
+
+        int slot = findSlot( key );
+        return keys[slot] == FREE_KEY ? 0 : values[slot];
+    }
+
+    public boolean containsKey( long key ) {
+        return key >= 0 && keys[findSlot( key )] != FREE_KEY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill( keys, FREE_KEY );
+        size = 0;
+    }
+
+    /**
+     * @return the keys in no particular order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int index = 0;
+        for (long key : keys) {
+            if (key != FREE_KEY) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls the consumer for each key and its value, in no particular order.
+     * 
+     * @param consumer the consumer
+     */
+    public void forEach( LongIntConsumer consumer ) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE_KEY) {
+                consumer.accept( keys[slot], values[slot] );
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept( long key, int value );
+    }
+
+    private int findSlot( long key ) {
+        int slot = hash( key ) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize( int newCapacity ) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate( newCapacity );
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE_KEY) {
+                int newSlot = findSlot( oldKeys[slot] );
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate( int capacity ) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill( keys, FREE_KEY );
+        mask = capacity - 1;
+        // keep the load factor at 0.5, linear probing degrades quickly with longer clusters
+        resizeThreshold = capacity / 2;
+    }
+
+    private static int tableSizeFor( int expectedSize ) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private static int hash( long key ) {
+        // the trigram codes differ mostly in their lower bits, so the bits are mixed before masking
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private static void checkKey( long key ) {
+        if (key < 0) {
+            throw new IllegalArgumentException( "Negative keys are not supported: " + key );
+        }
+    }
+
+}
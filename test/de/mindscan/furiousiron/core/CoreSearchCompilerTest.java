@@ -1,14 +1,21 @@
 package de.mindscan.furiousiron.core;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 
 import de.mindscan.furiousiron.core.ast.CoreQueryNode;
 import de.mindscan.furiousiron.core.ast.EmptyCoreNode;
+import de.mindscan.furiousiron.core.ast.OrCoreNode;
 import de.mindscan.furiousiron.query.ast.EmptyNode;
+import de.mindscan.furiousiron.query.ast.OrNode;
+import de.mindscan.furiousiron.query.ast.QueryNode;
+import de.mindscan.furiousiron.query.ast.TextNode;
 
 public class CoreSearchCompilerTest {
 
@@ -35,4 +42,17 @@ public class CoreSearchCompilerTest {
         assertThat( result, is( instanceOf( EmptyCoreNode.class ) ) );
     }
 
+    @Test
+    public void testCompile_inputTreeIsOrNode_expectOrCoreNodeWithSharedTrigrams() {
+        // arrange
+        QueryNode ast = new OrNode( Arrays.asList( new TextNode( "abcd" ), new TextNode( "zabc" ) ) );
+
+        // act
+        CoreQueryNode result = CoreSearchCompiler.compile( ast );
+
+        // assert
+        assertThat( result, is( instanceOf( OrCoreNode.class ) ) );
+        assertThat( result.getTrigrams(), contains( "abc" ) );
+    }
+
 }
@@ -0,0 +1,297 @@
+package de.mindscan.furiousiron.core.plan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.mindscan.furiousiron.index.posting.SortedOrdinals;
+import de.mindscan.furiousiron.index.posting.SortedOrdinalsUnion;
+import de.mindscan.furiousiron.index.trigram.TrigramOccurrence;
+import de.mindscan.furiousiron.query.ast.AndNode;
+import de.mindscan.furiousiron.query.ast.ExactMatchingTextNode;
+import de.mindscan.furiousiron.query.ast.ExcludingNode;
+import de.mindscan.furiousiron.query.ast.OrNode;
+import de.mindscan.furiousiron.query.ast.QueryNode;
+import de.mindscan.furiousiron.query.ast.TextNode;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+public class QueryPlannerTest {
+
+    private static final int NUMBER_OF_DOCUMENTS = 10000;
+
+    @Test
+    public void testPlan_AndOfTwoWords_expectIntersectionStartingWithRarestTrigram() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+        QueryNode ast = new AndNode( Arrays.asList( new TextNode( "abcd" ), new TextNode( "xyz" ) ) );
+
+        // act
+        QueryPlan result = planner.plan( ast );
+
+        // assert
+        assertThat( result.getRoot(), is( instanceOf( IntersectPlanNode.class ) ) );
+        assertThat( ((TrigramPlanNode) result.getRoot().getInputs().get( 0 )).getTrigram(), equalTo( "xyz" ) );
+        assertThat( result.getRoot().getInputs().size(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void testExecute_AndOfTwoWords_expectDocumentsContainingAllTrigrams() throws Exception {
+        // arrange
+        QueryPlanContext context = createContext();
+        QueryPlan plan = new QueryPlanner( context ).plan( new AndNode( Arrays.asList( new TextNode( "abcd" ), new TextNode( "xyz" ) ) ) );
+
+        // act
+        DocumentBitmap result = plan.execute( context );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 10, 20 } ) );
+    }
+
+    @Test
+    public void testPlan_SmallCandidateSetAndLongPostingList_expectGalloping() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+
+        // act
+        QueryPlan result = planner.plan( new AndNode( Arrays.asList( new TextNode( "xyz" ), new TextNode( "abc" ) ) ) );
+
+        // assert
+        assertThat( result.getRoot().getInputStrategy( 1 ), equalTo( JoinStrategy.GALLOPING ) );
+    }
+
+    @Test
+    public void testExecute_OrOfTwoWords_expectDocumentsOfBothWords() throws Exception {
+        // arrange
+        QueryPlanContext context = createContext();
+        QueryPlan plan = new QueryPlanner( context ).plan( new OrNode( Arrays.asList( new TextNode( "xyz" ), new TextNode( "uvw" ) ) ) );
+
+        // act
+        DocumentBitmap result = plan.execute( context );
+
+        // assert
+        assertThat( plan.getRoot(), is( instanceOf( UnionPlanNode.class ) ) );
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 3, 10, 20, 30 } ) );
+    }
+
+    @Test
+    public void testPlan_AlternativesShareTrigram_expectSharedTrigramIntersectedOnce() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+
+        // act
+        QueryPlan result = planner.plan( new OrNode( Arrays.asList( new TextNode( "abcd" ), new TextNode( "zabc" ) ) ) );
+
+        // assert
+        assertThat( result.getRoot(), is( instanceOf( IntersectPlanNode.class ) ) );
+        assertThat( ((TrigramPlanNode) result.getRoot().getInputs().get( 1 )).getTrigram(), equalTo( "abc" ) );
+        assertThat( result.getRoot().getInputs().get( 0 ), is( instanceOf( UnionPlanNode.class ) ) );
+    }
+
+    @Test
+    public void testIterate_SparseUnionOfThreeWords_expectLazyKWayMerge() throws Exception {
+        // arrange
+        QueryPlanContext context = createContext();
+        QueryPlan plan = new QueryPlanner( context ).plan( new OrNode( Arrays.asList( new TextNode( "xyz" ), new TextNode( "uvw" ), new TextNode( "rst" ) ) ) );
+
+        // act
+        SortedOrdinalsUnion result = plan.iterate( context );
+
+        // assert
+        assertThat( plan.explain(), containsString( "UNION K-WAY MERGE" ) );
+        assertThat( result.next(), equalTo( 3 ) );
+        assertThat( result.next(), equalTo( 7 ) );
+        assertThat( result.next(), equalTo( 10 ) );
+    }
+
+    @Test
+    public void testPlan_ExcludedWordWithoutDocuments_expectExclusionVerifiedLater() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+
+        // act
+        QueryPlan result = planner.plan( new AndNode( Arrays.asList( new TextNode( "xyz" ), new ExcludingNode( new TextNode( "qqq" ) ) ) ) );
+
+        // assert
+        assertThat( result.getRoot(), is( instanceOf( TrigramPlanNode.class ) ) );
+    }
+
+    @Test
+    public void testPlan_ExcludedWord_expectAndNotOfConfirmedTerm() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+
+        // act
+        QueryPlan result = planner.plan( new AndNode( Arrays.asList( new TextNode( "xyz" ), new ExcludingNode( new TextNode( "uvw" ) ) ) ) );
+
+        // assert
+        assertThat( result.getRoot(), is( instanceOf( AndNotPlanNode.class ) ) );
+        assertThat( result.getRoot().getInputs().get( 1 ), is( instanceOf( ConfirmedTermPlanNode.class ) ) );
+        assertThat( result.getRoot().getInputStrategy( 1 ), equalTo( JoinStrategy.GALLOPING ) );
+    }
+
+    @Test
+    public void testExecute_ExcludedWord_expectOnlyConfirmedDocumentsRemoved() throws Exception {
+        // arrange
+        QueryPlanContext context = createContext();
+        QueryPlan plan = new QueryPlanner( context ).plan( new AndNode( Arrays.asList( new TextNode( "xyz" ), new ExcludingNode( new TextNode( "uvw" ) ) ) ) );
+
+        // act
+        DocumentBitmap result = plan.execute( context );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 3, 20 } ) );
+        assertThat( plan.explain(), containsString( "GALLOPING CONFIRMED TERM 'uvw'" ) );
+    }
+
+    @Test
+    public void testPlan_OnlyExcludedWord_expectUnrestrictedPlan() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+
+        // act
+        QueryPlan result = planner.plan( new AndNode( Arrays.asList( new ExcludingNode( new TextNode( "uvw" ) ) ) ) );
+
+        // assert
+        assertThat( result.isUnrestricted(), equalTo( true ) );
+    }
+
+    @Test
+    public void testExecute_Phrase_expectOnlyDocumentsWithAdjacentTrigrams() throws Exception {
+        // arrange
+        QueryPlanContext context = createContext();
+        QueryPlan plan = new QueryPlanner( context ).plan( new ExactMatchingTextNode( "uvw rst" ) );
+
+        // act
+        DocumentBitmap result = plan.execute( context );
+
+        // assert
+        assertThat( plan.getRoot(), is( instanceOf( PhrasePlanNode.class ) ) );
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 30 } ) );
+        assertThat( plan.explain(), containsString( "PHRASE 'uvw rst'" ) );
+    }
+
+    @Test
+    public void testPlan_WordShorterThanTrigram_expectUnrestrictedPlan() throws Exception {
+        // arrange
+        QueryPlanner planner = new QueryPlanner( createContext() );
+
+        // act
+        QueryPlan result = planner.plan( new TextNode( "ab" ) );
+
+        // assert
+        assertThat( result.isUnrestricted(), equalTo( true ) );
+    }
+
+    @Test
+    public void testExplain_ExecutedPlan_expectStrategiesAndActualRows() throws Exception {
+        // arrange
+        QueryPlanContext context = createContext();
+        QueryPlan plan = new QueryPlanner( context ).plan( new AndNode( Arrays.asList( new TextNode( "xyz" ), new TextNode( "abc" ) ) ) );
+        plan.execute( context );
+
+        // act
+        String result = plan.explain();
+
+        // assert
+        assertThat( result, containsString( "INTERSECT (rows=" ) );
+        assertThat( result, containsString( "  GALLOPING TRIGRAM content 'abc'" ) );
+        assertThat( result, containsString( "actual=2" ) );
+    }
+
+    private static QueryPlanContext createContext() {
+        Map<String, int[]> postingLists = new HashMap<>();
+        postingLists.put( "abc", everyOther( 5000 ) );
+        postingLists.put( "bcd", everyOther( 4000 ) );
+        postingLists.put( "xyz", new int[] { 3, 10, 20 } );
+        postingLists.put( "uvw", new int[] { 10, 30 } );
+        postingLists.put( "rst", new int[] { 7, 10, 30 } );
+        postingLists.put( "zab", new int[] { 10, 11, 12 } );
+        postingLists.put( "vw ", new int[] { 10, 30 } );
+        postingLists.put( "w r", new int[] { 10, 30 } );
+        postingLists.put( " rs", new int[] { 10, 30 } );
+
+        // document 30 contains the trigrams of 'uvw' but is not in the word dictionary
+        Map<String, int[]> confirmedTerms = new HashMap<>();
+        confirmedTerms.put( "uvw", new int[] { 10 } );
+
+        // document 10 contains the trigrams of 'uvw rst' but not the phrase
+        Map<String, int[]> phrases = new HashMap<>();
+        phrases.put( "uvw rst", new int[] { 30 } );
+        return new FakeQueryPlanContext( postingLists, confirmedTerms, phrases );
+    }
+
+    private static int[] everyOther( int length ) {
+        int[] ordinals = new int[length];
+        for (int i = 0; i < length; i++) {
+            ordinals[i] = i * 2;
+        }
+        return ordinals;
+    }
+
+    private static class FakeQueryPlanContext implements QueryPlanContext {
+        private final Map<String, int[]> postingLists;
+        private final Map<String, int[]> confirmedTerms;
+        private final Map<String, int[]> phrases;
+
+        FakeQueryPlanContext( Map<String, int[]> postingLists, Map<String, int[]> confirmedTerms, Map<String, int[]> phrases ) {
+            this.postingLists = postingLists;
+            this.confirmedTerms = confirmedTerms;
+            this.phrases = phrases;
+        }
+
+        @Override
+        public int getNumberOfDocuments() {
+            return NUMBER_OF_DOCUMENTS;
+        }
+
+        @Override
+        public List<TrigramOccurrence> getDocumentCounts( Collection<String> trigrams, TrigramIndexKind kind ) {
+            List<TrigramOccurrence> result = new ArrayList<>();
+            for (String trigram : trigrams) {
+                result.add( new TrigramOccurrence( trigram, getPostingList( trigram, kind ).length ) );
+            }
+            return result;
+        }
+
+        @Override
+        public int[] getPostingList( String trigram, TrigramIndexKind kind ) {
+            return postingLists.getOrDefault( trigram, SortedOrdinals.EMPTY );
+        }
+
+        @Override
+        public DocumentBitmap retainDocumentsContaining( DocumentBitmap candidates, String trigram, TrigramIndexKind kind ) {
+            return DocumentBitmap.fromSortedOrdinals( SortedOrdinals.intersectGalloping( candidates.toSortedOrdinals(), getPostingList( trigram, kind ) ) );
+        }
+
+        @Override
+        public DocumentBitmap confirmDocumentsContainingTerm( DocumentBitmap candidates, String term ) {
+            return candidates.and( DocumentBitmap.fromSortedOrdinals( confirmedTerms.getOrDefault( term, SortedOrdinals.EMPTY ) ) );
+        }
+
+        @Override
+        public DocumentBitmap retainDocumentsContainingPhrase( DocumentBitmap candidates, String phrase ) {
+            return candidates.and( DocumentBitmap.fromSortedOrdinals( phrases.getOrDefault( phrase, SortedOrdinals.EMPTY ) ) );
+        }
+
+        @Override
+        public DocumentBitmap getAllDocuments() {
+            DocumentBitmap allDocuments = new DocumentBitmap();
+            for (int i = 0; i < NUMBER_OF_DOCUMENTS; i++) {
+                allDocuments.add( i );
+            }
+            return allDocuments;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.mindscan.furiousiron.document;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DocumentManifestTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testLoadOrCreate_SavedManifest_expectSameEntry() throws Exception {
+        // arrange
+        DocumentManifest manifest = new DocumentManifest();
+        manifest.put( new DocumentManifestEntry( "0123456789abcdef0123456789abcdef", "src\\with\ttab.java", 1234L, 1650000000000L,
+                        "fedcba9876543210fedcba9876543210" ) );
+        manifest.save( folder );
+
+        // act
+        DocumentManifest result = DocumentManifest.loadOrCreate( folder );
+
+        // assert
+        DocumentManifestEntry entry = result.get( "0123456789abcdef0123456789abcdef" );
+        assertThat( result.size(), equalTo( 1 ) );
+        assertThat( entry.getRelativePath(), equalTo( "src\\with\ttab.java" ) );
+        assertThat( entry.getFileSize(), equalTo( 1234L ) );
+        assertThat( entry.getLastModified(), equalTo( 1650000000000L ) );
+        assertThat( entry.getContentHash(), equalTo( "fedcba9876543210fedcba9876543210" ) );
+    }
+
+    @Test
+    public void testLoadOrCreate_NoManifest_expectEmptyManifest() throws Exception {
+        // arrange
+        // act
+        DocumentManifest result = DocumentManifest.loadOrCreate( folder );
+
+        // assert
+        assertThat( result.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void testRemove_KnownDocument_expectEntryRemoved() throws Exception {
+        // arrange
+        DocumentManifest manifest = new DocumentManifest();
+        manifest.put( new DocumentManifestEntry( "abc", "a.java", 1L, 2L, "00" ) );
+
+        // act
+        manifest.remove( "abc" );
+
+        // assert
+        assertThat( manifest.get( "abc" ), nullValue() );
+    }
+
+    @Test
+    public void testIsUnchanged_SameSizeOtherLastModified_expectFalse() throws Exception {
+        // arrange
+        DocumentManifestEntry entry = new DocumentManifestEntry( "abc", "a.java", 10L, 20L, "00" );
+
+        // act
+        boolean result = entry.isUnchanged( 10L, 21L );
+
+        // assert
+        assertThat( result, equalTo( false ) );
+    }
+
+    @Test
+    public void testComputeContentHash_KnownContent_expectMD5Hex() throws Exception {
+        // arrange
+        ByteBuffer content = ByteBuffer.wrap( "abc".getBytes( StandardCharsets.UTF_8 ) );
+
+        // act
+        String result = DocumentManifest.computeContentHash( content );
+
+        // assert
+        assertThat( result, equalTo( "900150983cd24fb0d6963f7d28e17f72" ) );
+        assertThat( content.position(), equalTo( 0 ) );
+    }
+
+}
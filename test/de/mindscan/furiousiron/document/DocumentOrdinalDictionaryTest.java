@@ -0,0 +1,53 @@
+package de.mindscan.furiousiron.document;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DocumentOrdinalDictionaryTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testReassignOrdinal_KnownDocument_expectNewOrdinal() throws Exception {
+        // arrange
+        DocumentOrdinalDictionary dictionary = new DocumentOrdinalDictionary();
+        dictionary.getOrCreateOrdinal( "first" );
+        dictionary.getOrCreateOrdinal( "second" );
+
+        // act
+        int result = dictionary.reassignOrdinal( "first" );
+
+        // assert
+        assertThat( result, equalTo( 2 ) );
+        assertThat( dictionary.getDocumentKey( 0 ), nullValue() );
+        assertThat( dictionary.getDocumentKey( 2 ), equalTo( "first" ) );
+    }
+
+    @Test
+    public void testLoadOrCreate_SavedWithRemovedDocument_expectOrdinalsUnchanged() throws Exception {
+        // arrange
+        DocumentOrdinalDictionary dictionary = new DocumentOrdinalDictionary();
+        dictionary.getOrCreateOrdinal( "first" );
+        dictionary.getOrCreateOrdinal( "second" );
+        dictionary.getOrCreateOrdinal( "third" );
+        dictionary.removeDocument( "second" );
+        dictionary.save( folder );
+
+        // act
+        DocumentOrdinalDictionary result = DocumentOrdinalDictionary.loadOrCreate( folder );
+
+        // assert
+        assertThat( result.size(), equalTo( 3 ) );
+        assertThat( result.getDocumentKey( 1 ), nullValue() );
+        assertThat( result.getOrdinal( "second" ), equalTo( DocumentOrdinalDictionary.UNKNOWN_ORDINAL ) );
+        assertThat( result.getOrdinal( "third" ), equalTo( 2 ) );
+    }
+
+}
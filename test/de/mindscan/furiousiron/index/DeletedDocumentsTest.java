@@ -0,0 +1,79 @@
+package de.mindscan.furiousiron.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+public class DeletedDocumentsTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testLoadOrCreate_SavedTombstones_expectSameDeletedOrdinals() throws Exception {
+        // arrange
+        DeletedDocuments deletedDocuments = new DeletedDocuments();
+        deletedDocuments.markDeleted( 3 );
+        deletedDocuments.markDeleted( 70000 );
+        deletedDocuments.save( folder );
+
+        // act
+        DeletedDocuments result = DeletedDocuments.loadOrCreate( folder );
+
+        // assert
+        assertThat( result.size(), equalTo( 2 ) );
+        assertThat( result.isDeleted( 3 ), equalTo( true ) );
+        assertThat( result.isDeleted( 70000 ), equalTo( true ) );
+        assertThat( result.isDeleted( 4 ), equalTo( false ) );
+    }
+
+    @Test
+    public void testMarkDeleted_UnknownOrdinal_expectIgnored() throws Exception {
+        // arrange
+        DeletedDocuments deletedDocuments = new DeletedDocuments();
+
+        // act
+        deletedDocuments.markDeleted( -1 );
+
+        // assert
+        assertThat( deletedDocuments.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void testClear_MarkedOrdinals_expectEmpty() throws Exception {
+        // arrange
+        DeletedDocuments deletedDocuments = new DeletedDocuments();
+        deletedDocuments.markDeleted( 5 );
+
+        // act
+        deletedDocuments.clear();
+
+        // assert
+        assertThat( deletedDocuments.isDeleted( 5 ), equalTo( false ) );
+    }
+
+    @Test
+    public void testRemoveDeleted_CandidatesWithDeletedOrdinal_expectOnlyLiveCandidates() throws Exception {
+        // arrange
+        DeletedDocuments deletedDocuments = new DeletedDocuments();
+        deletedDocuments.markDeleted( 5 );
+        DocumentBitmap candidates = new DocumentBitmap();
+        candidates.add( 4 );
+        candidates.add( 5 );
+
+        // act
+        DocumentBitmap result = deletedDocuments.removeDeleted( candidates );
+
+        // assert
+        assertThat( result.getCardinality(), equalTo( 1 ) );
+        assertThat( result.contains( 4 ), equalTo( true ) );
+        assertThat( candidates.contains( 5 ), equalTo( true ) );
+    }
+
+}
@@ -0,0 +1,106 @@
+package de.mindscan.furiousiron.index.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.index.IndexEpoch;
+
+public class SearchQueryCacheTest {
+
+    @TempDir
+    Path indexFolder;
+
+    private static final String QUERY_KEY_1 = "0123456789abcdef0123456789abcdef";
+    private static final String QUERY_KEY_2 = "fedcba9876543210fedcba9876543210";
+    private static final String QUERY_KEY_3 = "00112233445566778899aabbccddeeff";
+
+    @Test
+    public void testLoadQueryResult_SavedInSameInstance_expectHeapHit() throws Exception {
+        // arrange
+        SearchQueryCache cache = new SearchQueryCache( indexFolder );
+        cache.saveQueryResult( QUERY_KEY_1, Arrays.asList( "a", "b" ) );
+
+        // act
+        boolean available = cache.isQueryResultAvailable( QUERY_KEY_1 );
+        List<String> result = cache.loadQueryResult( QUERY_KEY_1 );
+
+        // assert
+        assertThat( available, equalTo( true ) );
+        assertThat( result, contains( "a", "b" ) );
+        assertThat( cache.getHeapStatistics().getHits(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void testLoadQueryResult_SavedByOtherInstance_expectDiskHit() throws Exception {
+        // arrange
+        new SearchQueryCache( indexFolder ).saveQueryResult( QUERY_KEY_1, Arrays.asList( "a", "b" ) );
+        SearchQueryCache cache = new SearchQueryCache( indexFolder );
+
+        // act
+        boolean available = cache.isQueryResultAvailable( QUERY_KEY_1 );
+        List<String> result = cache.loadQueryResult( QUERY_KEY_1 );
+
+        // assert
+        assertThat( available, equalTo( true ) );
+        assertThat( result, contains( "a", "b" ) );
+        assertThat( cache.getDiskStatistics().getHits(), equalTo( 1L ) );
+        assertThat( cache.getHitRatio(), equalTo( 1.0 ) );
+    }
+
+    @Test
+    public void testIsQueryResultAvailable_IndexEpochAdvanced_expectStaleEntryRemoved() throws Exception {
+        // arrange
+        SearchQueryCache cache = new SearchQueryCache( indexFolder );
+        cache.saveQueryResult( QUERY_KEY_1, Arrays.asList( "a", "b" ) );
+        IndexEpoch.advance( indexFolder );
+
+        // act
+        boolean result = cache.isQueryResultAvailable( QUERY_KEY_1 );
+
+        // assert
+        assertThat( result, equalTo( false ) );
+        assertThat( cache.getStaleEntries(), equalTo( 1L ) );
+        assertThat( cache.getDiskSize(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void testSaveQueryResult_DiskBudgetExceeded_expectLeastRecentlyUsedEvicted() throws Exception {
+        // arrange
+        SearchQueryCache cache = new SearchQueryCache( indexFolder, 20L, SearchQueryCache.DEFAULT_MAX_HEAP_SIZE );
+        cache.saveQueryResult( QUERY_KEY_1, Arrays.asList( "aaaa", "bbbb" ) );
+
+        // act
+        cache.saveQueryResult( QUERY_KEY_2, Arrays.asList( "cccc", "dddd" ) );
+
+        // assert
+        assertThat( cache.isQueryResultAvailable( QUERY_KEY_1 ), equalTo( false ) );
+        assertThat( cache.isQueryResultAvailable( QUERY_KEY_2 ), equalTo( true ) );
+        assertThat( cache.getDiskStatistics().getEvictions(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void testSaveQueryResult_DiskBudgetExceededAfterHeapHit_expectHeapHitEntryKept() throws Exception {
+        // arrange
+        SearchQueryCache cache = new SearchQueryCache( indexFolder, 40L, SearchQueryCache.DEFAULT_MAX_HEAP_SIZE );
+        cache.saveQueryResult( QUERY_KEY_1, Arrays.asList( "aaaa", "bbbb" ) );
+        cache.saveQueryResult( QUERY_KEY_2, Arrays.asList( "cccc", "dddd" ) );
+        cache.loadQueryResult( QUERY_KEY_1 );
+
+        // act
+        cache.saveQueryResult( QUERY_KEY_3, Arrays.asList( "eeee", "ffff" ) );
+
+        // assert
+        assertThat( cache.isQueryResultAvailable( QUERY_KEY_1 ), equalTo( true ) );
+        assertThat( cache.isQueryResultAvailable( QUERY_KEY_2 ), equalTo( false ) );
+        assertThat( cache.getDiskStatistics().getEvictions(), equalTo( 1L ) );
+    }
+
+}
@@ -0,0 +1,122 @@
+package de.mindscan.furiousiron.index.compact;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+
+public class CompactTrigramIndexReaderTest {
+
+    @TempDir
+    Path folder;
+
+    private static final String INDEX_NAME = "inverseTrigram";
+
+    @Test
+    public void testGetPostingList_KnownTrigram_expectSameOrdinals() throws Exception {
+        // arrange
+        createCompactIndex();
+        CompactTrigramIndexReader reader = CompactTrigramIndexReader.open( folder, INDEX_NAME );
+
+        // act
+        PostingListReader result = reader.getPostingList( "bcd" );
+
+        // assert
+        assertThat( result.readAll(), equalTo( createOrdinals( 1000 ) ) );
+    }
+
+    @Test
+    public void testGetPostingList_UnknownTrigram_expectNull() throws Exception {
+        // arrange
+        createCompactIndex();
+        CompactTrigramIndexReader reader = CompactTrigramIndexReader.open( folder, INDEX_NAME );
+
+        // act
+        PostingListReader result = reader.getPostingList( "xyz" );
+
+        // assert
+        assertThat( result == null, equalTo( true ) );
+    }
+
+    @Test
+    public void testGetDocumentCount_KnownTrigrams_expectCounts() throws Exception {
+        // arrange
+        createCompactIndex();
+        CompactTrigramIndexReader reader = CompactTrigramIndexReader.open( folder, INDEX_NAME );
+
+        // act
+        long abc = reader.getDocumentCount( "abc" );
+        long bcd = reader.getDocumentCount( "bcd" );
+        long japanese = reader.getDocumentCount( "あいう" );
+
+        // assert
+        assertThat( reader.size(), equalTo( 3 ) );
+        assertThat( abc, equalTo( 3L ) );
+        assertThat( bcd, equalTo( 1000L ) );
+        assertThat( japanese, equalTo( 1L ) );
+    }
+
+    @Test
+    public void testGetDocumentCount_ShortTrigram_expectZero() throws Exception {
+        // arrange
+        createCompactIndex();
+        CompactTrigramIndexReader reader = CompactTrigramIndexReader.open( folder, INDEX_NAME );
+
+        // act
+        long result = reader.getDocumentCount( "ab" );
+
+        // assert
+        assertThat( result, equalTo( 0L ) );
+    }
+
+    @Test
+    public void testAdd_UnsortedTrigrams_expectIllegalArgumentException() throws Exception {
+        // arrange
+        try (CompactTrigramIndexWriter writer = new CompactTrigramIndexWriter( CompactTrigramIndexFormat.getDictionaryPath( folder, INDEX_NAME ),
+                        CompactTrigramIndexFormat.getPostingsPath( folder, INDEX_NAME ) )) {
+            writer.add( "bcd", new int[] { 1 } );
+
+            // act
+            // assert
+            assertThrows( IllegalArgumentException.class, () -> {
+                writer.add( "abc", new int[] { 1 } );
+            } );
+        }
+    }
+
+    @Test
+    public void testExists_DeletedIndex_expectFalse() throws Exception {
+        // arrange
+        createCompactIndex();
+
+        // act
+        CompactTrigramIndexWriter.delete( folder, INDEX_NAME );
+
+        // assert
+        assertThat( CompactTrigramIndexReader.exists( folder, INDEX_NAME ), equalTo( false ) );
+    }
+
+    private void createCompactIndex() throws Exception {
+        try (CompactTrigramIndexWriter writer = new CompactTrigramIndexWriter( CompactTrigramIndexFormat.getDictionaryPath( folder, INDEX_NAME ),
+                        CompactTrigramIndexFormat.getPostingsPath( folder, INDEX_NAME ) )) {
+            writer.add( "abc", new int[] { 1, 5, 7 } );
+            writer.add( "bcd", createOrdinals( 1000 ) );
+            writer.add( "あいう", new int[] { 42 } );
+        }
+    }
+
+    private int[] createOrdinals( int count ) {
+        int[] ordinals = new int[count];
+        for (int i = 0; i < count; i++) {
+            ordinals[i] = i * 3 + 2;
+        }
+        return ordinals;
+    }
+
+}
@@ -0,0 +1,119 @@
+package de.mindscan.furiousiron.index.metadata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentMetadataFactory;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+public class ColumnarMetadataReaderTest {
+
+    @TempDir
+    Path folder;
+
+    private static DocumentMetadata createMetadata( String key, String path, String filename, String filetype ) {
+        DocumentMetadata metadata = DocumentMetadataFactory.createDocumentMetadata( key, path, filename );
+        metadata.setFileSize( path.length() * 100L );
+        metadata.setNumberOfLines( path.length() );
+        if (filetype != null) {
+            metadata.addClass( "filetype", filetype );
+        }
+        return metadata;
+    }
+
+    private Path writeStore() throws Exception {
+        ColumnarMetadataWriter writer = new ColumnarMetadataWriter();
+        writer.add( 0, createMetadata( "k0", "src/main.py", "main.py", "python" ) );
+        writer.add( 1, createMetadata( "k1", "docs/äöü.md", "äöü.md", "markdown" ) );
+        writer.add( 3, createMetadata( "k3", "src/util.py", "util.py", "python" ) );
+        writer.add( 4, createMetadata( "k4", "LICENSE", "LICENSE", null ) );
+        writer.write( folder );
+        return folder;
+    }
+
+    @Test
+    public void testGetDocumentMetadata_WrittenRow_expectSameMetadata() throws Exception {
+        // arrange
+        ColumnarMetadataReader reader = ColumnarMetadataReader.open( writeStore() );
+
+        // act
+        DocumentMetadata result = reader.getDocumentMetadata( 1, "k1" );
+
+        // assert
+        assertThat( result.getDocumentKey(), equalTo( "k1" ) );
+        assertThat( result.getRelativePath(), equalTo( "docs/äöü.md" ) );
+        assertThat( result.getDocumentSimpleName(), equalTo( "äöü.md" ) );
+        assertThat( result.getFileSize(), equalTo( 1100L ) );
+        assertThat( result.getNumberOfLines(), equalTo( 11L ) );
+        assertThat( result.getClassifierMap().get( "filetype" ), equalTo( "markdown" ) );
+    }
+
+    @Test
+    public void testGetDocumentMetadata_RowWithoutMetadata_expectNull() throws Exception {
+        // arrange
+        ColumnarMetadataReader reader = ColumnarMetadataReader.open( writeStore() );
+
+        // act
+        DocumentMetadata result = reader.getDocumentMetadata( 2, "k2" );
+
+        // assert
+        assertThat( result, nullValue() );
+    }
+
+    @Test
+    public void testGetClassValue_RowWithoutClass_expectNull() throws Exception {
+        // arrange
+        ColumnarMetadataReader reader = ColumnarMetadataReader.open( writeStore() );
+
+        // act
+        String result = reader.getClassValue( 4, "filetype" );
+
+        // assert
+        assertThat( result, nullValue() );
+    }
+
+    @Test
+    public void testFindDocuments_FiletypePython_expectPythonDocuments() throws Exception {
+        // arrange
+        ColumnarMetadataReader reader = ColumnarMetadataReader.open( writeStore() );
+
+        // act
+        DocumentBitmap result = reader.findDocuments( "filetype", "python" );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 0, 3 } ) );
+    }
+
+    @Test
+    public void testRetainDocuments_CandidatesAndUnknownValue_expectEmpty() throws Exception {
+        // arrange
+        ColumnarMetadataReader reader = ColumnarMetadataReader.open( writeStore() );
+        DocumentBitmap candidates = DocumentBitmap.fromSortedOrdinals( new int[] { 0, 1, 3 } );
+
+        // act
+        DocumentBitmap result = reader.retainDocuments( candidates, "filetype", "java" );
+
+        // assert
+        assertThat( result.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void testRetainDocuments_CandidatesAndFiletypePython_expectMatchingCandidates() throws Exception {
+        // arrange
+        ColumnarMetadataReader reader = ColumnarMetadataReader.open( writeStore() );
+        DocumentBitmap candidates = DocumentBitmap.fromSortedOrdinals( new int[] { 1, 3, 4, 100 } );
+
+        // act
+        DocumentBitmap result = reader.retainDocuments( candidates, "filetype", "python" );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 3 } ) );
+    }
+}
@@ -0,0 +1,110 @@
+package de.mindscan.furiousiron.index.pack;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DocumentPackReaderTest {
+
+    @TempDir
+    Path folder;
+
+    private static ByteBuffer toBuffer( String content ) {
+        return ByteBuffer.wrap( content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    @Test
+    public void testGetContentAsCharSequence_PackedDocument_expectSameContent() throws Exception {
+        // arrange
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( folder )) {
+            writer.add( 0, toBuffer( "first\nsecond\n" ) );
+            writer.add( 2, toBuffer( "äöü" ) );
+        }
+        DocumentPackReader reader = DocumentPackReader.open( folder );
+
+        // act
+        CharSequence result = reader.getContentAsCharSequence( 2 );
+
+        // assert
+        assertThat( result.toString(), equalTo( "äöü" ) );
+    }
+
+    @Test
+    public void testGetContent_OrdinalNotPacked_expectNull() throws Exception {
+        // arrange
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( folder )) {
+            writer.add( 0, toBuffer( "first\n" ) );
+            writer.add( 2, toBuffer( "third\n" ) );
+        }
+        DocumentPackReader reader = DocumentPackReader.open( folder );
+
+        // act
+        ByteBuffer result = reader.getContent( 1 );
+
+        // assert
+        assertThat( result, nullValue() );
+    }
+
+    @Test
+    public void testGetLines_MixedLineTerminators_expectLinesWithoutTerminators() throws Exception {
+        // arrange
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( folder )) {
+            writer.add( 0, toBuffer( "zero\r\none\ntwo\r\nthree" ) );
+        }
+        DocumentPackReader reader = DocumentPackReader.open( folder );
+
+        // act
+        List<String> result = reader.getLines( 0, 1, 5 );
+
+        // assert
+        assertThat( reader.getLineCount( 0 ), equalTo( 4 ) );
+        assertThat( result, contains( "one", "two", "three" ) );
+    }
+
+    @Test
+    public void testGetLines_SmallMaximumPackSize_expectContentSpreadOverSeveralPacks() throws Exception {
+        // arrange
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( folder, 64 )) {
+            for (int ordinal = 0; ordinal < 10; ordinal++) {
+                writer.add( ordinal, toBuffer( "document " + ordinal + "\nsecond line of document " + ordinal + "\n" ) );
+            }
+        }
+        DocumentPackReader reader = DocumentPackReader.open( folder );
+
+        // act
+        List<String> result = reader.getLines( 7, 1, 1 );
+
+        // assert
+        assertThat( Files.exists( DocumentPackFormat.getPackPath( folder, 1 ) ), equalTo( true ) );
+        assertThat( result, contains( "second line of document 7" ) );
+    }
+
+    @Test
+    public void testOpenForAppend_ReopenedPacks_expectOldAndNewDocuments() throws Exception {
+        // arrange
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( folder )) {
+            writer.add( 0, toBuffer( "old\n" ) );
+        }
+
+        // act
+        try (DocumentPackWriter writer = DocumentPackWriter.openForAppend( folder )) {
+            writer.add( 1, toBuffer( "new\n" ) );
+        }
+
+        // assert
+        DocumentPackReader reader = DocumentPackReader.open( folder );
+        assertThat( reader.size(), equalTo( 2 ) );
+        assertThat( reader.getLines( 0, 0, 1 ), contains( "old" ) );
+        assertThat( reader.getLines( 1, 0, 1 ), contains( "new" ) );
+    }
+}
@@ -0,0 +1,132 @@
+package de.mindscan.furiousiron.index.positional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+public class PositionalTrigramIndexReaderTest {
+
+    @TempDir
+    Path folder;
+
+    private Path writeIndex() throws Exception {
+        PositionalTrigramIndexWriter writer = new PositionalTrigramIndexWriter();
+        writer.add( 0, Arrays.asList( "public static void main", "    return x;" ) );
+        writer.add( 1, Arrays.asList( "static public void", "aaaaaa" ) );
+        writer.add( 3, Arrays.asList( "public class Foo", "Static int x" ) );
+        writer.write( folder );
+        return folder;
+    }
+
+    @Test
+    public void testPositions_TrigramInSecondLine_expectLineAndColumnOfTrimmedLine() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+        PositionalPostingsIterator iterator = reader.getPositionalPostings( "ret" );
+
+        // act
+        int resultOrdinal = iterator.next();
+        long[] resultPositions = iterator.positions();
+
+        // assert
+        assertThat( resultOrdinal, equalTo( 0 ) );
+        assertThat( resultPositions, equalTo( new long[] { PositionalTrigramIndexFormat.toPosition( 1, 0 ) } ) );
+    }
+
+    @Test
+    public void testAdvance_SkippedPositions_expectPositionsOfTargetDocument() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+        PositionalPostingsIterator iterator = reader.getPositionalPostings( "pub" );
+
+        // act
+        int resultOrdinal = iterator.advance( 1 );
+        long[] resultPositions = iterator.positions();
+
+        // assert
+        assertThat( resultOrdinal, equalTo( 1 ) );
+        assertThat( resultPositions, equalTo( new long[] { PositionalTrigramIndexFormat.toPosition( 0, 7 ) } ) );
+        assertThat( iterator.next(), equalTo( 3 ) );
+        assertThat( iterator.next(), equalTo( PositionalPostingsIterator.NO_MORE_ORDINALS ) );
+    }
+
+    @Test
+    public void testContains_CoveredAndMissingDocument_expectOnlyCoveredDocument() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+
+        // act
+        boolean resultCoveredDocument = reader.contains( 3 );
+        boolean resultMissingDocument = reader.contains( 2 );
+
+        // assert
+        assertThat( resultCoveredDocument, equalTo( true ) );
+        assertThat( resultMissingDocument, equalTo( false ) );
+    }
+
+    @Test
+    public void testFindDocuments_PhraseAndSameWordsInOtherOrder_expectOnlyAdjacentWords() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+
+        // act
+        DocumentBitmap result = PhraseMatcher.findDocuments( reader, "public static", null );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 0 } ) );
+    }
+
+    @Test
+    public void testFindDocuments_PhraseAcrossLines_expectNoDocument() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+
+        // act
+        DocumentBitmap result = PhraseMatcher.findDocuments( reader, "class foo static", null );
+
+        // assert
+        assertThat( result.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void testFindDocuments_PhraseWithRepeatedTrigram_expectDocumentWithPhrase() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+
+        // act
+        DocumentBitmap result = PhraseMatcher.findDocuments( reader, "aaaaaa", null );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 1 } ) );
+    }
+
+    @Test
+    public void testFindDocuments_PhraseInDocumentOutsideCandidates_expectNoDocument() throws Exception {
+        // arrange
+        PositionalTrigramIndexReader reader = PositionalTrigramIndexReader.open( writeIndex() );
+
+        // act
+        DocumentBitmap result = PhraseMatcher.findDocuments( reader, "static int", DocumentBitmap.fromSortedOrdinals( new int[] { 0, 1 } ) );
+
+        // assert
+        assertThat( result.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void testGetCoveringOffsets_SevenCharacters_expectLastTrigramOverlapping() throws Exception {
+        // arrange
+        // act
+        int[] result = PhraseMatcher.getCoveringOffsets( 7 );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 0, 3, 4 } ) );
+    }
+
+}
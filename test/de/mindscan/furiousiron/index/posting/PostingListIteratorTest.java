@@ -0,0 +1,114 @@
+package de.mindscan.furiousiron.index.posting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.junit.jupiter.api.Test;
+
+public class PostingListIteratorTest {
+
+    @Test
+    public void testNext_IterateThreeSegments_expectAllOrdinals() throws Exception {
+        // arrange
+        int[] ordinals = createOrdinals( 300, 5 );
+        PostingListIterator iterator = new PostingListIterator( new PostingListReader( PostingListWriter.encode( ordinals ) ) );
+        int[] result = new int[ordinals.length];
+
+        // act
+        for (int i = 0; i < result.length; i++) {
+            result[i] = iterator.next();
+        }
+
+        // assert
+        assertThat( result, equalTo( ordinals ) );
+        assertThat( iterator.next(), equalTo( PostingListIterator.NO_MORE_ORDINALS ) );
+    }
+
+    @Test
+    public void testAdvance_ContainedOrdinal_expectOrdinal() throws Exception {
+        // arrange
+        PostingListIterator iterator = new PostingListIterator( new PostingListReader( PostingListWriter.encode( createOrdinals( 1000, 3 ) ) ) );
+
+        // act
+        int result = iterator.advance( 7 + 500 * 3 );
+
+        // assert
+        assertThat( result, equalTo( 7 + 500 * 3 ) );
+    }
+
+    @Test
+    public void testAdvance_OrdinalBetweenTwoOrdinals_expectNextGreaterOrdinal() throws Exception {
+        // arrange
+        PostingListIterator iterator = new PostingListIterator( new PostingListReader( PostingListWriter.encode( createOrdinals( 1000, 3 ) ) ) );
+
+        // act
+        int result = iterator.advance( 7 + 500 * 3 + 1 );
+
+        // assert
+        assertThat( result, equalTo( 7 + 501 * 3 ) );
+    }
+
+    @Test
+    public void testAdvance_OrdinalBehindLastOrdinal_expectNoMoreOrdinals() throws Exception {
+        // arrange
+        PostingListIterator iterator = new PostingListIterator( new PostingListReader( PostingListWriter.encode( createOrdinals( 1000, 3 ) ) ) );
+
+        // act
+        int result = iterator.advance( 1000000 );
+
+        // assert
+        assertThat( result, equalTo( PostingListIterator.NO_MORE_ORDINALS ) );
+    }
+
+    @Test
+    public void testAdvance_OrdinalInLastSegment_expectOnlyOneSegmentDecoded() throws Exception {
+        // arrange
+        int[] ordinals = createOrdinals( 100000, 2 );
+        PostingListIterator iterator = new PostingListIterator( new PostingListReader( PostingListWriter.encode( ordinals ) ) );
+
+        // act
+        iterator.advance( ordinals[ordinals.length - 1] );
+
+        // assert
+        assertThat( iterator.getDecodedSegments(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void testAdvance_Version1PostingList_expectNextGreaterOrdinal() throws Exception {
+        // arrange
+        int[] ordinals = createOrdinals( 1000, 3 );
+        PostingListIterator iterator = new PostingListIterator(
+                        new PostingListReader( PostingListWriter.encode( ordinals, ordinals.length, PostingListFormat.VERSION_1 ) ) );
+
+        // act
+        int result = iterator.advance( 7 + 127 * 3 + 1 );
+
+        // assert
+        assertThat( result, equalTo( 7 + 128 * 3 ) );
+    }
+
+    @Test
+    public void testIntersect_FewCandidatesAgainstLargePostingList_expectContainedCandidates() throws Exception {
+        // arrange
+        int[] ordinals = createOrdinals( 100000, 2 );
+        PostingListIterator iterator = new PostingListIterator( new PostingListReader( PostingListWriter.encode( ordinals ) ) );
+        int[] candidates = new int[] { 6, 7, 1001, 50001, 150000, 199999, 200001, 300000 };
+
+        // act
+        int[] result = SortedOrdinals.intersect( candidates, iterator );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 7, 1001, 50001, 199999, 200001 } ) );
+        assertThat( iterator.getDecodedSegments(), lessThan( 10 ) );
+    }
+
+    private int[] createOrdinals( int length, int gap ) {
+        int[] ordinals = new int[length];
+        for (int i = 0; i < length; i++) {
+            ordinals[i] = 7 + i * gap;
+        }
+        return ordinals;
+    }
+
+}
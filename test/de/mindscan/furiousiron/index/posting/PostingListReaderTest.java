@@ -0,0 +1,140 @@
+package de.mindscan.furiousiron.index.posting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+public class PostingListReaderTest {
+
+    @Test
+    public void testReadAll_EncodedEmptyList_expectEmptyArray() throws Exception {
+        // arrange
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( new int[0] ) );
+
+        // act
+        int[] result = reader.readAll();
+
+        // assert
+        assertThat( result.length, equalTo( 0 ) );
+    }
+
+    @Test
+    public void testReadAll_EncodedThreeOrdinals_expectSameOrdinals() throws Exception {
+        // arrange
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( new int[] { 0, 17, 123456 } ) );
+
+        // act
+        int[] result = reader.readAll();
+
+        // assert
+        assertThat( result, equalTo( new int[] { 0, 17, 123456 } ) );
+    }
+
+    @Test
+    public void testReadAll_EncodedMoreOrdinalsThanOneSegment_expectSameOrdinals() throws Exception {
+        // arrange
+        int[] ordinals = createOrdinals( 1000, 3 );
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( ordinals ) );
+
+        // act
+        int[] result = reader.readAll();
+
+        // assert
+        assertThat( result, equalTo( ordinals ) );
+    }
+
+    @Test
+    public void testGetSegmentCount_EncodedMoreOrdinalsThanOneSegment_expectEightSegments() throws Exception {
+        // arrange
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( createOrdinals( 1000, 3 ) ) );
+
+        // act
+        int result = reader.getSegmentCount();
+
+        // assert
+        assertThat( result, equalTo( 8 ) );
+    }
+
+    @Test
+    public void testGetTotalLength_EncodedThousandOrdinals_expectThousand() throws Exception {
+        // arrange
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( createOrdinals( 1000, 3 ) ) );
+
+        // act
+        int result = reader.getTotalLength();
+
+        // assert
+        assertThat( result, equalTo( 1000 ) );
+    }
+
+    @Test
+    public void testCtor_BufferWithoutMagic_throwsIOException() throws Exception {
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate( 32 );
+
+        // act
+        // assert
+        assertThrows( IOException.class, () -> new PostingListReader( buffer ) );
+    }
+
+    @Test
+    public void testEncode_UnsortedOrdinals_throwsIllegalArgumentException() throws Exception {
+        // arrange
+        int[] ordinals = new int[] { 5, 3 };
+
+        // act
+        // assert
+        assertThrows( IllegalArgumentException.class, () -> PostingListWriter.encode( ordinals ) );
+    }
+
+    @Test
+    public void testReadAll_EncodedAsVersion1_expectSameOrdinals() throws Exception {
+        // arrange
+        int[] ordinals = createOrdinals( 1000, 3 );
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( ordinals, ordinals.length, PostingListFormat.VERSION_1 ) );
+
+        // act
+        int[] result = reader.readAll();
+
+        // assert
+        assertThat( result, equalTo( ordinals ) );
+    }
+
+    @Test
+    public void testGetVersion_EncodedWithDefaultVersion_expectVersion2() throws Exception {
+        // arrange
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( createOrdinals( 10, 3 ) ) );
+
+        // act
+        int result = reader.getVersion();
+
+        // assert
+        assertThat( result, equalTo( PostingListFormat.VERSION_2 ) );
+    }
+
+    @Test
+    public void testGetSegmentLastOrdinal_SecondSegment_expectLastOrdinalOfSecondSegment() throws Exception {
+        // arrange
+        PostingListReader reader = new PostingListReader( PostingListWriter.encode( createOrdinals( 1000, 3 ) ) );
+
+        // act
+        int result = reader.getSegmentLastOrdinal( 1 );
+
+        // assert
+        assertThat( result, equalTo( 7 + 255 * 3 ) );
+    }
+
+    private int[] createOrdinals( int length, int gap ) {
+        int[] ordinals = new int[length];
+        for (int i = 0; i < length; i++) {
+            ordinals[i] = 7 + i * gap;
+        }
+        return ordinals;
+    }
+
+}
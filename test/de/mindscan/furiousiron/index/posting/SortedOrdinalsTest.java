@@ -0,0 +1,114 @@
+package de.mindscan.furiousiron.index.posting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.jupiter.api.Test;
+
+public class SortedOrdinalsTest {
+
+    @Test
+    public void testSortedUnique_UnsortedWithDuplicates_expectSortedWithoutDuplicates() throws Exception {
+        // arrange
+        int[] values = new int[] { 5, 3, 5, 1, 3, 9 };
+
+        // act
+        int[] result = SortedOrdinals.sortedUnique( values, values.length );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 1, 3, 5, 9 } ) );
+    }
+
+    @Test
+    public void testSortedUnique_OnlyFirstThreeValid_expectOnlyFirstThreeSorted() throws Exception {
+        // arrange
+        int[] values = new int[] { 7, 2, 4, 1, 0 };
+
+        // act
+        int[] result = SortedOrdinals.sortedUnique( values, 3 );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 2, 4, 7 } ) );
+    }
+
+    @Test
+    public void testSortedUnique_ZeroLength_expectEmptyArray() throws Exception {
+        // arrange
+        int[] values = new int[] { 7, 2 };
+
+        // act
+        int[] result = SortedOrdinals.sortedUnique( values, 0 );
+
+        // assert
+        assertThat( result.length, equalTo( 0 ) );
+    }
+
+    @Test
+    public void testIntersect_OverlappingArrays_expectCommonOrdinals() throws Exception {
+        // arrange
+        int[] left = new int[] { 1, 3, 5, 7, 9 };
+        int[] right = new int[] { 2, 3, 4, 7, 10 };
+
+        // act
+        int[] result = SortedOrdinals.intersect( left, right );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 3, 7 } ) );
+    }
+
+    @Test
+    public void testIntersect_DisjointArrays_expectEmptyArray() throws Exception {
+        // arrange
+        int[] left = new int[] { 1, 3, 5 };
+        int[] right = new int[] { 2, 4, 6 };
+
+        // act
+        int[] result = SortedOrdinals.intersect( left, right );
+
+        // assert
+        assertThat( result.length, equalTo( 0 ) );
+    }
+
+    @Test
+    public void testIntersect_EmptyLeft_expectEmptyArray() throws Exception {
+        // arrange
+        int[] left = new int[0];
+        int[] right = new int[] { 2, 4, 6 };
+
+        // act
+        int[] result = SortedOrdinals.intersect( left, right );
+
+        // assert
+        assertThat( result.length, equalTo( 0 ) );
+    }
+
+    @Test
+    public void testIntersectGalloping_SmallAgainstLarge_expectCommonOrdinals() throws Exception {
+        // arrange
+        int[] smaller = new int[] { 3, 500, 998, 1001 };
+        int[] larger = new int[1000];
+        for (int i = 0; i < larger.length; i++) {
+            larger[i] = i * 2;
+        }
+
+        // act
+        int[] result = SortedOrdinals.intersectGalloping( smaller, larger );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 500, 998 } ) );
+    }
+
+    @Test
+    public void testUnion_OverlappingArrays_expectSortedUniqueOrdinals() throws Exception {
+        // arrange
+        int[] left = new int[] { 1, 4, 9 };
+        int[] right = new int[] { 2, 4, 10, 12 };
+
+        // act
+        int[] result = SortedOrdinals.union( left, right );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 1, 2, 4, 9, 10, 12 } ) );
+    }
+
+}
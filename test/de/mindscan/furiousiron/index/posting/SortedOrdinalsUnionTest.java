@@ -0,0 +1,52 @@
+package de.mindscan.furiousiron.index.posting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class SortedOrdinalsUnionTest {
+
+    @Test
+    public void testUnionAll_ThreeOverlappingArrays_expectSortedUniqueOrdinals() throws Exception {
+        // arrange
+        int[] first = new int[] { 1, 5, 9 };
+        int[] second = new int[] { 2, 5, 10 };
+        int[] third = new int[] { 0, 9, 10, 11 };
+
+        // act
+        int[] result = SortedOrdinalsUnion.unionAll( Arrays.asList( first, second, SortedOrdinals.EMPTY, third ) );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 0, 1, 2, 5, 9, 10, 11 } ) );
+    }
+
+    @Test
+    public void testNext_StopAfterTwoOrdinals_expectSmallestOrdinals() throws Exception {
+        // arrange
+        SortedOrdinalsUnion union = new SortedOrdinalsUnion( Arrays.asList( new int[] { 4, 8 }, new int[] { 3, 4, 100 } ) );
+
+        // act
+        int firstOrdinal = union.next();
+        int secondOrdinal = union.next();
+
+        // assert
+        assertThat( firstOrdinal, equalTo( 3 ) );
+        assertThat( secondOrdinal, equalTo( 4 ) );
+    }
+
+    @Test
+    public void testNext_NoArrays_expectNoMoreOrdinals() throws Exception {
+        // arrange
+        SortedOrdinalsUnion union = new SortedOrdinalsUnion( Arrays.asList() );
+
+        // act
+        int result = union.next();
+
+        // assert
+        assertThat( result, equalTo( SortedOrdinalsUnion.NO_MORE_ORDINALS ) );
+    }
+
+}
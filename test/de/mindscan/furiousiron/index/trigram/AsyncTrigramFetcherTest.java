@@ -0,0 +1,67 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncTrigramFetcherTest {
+
+    @Test
+    public void testFetchDocumentCounts_ThreeTrigrams_expectCountsInOrderOfTrigrams() throws Exception {
+        // arrange
+        AsyncTrigramFetcher fetcher = new AsyncTrigramFetcher( 2 );
+
+        // act
+        List<TrigramOccurrence> result = fetcher.fetchDocumentCounts( Arrays.asList( "abc", "bcd", "cde" ),
+                        trigram -> new TrigramOccurrence( trigram, trigram.charAt( 0 ) ) );
+
+        // assert
+        assertThat( result.stream().map( TrigramOccurrence::getTrigram ).collect( Collectors.toList() ), contains( "abc", "bcd", "cde" ) );
+        assertThat( result.get( 2 ).getOccurrenceCount(), equalTo( (long) 'c' ) );
+        fetcher.shutdown();
+    }
+
+    @Test
+    public void testGet_TrigramWasRequested_expectPostingListLoadedOnlyOnce() throws Exception {
+        // arrange
+        AsyncTrigramFetcher fetcher = new AsyncTrigramFetcher( 1 );
+        AtomicInteger loads = new AtomicInteger();
+        PostingListPrefetch prefetch = fetcher.startPrefetch( trigram -> {
+            loads.incrementAndGet();
+            return new int[] { 1, 2, 3 };
+        } );
+        prefetch.request( "abc" );
+        prefetch.request( "abc" );
+
+        // act
+        int[] result = prefetch.get( "abc" );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 1, 2, 3 } ) );
+        assertThat( loads.get(), equalTo( 1 ) );
+        fetcher.shutdown();
+    }
+
+    @Test
+    public void testGet_TrigramWasNotRequested_expectPostingListLoadedByCaller() throws Exception {
+        // arrange
+        AsyncTrigramFetcher fetcher = new AsyncTrigramFetcher( 1 );
+        PostingListPrefetch prefetch = fetcher.startPrefetch( trigram -> new int[] { 7 } );
+
+        // act
+        int[] result = prefetch.get( "xyz" );
+
+        // assert
+        assertThat( result, equalTo( new int[] { 7 } ) );
+        assertThat( prefetch.isRequested( "xyz" ), equalTo( false ) );
+        fetcher.shutdown();
+    }
+
+}
@@ -0,0 +1,85 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.document.DocumentIdFactory;
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+import de.mindscan.furiousiron.index.posting.PostingListWriter;
+
+public class InverseTrigramIndexTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testSave_AddedAfterFirstSave_expectNextGenerationWritten() throws Exception {
+        // arrange
+        InverseTrigramIndex index = new InverseTrigramIndex( folder, new DocumentOrdinalDictionary() );
+        index.init();
+        index.addTrigramsForDocument( DocumentIdFactory.createDocumentIDFromDocumentKey( "first" ), Arrays.asList( "abc" ) );
+        index.save();
+        index.addTrigramsForDocument( DocumentIdFactory.createDocumentIDFromDocumentKey( "second" ), Arrays.asList( "abc" ) );
+
+        // act
+        index.save();
+
+        // assert
+        Path secondGeneration = TrigramSubPathCalculator.getPathForTrigram( folder.resolve( "inverseTrigram.index" ), "abc",
+                        ".1" + PostingListFormat.POSTING_LIST_SUFFIX );
+        assertThat( Files.exists( secondGeneration ), equalTo( true ) );
+        assertThat( TrigramDocumentCountTable.loadIfExists( folder.resolve( "inverseTrigram.index" ) ).getDocumentCount( "abc" ), equalTo( 2L ) );
+    }
+
+    @Test
+    public void testUseAppendMode_JsonReferencesNotMigrated_expectIllegalStateException() throws Exception {
+        // arrange
+        Path referencePath = TrigramSubPathCalculator.getPathForTrigram( folder.resolve( "inverseTrigram.index" ), "abc", ".0.reference" );
+        Files.createDirectories( referencePath.getParent() );
+        Files.write( referencePath, "{}".getBytes( StandardCharsets.UTF_8 ) );
+        InverseTrigramIndex index = new InverseTrigramIndex( folder, new DocumentOrdinalDictionary() );
+        index.init();
+
+        // act
+        // assert
+        assertThrows( IllegalStateException.class, () -> {
+            index.useAppendMode();
+        } );
+    }
+
+    @Test
+    public void testSave_AppendedToMigratedTrigramWithJsonReferences_expectPostingListAfterFirstPostingList() throws Exception {
+        // arrange
+        Path trigramsBasePath = folder.resolve( "inverseTrigram.index" );
+        Path postingListPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, "abc", ".0" + PostingListFormat.POSTING_LIST_SUFFIX );
+        PostingListWriter.write( postingListPath, new int[] { 0 } );
+        Files.write( TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, "abc", ".0.reference" ), "{}".getBytes( StandardCharsets.UTF_8 ) );
+        Files.write( TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, "abc", ".1.reference" ), "{}".getBytes( StandardCharsets.UTF_8 ) );
+
+        DocumentOrdinalDictionary documentOrdinals = new DocumentOrdinalDictionary();
+        documentOrdinals.getOrCreateOrdinal( "first" );
+        InverseTrigramIndex index = new InverseTrigramIndex( folder, documentOrdinals );
+        index.init();
+        index.useAppendMode();
+        index.addTrigramsForDocument( DocumentIdFactory.createDocumentIDFromDocumentKey( "second" ), Arrays.asList( "abc" ) );
+
+        // act
+        index.save();
+
+        // assert
+        Path appendedPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, "abc", ".1" + PostingListFormat.POSTING_LIST_SUFFIX );
+        assertThat( PostingListReader.readAll( appendedPath ), equalTo( new int[] { 1 } ) );
+    }
+
+}
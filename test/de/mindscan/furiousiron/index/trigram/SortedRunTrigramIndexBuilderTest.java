@@ -0,0 +1,71 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.index.posting.PostingListFormat;
+import de.mindscan.furiousiron.index.posting.PostingListReader;
+
+public class SortedRunTrigramIndexBuilderTest {
+
+    @TempDir
+    Path trigramsBasePath;
+
+    @Test
+    public void testMergeRuns_SmallBudgetManyRuns_expectOnePostingListPerTrigram() throws Exception {
+        // arrange
+        // ten pairs per run
+        SortedRunTrigramIndexBuilder builder = new SortedRunTrigramIndexBuilder( trigramsBasePath, 120L );
+
+        Random random = new Random( 4711L );
+        List<String> trigrams = Arrays.asList( "abc", "bcd", "cde", "xyz", "あいう" );
+        List<TreeSet<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < trigrams.size(); i++) {
+            expected.add( new TreeSet<>() );
+        }
+
+        // documents are added in random order, like the indexing pipeline does
+        for (int document = 0; document < 200; document++) {
+            int ordinal = random.nextInt( 1000 );
+            List<String> documentTrigrams = new ArrayList<>();
+            for (int i = 0; i < trigrams.size(); i++) {
+                if (random.nextBoolean()) {
+                    documentTrigrams.add( trigrams.get( i ) );
+                    expected.get( i ).add( ordinal );
+                }
+            }
+            builder.addTrigramsForDocument( ordinal, documentTrigrams );
+        }
+
+        // act
+        TrigramIndexFlushExecutor flushExecutor = new TrigramIndexFlushExecutor( 2, 4 );
+        TrigramDocumentCountTable result = builder.mergeRuns( flushExecutor );
+        flushExecutor.shutdown();
+
+        // assert
+        for (int i = 0; i < trigrams.size(); i++) {
+            String trigram = trigrams.get( i );
+            int[] expectedOrdinals = expected.get( i ).stream().mapToInt( Integer::intValue ).toArray();
+
+            Path postingListPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, ".0" + PostingListFormat.POSTING_LIST_SUFFIX );
+            Path secondGenerationPath = TrigramSubPathCalculator.getPathForTrigram( trigramsBasePath, trigram, ".1" + PostingListFormat.POSTING_LIST_SUFFIX );
+
+            assertThat( PostingListReader.readAll( postingListPath ), equalTo( expectedOrdinals ) );
+            assertThat( Files.exists( secondGenerationPath ), equalTo( false ) );
+            assertThat( result.getDocumentCount( trigram ), equalTo( (long) expectedOrdinals.length ) );
+        }
+        assertThat( builder.getRunCount(), equalTo( 0 ) );
+    }
+
+}
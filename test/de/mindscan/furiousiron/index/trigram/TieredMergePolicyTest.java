@@ -0,0 +1,89 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class TieredMergePolicyTest {
+
+    @Test
+    public void testGetTier_SizeBelowFirstTierLimit_expectTierZero() throws Exception {
+        // arrange
+        TieredMergePolicy policy = new TieredMergePolicy( 10, 100L );
+
+        // act
+        int result = policy.getTier( 999L );
+
+        // assert
+        assertThat( result, equalTo( 0 ) );
+    }
+
+    @Test
+    public void testGetTier_SizeAtSecondTierLimit_expectTierTwo() throws Exception {
+        // arrange
+        TieredMergePolicy policy = new TieredMergePolicy( 10, 100L );
+
+        // act
+        int result = policy.getTier( 10000L );
+
+        // assert
+        assertThat( result, equalTo( 2 ) );
+    }
+
+    @Test
+    public void testFindTailMerge_LessGenerationsThanMergeFactor_expectNoMerge() throws Exception {
+        // arrange
+        TieredMergePolicy policy = new TieredMergePolicy( 4, 100L );
+
+        // act
+        int result = policy.findTailMerge( new long[] { 10L, 10L, 10L } );
+
+        // assert
+        assertThat( result, equalTo( TieredMergePolicy.NO_MERGE ) );
+    }
+
+    @Test
+    public void testFindTailMerge_LargeSegmentFollowedByEnoughSmallGenerations_expectOnlySmallGenerationsMerged() throws Exception {
+        // arrange
+        TieredMergePolicy policy = new TieredMergePolicy( 4, 100L );
+
+        // act
+        int result = policy.findTailMerge( new long[] { 50000L, 10L, 10L, 10L, 10L } );
+
+        // assert
+        assertThat( result, equalTo( 1 ) );
+    }
+
+    @Test
+    public void testFindTailMerge_LargeSegmentFollowedByFewSmallGenerations_expectNoMerge() throws Exception {
+        // arrange
+        TieredMergePolicy policy = new TieredMergePolicy( 4, 100L );
+
+        // act
+        int result = policy.findTailMerge( new long[] { 50000L, 10L, 10L, 10L } );
+
+        // assert
+        assertThat( result, equalTo( TieredMergePolicy.NO_MERGE ) );
+    }
+
+    @Test
+    public void testFindTailMerge_ManyFullGenerationsAndSmallLastGeneration_expectAllGenerationsMerged() throws Exception {
+        // arrange
+        TieredMergePolicy policy = new TieredMergePolicy( 4, 100L );
+
+        // act
+        int result = policy.findTailMerge( new long[] { 500L, 500L, 500L, 500L, 500L, 20L } );
+
+        // assert
+        assertThat( result, equalTo( 0 ) );
+    }
+
+    @Test
+    public void testCtor_MergeFactorOne_expectIllegalArgumentException() throws Exception {
+        // act + assert
+        assertThrows( IllegalArgumentException.class, () -> new TieredMergePolicy( 1, 100L ) );
+    }
+
+}
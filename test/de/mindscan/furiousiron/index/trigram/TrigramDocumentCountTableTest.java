@@ -0,0 +1,124 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TrigramDocumentCountTableTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testGetDocumentCount_KnownTrigram_expectCount() throws Exception {
+        // arrange
+        TrigramDocumentCountTable table = TrigramDocumentCountTable.fromDocumentCounts( createCounts() );
+
+        // act
+        long result = table.getDocumentCount( "abc" );
+
+        // assert
+        assertThat( result, equalTo( 17L ) );
+    }
+
+    @Test
+    public void testGetDocumentCount_UnknownTrigram_expectZero() throws Exception {
+        // arrange
+        TrigramDocumentCountTable table = TrigramDocumentCountTable.fromDocumentCounts( createCounts() );
+
+        // act
+        long result = table.getDocumentCount( "xyz" );
+
+        // assert
+        assertThat( result, equalTo( 0L ) );
+    }
+
+    @Test
+    public void testLoadIfExists_SavedTable_expectSameCounts() throws Exception {
+        // arrange
+        TrigramDocumentCountTable.fromDocumentCounts( createCounts() ).save( folder );
+
+        // act
+        TrigramDocumentCountTable result = TrigramDocumentCountTable.loadIfExists( folder );
+
+        // assert
+        assertThat( result.size(), equalTo( 3 ) );
+        assertThat( result.getDocumentCount( "あいう" ), equalTo( 123456789012L ) );
+        assertThat( result.getDocumentCount( "ab_" ), equalTo( 4L ) );
+    }
+
+    @Test
+    public void testToDocumentCounts_TableFromCounts_expectSameCounts() throws Exception {
+        // arrange
+        TrigramDocumentCountTable table = TrigramDocumentCountTable.fromDocumentCounts( createCounts() );
+
+        // act
+        Map<String, Long> result = table.toDocumentCounts();
+
+        // assert
+        assertThat( result, equalTo( createCounts() ) );
+    }
+
+    @Test
+    public void testLoadIfExists_NoTable_expectNull() throws Exception {
+        // arrange
+        // act
+        TrigramDocumentCountTable result = TrigramDocumentCountTable.loadIfExists( folder );
+
+        // assert
+        assertThat( result == null, equalTo( true ) );
+    }
+
+    @Test
+    public void testBuild_CountsAddedInTrigramCodeOrder_expectSameCounts() throws Exception {
+        // arrange
+        TrigramDocumentCountTable.Builder builder = TrigramDocumentCountTable.builder();
+
+        // act
+        TrigramDocumentCountTable result = builder.add( TrigramCode.encode( "ab_" ), 4L ).add( TrigramCode.encode( "abc" ), 17L )
+                        .add( TrigramCode.encode( "あいう" ), 123456789012L ).build();
+
+        // assert
+        assertThat( result.toDocumentCounts(), equalTo( createCounts() ) );
+    }
+
+    @Test
+    public void testAdd_TrigramCodeNotIncreasing_expectIllegalArgumentException() throws Exception {
+        // arrange
+        TrigramDocumentCountTable.Builder builder = TrigramDocumentCountTable.builder().add( TrigramCode.encode( "abc" ), 17L );
+
+        // act
+        // assert
+        assertThrows( IllegalArgumentException.class, () -> {
+            builder.add( TrigramCode.encode( "ab_" ), 4L );
+        } );
+    }
+
+    @Test
+    public void testDecode_EncodedTrigram_expectSameTrigram() throws Exception {
+        // arrange
+        long code = TrigramCode.encode( "\u3042b\uffff" );
+
+        // act
+        String result = TrigramCode.decode( code );
+
+        // assert
+        assertThat( result, equalTo( "\u3042b\uffff" ) );
+    }
+
+    private Map<String, Long> createCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put( "abc", 17L );
+        counts.put( "ab_", 4L );
+        counts.put( "あいう", 123456789012L );
+        return counts;
+    }
+
+}
@@ -0,0 +1,113 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexFlushExecutorTest {
+
+    @Test
+    public void testFlushAndAwait_ManyTasksSmallQueues_expectAllTasksWritten() throws Exception {
+        // arrange
+        List<Integer> written = Collections.synchronizedList( new ArrayList<>() );
+        TrigramIndexFlushExecutor executor = new TrigramIndexFlushExecutor( 3, 2 );
+
+        // act
+        for (int i = 0; i < 500; i++) {
+            final int task = i;
+            executor.submit( "t" + (i % 17), () -> written.add( task ) );
+        }
+        executor.flushAndAwait();
+        executor.shutdown();
+
+        // assert
+        assertThat( written.size(), equalTo( 500 ) );
+    }
+
+    @Test
+    public void testFlushAndAwait_SameTrigram_expectTasksWrittenInSubmitOrder() throws Exception {
+        // arrange
+        Map<String, List<Integer>> writtenGenerations = new ConcurrentHashMap<>();
+        TrigramIndexFlushExecutor executor = new TrigramIndexFlushExecutor( 4, 4 );
+
+        // act
+        for (int generation = 0; generation < 200; generation++) {
+            for (String trigram : new String[] { "abc", "bcd", "cde" }) {
+                final int currentGeneration = generation;
+                executor.submit( trigram, () -> writtenGenerations.computeIfAbsent( trigram, key -> new ArrayList<>() ).add( currentGeneration ) );
+            }
+        }
+        executor.flushAndAwait();
+        executor.shutdown();
+
+        // assert
+        List<Integer> expected = new ArrayList<>();
+        for (int generation = 0; generation < 200; generation++) {
+            expected.add( generation );
+        }
+        assertThat( writtenGenerations.get( "abc" ), equalTo( expected ) );
+        assertThat( writtenGenerations.get( "cde" ), equalTo( expected ) );
+    }
+
+    @Test
+    public void testFlushAndAwait_FailingTask_expectIOException() throws Exception {
+        // arrange
+        TrigramIndexFlushExecutor executor = new TrigramIndexFlushExecutor( 2, 4 );
+        executor.submit( "abc", () -> {
+            throw new IOException( "disk full" );
+        } );
+
+        // act
+        // assert
+        IOException result = assertThrows( IOException.class, () -> {
+            executor.flushAndAwait();
+        } );
+        assertThat( result.getMessage(), equalTo( "disk full" ) );
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubmit_PreviousTaskFailed_expectUncheckedIOException() throws Exception {
+        // arrange
+        TrigramIndexFlushExecutor executor = new TrigramIndexFlushExecutor( 1, 4 );
+        executor.submit( "abc", () -> {
+            throw new IOException( "disk full" );
+        } );
+        assertThrows( IOException.class, () -> {
+            executor.flushAndAwait();
+        } );
+
+        // act
+        // assert
+        assertThrows( UncheckedIOException.class, () -> {
+            executor.submit( "bcd", () -> {
+            } );
+        } );
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubmit_ExecutorShutDown_expectIllegalStateException() throws Exception {
+        // arrange
+        TrigramIndexFlushExecutor executor = new TrigramIndexFlushExecutor( 1, 4 );
+        executor.shutdown();
+
+        // act
+        // assert
+        assertThrows( IllegalStateException.class, () -> {
+            executor.submit( "abc", () -> {
+            } );
+        } );
+    }
+
+}
@@ -0,0 +1,57 @@
+package de.mindscan.furiousiron.index.trigram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.mindscan.furiousiron.util.primitive.LongIntHashMap;
+
+public class TrigramTokenizerTest {
+
+    @Test
+    public void testCountTrigrams_RepeatedTrigrams_expectCountsPerTrigram() throws Exception {
+        // arrange
+        LongIntHashMap trigramCounts = new LongIntHashMap();
+
+        // act
+        TrigramTokenizer.countTrigrams( "abcabc", trigramCounts );
+
+        // assert
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put( "abc", 2 );
+        expected.put( "bca", 1 );
+        expected.put( "cab", 1 );
+        assertThat( TrigramTokenizer.toTrigramCountMap( trigramCounts ), equalTo( expected ) );
+    }
+
+    @Test
+    public void testCountTrigrams_TooShortText_expectNoTrigrams() throws Exception {
+        // arrange
+        LongIntHashMap trigramCounts = new LongIntHashMap();
+
+        // act
+        TrigramTokenizer.countTrigrams( "ab", trigramCounts );
+
+        // assert
+        assertThat( trigramCounts.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void testCountTrigrams_HighCharacters_expectSameTrigramsAsSubstrings() throws Exception {
+        // arrange
+        LongIntHashMap trigramCounts = new LongIntHashMap();
+
+        // act
+        TrigramTokenizer.countTrigrams( "￿あい￿", trigramCounts );
+
+        // assert
+        assertThat( TrigramTokenizer.toTrigramSet( trigramCounts ).contains( "￿あい" ), equalTo( true ) );
+        assertThat( TrigramTokenizer.toTrigramSet( trigramCounts ).contains( "あい￿" ), equalTo( true ) );
+        assertThat( trigramCounts.size(), equalTo( 2 ) );
+    }
+
+}
@@ -0,0 +1,79 @@
+package de.mindscan.furiousiron.index.words;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DocumentWordsReaderTest {
+
+    @TempDir
+    Path folder;
+
+    private Path writeStore() throws Exception {
+        DocumentWordsWriter writer = new DocumentWordsWriter();
+        writer.add( 0, Arrays.asList( "createkeystore", "keystore", "main" ) );
+        writer.add( 1, Arrays.asList( "main", "größe" ) );
+        writer.add( 3, Collections.emptyList() );
+        writer.write( folder );
+        return folder;
+    }
+
+    @Test
+    public void testFindWordsContaining_PartOfTwoWords_expectBothWordIds() throws Exception {
+        // arrange
+        DocumentWordsReader reader = DocumentWordsReader.open( writeStore() );
+
+        // act
+        BitSet result = reader.findWordsContaining( "keystor" );
+
+        // assert
+        assertThat( result.cardinality(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void testContainsAnyWord_DocumentContainsWord_expectTrue() throws Exception {
+        // arrange
+        DocumentWordsReader reader = DocumentWordsReader.open( writeStore() );
+        BitSet wordIds = reader.findWordsContaining( "öß" );
+
+        // act
+        boolean result = reader.containsAnyWord( 1, wordIds );
+
+        // assert
+        assertThat( result, equalTo( true ) );
+    }
+
+    @Test
+    public void testContainsAnyWord_DocumentDoesNotContainWord_expectFalse() throws Exception {
+        // arrange
+        DocumentWordsReader reader = DocumentWordsReader.open( writeStore() );
+        BitSet wordIds = reader.findWordsContaining( "keystore" );
+
+        // act
+        boolean result = reader.containsAnyWord( 1, wordIds );
+
+        // assert
+        assertThat( result, equalTo( false ) );
+    }
+
+    @Test
+    public void testContains_DocumentWithoutWordsAndMissingDocument_expectOnlyDocumentWithoutWords() throws Exception {
+        // arrange
+        DocumentWordsReader reader = DocumentWordsReader.open( writeStore() );
+
+        // act
+        boolean resultEmptyDocument = reader.contains( 3 );
+        boolean resultMissingDocument = reader.contains( 2 );
+
+        // assert
+        assertThat( resultEmptyDocument, equalTo( true ) );
+        assertThat( resultMissingDocument, equalTo( false ) );
+    }
+}
@@ -0,0 +1,91 @@
+package de.mindscan.furiousiron.indexer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mindscan.furiousiron.document.DocumentId;
+import de.mindscan.furiousiron.document.DocumentIdFactory;
+import de.mindscan.furiousiron.document.DocumentMetadata;
+import de.mindscan.furiousiron.document.DocumentMetadataFactory;
+import de.mindscan.furiousiron.indexer.pipeline.AnalyzedDocument;
+
+public class SinglePassDocumentAnalyzerTest {
+
+    @TempDir
+    Path folder;
+
+    private static final String CONTENT = "public class Foo {\r\n  int bar;\r\n\n  // Hello World\rlast line";
+
+    @Test
+    public void testSplitLines_MixedLineTerminators_expectSameLinesAsReadAllLines() throws Exception {
+        // arrange
+        Path file = createFile( CONTENT );
+
+        // act
+        List<String> result = SinglePassDocumentAnalyzer.splitLines( CONTENT );
+
+        // assert
+        assertThat( result, equalTo( Files.readAllLines( file ) ) );
+    }
+
+    @Test
+    public void testSplitLines_TrailingLineTerminator_expectNoEmptyLastLine() throws Exception {
+        // arrange
+        String content = "first\nsecond\n";
+
+        // act
+        List<String> result = SinglePassDocumentAnalyzer.splitLines( content );
+
+        // assert
+        assertThat( result, equalTo( List.of( "first", "second" ) ) );
+    }
+
+    @Test
+    public void testAnalyze_SourceFile_expectSameResultAsReadingTheFileForEachStep() throws Exception {
+        // arrange
+        Path file = createFile( CONTENT );
+        DocumentId documentId = DocumentIdFactory.createDocumentID( file, file.getParent() );
+        DocumentMetadata expectedMetadata = DocumentMetadataFactory.createDocumentMetadata( documentId, file );
+        DocumentMetadata metadata = DocumentMetadataFactory.createDocumentMetadata( documentId, file );
+
+        // act
+        AnalyzedDocument result = SinglePassDocumentAnalyzer.analyze( documentId, metadata, file );
+
+        // assert
+        assertThat( result.getTtfList(), equalTo( SimpleWordUtils.buildTrigramTermFrequencyByLines( expectedMetadata, file ) ) );
+        assertThat( result.getUniqueWordlist(), equalTo( SimpleWordUtils.buildUniqueWordlist( expectedMetadata, file ) ) );
+        assertThat( metadata.getNumberOfLines(), equalTo( expectedMetadata.getNumberOfLines() ) );
+        assertThat( result.getContent().remaining(), equalTo( (int) Files.size( file ) ) );
+    }
+
+    @Test
+    public void testAnalyze_MalformedUtf8_expectIOException() throws Exception {
+        // arrange
+        Path file = folder.resolve( "analyzer.txt" );
+        Files.write( file, new byte[] { 'a', 'b', (byte) 0xc3, 'c' } );
+        DocumentId documentId = DocumentIdFactory.createDocumentID( file, file.getParent() );
+
+        // act
+        // assert
+        assertThrows( IOException.class, () -> {
+            SinglePassDocumentAnalyzer.analyze( documentId, DocumentMetadataFactory.createDocumentMetadata( documentId, file ), file );
+        } );
+    }
+
+    private Path createFile( String content ) throws IOException {
+        Path file = folder.resolve( "analyzer.java" );
+        Files.write( file, content.getBytes( StandardCharsets.UTF_8 ) );
+        return file;
+    }
+
+}
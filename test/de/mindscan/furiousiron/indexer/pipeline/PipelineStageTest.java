@@ -0,0 +1,65 @@
+package de.mindscan.furiousiron.indexer.pipeline;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+public class PipelineStageTest {
+
+    @Test
+    public void testFinish_ManyElementsSmallQueue_expectAllElementsProcessed() throws Exception {
+        // arrange
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        PipelineStage<Integer> stage = new PipelineStage<>( "test", 4, 2 );
+        stage.start( processed::add );
+
+        // act
+        for (int i = 0; i < 1000; i++) {
+            stage.put( i );
+        }
+        stage.finish();
+
+        // assert
+        assertThat( processed.size(), equalTo( 1000 ) );
+        assertThat( stage.getProcessedCount(), equalTo( 1000L ) );
+    }
+
+    @Test
+    public void testFinish_ProcessorThrows_expectFailedElementsCountedAndOthersProcessed() throws Exception {
+        // arrange
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        PipelineStage<Integer> stage = new PipelineStage<>( "test", 2, 16 );
+        stage.start( element -> {
+            if (element % 10 == 0) {
+                throw new IllegalStateException( "failed" );
+            }
+            processed.add( element );
+        } );
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            stage.put( i );
+        }
+        stage.finish();
+
+        // assert
+        assertThat( processed.size(), equalTo( 90 ) );
+        assertThat( stage.getFailedCount(), equalTo( 10L ) );
+    }
+
+    @Test
+    public void testPipelineStage_NoWorkers_expectIllegalArgumentException() throws Exception {
+        // arrange
+        // act
+        // assert
+        assertThrows( IllegalArgumentException.class, () -> {
+            new PipelineStage<Integer>( "test", 0, 16 );
+        } );
+    }
+
+}
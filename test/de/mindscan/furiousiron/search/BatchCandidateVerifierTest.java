@@ -0,0 +1,39 @@
+package de.mindscan.furiousiron.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+public class BatchCandidateVerifierTest {
+
+    @Test
+    public void testVerify_ManyCandidatesSplitIntoRanges_expectEveryMatchingCandidate() throws Exception {
+        // arrange
+        BatchCandidateVerifier verifier = new BatchCandidateVerifier( ForkJoinPool.commonPool(), 16 );
+        DocumentBitmap candidates = DocumentBitmap.fromSortedOrdinals( IntStream.range( 0, 200000 ).map( i -> i * 3 ).toArray() );
+
+        // act
+        DocumentBitmap result = verifier.verify( candidates, ordinal -> ordinal % 2 == 0 );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( IntStream.range( 0, 200000 ).map( i -> i * 3 ).filter( i -> i % 2 == 0 ).toArray() ) );
+    }
+
+    @Test
+    public void testVerify_NoCandidates_expectEmpty() throws Exception {
+        // arrange
+        BatchCandidateVerifier verifier = new BatchCandidateVerifier();
+
+        // act
+        DocumentBitmap result = verifier.verify( new DocumentBitmap(), ordinal -> true );
+
+        // assert
+        assertThat( result.isEmpty(), equalTo( true ) );
+    }
+}
@@ -0,0 +1,32 @@
+package de.mindscan.furiousiron.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.jupiter.api.Test;
+
+import de.mindscan.furiousiron.document.DocumentOrdinalDictionary;
+import de.mindscan.furiousiron.util.bitmap.DocumentBitmap;
+
+public class HFBFilterCandidatesTest {
+
+    @Test
+    public void testOf_CandidateWasRemoved_expectRemovedCandidateSkipped() throws Exception {
+        // arrange
+        DocumentOrdinalDictionary documentOrdinals = new DocumentOrdinalDictionary();
+        documentOrdinals.getOrCreateOrdinal( "0123456789abcdef0123456789abcdef" );
+        documentOrdinals.getOrCreateOrdinal( "fedcba9876543210fedcba9876543210" );
+        documentOrdinals.getOrCreateOrdinal( "00000000000000000000000000000001" );
+        documentOrdinals.removeDocument( "fedcba9876543210fedcba9876543210" );
+
+        DocumentBitmap candidates = DocumentBitmap.fromSortedOrdinals( new int[] { 0, 1, 2 } );
+
+        // act
+        HFBFilterCandidates result = HFBFilterCandidates.of( candidates, documentOrdinals );
+
+        // assert
+        assertThat( result.size(), equalTo( 2 ) );
+        assertThat( result.toDocumentBitmap().toSortedOrdinals(), equalTo( new int[] { 0, 2 } ) );
+    }
+
+}
@@ -0,0 +1,77 @@
+package de.mindscan.furiousiron.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SearchQueryLogTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testNormalise_MixedCaseAndWhiteSpace_expectLowerCaseSingleSpaces() throws Exception {
+        // arrange
+        String query = "  Create\tKeyStore   now ";
+
+        // act
+        String result = SearchQueryLog.normalise( query );
+
+        // assert
+        assertThat( result, equalTo( "create keystore now" ) );
+    }
+
+    @Test
+    public void testGetTopQueries_ByFrequency_expectMostFrequentQueryFirst() throws Exception {
+        // arrange
+        SearchQueryLog queryLog = new SearchQueryLog( folder );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "rare", 9000L, 1 );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "Popular", 10L, 5 );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "popular", 30L, 5 );
+
+        // act
+        List<LoggedQuery> result = queryLog.getTopQueries( 1, LoggedQuery.BY_FREQUENCY );
+
+        // assert
+        assertThat( result.size(), equalTo( 1 ) );
+        assertThat( result.get( 0 ).getQuery(), equalTo( "popular" ) );
+        assertThat( result.get( 0 ).getCount(), equalTo( 2L ) );
+        assertThat( result.get( 0 ).getAverageLatencyMicros(), equalTo( 20L ) );
+    }
+
+    @Test
+    public void testGetTopQueries_ByCost_expectMostExpensiveQueryFirst() throws Exception {
+        // arrange
+        SearchQueryLog queryLog = new SearchQueryLog( folder );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "rare", 9000L, 1 );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "popular", 10L, 5 );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "popular", 30L, 5 );
+
+        // act
+        List<LoggedQuery> result = queryLog.getTopQueries( 1, LoggedQuery.BY_COST );
+
+        // assert
+        assertThat( result.get( 0 ).getQuery(), equalTo( "rare" ) );
+    }
+
+    @Test
+    public void testRecord_LogExceedsMaximumSize_expectRotatedLogStillAggregated() throws Exception {
+        // arrange
+        SearchQueryLog queryLog = new SearchQueryLog( folder, 40L );
+        queryLog.record( SearchQueryLog.CONTENT_SEARCH, "first", 10L, 1 );
+
+        // act
+        queryLog.record( SearchQueryLog.METADATA_SEARCH, "second", 10L, 1 );
+
+        // assert
+        assertThat( Files.exists( folder.resolve( SearchQueryLog.QUERY_LOG_FILENAME + SearchQueryLog.ROTATED_LOG_SUFFIX ) ), equalTo( true ) );
+        assertThat( queryLog.aggregate().size(), equalTo( 2 ) );
+    }
+
+}
@@ -0,0 +1,197 @@
+package de.mindscan.furiousiron.util.bitmap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+public class DocumentBitmapTest {
+
+    @Test
+    public void testToSortedOrdinals_FromSortedOrdinals_expectSameOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap bitmap = DocumentBitmap.fromSortedOrdinals( new int[] { 1, 5, 70000, 70001, 1000000 } );
+
+        // act
+        int[] result = bitmap.toSortedOrdinals();
+
+        // assert
+        assertThat( result, equalTo( new int[] { 1, 5, 70000, 70001, 1000000 } ) );
+    }
+
+    @Test
+    public void testToSortedOrdinals_AddedUnsorted_expectSortedOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap bitmap = new DocumentBitmap();
+        bitmap.add( 70000 );
+        bitmap.add( 3 );
+        bitmap.add( 1 );
+        bitmap.add( 3 );
+
+        // act
+        int[] result = bitmap.toSortedOrdinals();
+
+        // assert
+        assertThat( result, equalTo( new int[] { 1, 3, 70000 } ) );
+    }
+
+    @Test
+    public void testGetCardinality_DenseChunk_expectAllOrdinalsCounted() throws Exception {
+        // arrange
+        DocumentBitmap bitmap = DocumentBitmap.fromSortedOrdinals( range( 0, 10000, 1 ) );
+
+        // act
+        int result = bitmap.getCardinality();
+
+        // assert
+        assertThat( result, equalTo( 10000 ) );
+    }
+
+    @Test
+    public void testContains_OrdinalNotAdded_expectFalse() throws Exception {
+        // arrange
+        DocumentBitmap bitmap = DocumentBitmap.fromSortedOrdinals( new int[] { 1, 5, 70000 } );
+
+        // act
+        boolean result = bitmap.contains( 6 );
+
+        // assert
+        assertThat( result, equalTo( false ) );
+    }
+
+    @Test
+    public void testAnd_SparseAndDenseBitmap_expectCommonOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap sparse = DocumentBitmap.fromSortedOrdinals( new int[] { 2, 3, 9998, 70000 } );
+        DocumentBitmap dense = DocumentBitmap.fromSortedOrdinals( range( 0, 10000, 2 ) );
+
+        // act
+        DocumentBitmap result = sparse.and( dense );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 2, 9998 } ) );
+    }
+
+    @Test
+    public void testAnd_TwoDenseBitmaps_expectCommonOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap even = DocumentBitmap.fromSortedOrdinals( range( 0, 20000, 2 ) );
+        DocumentBitmap multiplesOfThree = DocumentBitmap.fromSortedOrdinals( range( 0, 20000, 3 ) );
+
+        // act
+        DocumentBitmap result = even.and( multiplesOfThree );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( range( 0, 20000, 6 ) ) );
+    }
+
+    @Test
+    public void testOr_DisjointChunks_expectAllOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap left = DocumentBitmap.fromSortedOrdinals( new int[] { 1, 2 } );
+        DocumentBitmap right = DocumentBitmap.fromSortedOrdinals( new int[] { 2, 70000 } );
+
+        // act
+        DocumentBitmap result = left.or( right );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 1, 2, 70000 } ) );
+    }
+
+    @Test
+    public void testOr_ResultIsModified_expectOperandsUnchanged() throws Exception {
+        // arrange
+        DocumentBitmap left = DocumentBitmap.fromSortedOrdinals( new int[] { 1, 2 } );
+        DocumentBitmap right = DocumentBitmap.fromSortedOrdinals( new int[] { 70000 } );
+        DocumentBitmap result = left.or( right );
+
+        // act
+        result.add( 3 );
+        result.add( 70001 );
+
+        // assert
+        assertThat( left.toSortedOrdinals(), equalTo( new int[] { 1, 2 } ) );
+        assertThat( right.toSortedOrdinals(), equalTo( new int[] { 70000 } ) );
+    }
+
+    @Test
+    public void testAndNot_DenseMinusSparse_expectRemainingOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap dense = DocumentBitmap.fromSortedOrdinals( range( 0, 5000, 1 ) );
+        DocumentBitmap sparse = DocumentBitmap.fromSortedOrdinals( range( 0, 4998, 1 ) );
+
+        // act
+        DocumentBitmap result = dense.andNot( sparse );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 4998, 4999 } ) );
+    }
+
+    @Test
+    public void testRunOptimize_ConsecutiveOrdinals_expectSameOrdinalsAndSmallerSerialization() throws Exception {
+        // arrange
+        DocumentBitmap bitmap = DocumentBitmap.fromSortedOrdinals( range( 100, 60000, 1 ) );
+        int sizeBefore = bitmap.serialize().remaining();
+
+        // act
+        bitmap.runOptimize();
+
+        // assert
+        assertThat( bitmap.toSortedOrdinals(), equalTo( range( 100, 60000, 1 ) ) );
+        assertThat( bitmap.serialize().remaining() < sizeBefore, equalTo( true ) );
+    }
+
+    @Test
+    public void testAnd_RunOptimizedWithSparse_expectCommonOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap runs = DocumentBitmap.fromSortedOrdinals( range( 100, 60000, 1 ) );
+        runs.runOptimize();
+        DocumentBitmap sparse = DocumentBitmap.fromSortedOrdinals( new int[] { 5, 100, 59999, 60000 } );
+
+        // act
+        DocumentBitmap result = runs.and( sparse );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( new int[] { 100, 59999 } ) );
+    }
+
+    @Test
+    public void testDeserialize_SerializedMixedContainers_expectSameOrdinals() throws Exception {
+        // arrange
+        DocumentBitmap bitmap = DocumentBitmap.fromSortedOrdinals( range( 0, 10000, 1 ) ).or( DocumentBitmap.fromSortedOrdinals( new int[] { 70000, 200000 } ) );
+        bitmap.runOptimize();
+
+        // act
+        DocumentBitmap result = DocumentBitmap.deserialize( bitmap.serialize() );
+
+        // assert
+        assertThat( result.toSortedOrdinals(), equalTo( bitmap.toSortedOrdinals() ) );
+    }
+
+    @Test
+    public void testDeserialize_BadMagic_expectIOException() throws Exception {
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate( 12 );
+        buffer.putInt( 0x12345678 ).putInt( DocumentBitmap.VERSION_1 ).putInt( 0 );
+        buffer.flip();
+
+        // act
+        // assert
+        assertThrows( IOException.class, () -> {
+            DocumentBitmap.deserialize( buffer );
+        } );
+    }
+
+    private static int[] range( int start, int end, int step ) {
+        int[] result = new int[(end - start + step - 1) / step];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = start + i * step;
+        }
+        return result;
+    }
+
+}
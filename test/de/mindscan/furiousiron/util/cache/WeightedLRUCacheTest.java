@@ -0,0 +1,84 @@
+package de.mindscan.furiousiron.util.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.jupiter.api.Test;
+
+public class WeightedLRUCacheTest {
+
+    @Test
+    public void testGet_LoadedTwice_expectOneMissAndOneHit() throws Exception {
+        // arrange
+        WeightedLRUCache<String, String> cache = new WeightedLRUCache<>( 100L, value -> value.length() );
+        cache.get( "key", key -> "value" );
+
+        // act
+        String result = cache.get( "key", key -> "other" );
+
+        // assert
+        assertThat( result, equalTo( "value" ) );
+        assertThat( cache.getStatistics().getHits(), equalTo( 1L ) );
+        assertThat( cache.getStatistics().getMisses(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void testPut_WeightExceedsMaximum_expectLeastRecentlyUsedEvicted() throws Exception {
+        // arrange
+        WeightedLRUCache<String, String> cache = new WeightedLRUCache<>( 10L, value -> value.length() );
+        cache.put( "a", "aaaa" );
+        cache.put( "b", "bbbb" );
+        cache.getIfPresent( "a" );
+
+        // act
+        cache.put( "c", "cccc" );
+
+        // assert
+        assertThat( cache.getIfPresent( "b" ), nullValue() );
+        assertThat( cache.getIfPresent( "a" ), equalTo( "aaaa" ) );
+        assertThat( cache.getStatistics().getEvictions(), equalTo( 1L ) );
+        assertThat( cache.getCurrentWeight(), equalTo( 8L ) );
+    }
+
+    @Test
+    public void testPut_ValueHeavierThanMaximum_expectNotCached() throws Exception {
+        // arrange
+        WeightedLRUCache<String, String> cache = new WeightedLRUCache<>( 3L, value -> value.length() );
+
+        // act
+        cache.put( "a", "aaaa" );
+
+        // assert
+        assertThat( cache.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void testPut_ReplaceValue_expectWeightOfNewValue() throws Exception {
+        // arrange
+        WeightedLRUCache<String, String> cache = new WeightedLRUCache<>( 10L, value -> value.length() );
+        cache.put( "a", "aaaa" );
+
+        // act
+        cache.put( "a", "aa" );
+
+        // assert
+        assertThat( cache.getCurrentWeight(), equalTo( 2L ) );
+    }
+
+    @Test
+    public void testInvalidate_CachedValue_expectRemovedAndWeightReduced() throws Exception {
+        // arrange
+        WeightedLRUCache<String, String> cache = new WeightedLRUCache<>( 10L, value -> value.length() );
+        cache.put( "a", "aaaa" );
+        cache.put( "b", "bb" );
+
+        // act
+        cache.invalidate( "a" );
+
+        // assert
+        assertThat( cache.peek( "a" ), equalTo( null ) );
+        assertThat( cache.getCurrentWeight(), equalTo( 2L ) );
+    }
+
+}
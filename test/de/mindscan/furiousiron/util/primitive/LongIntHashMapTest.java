@@ -0,0 +1,76 @@
+package de.mindscan.furiousiron.util.primitive;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testAddTo_SameKeyTwice_expectSummedValue() throws Exception {
+        // arrange
+        LongIntHashMap map = new LongIntHashMap();
+        map.addTo( 42L, 1 );
+
+        // act
+        int result = map.addTo( 42L, 2 );
+
+        // assert
+        assertThat( result, equalTo( 3 ) );
+        assertThat( map.size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void testGet_UnknownKey_expectZero() throws Exception {
+        // arrange
+        LongIntHashMap map = new LongIntHashMap();
+        map.addTo( 42L, 1 );
+
+        // act
+        int result = map.get( 43L );
+
+        // assert
+        assertThat( result, equalTo( 0 ) );
+        assertThat( map.containsKey( 43L ), equalTo( false ) );
+    }
+
+    @Test
+    public void testAddTo_ManyRandomKeys_expectSameCountsAsHashMap() throws Exception {
+        // arrange
+        Random random = new Random( 4711L );
+        LongIntHashMap map = new LongIntHashMap( 4 );
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // act
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt( 20000 ) * 65536L;
+            map.addTo( key, 1 );
+            expected.merge( key, 1, Integer::sum );
+        }
+
+        // assert
+        Map<Long, Integer> result = new HashMap<>();
+        map.forEach( ( key, value ) -> result.put( key, value ) );
+        assertThat( result, equalTo( expected ) );
+        assertThat( map.keys().length, equalTo( expected.size() ) );
+    }
+
+    @Test
+    public void testAddTo_NegativeKey_expectIllegalArgumentException() throws Exception {
+        // arrange
+        LongIntHashMap map = new LongIntHashMap();
+
+        // act
+        // assert
+        assertThrows( IllegalArgumentException.class, () -> {
+            map.addTo( -1L, 1 );
+        } );
+    }
+
+}